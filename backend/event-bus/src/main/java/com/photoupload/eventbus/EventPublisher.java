@@ -1,5 +1,7 @@
 package com.photoupload.eventbus;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface Segregation Principle: Focused interface for event publishing.
  * Strategy Pattern: Multiple implementations (RabbitMQ, Kafka, Database fallback).
@@ -30,8 +32,40 @@ public interface EventPublisher {
      * @param event         Event object
      * @param correlationId Correlation ID for request tracing
      * @param <T>           Event type
+     * @return completes once the event has been handed on: accepted by the broker, or stored
+     * for relay when the broker did not take it; callers need not publish it again
+     */
+    <T> CompletableFuture<Void> publishWithCorrelation(String topic, T event, String correlationId);
+
+    /**
+     * Publish an already serialized event and wait until the broker has accepted it.
+     * Used to relay events stored while the broker was unavailable.
+     *
+     * @param topic         Topic or queue name
+     * @param eventType     Simple class name of the event
+     * @param payload       Event as JSON
+     * @param correlationId Correlation ID for request tracing, may be null
+     * @throws com.photoupload.common.exception.EventPublishException if the broker did not accept it
+     */
+    void publishSerialized(String topic, String eventType, String payload, String correlationId);
+
+    /**
+     * Publish an already serialized event without waiting for the broker, so that many
+     * events can be in flight at once. Implementations without asynchronous acknowledgements
+     * publish synchronously.
+     *
+     * @return completes once the broker has accepted the event, or exceptionally with an
+     * {@link com.photoupload.common.exception.EventPublishException}
      */
-    <T> void publishWithCorrelation(String topic, T event, String correlationId);
+    default CompletableFuture<Void> publishSerializedAsync(String topic, String eventType, String payload,
+                                                           String correlationId) {
+        try {
+            publishSerialized(topic, eventType, payload, correlationId);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
     /**
      * Check if event bus is available
@@ -0,0 +1,43 @@
+package com.photoupload.eventbus.codec;
+
+import java.io.IOException;
+
+/**
+ * Strategy Pattern: Wire encoding of the com.photoupload.common.event classes.
+ * Events are stored (outbox, fallback table) as JSON and encoded when they are sent,
+ * so the encoding can change without touching stored events. Messages carry the
+ * encoding's name and version in the {@link EventCodecs#ENCODING_HEADER} and
+ * {@link EventCodecs#VERSION_HEADER} headers, from which consumers pick the codec.
+ */
+public interface EventCodec {
+
+    /**
+     * Encoding name sent in the encoding header, e.g. "json"
+     */
+    String name();
+
+    /**
+     * Version of the encoding's layout; consumers decode messages up to their own version
+     */
+    int version();
+
+    /**
+     * MIME type for transports with a content type property
+     */
+    String contentType();
+
+    /**
+     * Encode an event object
+     */
+    byte[] encode(Object event) throws IOException;
+
+    /**
+     * Encode an event already serialized as JSON, without binding it to its class
+     */
+    byte[] encodeJson(String json) throws IOException;
+
+    /**
+     * Decode an event encoded with this codec
+     */
+    <T> T decode(byte[] body, Class<T> type) throws IOException;
+}
@@ -0,0 +1,68 @@
+package com.photoupload.eventbus.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Kafka value deserializer for events.
+ * Decodes with the codec named in the record's encoding headers, the version being 4
+ * big-endian bytes, into the class named by the eventType header; records naming no
+ * event decode to a Map.
+ *
+ * Failures are SerializationExceptions. Wrap it in Spring Kafka's ErrorHandlingDeserializer,
+ * as KafkaConfig does, so an undecodable record reaches the container's error handler
+ * instead of failing every poll.
+ */
+public class EventCodecDeserializer implements Deserializer<Object> {
+
+    private final EventCodecs codecs;
+
+    public EventCodecDeserializer(EventCodecs codecs) {
+        this.codecs = codecs;
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return deserialize(topic, new RecordHeaders(), data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+
+        Class<?> named = EventCodecs.eventClass(text(headers, EventCodecs.EVENT_TYPE_HEADER));
+        try {
+            return codecs.decode(text(headers, EventCodecs.ENCODING_HEADER), version(headers), data,
+                named != null ? named : Map.class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SerializationException("Failed to decode event from " + topic + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String text(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        return header != null && header.value() != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    private static Integer version(Headers headers) {
+        Header header = headers.lastHeader(EventCodecs.VERSION_HEADER);
+        if (header == null || header.value() == null) {
+            return null;
+        }
+        if (header.value().length != Integer.BYTES) {
+            throw new SerializationException("Malformed " + EventCodecs.VERSION_HEADER + " header: "
+                + header.value().length + " bytes");
+        }
+        return ByteBuffer.wrap(header.value()).getInt();
+    }
+}
@@ -0,0 +1,73 @@
+package com.photoupload.eventbus.codec;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * RabbitMQ message converter for events.
+ * Encodes with the publishing {@link EventCodec} and decodes with the codec named in the
+ * message's encoding headers, so listeners receive event objects whichever encoding the
+ * publisher used. The target class is the listener's parameter type, else the class named
+ * by the eventType header; messages naming no event decode to a Map.
+ *
+ * A message that cannot be decoded, e.g. one with a newer encoding version than this
+ * consumer has, fails with a MessageConversionException and is rejected to its DLQ.
+ */
+public class EventCodecMessageConverter implements MessageConverter {
+
+    private final EventCodecs codecs;
+
+    public EventCodecMessageConverter(EventCodecs codecs) {
+        this.codecs = codecs;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        EventCodec codec = codecs.publishing();
+        byte[] body;
+        try {
+            body = codec.encode(object);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to encode " + object.getClass().getSimpleName()
+                + " as " + codec.name(), e);
+        }
+
+        messageProperties.setContentType(codec.contentType());
+        messageProperties.setContentLength(body.length);
+        messageProperties.setHeader(EventCodecs.EVENT_TYPE_HEADER, object.getClass().getSimpleName());
+        messageProperties.setHeader(EventCodecs.ENCODING_HEADER, codec.name());
+        messageProperties.setHeader(EventCodecs.VERSION_HEADER, codec.version());
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        Object encoding = properties.getHeader(EventCodecs.ENCODING_HEADER);
+        Object version = properties.getHeader(EventCodecs.VERSION_HEADER);
+        try {
+            return codecs.decode(
+                encoding != null ? encoding.toString() : null,
+                version instanceof Number number ? Integer.valueOf(number.intValue())
+                    : version != null ? Integer.valueOf(version.toString()) : null,
+                message.getBody(),
+                targetType(properties));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new MessageConversionException("Failed to decode event: " + e.getMessage(), e);
+        }
+    }
+
+    private static Class<?> targetType(MessageProperties properties) {
+        if (properties.getInferredArgumentType() instanceof Class<?> inferred && inferred != Object.class) {
+            return inferred;
+        }
+        Object eventType = properties.getHeader(EventCodecs.EVENT_TYPE_HEADER);
+        Class<?> named = EventCodecs.eventClass(eventType != null ? eventType.toString() : null);
+        return named != null ? named : Map.class;
+    }
+}
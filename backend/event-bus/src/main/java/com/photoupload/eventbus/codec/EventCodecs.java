@@ -0,0 +1,92 @@
+package com.photoupload.eventbus.codec;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of the available {@link EventCodec}s.
+ * Publishers encode with the one named by event.codec.encoding; consumers decode with the
+ * one named in a message's encoding header. Switch publishers to a new encoding only once
+ * every consumer has a codec for it.
+ *
+ * RabbitMQ messages carry the version as an int header; Kafka records as 4 big-endian bytes.
+ * Both name the event's class in the eventType header.
+ */
+@Slf4j
+@Component
+public class EventCodecs {
+
+    public static final String ENCODING_HEADER = "eventEncoding";
+    public static final String VERSION_HEADER = "eventEncodingVersion";
+    public static final String EVENT_TYPE_HEADER = "eventType";
+
+    private static final String EVENT_PACKAGE = "com.photoupload.common.event.";
+    private static final Pattern EVENT_TYPE = Pattern.compile("[A-Za-z][A-Za-z0-9]*");
+
+    private final Map<String, EventCodec> codecs;
+    private final EventCodec publishing;
+
+    public EventCodecs(
+        List<EventCodec> codecs,
+        @Value("${event.codec.encoding:json}") String encoding
+    ) {
+        this.codecs = codecs.stream().collect(Collectors.toMap(EventCodec::name, Function.identity()));
+        this.publishing = this.codecs.get(encoding);
+        if (publishing == null) {
+            throw new IllegalArgumentException("Unknown event encoding: " + encoding + ", available: " + this.codecs.keySet());
+        }
+        log.info("Publishing events encoded as {} v{}", publishing.name(), publishing.version());
+    }
+
+    /**
+     * Codec that published events are encoded with
+     */
+    public EventCodec publishing() {
+        return publishing;
+    }
+
+    /**
+     * Decode a received event by its encoding headers
+     *
+     * @param encoding Value of the encoding header; messages without one are JSON
+     * @param version  Value of the version header, may be null
+     * @param body     Message body
+     * @param type     Event class
+     * @throws IllegalArgumentException if there is no codec for the encoding, or it is older than the message
+     */
+    public <T> T decode(String encoding, Integer version, byte[] body, Class<T> type) throws IOException {
+        EventCodec codec = codecs.get(encoding != null ? encoding : JsonEventCodec.NAME);
+        if (codec == null) {
+            throw new IllegalArgumentException("Unsupported event encoding: " + encoding);
+        }
+        if (version != null && version > codec.version()) {
+            throw new IllegalArgumentException("Unsupported event encoding version: " + encoding + " v" + version
+                + ", supported up to v" + codec.version());
+        }
+        return codec.decode(body, type);
+    }
+
+    /**
+     * Event class named by an eventType header, the simple name of a com.photoupload.common.event class
+     *
+     * @return the class, or null if the header is missing or names no event
+     */
+    public static Class<?> eventClass(String eventType) {
+        if (eventType == null || !EVENT_TYPE.matcher(eventType).matches()) {
+            return null;
+        }
+        try {
+            return Class.forName(EVENT_PACKAGE + eventType);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.photoupload.eventbus.config;
+
+import com.photoupload.eventbus.codec.EventCodecDeserializer;
+import com.photoupload.eventbus.codec.EventCodecs;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+
+/**
+ * Kafka consumer configuration.
+ * Values are decoded by the event codecs; the producer side is configured in application.yml.
+ */
+@Configuration
+@ConditionalOnProperty(name = "event.publisher", havingValue = "kafka")
+public class KafkaConfig {
+
+    /**
+     * Replace the configured value deserializer with the event codec deserializer, behind an
+     * ErrorHandlingDeserializer so an undecodable record goes to the container's error handler
+     */
+    @Bean
+    public DefaultKafkaConsumerFactoryCustomizer eventCodecConsumerFactoryCustomizer(EventCodecs codecs) {
+        return factory -> {
+            @SuppressWarnings("unchecked")
+            DefaultKafkaConsumerFactory<Object, Object> consumerFactory = (DefaultKafkaConsumerFactory<Object, Object>) factory;
+            consumerFactory.setValueDeserializer(new ErrorHandlingDeserializer<>(new EventCodecDeserializer(codecs)));
+        };
+    }
+}
@@ -1,11 +1,12 @@
 package com.photoupload.eventbus.config;
 
+import com.photoupload.eventbus.codec.EventCodecMessageConverter;
+import com.photoupload.eventbus.codec.EventCodecs;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
@@ -54,20 +55,23 @@ public class RabbitMQConfig {
     }
 
     /**
-     * Message converter for JSON serialization
+     * Message converter encoding and decoding events with the event codecs, by the encoding headers
      */
     @Bean
-    public MessageConverter messageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public MessageConverter messageConverter(EventCodecs codecs) {
+        return new EventCodecMessageConverter(codecs);
     }
 
     /**
-     * RabbitTemplate with JSON converter
+     * RabbitTemplate with the event codec converter.
+     * Mandatory, so that an event no queue is bound for is returned rather than dropped;
+     * with publisher returns enabled the return is attached to the send's CorrelationData.
      */
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(messageConverter);
+        template.setMandatory(true);
         return template;
     }
 
@@ -0,0 +1,68 @@
+package com.photoupload.eventbus.fallback;
+
+import com.photoupload.common.exception.EventPublishException;
+import com.photoupload.eventbus.EventPublisher;
+import com.photoupload.eventbus.impl.DatabaseFallbackPublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Relays events from the {@link FallbackEventStore} to the broker once it accepts them again.
+ * Events go out oldest first and the relay stops at the first one the broker refuses, so
+ * consumers see them in publish order. Publishers keep routing new events to the store
+ * until it is empty, after which they send directly again.
+ */
+@Slf4j
+@Component
+public class FallbackEventRelay {
+
+    private final FallbackEventStore fallbackStore;
+    private final EventPublisher eventPublisher;
+
+    @Value("${event.fallback.relay-batch-size:500}")
+    private int batchSize;
+
+    public FallbackEventRelay(FallbackEventStore fallbackStore, EventPublisher eventPublisher) {
+        this.fallbackStore = fallbackStore;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Scheduled(fixedDelayString = "${event.fallback.relay-interval-ms:1000}")
+    public void relay() {
+        if (eventPublisher instanceof DatabaseFallbackPublisher) {
+            // No broker to relay to; events stay stored until one is configured
+            return;
+        }
+
+        try {
+            if (!fallbackStore.refreshStoredEvents()) {
+                return;
+            }
+
+            int total = 0;
+            int relayed;
+            do {
+                relayed = fallbackStore.drain(batchSize, this::send);
+                total += Math.max(relayed, 0);
+            } while (relayed == batchSize);
+
+            if (total > 0) {
+                log.info("Relayed stored events to {}: count={}", eventPublisher.getPublisherType(), total);
+            }
+        } catch (Exception e) {
+            log.error("Failed to relay stored events", e);
+        }
+    }
+
+    private boolean send(FallbackEventStore.StoredEvent event) {
+        try {
+            eventPublisher.publishSerialized(event.topic(), event.eventType(), event.payload(), event.correlationId());
+            return true;
+        } catch (EventPublishException e) {
+            log.warn("{} still not accepting events, relay paused: {}", eventPublisher.getPublisherType(), e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.photoupload.eventbus.fallback;
+
+import com.photoupload.eventbus.relay.RelayLock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Holds events the broker could not take, in the fallback_events table.
+ * Publishing threads only append to a bounded in-memory buffer; one writer thread flushes
+ * it in batches, when a batch is full or the flush interval has passed since its first
+ * event. Batches are one JDBC batch statement, which the PostgreSQL driver rewrites into
+ * multi-row INSERTs (reWriteBatchedInserts on the datasource URL), so thousands of events
+ * per second cost a few round trips rather than one each. The single writer keeps the
+ * table's id order equal to publish order. A batch the database keeps refusing is retried
+ * a bounded number of times and then dropped, logged and counted, so that an outage shows
+ * up at once instead of silently filling the buffer.
+ *
+ * While anything is buffered or stored, {@link #hasBacklog()} is true and publishers route
+ * new events here too, so that events reach the broker in order once it is back.
+ */
+@Slf4j
+@Component
+public class FallbackEventStore {
+
+    private static final String RELAY_LEASE = "fallback_events";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO fallback_events (topic, event_type, payload, correlation_id, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RelayLock relayLock;
+    private final BlockingQueue<StoredEvent> buffer;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final int maxWriteAttempts;
+    private final Duration relayLease;
+    private final Thread writer;
+    // Accepted but not yet written; covers events the writer has taken off the buffer
+    private final AtomicInteger unwritten = new AtomicInteger();
+
+    private final Counter stored;
+    private final Counter relayed;
+    private final Counter dropped;
+
+    private volatile boolean running = true;
+    private volatile boolean storedEvents;
+    private long writes;
+
+    public FallbackEventStore(
+        JdbcTemplate jdbcTemplate,
+        RelayLock relayLock,
+        MeterRegistry meterRegistry,
+        @Value("${event.fallback.buffer-capacity:50000}") int bufferCapacity,
+        @Value("${event.fallback.batch-size:500}") int batchSize,
+        @Value("${event.fallback.flush-interval-ms:200}") long flushIntervalMs,
+        @Value("${event.fallback.max-write-attempts:10}") int maxWriteAttempts,
+        @Value("${event.fallback.relay-lease-ms:60000}") long relayLeaseMs
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.relayLock = relayLock;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxWriteAttempts = maxWriteAttempts;
+        this.relayLease = Duration.ofMillis(relayLeaseMs);
+
+        this.stored = fallbackCounter(meterRegistry, "stored");
+        this.relayed = fallbackCounter(meterRegistry, "relayed");
+        this.dropped = fallbackCounter(meterRegistry, "dropped");
+        Gauge.builder("event.fallback.buffered", buffer, BlockingQueue::size)
+            .description("Events waiting in memory to be written to the fallback table")
+            .register(meterRegistry);
+
+        this.writer = new Thread(this::runWriter, "event-fallback-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queue an event for the fallback table; never blocks the publisher. When the buffer is
+     * full (the database is down as well) the event is dropped and counted.
+     */
+    public void store(String topic, String eventType, String payload, String correlationId) {
+        StoredEvent event = new StoredEvent(null, topic, eventType, payload, correlationId, Instant.now());
+        unwritten.incrementAndGet();
+        if (!buffer.offer(event)) {
+            unwritten.decrementAndGet();
+            dropped.increment();
+            log.error("Event fallback buffer full, dropping event: topic={}, eventType={}, correlationId={}",
+                topic, eventType, correlationId);
+        }
+    }
+
+    /**
+     * Whether events are buffered or stored and not yet relayed
+     */
+    public boolean hasBacklog() {
+        return storedEvents || unwritten.get() > 0;
+    }
+
+    /**
+     * Re-read whether the table holds events, including those stored by other replicas
+     */
+    public boolean refreshStoredEvents() {
+        long writesBefore;
+        synchronized (this) {
+            writesBefore = writes;
+        }
+        Boolean exists = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM fallback_events)", Boolean.class);
+        synchronized (this) {
+            // A write that raced the query may not have been visible to it
+            if (writes == writesBefore) {
+                storedEvents = Boolean.TRUE.equals(exists);
+            }
+            return storedEvents;
+        }
+    }
+
+    /**
+     * Relay the oldest stored events in id order, deleting each prefix that was sent.
+     * Only the replica holding the relay lease drains, so order holds across replicas.
+     * Sending stops halfway through the lease, so that the last send, bounded by the
+     * publisher's own timeouts, ends before the lease can pass to another replica.
+     *
+     * @param sender sends one event and returns false if the broker did not take it; draining stops there
+     * @return number of events relayed, or -1 if another replica is draining
+     */
+    public int drain(int limit, Predicate<StoredEvent> sender) {
+        if (!relayLock.tryAcquire(RELAY_LEASE, relayLease)) {
+            return -1;
+        }
+
+        try {
+            long sendUntil = System.nanoTime() + relayLease.toNanos() / 2;
+            List<StoredEvent> events = jdbcTemplate.query(
+                "SELECT id, topic, event_type, payload, correlation_id, created_at FROM fallback_events ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new StoredEvent(rs.getLong("id"), rs.getString("topic"), rs.getString("event_type"),
+                    rs.getString("payload"), rs.getString("correlation_id"), rs.getTimestamp("created_at").toInstant()),
+                limit);
+
+            List<Object[]> sent = new ArrayList<>();
+            for (StoredEvent event : events) {
+                if (System.nanoTime() - sendUntil > 0 || !sender.test(event)) {
+                    break;
+                }
+                sent.add(new Object[]{event.id()});
+            }
+
+            if (!sent.isEmpty()) {
+                jdbcTemplate.batchUpdate("DELETE FROM fallback_events WHERE id = ?", sent);
+                relayed.increment(sent.size());
+            }
+            return sent.size();
+        } finally {
+            relayLock.release(RELAY_LEASE);
+        }
+    }
+
+    private void runWriter() {
+        List<StoredEvent> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                StoredEvent first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Fill the batch until it is full or the flush interval since its first event has passed
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    StoredEvent next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                write(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                if (!running) {
+                    // Shutting down: flush what is left without waiting
+                    buffer.drainTo(batch);
+                    writeQuietly(batch);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the batch, retrying with backoff while the database is unavailable, up to
+     * maxWriteAttempts; new events keep buffering meanwhile
+     */
+    private void write(List<StoredEvent> batch) throws InterruptedException {
+        long backoffMs = 100;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                insert(batch);
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    throw new InterruptedException("Shutting down");
+                }
+                if (attempt >= maxWriteAttempts) {
+                    drop(batch, "after " + attempt + " attempts", e);
+                    return;
+                }
+                log.warn("Failed to write fallback events, retrying: count={}, attempt={}, error={}",
+                    batch.size(), attempt, e.getMessage());
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, 5000);
+            }
+        }
+    }
+
+    private void writeQuietly(List<StoredEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            insert(batch);
+        } catch (RuntimeException e) {
+            drop(batch, "on shutdown", e);
+        }
+    }
+
+    private void drop(List<StoredEvent> batch, String when, RuntimeException cause) {
+        unwritten.addAndGet(-batch.size());
+        dropped.increment(batch.size());
+        log.error("Failed to write fallback events {}, dropped: count={}, first correlationId={}",
+            when, batch.size(), batch.get(0).correlationId(), cause);
+    }
+
+    private void insert(List<StoredEvent> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+            ps.setString(1, event.topic());
+            ps.setString(2, event.eventType());
+            ps.setString(3, event.payload());
+            ps.setString(4, event.correlationId());
+            ps.setTimestamp(5, Timestamp.from(event.createdAt()));
+        });
+        synchronized (this) {
+            writes++;
+            storedEvents = true;
+        }
+        unwritten.addAndGet(-batch.size());
+        stored.increment(batch.size());
+        log.debug("Fallback events written: count={}", batch.size());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private static Counter fallbackCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("event.fallback.events")
+            .description("Events through the database fallback by outcome")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    /**
+     * An event as stored; id is null until written
+     */
+    public record StoredEvent(Long id, String topic, String eventType, String payload, String correlationId,
+                              Instant createdAt) {
+    }
+}
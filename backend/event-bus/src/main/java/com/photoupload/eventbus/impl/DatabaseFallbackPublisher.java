@@ -1,15 +1,19 @@
 package com.photoupload.eventbus.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.photoupload.common.domain.ProcessingQueue;
 import com.photoupload.eventbus.EventPublisher;
+import com.photoupload.eventbus.fallback.FallbackEventStore;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Database fallback publisher for when message queue is unavailable.
  * Implements Fallback pattern: Graceful degradation when primary service fails.
+ * Every event goes to the {@link FallbackEventStore}; once event.publisher is switched back
+ * to a broker, that broker's relay delivers them in order.
  */
 @Slf4j
 @Service
@@ -17,9 +21,11 @@ import org.springframework.stereotype.Service;
 public class DatabaseFallbackPublisher implements EventPublisher {
 
     private final ObjectMapper objectMapper;
+    private final FallbackEventStore fallbackStore;
 
-    public DatabaseFallbackPublisher(ObjectMapper objectMapper) {
+    public DatabaseFallbackPublisher(ObjectMapper objectMapper, FallbackEventStore fallbackStore) {
         this.objectMapper = objectMapper;
+        this.fallbackStore = fallbackStore;
         log.warn("Initialized DatabaseFallbackPublisher - message queue is unavailable");
     }
 
@@ -35,34 +41,29 @@ public class DatabaseFallbackPublisher implements EventPublisher {
     }
 
     @Override
-    public <T> void publishWithCorrelation(String topic, T event, String correlationId) {
+    public <T> CompletableFuture<Void> publishWithCorrelation(String topic, T event, String correlationId) {
         try {
             log.debug("Storing event in database (fallback mode): topic={}, event={}, correlationId={}",
                 topic, event.getClass().getSimpleName(), correlationId);
 
             // Serialize event to JSON for storage
             String payload = objectMapper.writeValueAsString(event);
-
-            // Note: In a real implementation, this would insert into processing_queue table
-            // For now, we just log it
-            log.warn("Event stored in database fallback queue: topic={}, eventType={}, payload={}",
-                topic, event.getClass().getSimpleName(), payload);
-
-            // TODO: Implement actual database insertion using ProcessingQueue repository
-            // ProcessingQueue queueItem = ProcessingQueue.builder()
-            //     .commandType(determineCommandType(event))
-            //     .payload(payload)
-            //     .correlationId(correlationId)
-            //     .build();
-            // processingQueueRepository.save(queueItem);
+            fallbackStore.store(topic, event.getClass().getSimpleName(), payload, correlationId);
+            return CompletableFuture.completedFuture(null);
 
         } catch (Exception e) {
             log.error("Failed to store event in database fallback: topic={}, event={}",
                 topic, event.getClass().getSimpleName(), e);
             // Swallow exception - this is fallback, we don't want to fail the request
+            return CompletableFuture.failedFuture(e);
         }
     }
 
+    @Override
+    public void publishSerialized(String topic, String eventType, String payload, String correlationId) {
+        fallbackStore.store(topic, eventType, payload, correlationId);
+    }
+
     @Override
     public boolean isAvailable() {
         // Database fallback is always "available" as last resort
@@ -1,36 +1,103 @@
 package com.photoupload.eventbus.impl;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.photoupload.common.exception.EventPublishException;
 import com.photoupload.eventbus.EventPublisher;
+import com.photoupload.eventbus.codec.EventCodec;
+import com.photoupload.eventbus.codec.EventCodecs;
+import com.photoupload.eventbus.fallback.FallbackEventStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RetriableException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Kafka implementation of EventPublisher.
  * Implements Strategy pattern for Kafka-specific event publishing.
+ * Events Kafka does not accept go to the {@link FallbackEventStore}, as do all events
+ * while it holds a backlog, so that they are relayed in order once Kafka is back.
+ *
+ * Records are keyed by the event's photoId, so all events of a photo land on one partition
+ * in order; batching, compression and idempotence are producer settings (spring.kafka.producer).
+ * Sends do not wait for the broker's acknowledgement, but KafkaTemplate.send blocks the
+ * calling thread while the topic's metadata is unknown or the producer's buffer-memory is
+ * full, for at most max.block.ms (set to 1s in application.yml; the client default is 60s).
+ * A send that fails with a retriable error after the producer's own retries (e.g. metadata
+ * unavailable past max.block.ms) is parked in a bounded in-memory retry buffer and resent
+ * after a backoff; when the buffer is full or attempts run out the send fails.
+ *
+ * Values are encoded with the configured {@link EventCodec}, named in the record's encoding
+ * headers (spring.kafka.producer.value-serializer must be the ByteArraySerializer), and the
+ * event's class in its eventType header, for the {@link com.photoupload.eventbus.codec.EventCodecDeserializer}.
  */
 @Slf4j
 @Service
 @ConditionalOnProperty(name = "event.publisher", havingValue = "kafka")
 public class KafkaEventPublisher implements EventPublisher {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
     private final ObjectMapper objectMapper;
+    private final EventCodec codec;
+    private final FallbackEventStore fallbackStore;
+    private final MeterRegistry meterRegistry;
     private final String topicPrefix;
 
+    private final int retryCapacity;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final AtomicInteger retryBuffered = new AtomicInteger();
+    private final ScheduledThreadPoolExecutor retryTimer;
+
     public KafkaEventPublisher(
-        KafkaTemplate<String, String> kafkaTemplate,
-        ObjectMapper objectMapper
+        KafkaTemplate<String, byte[]> kafkaTemplate,
+        ObjectMapper objectMapper,
+        EventCodecs codecs,
+        FallbackEventStore fallbackStore,
+        MeterRegistry meterRegistry,
+        @Value("${event.kafka.retry.buffer-capacity:10000}") int retryCapacity,
+        @Value("${event.kafka.retry.max-attempts:3}") int maxAttempts,
+        @Value("${event.kafka.retry.backoff-ms:1000}") long retryBackoffMs
     ) {
         this.kafkaTemplate = kafkaTemplate;
         this.objectMapper = objectMapper;
+        this.codec = codecs.publishing();
+        this.fallbackStore = fallbackStore;
+        this.meterRegistry = meterRegistry;
         this.topicPrefix = "photo-events-";
+
+        this.retryCapacity = retryCapacity;
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.retryBackoffMs = retryBackoffMs;
+        this.retryTimer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "kafka-publish-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("event.kafka.retry.buffered", retryBuffered, AtomicInteger::get)
+            .description("Kafka sends waiting in memory to be retried")
+            .register(meterRegistry);
+
         log.info("Initialized KafkaEventPublisher with topic prefix: {}", topicPrefix);
     }
 
@@ -46,36 +113,158 @@ public class KafkaEventPublisher implements EventPublisher {
     }
 
     @Override
-    public <T> void publishWithCorrelation(String topic, T event, String correlationId) {
+    public <T> CompletableFuture<Void> publishWithCorrelation(String topic, T event, String correlationId) {
+        String eventType = event.getClass().getSimpleName();
+        String message;
         try {
-            log.debug("Publishing event to Kafka: topic={}, event={}, correlationId={}",
-                topic, event.getClass().getSimpleName(), correlationId);
-
             // Serialize event to JSON
-            String message = objectMapper.writeValueAsString(event);
-
-            // Send message
-            CompletableFuture<SendResult<String, String>> future = kafkaTemplate.send(topic, correlationId, message);
-
-            // Add callback for success/failure
-            future.whenComplete((result, ex) -> {
-                if (ex != null) {
-                    log.error("Failed to publish event to Kafka: topic={}, event={}",
-                        topic, event.getClass().getSimpleName(), ex);
-                    throw new EventPublishException(event.getClass().getSimpleName(), topic, ex.getMessage(), ex);
-                } else {
-                    log.info("Successfully published event to Kafka: topic={}, eventType={}, partition={}, offset={}",
-                        topic, event.getClass().getSimpleName(),
-                        result.getRecordMetadata().partition(),
-                        result.getRecordMetadata().offset());
-                }
-            });
+            message = objectMapper.writeValueAsString(event);
+        } catch (Exception e) {
+            log.error("Unexpected error serializing event for Kafka: topic={}, event={}", topic, eventType, e);
+            throw new EventPublishException(eventType, "Unexpected error: " + e.getMessage());
+        }
+
+        if (fallbackStore.hasBacklog()) {
+            // Earlier events are still waiting to be relayed; queue behind them
+            fallbackStore.store(topic, eventType, message, correlationId);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return publishSerializedAsync(topic, eventType, message, correlationId).exceptionally(ex -> {
+            log.warn("Kafka did not accept event, storing it for relay: topic={}, eventType={}", topic, eventType);
+            fallbackStore.store(topic, eventType, message, correlationId);
+            return null;
+        });
+    }
+
+    @Override
+    public void publishSerialized(String topic, String eventType, String payload, String correlationId) {
+        try {
+            publishSerializedAsync(topic, eventType, payload, correlationId).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof EventPublishException publishException
+                ? publishException
+                : new EventPublishException(eventType, topic, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> publishSerializedAsync(String topic, String eventType, String payload,
+                                                          String correlationId) {
+        byte[] value;
+        try {
+            value = codec.encodeJson(payload);
+        } catch (IOException e) {
+            log.error("Failed to encode event as {}: topic={}, event={}", codec.name(), topic, eventType, e);
+            return CompletableFuture.failedFuture(
+                new EventPublishException(eventType, topic, "Could not encode event: " + e.getMessage(), e));
+        }
+
+        PendingSend send = new PendingSend(topic, eventType, partitionKey(payload, correlationId), value,
+            new CompletableFuture<>());
+        attempt(send, 1);
+        return send.result();
+    }
 
+    private void attempt(PendingSend send, int attempt) {
+        log.debug("Publishing event to Kafka: topic={}, event={}, key={}", send.topic(), send.eventType(), send.key());
+
+        // Headers turn read-only once sent, so each attempt gets its own record
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(EventCodecs.EVENT_TYPE_HEADER, send.eventType().getBytes(StandardCharsets.UTF_8));
+        headers.add(EventCodecs.ENCODING_HEADER, codec.name().getBytes(StandardCharsets.UTF_8));
+        headers.add(EventCodecs.VERSION_HEADER, ByteBuffer.allocate(Integer.BYTES).putInt(codec.version()).array());
+
+        CompletableFuture<SendResult<String, byte[]>> future;
+        try {
+            future = kafkaTemplate.send(new ProducerRecord<>(send.topic(), null, send.key(), send.value(), headers));
         } catch (Exception e) {
-            log.error("Unexpected error publishing event to Kafka: topic={}, event={}",
-                topic, event.getClass().getSimpleName(), e);
-            throw new EventPublishException(event.getClass().getSimpleName(), "Unexpected error: " + e.getMessage());
+            onFailure(send, attempt, e);
+            return;
+        }
+
+        future.whenComplete((result, ex) -> {
+            if (ex == null) {
+                count("success");
+                send.result().complete(null);
+            } else {
+                onFailure(send, attempt, ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            }
+        });
+    }
+
+    /**
+     * Park a retriable failure in the retry buffer, or fail the send
+     */
+    private void onFailure(PendingSend send, int attempt, Throwable error) {
+        if (attempt < maxAttempts && isRetriable(error)) {
+            if (retryBuffered.incrementAndGet() <= retryCapacity) {
+                long delayMs = retryBackoffMs << Math.min(attempt - 1, 10);
+                try {
+                    retryTimer.schedule(() -> {
+                        retryBuffered.decrementAndGet();
+                        attempt(send, attempt + 1);
+                    }, delayMs, TimeUnit.MILLISECONDS);
+                    count("retried");
+                    log.warn("Kafka send failed, retrying: topic={}, eventType={}, attempt={}, delayMs={}, error={}",
+                        send.topic(), send.eventType(), attempt, delayMs, error.getMessage());
+                    return;
+                } catch (RuntimeException e) {
+                    // Shutting down
+                    retryBuffered.decrementAndGet();
+                }
+            } else {
+                retryBuffered.decrementAndGet();
+                count("dropped");
+                log.error("Kafka retry buffer full: topic={}, eventType={}", send.topic(), send.eventType());
+            }
+        }
+
+        count("failed");
+        log.error("Failed to publish event to Kafka: topic={}, event={}, attempts={}",
+            send.topic(), send.eventType(), attempt, error);
+        send.result().completeExceptionally(
+            new EventPublishException(send.eventType(), send.topic(), error.getMessage(), error));
+    }
+
+    private static boolean isRetriable(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException) {
+                return true;
+            }
         }
+        return false;
+    }
+
+    /**
+     * The event's photoId, read from the serialized payload so that stored and outbox events
+     * get the same key; falls back to the given key for events without one
+     */
+    private String partitionKey(String payload, String fallback) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return fallback;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("photoId".equals(field)) {
+                    return value == JsonToken.VALUE_NULL ? fallback : parser.getText();
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            log.debug("Could not read photoId from event payload: {}", e.getMessage());
+        }
+        return fallback;
+    }
+
+    private void count(String outcome) {
+        Counter.builder("event.kafka.sends")
+            .description("Kafka send outcomes")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
     }
 
     @Override
@@ -94,5 +283,16 @@ public class KafkaEventPublisher implements EventPublisher {
     public String getPublisherType() {
         return "Kafka";
     }
-}
 
+    @PreDestroy
+    public void shutdown() {
+        retryTimer.shutdownNow();
+    }
+
+    /**
+     * A send with the future handed to the caller
+     */
+    private record PendingSend(String topic, String eventType, String key, byte[] value,
+                               CompletableFuture<Void> result) {
+    }
+}
@@ -3,18 +3,51 @@ package com.photoupload.eventbus.impl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.photoupload.common.exception.EventPublishException;
 import com.photoupload.eventbus.EventPublisher;
+import com.photoupload.eventbus.codec.EventCodec;
+import com.photoupload.eventbus.codec.EventCodecs;
+import com.photoupload.eventbus.fallback.FallbackEventStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageBuilder;
 import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * RabbitMQ implementation of EventPublisher.
  * Implements Strategy pattern for RabbitMQ-specific event publishing.
+ * Events RabbitMQ does not accept go to the {@link FallbackEventStore}, as do all events
+ * while it holds a backlog, so that they are relayed in order once RabbitMQ is back.
+ *
+ * With publisher confirms enabled (spring.rabbitmq.publisher-confirm-type=correlated) every
+ * send carries a CorrelationData and is complete only once the broker acks it. Sends do not
+ * wait for their confirm, so up to max-in-flight events are pipelined on the channel and
+ * confirmed together; beyond that, senders wait for a slot. Nacked, returned (unroutable)
+ * and unconfirmed events are resent after a backoff until max-attempts. A resent event may
+ * overtake later ones, and one whose confirm was lost may arrive twice.
+ *
+ * Bodies are encoded with the configured {@link EventCodec}, named in the message's content
+ * type and encoding headers.
  */
 @Slf4j
 @Service
@@ -23,16 +56,56 @@ public class RabbitMQEventPublisher implements EventPublisher {
 
     private final RabbitTemplate rabbitTemplate;
     private final ObjectMapper objectMapper;
+    private final EventCodec codec;
+    private final FallbackEventStore fallbackStore;
+    private final MeterRegistry meterRegistry;
     private final String exchangeName;
 
+    private final boolean confirmsEnabled;
+    private final Semaphore inFlight;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long confirmTimeoutMs;
+    private final ScheduledThreadPoolExecutor retryTimer;
+    // Sent or awaiting a resend, until their future completes
+    private final Set<PendingEvent> pending = ConcurrentHashMap.newKeySet();
+
     public RabbitMQEventPublisher(
         RabbitTemplate rabbitTemplate,
-        ObjectMapper objectMapper
+        ObjectMapper objectMapper,
+        EventCodecs codecs,
+        FallbackEventStore fallbackStore,
+        MeterRegistry meterRegistry,
+        @Value("${event.rabbitmq.confirms.enabled:true}") boolean confirmsEnabled,
+        @Value("${event.rabbitmq.confirms.max-in-flight:1024}") int maxInFlight,
+        @Value("${event.rabbitmq.confirms.max-attempts:3}") int maxAttempts,
+        @Value("${event.rabbitmq.confirms.retry-backoff-ms:200}") long retryBackoffMs,
+        @Value("${event.rabbitmq.confirms.timeout-ms:10000}") long confirmTimeoutMs
     ) {
         this.rabbitTemplate = rabbitTemplate;
         this.objectMapper = objectMapper;
+        this.codec = codecs.publishing();
+        this.fallbackStore = fallbackStore;
+        this.meterRegistry = meterRegistry;
         this.exchangeName = "photo.events";
-        log.info("Initialized RabbitMQEventPublisher with exchange: {}", exchangeName);
+
+        this.confirmsEnabled = confirmsEnabled;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.retryBackoffMs = retryBackoffMs;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.retryTimer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "rabbitmq-confirm-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("event.rabbitmq.confirms.inflight", inFlight, semaphore -> maxInFlight - semaphore.availablePermits())
+            .description("Events sent to RabbitMQ and awaiting their publisher confirm")
+            .register(meterRegistry);
+
+        log.info("Initialized RabbitMQEventPublisher with exchange: {}, confirms={}, maxInFlight={}",
+            exchangeName, confirmsEnabled, maxInFlight);
     }
 
     @Override
@@ -47,19 +120,155 @@ public class RabbitMQEventPublisher implements EventPublisher {
     }
 
     @Override
-    public <T> void publishWithCorrelation(String topic, T event, String correlationId) {
+    public <T> CompletableFuture<Void> publishWithCorrelation(String topic, T event, String correlationId) {
+        String eventType = event.getClass().getSimpleName();
+        String payload;
         try {
-            log.debug("Publishing event to RabbitMQ: topic={}, event={}, correlationId={}",
-                topic, event.getClass().getSimpleName(), correlationId);
-
             // Serialize event to JSON
-            byte[] body = objectMapper.writeValueAsBytes(event);
+            payload = objectMapper.writeValueAsString(event);
+        } catch (Exception e) {
+            log.error("Unexpected error serializing event for RabbitMQ: topic={}, event={}", topic, eventType, e);
+            throw new EventPublishException(eventType, "Unexpected error: " + e.getMessage());
+        }
+
+        if (fallbackStore.hasBacklog()) {
+            // Earlier events are still waiting to be relayed; queue behind them
+            fallbackStore.store(topic, eventType, payload, correlationId);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return publishSerializedAsync(topic, eventType, payload, correlationId).exceptionally(ex -> {
+            log.warn("RabbitMQ did not accept event, storing it for relay: topic={}, eventType={}", topic, eventType);
+            fallbackStore.store(topic, eventType, payload, correlationId);
+            return null;
+        });
+    }
+
+    /**
+     * With confirms enabled, waits for the broker's confirm
+     */
+    @Override
+    public void publishSerialized(String topic, String eventType, String payload, String correlationId) {
+        if (!confirmsEnabled) {
+            send(topic, eventType, encode(topic, eventType, payload), correlationId, null);
+            return;
+        }
+
+        try {
+            publishSerializedAsync(topic, eventType, payload, correlationId).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof EventPublishException publishException
+                ? publishException
+                : new EventPublishException(eventType, topic, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> publishSerializedAsync(String topic, String eventType, String payload,
+                                                          String correlationId) {
+        if (!confirmsEnabled) {
+            return EventPublisher.super.publishSerializedAsync(topic, eventType, payload, correlationId);
+        }
+
+        byte[] body;
+        try {
+            body = encode(topic, eventType, payload);
+        } catch (EventPublishException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        PendingEvent event = new PendingEvent(topic, eventType, body, correlationId, result);
+        pending.add(event);
+        result.whenComplete((v, ex) -> pending.remove(event));
+        sendConfirmed(event, 1);
+        return result;
+    }
+
+    /**
+     * Send once and settle the attempt when its confirm arrives; waits for a free in-flight slot
+     */
+    private void sendConfirmed(PendingEvent event, int attempt) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            event.result().completeExceptionally(
+                new EventPublishException(event.eventType(), event.topic(), "Interrupted", e));
+            return;
+        }
+
+        CorrelationData correlation = new CorrelationData(UUID.randomUUID().toString());
+        try {
+            send(event.topic(), event.eventType(), event.body(), event.correlationId(), correlation);
+        } catch (EventPublishException e) {
+            inFlight.release();
+            retryOrFail(event, attempt, e.getMessage(), e);
+            return;
+        }
+
+        correlation.getFuture()
+            .orTimeout(confirmTimeoutMs, TimeUnit.MILLISECONDS)
+            .whenComplete((confirm, ex) -> {
+                inFlight.release();
+                ReturnedMessage returned = correlation.getReturned();
+                if (ex != null) {
+                    retryOrFail(event, attempt,
+                        ex instanceof TimeoutException ? "No confirm within " + confirmTimeoutMs + "ms" : ex.getMessage(), ex);
+                } else if (!confirm.isAck()) {
+                    retryOrFail(event, attempt, "Nacked: " + confirm.getReason(), null);
+                } else if (returned != null) {
+                    retryOrFail(event, attempt, "Returned: " + returned.getReplyText(), null);
+                } else {
+                    count("acked");
+                    event.result().complete(null);
+                }
+            });
+    }
+
+    private void retryOrFail(PendingEvent event, int attempt, String reason, Throwable cause) {
+        if (attempt >= maxAttempts) {
+            count("failed");
+            log.error("RabbitMQ did not confirm event: topic={}, eventType={}, attempts={}, reason={}",
+                event.topic(), event.eventType(), attempt, reason);
+            event.result().completeExceptionally(new EventPublishException(event.eventType(), event.topic(), reason, cause));
+            return;
+        }
+
+        count("retried");
+        long delayMs = retryBackoffMs << Math.min(attempt - 1, 10);
+        log.warn("Resending unconfirmed event: topic={}, eventType={}, attempt={}, delayMs={}, reason={}",
+            event.topic(), event.eventType(), attempt, delayMs, reason);
+        try {
+            retryTimer.schedule(() -> sendConfirmed(event, attempt + 1), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // Shutting down
+            event.result().completeExceptionally(new EventPublishException(event.eventType(), event.topic(), reason, e));
+        }
+    }
+
+    private byte[] encode(String topic, String eventType, String payload) {
+        try {
+            return codec.encodeJson(payload);
+        } catch (IOException e) {
+            log.error("Failed to encode event as {}: topic={}, event={}", codec.name(), topic, eventType, e);
+            throw new EventPublishException(eventType, topic, "Could not encode event: " + e.getMessage(), e);
+        }
+    }
+
+    private void send(String topic, String eventType, byte[] body, String correlationId,
+                      CorrelationData correlation) {
+        try {
+            log.debug("Publishing event to RabbitMQ: topic={}, event={}, correlationId={}",
+                topic, eventType, correlationId);
 
             // Build message with properties
             MessageProperties properties = new MessageProperties();
-            properties.setContentType("application/json");
-            properties.setHeader("eventType", event.getClass().getSimpleName());
-            
+            properties.setContentType(codec.contentType());
+            properties.setHeader(EventCodecs.EVENT_TYPE_HEADER, eventType);
+            properties.setHeader(EventCodecs.ENCODING_HEADER, codec.name());
+            properties.setHeader(EventCodecs.VERSION_HEADER, codec.version());
+
             if (correlationId != null) {
                 properties.setCorrelationId(correlationId);
             }
@@ -70,22 +279,24 @@ public class RabbitMQEventPublisher implements EventPublisher {
                 .build();
 
             // Publish to exchange with routing key
-            rabbitTemplate.send(exchangeName, topic, message);
+            rabbitTemplate.send(exchangeName, topic, message, correlation);
 
-            log.info("Successfully published event to RabbitMQ: topic={}, eventType={}",
-                topic, event.getClass().getSimpleName());
+            log.debug("Published event to RabbitMQ: topic={}, eventType={}", topic, eventType);
 
         } catch (AmqpException e) {
-            log.error("Failed to publish event to RabbitMQ: topic={}, event={}",
-                topic, event.getClass().getSimpleName(), e);
-            throw new EventPublishException(event.getClass().getSimpleName(), topic, e.getMessage(), e);
-        } catch (Exception e) {
-            log.error("Unexpected error publishing event to RabbitMQ: topic={}, event={}",
-                topic, event.getClass().getSimpleName(), e);
-            throw new EventPublishException(event.getClass().getSimpleName(), "Unexpected error: " + e.getMessage());
+            log.error("Failed to publish event to RabbitMQ: topic={}, event={}", topic, eventType, e);
+            throw new EventPublishException(eventType, topic, e.getMessage(), e);
         }
     }
 
+    private void count(String outcome) {
+        Counter.builder("event.rabbitmq.confirms")
+            .description("Publisher confirm outcomes")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+    }
+
     @Override
     public boolean isAvailable() {
         try {
@@ -104,5 +315,25 @@ public class RabbitMQEventPublisher implements EventPublisher {
     public String getPublisherType() {
         return "RabbitMQ";
     }
-}
 
+    /**
+     * Stop resending and fail every event not yet confirmed: scheduled resends will not run
+     * and confirms may never arrive, so their futures would otherwise never complete.
+     * Events published through publishWithCorrelation then go to the fallback store.
+     */
+    @PreDestroy
+    public void shutdown() {
+        retryTimer.shutdownNow();
+        for (PendingEvent event : pending) {
+            event.result().completeExceptionally(
+                new EventPublishException(event.eventType(), event.topic(), "Publisher shut down before confirm", null));
+        }
+    }
+
+    /**
+     * An event awaiting its confirm, with the future handed to the caller
+     */
+    private record PendingEvent(String topic, String eventType, byte[] body, String correlationId,
+                                CompletableFuture<Void> result) {
+    }
+}
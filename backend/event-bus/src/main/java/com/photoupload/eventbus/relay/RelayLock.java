@@ -0,0 +1,77 @@
+package com.photoupload.eventbus.relay;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Lets one replica at a time relay a stream of events, so they reach the broker in order.
+ * The holder is recorded in a relay_leases row with an expiry, taken and released with
+ * single-statement updates that run the same on PostgreSQL and H2. Nothing stays open
+ * while the lease is held, so a relay can wait for the broker outside any transaction. A
+ * replica that dies is replaced once its lease expires; holders stop sending before then.
+ */
+@Slf4j
+@Component
+public class RelayLock {
+
+    private static final String ACQUIRE_SQL =
+        "UPDATE relay_leases SET holder = ?, expires_at = ? WHERE name = ? AND (holder = ? OR expires_at < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String holder;
+
+    public RelayLock(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.holder = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Take or extend the lease on the named stream
+     *
+     * @return false if another replica holds it
+     */
+    public boolean tryAcquire(String name, Duration lease) {
+        Instant now = Instant.now();
+        Timestamp expiresAt = Timestamp.from(now.plus(lease));
+        if (jdbcTemplate.update(ACQUIRE_SQL, holder, expiresAt, name, holder, Timestamp.from(now)) == 1) {
+            return true;
+        }
+
+        // First relay of this stream on the database
+        try {
+            return jdbcTemplate.update("INSERT INTO relay_leases (name, holder, expires_at) VALUES (?, ?, ?)",
+                name, holder, expiresAt) == 1;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * End the lease early, so another replica can relay without waiting for it to expire
+     */
+    public void release(String name) {
+        try {
+            jdbcTemplate.update("UPDATE relay_leases SET expires_at = ? WHERE name = ? AND holder = ?",
+                Timestamp.from(Instant.now()), name, holder);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release relay lease, it expires on its own: name={}, error={}", name, e.getMessage());
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.photoupload.eventbus.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.photoupload.common.event.PhotoUploadedEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for EventCodecDeserializer reading Kafka records by their encoding headers.
+ */
+class EventCodecDeserializerTest {
+
+    private ObjectMapper objectMapper;
+    private EventCodecDeserializer deserializer;
+    private PhotoUploadedEvent event;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        deserializer = new EventCodecDeserializer(
+            new EventCodecs(List.of(new JsonEventCodec(objectMapper), new SmileEventCodec()), "json"));
+        event = PhotoUploadedEvent.of(1L, "user-123", "photos/user-123/1/a.jpg", "a.jpg", "image/jpeg", 1024L, "corr-1");
+    }
+
+    @Test
+    void deserialize_Smile_RoundTripsEvent() throws Exception {
+        // Arrange
+        byte[] value = new SmileEventCodec().encode(event);
+
+        // Act
+        Object decoded = deserializer.deserialize("photo-events", headers("smile", version(1)), value);
+
+        // Assert
+        assertEquals(event, decoded);
+    }
+
+    @Test
+    void deserialize_Json_RoundTripsEvent() throws Exception {
+        // Arrange
+        byte[] value = new JsonEventCodec(objectMapper).encode(event);
+
+        // Act
+        Object decoded = deserializer.deserialize("photo-events", headers("json", version(1)), value);
+
+        // Assert
+        assertEquals(event, decoded);
+    }
+
+    @Test
+    void deserialize_NewerVersion_Rejected() throws Exception {
+        // Arrange
+        byte[] value = new SmileEventCodec().encode(event);
+
+        // Act & Assert
+        SerializationException error = assertThrows(SerializationException.class,
+            () -> deserializer.deserialize("photo-events", headers("smile", version(2)), value));
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+    }
+
+    @Test
+    void deserialize_VersionNotFourBytes_Rejected() throws Exception {
+        // Arrange
+        byte[] value = new JsonEventCodec(objectMapper).encode(event);
+
+        // Act & Assert
+        assertThrows(SerializationException.class,
+            () -> deserializer.deserialize("photo-events", headers("json", new byte[] {0, 1}), value));
+    }
+
+    @Test
+    void deserialize_Tombstone_ReturnsNull() {
+        // Act & Assert
+        assertNull(deserializer.deserialize("photo-events", new RecordHeaders(), null));
+    }
+
+    private static RecordHeaders headers(String encoding, byte[] version) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(EventCodecs.EVENT_TYPE_HEADER, "PhotoUploadedEvent".getBytes(StandardCharsets.UTF_8));
+        headers.add(EventCodecs.ENCODING_HEADER, encoding.getBytes(StandardCharsets.UTF_8));
+        headers.add(EventCodecs.VERSION_HEADER, version);
+        return headers;
+    }
+
+    private static byte[] version(int version) {
+        return ByteBuffer.allocate(Integer.BYTES).putInt(version).array();
+    }
+}
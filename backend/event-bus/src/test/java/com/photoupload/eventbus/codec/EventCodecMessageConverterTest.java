@@ -0,0 +1,101 @@
+package com.photoupload.eventbus.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.photoupload.common.event.PhotoUploadedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for EventCodecMessageConverter encoding and decoding RabbitMQ messages by their headers.
+ */
+class EventCodecMessageConverterTest {
+
+    private ObjectMapper objectMapper;
+    private PhotoUploadedEvent event;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        event = PhotoUploadedEvent.of(1L, "user-123", "photos/user-123/1/a.jpg", "a.jpg", "image/jpeg", 1024L, "corr-1");
+    }
+
+    @Test
+    void fromMessage_SmilePublished_DecodedByJsonConsumer() {
+        // Arrange: the consumer publishes JSON itself but holds both codecs
+        Message message = converter("smile").toMessage(event, new MessageProperties());
+
+        // Act
+        Object decoded = converter("json").fromMessage(message);
+
+        // Assert
+        assertEquals("application/x-jackson-smile", message.getMessageProperties().getContentType());
+        assertEquals(event, decoded);
+    }
+
+    @Test
+    void fromMessage_JsonPublished_DecodedByEventTypeHeader() {
+        // Arrange
+        Message message = converter("json").toMessage(event, new MessageProperties());
+
+        // Act
+        Object decoded = converter("json").fromMessage(message);
+
+        // Assert
+        assertEquals("PhotoUploadedEvent", message.getMessageProperties().getHeader(EventCodecs.EVENT_TYPE_HEADER));
+        assertEquals(event, decoded);
+    }
+
+    @Test
+    void fromMessage_NoHeaders_DecodesJsonToListenerType() throws Exception {
+        // Arrange: published before messages carried encoding and type headers
+        MessageProperties properties = new MessageProperties();
+        properties.setInferredArgumentType(PhotoUploadedEvent.class);
+        Message message = new Message(objectMapper.writeValueAsBytes(event), properties);
+
+        // Act
+        Object decoded = converter("json").fromMessage(message);
+
+        // Assert
+        assertEquals(event, decoded);
+    }
+
+    @Test
+    void fromMessage_UnknownEventType_DecodesToMap() {
+        // Arrange
+        Message message = converter("smile").toMessage(Map.of("photoId", 1), new MessageProperties());
+
+        // Act
+        Object decoded = converter("json").fromMessage(message);
+
+        // Assert
+        assertEquals(Map.of("photoId", 1), decoded);
+    }
+
+    @Test
+    void fromMessage_NewerVersion_Rejected() {
+        // Arrange
+        Message message = converter("smile").toMessage(event, new MessageProperties());
+        message.getMessageProperties().setHeader(EventCodecs.VERSION_HEADER, 2);
+
+        // Act & Assert
+        assertThrows(MessageConversionException.class, () -> converter("json").fromMessage(message));
+    }
+
+    private EventCodecMessageConverter converter(String encoding) {
+        return new EventCodecMessageConverter(
+            new EventCodecs(List.of(new JsonEventCodec(objectMapper), new SmileEventCodec()), encoding));
+    }
+}
@@ -0,0 +1,97 @@
+package com.photoupload.eventbus.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.photoupload.common.event.PhotoUploadedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for EventCodecs round trips through the JSON and Smile codecs and version checks.
+ */
+class EventCodecsTest {
+
+    private ObjectMapper objectMapper;
+    private EventCodecs codecs;
+    private PhotoUploadedEvent event;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        codecs = new EventCodecs(List.of(new JsonEventCodec(objectMapper), new SmileEventCodec()), "json");
+        event = PhotoUploadedEvent.of(1L, "user-123", "photos/user-123/1/a.jpg", "a.jpg", "image/jpeg", 1024L, "corr-1");
+    }
+
+    @Test
+    void decode_Json_RoundTripsEvent() throws Exception {
+        // Arrange
+        byte[] body = new JsonEventCodec(objectMapper).encode(event);
+
+        // Act
+        PhotoUploadedEvent decoded = codecs.decode("json", 1, body, PhotoUploadedEvent.class);
+
+        // Assert
+        assertEquals(event, decoded);
+    }
+
+    @Test
+    void decode_SmileFromStoredJson_RoundTripsEvent() throws Exception {
+        // Arrange: outbox and fallback rows hold JSON, converted to Smile token by token when sent
+        SmileEventCodec smile = new SmileEventCodec();
+        byte[] body = smile.encodeJson(objectMapper.writeValueAsString(event));
+
+        // Act
+        PhotoUploadedEvent decoded = codecs.decode("smile", 1, body, PhotoUploadedEvent.class);
+
+        // Assert
+        assertEquals(event, decoded);
+    }
+
+    @Test
+    void decode_NoEncodingHeader_ReadsJson() throws Exception {
+        // Arrange: published before messages carried encoding headers
+        byte[] body = objectMapper.writeValueAsString(event).getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        PhotoUploadedEvent decoded = codecs.decode(null, null, body, PhotoUploadedEvent.class);
+
+        // Assert
+        assertEquals(event, decoded);
+    }
+
+    @Test
+    void decode_NewerVersion_Rejected() throws Exception {
+        // Arrange
+        byte[] body = new SmileEventCodec().encode(event);
+
+        // Act & Assert
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> codecs.decode("smile", 2, body, PhotoUploadedEvent.class));
+        assertTrue(error.getMessage().contains("smile v2"));
+    }
+
+    @Test
+    void decode_UnknownEncoding_Rejected() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+            () -> codecs.decode("avro", 1, new byte[] {1}, PhotoUploadedEvent.class));
+    }
+
+    @Test
+    void eventClass_OnlyResolvesEventClasses() {
+        // Act & Assert
+        assertEquals(PhotoUploadedEvent.class, EventCodecs.eventClass("PhotoUploadedEvent"));
+        assertNull(EventCodecs.eventClass("UnknownEvent"));
+        assertNull(EventCodecs.eventClass("../java.lang.Runtime"));
+        assertNull(EventCodecs.eventClass(null));
+    }
+}
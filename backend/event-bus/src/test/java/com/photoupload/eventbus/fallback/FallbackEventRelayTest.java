@@ -0,0 +1,125 @@
+package com.photoupload.eventbus.fallback;
+
+import com.photoupload.common.exception.EventPublishException;
+import com.photoupload.eventbus.EventPublisher;
+import com.photoupload.eventbus.fallback.FallbackEventStore.StoredEvent;
+import com.photoupload.eventbus.impl.DatabaseFallbackPublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FallbackEventRelay sending stored events back to the broker.
+ */
+@ExtendWith(MockitoExtension.class)
+class FallbackEventRelayTest {
+
+    @Mock
+    private FallbackEventStore fallbackStore;
+
+    @Mock
+    private EventPublisher eventPublisher;
+
+    private FallbackEventRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new FallbackEventRelay(fallbackStore, eventPublisher);
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+    }
+
+    @Test
+    void relay_BrokerAcceptsAll_SendsStoredEventsInOrder() {
+        // Arrange: two full batches and a partial one
+        when(fallbackStore.refreshStoredEvents()).thenReturn(true);
+        List<List<StoredEvent>> batches = List.of(
+            List.of(stored(1L), stored(2L)), List.of(stored(3L), stored(4L)), List.of(stored(5L)));
+        List<Boolean> confirmed = new ArrayList<>();
+        int[] call = {0};
+        when(fallbackStore.drain(eq(2), any())).thenAnswer(invocation -> {
+            Predicate<StoredEvent> sender = invocation.getArgument(1);
+            List<StoredEvent> batch = batches.get(call[0]++);
+            batch.forEach(event -> confirmed.add(sender.test(event)));
+            return batch.size();
+        });
+
+        // Act
+        relay.relay();
+
+        // Assert
+        assertEquals(List.of(true, true, true, true, true), confirmed);
+        InOrder inOrder = inOrder(eventPublisher);
+        for (long id = 1; id <= 5; id++) {
+            inOrder.verify(eventPublisher).publishSerialized("photo.uploaded", "PhotoUploadedEvent",
+                "{\"photoId\":" + id + "}", "corr-" + id);
+        }
+        verify(fallbackStore, times(3)).drain(eq(2), any());
+    }
+
+    @Test
+    void relay_BrokerRefuses_ReportsEventUnsentAndStops() {
+        // Arrange
+        when(fallbackStore.refreshStoredEvents()).thenReturn(true);
+        doThrow(new EventPublishException("PhotoUploadedEvent", "Broker did not confirm"))
+            .when(eventPublisher).publishSerialized(any(), any(), any(), any());
+        List<Boolean> confirmed = new ArrayList<>();
+        when(fallbackStore.drain(eq(2), any())).thenAnswer(invocation -> {
+            Predicate<StoredEvent> sender = invocation.getArgument(1);
+            // The store stops at the first refused event and deletes nothing
+            confirmed.add(sender.test(stored(1L)));
+            return 0;
+        });
+
+        // Act
+        relay.relay();
+
+        // Assert: the refused event is reported unsent, so it stays stored for the next run
+        assertEquals(List.of(false), confirmed);
+        verify(fallbackStore, times(1)).drain(anyInt(), any());
+    }
+
+    @Test
+    void relay_NothingStored_DoesNotDrain() {
+        // Arrange
+        when(fallbackStore.refreshStoredEvents()).thenReturn(false);
+
+        // Act
+        relay.relay();
+
+        // Assert
+        verify(fallbackStore, never()).drain(anyInt(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void relay_NoBroker_LeavesEventsStored() {
+        // Arrange
+        FallbackEventRelay databaseRelay = new FallbackEventRelay(fallbackStore, mock(DatabaseFallbackPublisher.class));
+
+        // Act
+        databaseRelay.relay();
+
+        // Assert
+        verifyNoInteractions(fallbackStore);
+    }
+
+    private static StoredEvent stored(Long id) {
+        return new StoredEvent(id, "photo.uploaded", "PhotoUploadedEvent", "{\"photoId\":" + id + "}",
+            "corr-" + id, Instant.now());
+    }
+}
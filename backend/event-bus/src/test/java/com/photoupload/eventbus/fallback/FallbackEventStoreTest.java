@@ -0,0 +1,166 @@
+package com.photoupload.eventbus.fallback;
+
+import com.photoupload.eventbus.fallback.FallbackEventStore.StoredEvent;
+import com.photoupload.eventbus.relay.RelayLock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FallbackEventStore buffering events into the table and draining them in order.
+ */
+@ExtendWith(MockitoExtension.class)
+class FallbackEventStoreTest {
+
+    private static final String DELETE_SQL = "DELETE FROM fallback_events WHERE id = ?";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private RelayLock relayLock;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Captor
+    private ArgumentCaptor<List<Object[]>> deletedIds;
+
+    private FallbackEventStore store;
+
+    @BeforeEach
+    void setUp() {
+        // Batches of three, flushed only when full, written in at most two attempts
+        store = new FallbackEventStore(jdbcTemplate, relayLock, meterRegistry, 100, 3, 60_000, 2, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        store.shutdown();
+    }
+
+    @Test
+    void store_BatchFull_WritesOneBatchAndKeepsBacklog() {
+        // Act
+        store.store("photo.uploaded", "PhotoUploadedEvent", "{\"photoId\":1}", "corr-1");
+        store.store("photo.uploaded", "PhotoUploadedEvent", "{\"photoId\":2}", "corr-2");
+
+        // Assert: buffered events already count as backlog, so publishers keep their order
+        assertTrue(store.hasBacklog());
+
+        store.store("photo.uploaded", "PhotoUploadedEvent", "{\"photoId\":3}", "corr-3");
+
+        verify(jdbcTemplate, timeout(5000)).batchUpdate(startsWith("INSERT INTO fallback_events"),
+            anyCollection(), eq(3), any(ParameterizedPreparedStatementSetter.class));
+        assertTrue(store.hasBacklog());
+    }
+
+    @Test
+    void store_DatabaseKeepsFailing_DropsBatchAfterMaxAttempts() {
+        // Arrange
+        doThrow(new DataAccessResourceFailureException("Connection refused")).when(jdbcTemplate).batchUpdate(
+            startsWith("INSERT INTO fallback_events"), anyCollection(), eq(3), any(ParameterizedPreparedStatementSetter.class));
+
+        // Act
+        for (int i = 1; i <= 3; i++) {
+            store.store("photo.uploaded", "PhotoUploadedEvent", "{\"photoId\":" + i + "}", "corr-" + i);
+        }
+
+        // Assert: dropped and counted rather than retried forever
+        verify(jdbcTemplate, timeout(5000).times(2)).batchUpdate(startsWith("INSERT INTO fallback_events"),
+            anyCollection(), eq(3), any(ParameterizedPreparedStatementSetter.class));
+        await(() -> !store.hasBacklog());
+        assertEquals(3, meterRegistry.get("event.fallback.events").tag("outcome", "dropped").counter().count());
+    }
+
+    @Test
+    void drain_BrokerRefusesThirdEvent_DeletesOnlyConfirmedPrefix() {
+        // Arrange
+        stubRelayLease(true);
+        when(jdbcTemplate.query(startsWith("SELECT id"), ArgumentMatchers.<RowMapper<StoredEvent>>any(), eq(10)))
+            .thenReturn(List.of(stored(1L), stored(2L), stored(3L), stored(4L)));
+        List<Long> attempted = new ArrayList<>();
+
+        // Act
+        int relayed = store.drain(10, event -> {
+            attempted.add(event.id());
+            return event.id() < 3;
+        });
+
+        // Assert: relay stops at the refused event, which stays stored with everything after it
+        assertEquals(2, relayed);
+        assertEquals(List.of(1L, 2L, 3L), attempted);
+        verify(jdbcTemplate).batchUpdate(eq(DELETE_SQL), deletedIds.capture());
+        assertEquals(List.of(1L, 2L), deletedIds.getValue().stream().map(args -> (Long) args[0]).toList());
+        verify(relayLock).release("fallback_events");
+    }
+
+    @Test
+    void drain_BrokerRefusesFirstEvent_DeletesNothing() {
+        // Arrange
+        stubRelayLease(true);
+        when(jdbcTemplate.query(startsWith("SELECT id"), ArgumentMatchers.<RowMapper<StoredEvent>>any(), eq(10)))
+            .thenReturn(List.of(stored(1L), stored(2L)));
+
+        // Act
+        int relayed = store.drain(10, event -> false);
+
+        // Assert
+        assertEquals(0, relayed);
+        verify(jdbcTemplate, never()).batchUpdate(eq(DELETE_SQL), ArgumentMatchers.<List<Object[]>>any());
+    }
+
+    @Test
+    void drain_AnotherReplicaDraining_SendsNothing() {
+        // Arrange
+        stubRelayLease(false);
+
+        // Act
+        int relayed = store.drain(10, event -> fail("No event may be sent without the relay lease"));
+
+        // Assert
+        assertEquals(-1, relayed);
+        verify(jdbcTemplate, never()).query(anyString(), ArgumentMatchers.<RowMapper<StoredEvent>>any(), any());
+    }
+
+    private void stubRelayLease(boolean acquired) {
+        when(relayLock.tryAcquire("fallback_events", Duration.ofMinutes(1))).thenReturn(acquired);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 5s");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static StoredEvent stored(Long id) {
+        return new StoredEvent(id, "photo.uploaded", "PhotoUploadedEvent", "{\"photoId\":" + id + "}",
+            "corr-" + id, Instant.now());
+    }
+}
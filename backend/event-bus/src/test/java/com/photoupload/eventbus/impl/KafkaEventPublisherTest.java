@@ -0,0 +1,141 @@
+package com.photoupload.eventbus.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.photoupload.common.exception.EventPublishException;
+import com.photoupload.eventbus.codec.EventCodecs;
+import com.photoupload.eventbus.codec.JsonEventCodec;
+import com.photoupload.eventbus.fallback.FallbackEventStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for KafkaEventPublisher keys, the bounded retry buffer and the fallback store.
+ */
+@ExtendWith(MockitoExtension.class)
+class KafkaEventPublisherTest {
+
+    private static final String PAYLOAD = "{\"photoId\":1}";
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Mock
+    private FallbackEventStore fallbackStore;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private KafkaEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    void publishSerializedAsync_RetryBufferFull_FailsOverflowingSend() {
+        // Arrange: one retry slot, with a backoff long enough that the parked send stays parked
+        publisher = publisher(1, 60_000);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.failedFuture(new TimeoutException("Topic metadata not available")));
+
+        // Act
+        CompletableFuture<Void> parked = publisher.publishSerializedAsync("photo-events", "TestEvent", PAYLOAD, "corr-1");
+        CompletableFuture<Void> overflowed = publisher.publishSerializedAsync("photo-events", "TestEvent", PAYLOAD, "corr-2");
+
+        // Assert
+        assertFalse(parked.isDone());
+        ExecutionException error = assertThrows(ExecutionException.class, () -> overflowed.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(EventPublishException.class, error.getCause());
+        assertEquals(1.0, meterRegistry.get("event.kafka.retry.buffered").gauge().value());
+        assertEquals(1.0, meterRegistry.get("event.kafka.sends").tag("outcome", "dropped").counter().count());
+        assertEquals(1.0, meterRegistry.get("event.kafka.sends").tag("outcome", "retried").counter().count());
+    }
+
+    @Test
+    void publishWithCorrelation_RetryBufferFull_StoresOverflowingEvent() {
+        // Arrange
+        publisher = publisher(1, 60_000);
+        when(fallbackStore.hasBacklog()).thenReturn(false);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.failedFuture(new TimeoutException("Topic metadata not available")));
+
+        // Act
+        publisher.publishWithCorrelation("photo-events", new TestEvent(1L), "corr-1");
+        publisher.publishWithCorrelation("photo-events", new TestEvent(2L), "corr-2");
+
+        // Assert: only the event that found no retry slot goes to the fallback store
+        verify(fallbackStore, timeout(1000)).store("photo-events", "TestEvent", "{\"photoId\":2}", "corr-2");
+        verify(fallbackStore, never()).store("photo-events", "TestEvent", PAYLOAD, "corr-1");
+    }
+
+    @Test
+    void publishSerializedAsync_RetriableFailure_ResentKeyedByPhoto() throws Exception {
+        // Arrange
+        publisher = publisher(1, 1);
+        CompletableFuture<SendResult<String, byte[]>> sent = CompletableFuture.completedFuture(null);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.failedFuture(new TimeoutException("Topic metadata not available")))
+            .thenReturn(sent);
+
+        // Act
+        publisher.publishSerializedAsync("photo-events", "TestEvent", PAYLOAD, "corr-1").get(5, TimeUnit.SECONDS);
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, byte[]>> records = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(records.capture());
+        records.getAllValues().forEach(record -> assertEquals("1", record.key()));
+        assertEquals(0.0, meterRegistry.get("event.kafka.retry.buffered").gauge().value());
+    }
+
+    @Test
+    void publishSerializedAsync_NonRetriableFailure_FailsWithoutBuffering() {
+        // Arrange
+        publisher = publisher(1, 60_000);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.failedFuture(new RecordTooLargeException("Record too large")));
+
+        // Act
+        CompletableFuture<Void> result = publisher.publishSerializedAsync("photo-events", "TestEvent", PAYLOAD, "corr-1");
+
+        // Assert
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(0.0, meterRegistry.get("event.kafka.retry.buffered").gauge().value());
+        verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+    }
+
+    private KafkaEventPublisher publisher(int retryCapacity, long retryBackoffMs) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        EventCodecs codecs = new EventCodecs(List.of(new JsonEventCodec(objectMapper)), "json");
+        return new KafkaEventPublisher(kafkaTemplate, objectMapper, codecs, fallbackStore, meterRegistry,
+            retryCapacity, 3, retryBackoffMs);
+    }
+
+    record TestEvent(Long photoId) {
+    }
+}
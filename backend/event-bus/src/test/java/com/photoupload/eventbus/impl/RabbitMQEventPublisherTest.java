@@ -0,0 +1,146 @@
+package com.photoupload.eventbus.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.photoupload.eventbus.codec.EventCodecs;
+import com.photoupload.eventbus.codec.JsonEventCodec;
+import com.photoupload.eventbus.fallback.FallbackEventStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RabbitMQEventPublisher publisher confirms and the fallback store.
+ */
+@ExtendWith(MockitoExtension.class)
+class RabbitMQEventPublisherTest {
+
+    private static final String PAYLOAD = "{\"photoId\":1}";
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private FallbackEventStore fallbackStore;
+
+    private RabbitMQEventPublisher publisher;
+
+    @AfterEach
+    void tearDown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    void publishWithCorrelation_Nacked_StoresEventForRelay() {
+        // Arrange
+        publisher = publisher(1);
+        when(fallbackStore.hasBacklog()).thenReturn(false);
+        doAnswer(invocation -> {
+            invocation.<CorrelationData>getArgument(3).getFuture()
+                .complete(new CorrelationData.Confirm(false, "queue full"));
+            return null;
+        }).when(rabbitTemplate).send(eq("photo.events"), eq("photo.uploaded"), any(Message.class), any(CorrelationData.class));
+
+        // Act
+        publisher.publishWithCorrelation("photo.uploaded", new TestEvent(1L), "corr-1");
+
+        // Assert
+        verify(fallbackStore, timeout(1000)).store("photo.uploaded", "TestEvent", PAYLOAD, "corr-1");
+    }
+
+    @Test
+    void publishWithCorrelation_Returned_StoresEventForRelay() {
+        // Arrange: the broker acks an unroutable message after returning it
+        publisher = publisher(1);
+        when(fallbackStore.hasBacklog()).thenReturn(false);
+        doAnswer(invocation -> {
+            CorrelationData correlation = invocation.getArgument(3);
+            correlation.setReturned(new ReturnedMessage(invocation.getArgument(2), 312, "NO_ROUTE",
+                "photo.events", "photo.uploaded"));
+            correlation.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).send(eq("photo.events"), eq("photo.uploaded"), any(Message.class), any(CorrelationData.class));
+
+        // Act
+        publisher.publishWithCorrelation("photo.uploaded", new TestEvent(1L), "corr-1");
+
+        // Assert
+        verify(fallbackStore, timeout(1000)).store("photo.uploaded", "TestEvent", PAYLOAD, "corr-1");
+    }
+
+    @Test
+    void publishSerializedAsync_NackedThenAcked_RetriedWithoutStoring() throws Exception {
+        // Arrange
+        publisher = publisher(3);
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> {
+            boolean ack = attempts.incrementAndGet() > 1;
+            invocation.<CorrelationData>getArgument(3).getFuture()
+                .complete(new CorrelationData.Confirm(ack, ack ? null : "queue full"));
+            return null;
+        }).when(rabbitTemplate).send(eq("photo.events"), eq("photo.uploaded"), any(Message.class), any(CorrelationData.class));
+
+        // Act
+        publisher.publishSerializedAsync("photo.uploaded", "TestEvent", PAYLOAD, "corr-1").get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(2, attempts.get());
+        verifyNoInteractions(fallbackStore);
+    }
+
+    @Test
+    void publishWithCorrelation_BacklogStored_QueuesBehindItWithoutSending() {
+        // Arrange
+        publisher = publisher(1);
+        when(fallbackStore.hasBacklog()).thenReturn(true);
+
+        // Act
+        publisher.publishWithCorrelation("photo.uploaded", new TestEvent(1L), "corr-1");
+
+        // Assert
+        verify(fallbackStore).store("photo.uploaded", "TestEvent", PAYLOAD, "corr-1");
+        verify(rabbitTemplate, never()).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void shutdown_ConfirmPending_StoresEventForRelay() throws Exception {
+        // Arrange: the broker never confirms
+        publisher = publisher(1);
+        when(fallbackStore.hasBacklog()).thenReturn(false);
+        CompletableFuture<Void> published = publisher.publishWithCorrelation("photo.uploaded", new TestEvent(1L), "corr-1");
+
+        // Act
+        publisher.shutdown();
+
+        // Assert: the pending future completes, handing the event to the fallback store
+        published.get(5, TimeUnit.SECONDS);
+        verify(fallbackStore).store("photo.uploaded", "TestEvent", PAYLOAD, "corr-1");
+    }
+
+    private RabbitMQEventPublisher publisher(int maxAttempts) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        EventCodecs codecs = new EventCodecs(List.of(new JsonEventCodec(objectMapper)), "json");
+        return new RabbitMQEventPublisher(rabbitTemplate, objectMapper, codecs, fallbackStore,
+            new SimpleMeterRegistry(), true, 16, maxAttempts, 1, 1000);
+    }
+
+    record TestEvent(Long photoId) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.photoupload.api.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+import org.springframework.web.servlet.DispatcherServlet;
+
+/**
+ * Multipart resolution configuration.
+ * Replaces Boot's resolver so the streaming upload endpoint receives its body unparsed;
+ * resolving it would make the container spool every part before the controller runs.
+ */
+@Configuration
+public class MultipartConfig {
+
+    static final String STREAMING_UPLOAD_PATH = "/api/photos/upload/stream";
+
+    @Bean(name = DispatcherServlet.MULTIPART_RESOLVER_BEAN_NAME)
+    public StandardServletMultipartResolver multipartResolver(MultipartProperties multipartProperties) {
+        StandardServletMultipartResolver resolver = new StandardServletMultipartResolver() {
+            @Override
+            public boolean isMultipart(HttpServletRequest request) {
+                return !STREAMING_UPLOAD_PATH.equals(request.getServletPath()) && super.isMultipart(request);
+            }
+        };
+        resolver.setResolveLazily(multipartProperties.isResolveLazily());
+        return resolver;
+    }
+}
@@ -47,6 +47,8 @@ public class SecurityConfig {
                 // Public endpoints
                 .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                 .requestMatchers("/api/photos/public/**").permitAll()
+                // Local presigned uploads carry their own signature
+                .requestMatchers("/api/storage/local/upload").permitAll()
                 // All other endpoints require authentication
                 .anyRequest().authenticated()
             )
@@ -0,0 +1,108 @@
+package com.photoupload.api.controller;
+
+import com.photoupload.common.dto.ChunkedUploadRequest;
+import com.photoupload.common.dto.PhotoResponse;
+import com.photoupload.common.dto.UploadPartResponse;
+import com.photoupload.common.dto.UploadSessionResponse;
+import com.photoupload.service.PhotoService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * REST Controller for resumable chunked uploads.
+ * Clients initiate a session, PUT parts (in parallel, re-sending any that fail),
+ * then complete or abort. GET on the session lists stored parts for resuming.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/photos/uploads")
+@RequiredArgsConstructor
+public class ChunkedUploadController {
+
+    private final PhotoService photoService;
+
+    /**
+     * POST /api/photos/uploads - Initiate a chunked upload
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Timed(value = "photo.upload.chunked.initiate", description = "Time taken to initiate chunked upload")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<UploadSessionResponse> initiateUpload(@Valid @RequestBody ChunkedUploadRequest request) {
+        log.info("Received chunked upload request: userId={}, filename={}, size={}",
+            request.getUserId(), request.getFileName(), request.getFileSize());
+
+        UploadSessionResponse response = photoService.initiateChunkedUpload(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * PUT /api/photos/uploads/{sessionId}/parts/{partNumber} - Upload one part as the raw request body
+     */
+    @PutMapping(value = "/{sessionId}/parts/{partNumber}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Timed(value = "photo.upload.chunked.part", description = "Time taken to upload a part")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<UploadPartResponse> uploadPart(
+        @PathVariable String sessionId,
+        @PathVariable int partNumber,
+        HttpServletRequest request
+    ) throws IOException {
+        long size = request.getContentLengthLong();
+        if (size <= 0) {
+            throw new IllegalArgumentException("Content-Length is required for part uploads");
+        }
+
+        log.debug("Received part: sessionId={}, part={}, size={}", sessionId, partNumber, size);
+
+        UploadPartResponse response = photoService.uploadChunk(sessionId, partNumber, request.getInputStream(), size);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /api/photos/uploads/{sessionId} - Get session state and uploaded parts
+     */
+    @GetMapping("/{sessionId}")
+    @Timed(value = "photo.upload.chunked.get", description = "Time taken to get upload session")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<UploadSessionResponse> getUploadSession(@PathVariable String sessionId) {
+        return ResponseEntity.ok(photoService.getUploadSession(sessionId));
+    }
+
+    /**
+     * POST /api/photos/uploads/{sessionId}/complete - Assemble parts and start processing
+     */
+    @PostMapping("/{sessionId}/complete")
+    @Timed(value = "photo.upload.chunked.complete", description = "Time taken to complete chunked upload")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<PhotoResponse> completeUpload(@PathVariable String sessionId) {
+        log.info("Completing chunked upload: sessionId={}", sessionId);
+
+        PhotoResponse response = photoService.completeChunkedUpload(sessionId);
+
+        log.info("Chunked upload completed: photoId={}, status={}", response.getId(), response.getStatus());
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * DELETE /api/photos/uploads/{sessionId} - Abort upload and discard parts
+     */
+    @DeleteMapping("/{sessionId}")
+    @Timed(value = "photo.upload.chunked.abort", description = "Time taken to abort chunked upload")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Void> abortUpload(@PathVariable String sessionId) {
+        log.info("Aborting chunked upload: sessionId={}", sessionId);
+
+        photoService.abortChunkedUpload(sessionId);
+        return ResponseEntity.noContent().build();
+    }
+}
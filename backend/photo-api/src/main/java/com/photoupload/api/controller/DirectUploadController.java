@@ -0,0 +1,59 @@
+package com.photoupload.api.controller;
+
+import com.photoupload.common.dto.DirectUploadRequest;
+import com.photoupload.common.dto.DirectUploadResponse;
+import com.photoupload.common.dto.PhotoResponse;
+import com.photoupload.service.PhotoService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for direct-to-storage uploads.
+ * Clients request a presigned URL, upload the file to the storage provider themselves,
+ * then call complete so the stored object is verified and processing starts.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/photos/direct-uploads")
+@RequiredArgsConstructor
+public class DirectUploadController {
+
+    private final PhotoService photoService;
+
+    /**
+     * POST /api/photos/direct-uploads - Get a presigned upload URL
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Timed(value = "photo.upload.direct.initiate", description = "Time taken to issue a presigned upload")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<DirectUploadResponse> initiateUpload(@Valid @RequestBody DirectUploadRequest request) {
+        log.info("Received direct upload request: userId={}, filename={}, size={}",
+            request.getUserId(), request.getFileName(), request.getFileSize());
+
+        DirectUploadResponse response = photoService.initiateDirectUpload(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * POST /api/photos/direct-uploads/{photoId}/complete - Verify the uploaded object and start processing
+     */
+    @PostMapping("/{photoId}/complete")
+    @Timed(value = "photo.upload.direct.complete", description = "Time taken to complete direct upload")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<PhotoResponse> completeUpload(@PathVariable Long photoId) {
+        log.info("Completing direct upload: photoId={}", photoId);
+
+        PhotoResponse response = photoService.completeDirectUpload(photoId);
+
+        log.info("Direct upload completed: photoId={}, status={}", response.getId(), response.getStatus());
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+}
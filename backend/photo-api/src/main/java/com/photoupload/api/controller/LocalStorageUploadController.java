@@ -0,0 +1,48 @@
+package com.photoupload.api.controller;
+
+import com.photoupload.storage.impl.LocalFileStorageProvider;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * Stand-in for a cloud provider's presigned PUT endpoint when storage.provider=local.
+ * Unauthenticated like the real thing: the signed query string is the credential.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/storage/local/upload")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "storage.provider", havingValue = "local")
+public class LocalStorageUploadController {
+
+    private final LocalFileStorageProvider localStorageProvider;
+
+    /**
+     * PUT /api/storage/local/upload?key=...&signature=... - Store the raw request body
+     */
+    @PutMapping
+    public ResponseEntity<Void> upload(
+        @RequestParam String key,
+        @RequestParam String contentType,
+        @RequestParam long maxSize,
+        @RequestParam long expires,
+        @RequestParam String signature,
+        HttpServletRequest request
+    ) throws IOException {
+        try {
+            localStorageProvider.acceptPresignedUpload(
+                key, contentType, maxSize, expires, signature, request.getContentType(), request.getInputStream());
+        } catch (SecurityException e) {
+            log.warn("Rejected local presigned upload: key={}, reason={}", key, e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok().build();
+    }
+}
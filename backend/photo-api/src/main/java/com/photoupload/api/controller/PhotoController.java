@@ -1,16 +1,24 @@
 package com.photoupload.api.controller;
 
 import com.photoupload.common.domain.PhotoStatus;
+import com.photoupload.common.dto.BatchUploadResponse;
 import com.photoupload.common.dto.PhotoEventResponse;
 import com.photoupload.common.dto.PhotoResponse;
+import com.photoupload.api.multipart.MultipartParseException;
+import com.photoupload.api.multipart.MultipartStreamReader;
 import com.photoupload.common.dto.PhotoUploadRequest;
+import com.photoupload.common.dto.StreamingUploadRequest;
+import com.photoupload.service.DerivativeImageService;
 import com.photoupload.service.PhotoService;
 import io.micrometer.core.annotation.Timed;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -19,7 +27,12 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.validation.Valid;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * REST Controller for photo operations.
@@ -31,6 +44,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PhotoController {
 
+    private static final int MAX_STREAM_FIELDS = 16;
+    private static final int MAX_STREAM_FIELD_BYTES = 4 * 1024;
+
     private final PhotoService photoService;
 
     /**
@@ -63,6 +79,95 @@ public class PhotoController {
         return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
     }
 
+    /**
+     * POST /api/photos/upload/batch - Upload several photos in one request.
+     * Returns a result per file; individual failures do not fail the batch.
+     */
+    @PostMapping(value = "/upload/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Timed(value = "photo.upload.batch", description = "Time taken to upload a photo batch")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<BatchUploadResponse> uploadPhotoBatch(
+        @RequestParam("files") List<MultipartFile> files,
+        @RequestParam("userId") String userId
+    ) {
+        log.info("Received batch upload request: userId={}, files={}", userId, files.size());
+
+        List<PhotoUploadRequest> requests = files.stream()
+            .map(file -> PhotoUploadRequest.builder()
+                .file(file)
+                .userId(userId)
+                .build())
+            .toList();
+
+        BatchUploadResponse response = photoService.uploadPhotoBatch(requests);
+
+        log.info("Batch upload processed: userId={}, succeeded={}, failed={}",
+            userId, response.getSucceeded(), response.getFailed());
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * POST /api/photos/upload/stream - Upload a photo without spooling the request body.
+     * The body is parsed as it arrives and the file part is piped straight to storage, so
+     * form fields (userId, fileSize, description, tags) must come before the file part.
+     * The file size is taken from the part's Content-Length header or the fileSize field.
+     */
+    @PostMapping(value = "/upload/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Timed(value = "photo.upload.stream", description = "Time taken to stream a photo upload")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<PhotoResponse> uploadPhotoStream(HttpServletRequest servletRequest) throws IOException {
+        MultipartStreamReader reader = new MultipartStreamReader(servletRequest.getInputStream(),
+            MultipartStreamReader.boundaryOf(servletRequest.getContentType()));
+
+        Map<String, String> fields = new HashMap<>();
+        MultipartStreamReader.Part part;
+        try {
+            while ((part = reader.next()) != null && !part.isFile()) {
+                if (fields.size() >= MAX_STREAM_FIELDS) {
+                    throw new MultipartParseException("Too many form fields before the file part");
+                }
+                fields.put(part.name(), part.readString(MAX_STREAM_FIELD_BYTES));
+            }
+        } catch (EOFException e) {
+            throw new MultipartParseException("Multipart body ended before the file part");
+        }
+        if (part == null) {
+            throw new IllegalArgumentException("File is required");
+        }
+
+        StreamingUploadRequest request = StreamingUploadRequest.builder()
+            .userId(fields.get("userId"))
+            .originalFilename(part.filename())
+            .contentType(part.contentType())
+            .fileSize(part.contentLength() >= 0 ? part.contentLength() : declaredFileSize(fields.get("fileSize")))
+            .description(fields.get("description"))
+            .tags(fields.get("tags"))
+            .content(part.content())
+            .build();
+
+        log.info("Received streaming photo upload: userId={}, filename={}, size={}",
+            request.getUserId(), request.getOriginalFilename(), request.getFileSize());
+
+        PhotoResponse response = photoService.uploadPhotoStream(request);
+
+        log.info("Photo streamed successfully: photoId={}, status={}",
+            response.getId(), response.getStatus());
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    private static long declaredFileSize(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("fileSize field or part Content-Length is required for streaming uploads");
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid fileSize: " + value);
+        }
+    }
+
     /**
      * GET /api/photos/{id} - Get photo by ID
      */
@@ -76,6 +181,38 @@ public class PhotoController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * GET /api/photos/{id}/image - Get a resized image of a photo.
+     * Sizes and formats are limited to an allow-list; the image is generated on first request
+     * and cached. Its content never changes, so clients may cache it indefinitely.
+     */
+    @GetMapping("/{id}/image")
+    @Timed(value = "photo.image", description = "Time taken to serve a photo derivative")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<byte[]> getPhotoImage(
+        @PathVariable Long id,
+        @RequestParam(value = "w", required = false) Integer width,
+        @RequestParam(value = "h", required = false) Integer height,
+        @RequestParam(value = "fit", required = false) String fit,
+        @RequestParam(value = "format", required = false) String format,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        DerivativeImageService.ImageDerivative image = photoService.getPhotoImage(id, width, height, fit, format);
+
+        String etag = "\"" + image.key() + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable();
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(image.contentType()))
+            .contentLength(image.content().length)
+            .eTag(etag)
+            .cacheControl(cacheControl)
+            .body(image.content());
+    }
+
     /**
      * GET /api/photos - Get all photos with pagination
      * Supports filtering by userId and status
@@ -0,0 +1,11 @@
+package com.photoupload.api.multipart;
+
+/**
+ * Raised when a streamed multipart body is malformed or breaks a parsing limit
+ */
+public class MultipartParseException extends IllegalArgumentException {
+
+    public MultipartParseException(String message) {
+        super(message);
+    }
+}
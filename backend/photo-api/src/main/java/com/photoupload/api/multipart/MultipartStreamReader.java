@@ -0,0 +1,284 @@
+package com.photoupload.api.multipart;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Incremental multipart/form-data parser over a raw request body.
+ * Parts are handed out one at a time as streams that read up to the next boundary,
+ * so a file part can be piped to its destination without being buffered or spooled.
+ * Memory use is one fixed buffer regardless of body size.
+ */
+public class MultipartStreamReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_BYTES = 8 * 1024;
+
+    private final InputStream in;
+    private final byte[] delimiter;
+    private final byte[] buffer;
+    private int head;
+    private int tail;
+    private boolean finished;
+    private PartInputStream current;
+
+    public MultipartStreamReader(InputStream in, String boundary) {
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.buffer = new byte[Math.max(BUFFER_SIZE, delimiter.length * 4)];
+        // The first boundary has no leading CRLF; pretend it does so one delimiter matches all
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        tail = 2;
+    }
+
+    /**
+     * Extract the boundary parameter from a multipart Content-Type header
+     */
+    public static String boundaryOf(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/form-data")) {
+            throw new MultipartParseException("Request is not multipart/form-data");
+        }
+        String boundary = parameters(contentType).get("boundary");
+        if (boundary == null || boundary.isEmpty() || boundary.length() > 70) {
+            throw new MultipartParseException("Missing or invalid multipart boundary");
+        }
+        return boundary;
+    }
+
+    /**
+     * Advance to the next part, skipping whatever is unread of the current one
+     *
+     * @return the next part, or null after the closing boundary
+     */
+    public Part next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        // Skips the preamble on the first call
+        (current != null ? current : new PartInputStream()).drain();
+
+        ensure(2);
+        if (buffer[head] == '-' && buffer[head + 1] == '-') {
+            finished = true;
+            current = null;
+            return null;
+        }
+        skipLineEnd();
+
+        Map<String, String> headers = readHeaders();
+        String disposition = headers.get("content-disposition");
+        if (disposition == null) {
+            throw new MultipartParseException("Part without Content-Disposition header");
+        }
+        Map<String, String> dispositionParams = parameters(disposition);
+        long contentLength = -1;
+        if (headers.containsKey("content-length")) {
+            try {
+                contentLength = Long.parseLong(headers.get("content-length").trim());
+            } catch (NumberFormatException e) {
+                throw new MultipartParseException("Invalid part Content-Length");
+            }
+        }
+
+        current = new PartInputStream();
+        return new Part(dispositionParams.get("name"), dispositionParams.get("filename"),
+            headers.get("content-type"), contentLength, current);
+    }
+
+    private Map<String, String> readHeaders() throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        int total = 0;
+        while (true) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            while (true) {
+                ensure(1);
+                byte b = buffer[head++];
+                if (++total > MAX_HEADER_BYTES) {
+                    throw new MultipartParseException("Part headers too large");
+                }
+                if (b == '\n') {
+                    break;
+                }
+                if (b != '\r') {
+                    line.write(b);
+                }
+            }
+            if (line.size() == 0) {
+                return headers;
+            }
+            String header = line.toString(StandardCharsets.UTF_8);
+            int colon = header.indexOf(':');
+            if (colon > 0) {
+                headers.put(header.substring(0, colon).trim().toLowerCase(Locale.ROOT), header.substring(colon + 1).trim());
+            }
+        }
+    }
+
+    /**
+     * After a boundary: optional transport padding, then CRLF
+     */
+    private void skipLineEnd() throws IOException {
+        while (true) {
+            ensure(1);
+            byte b = buffer[head++];
+            if (b == '\n') {
+                return;
+            }
+            if (b != '\r' && b != ' ' && b != '\t') {
+                throw new MultipartParseException("Malformed multipart boundary line");
+            }
+        }
+    }
+
+    /**
+     * Make at least n unread bytes available in the buffer
+     */
+    private void ensure(int n) throws IOException {
+        while (tail - head < n) {
+            if (!fill()) {
+                throw new EOFException("Multipart body ended unexpectedly");
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (head > 0) {
+            System.arraycopy(buffer, head, buffer, 0, tail - head);
+            tail -= head;
+            head = 0;
+        }
+        int read = in.read(buffer, tail, buffer.length - tail);
+        if (read == -1) {
+            return false;
+        }
+        tail += read;
+        return true;
+    }
+
+    private int indexOfDelimiter() {
+        int last = tail - delimiter.length;
+        outer:
+        for (int i = head; i <= last; i++) {
+            for (int j = 0; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    static Map<String, String> parameters(String headerValue) {
+        Map<String, String> params = new LinkedHashMap<>();
+        int i = headerValue.indexOf(';');
+        while (i >= 0 && i < headerValue.length()) {
+            int eq = headerValue.indexOf('=', i);
+            if (eq < 0) {
+                break;
+            }
+            String name = headerValue.substring(i + 1, eq).trim().toLowerCase(Locale.ROOT);
+            int start = eq + 1;
+            String value;
+            if (start < headerValue.length() && headerValue.charAt(start) == '"') {
+                StringBuilder quoted = new StringBuilder();
+                int k = start + 1;
+                while (k < headerValue.length() && headerValue.charAt(k) != '"') {
+                    char c = headerValue.charAt(k);
+                    if (c == '\\' && k + 1 < headerValue.length()) {
+                        c = headerValue.charAt(++k);
+                    }
+                    quoted.append(c);
+                    k++;
+                }
+                value = quoted.toString();
+                i = headerValue.indexOf(';', k);
+            } else {
+                int end = headerValue.indexOf(';', start);
+                value = headerValue.substring(start, end < 0 ? headerValue.length() : end).trim();
+                i = end;
+            }
+            params.put(name, value);
+        }
+        return params;
+    }
+
+    /**
+     * One part of the body. The content stream is only valid until {@link #next()} is called again.
+     */
+    public record Part(String name, String filename, String contentType, long contentLength, InputStream content) {
+
+        public boolean isFile() {
+            return filename != null;
+        }
+
+        /**
+         * Read a small form field value
+         */
+        public String readString(int maxBytes) throws IOException {
+            byte[] value = content.readNBytes(maxBytes + 1);
+            if (value.length > maxBytes) {
+                throw new MultipartParseException("Form field '" + name + "' exceeds " + maxBytes + " bytes");
+            }
+            return new String(value, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Reads part content up to the next delimiter, holding back only the bytes that could
+     * be the start of a delimiter split across reads
+     */
+    private final class PartInputStream extends InputStream {
+
+        private boolean done;
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int n = read(one, 0, 1);
+            return n == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (done) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                int index = indexOfDelimiter();
+                if (index == head) {
+                    head += delimiter.length;
+                    done = true;
+                    return -1;
+                }
+                int available = index >= 0 ? index - head : tail - head - (delimiter.length - 1);
+                if (available > 0) {
+                    int n = Math.min(len, available);
+                    System.arraycopy(buffer, head, b, off, n);
+                    head += n;
+                    return n;
+                }
+                if (!fill()) {
+                    throw new EOFException("Multipart body ended before the closing boundary");
+                }
+            }
+        }
+
+        void drain() throws IOException {
+            byte[] skip = new byte[8192];
+            while (read(skip, 0, skip.length) != -1) {
+                // Discard
+            }
+        }
+    }
+}
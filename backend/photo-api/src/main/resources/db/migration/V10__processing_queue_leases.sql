@@ -0,0 +1,11 @@
+-- processing_queue becomes the durable dispatch queue shared by all replicas:
+-- workers claim rows with FOR UPDATE SKIP LOCKED and hold them under a renewable lease
+ALTER TABLE processing_queue ADD COLUMN locked_by VARCHAR(200);
+ALTER TABLE processing_queue ADD COLUMN lease_expires_at TIMESTAMP;
+ALTER TABLE processing_queue ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_processing_queue_ready ON processing_queue(created_at) WHERE status = 'PENDING';
+CREATE INDEX idx_processing_queue_lease ON processing_queue(lease_expires_at) WHERE status = 'PROCESSING';
+
+COMMENT ON COLUMN processing_queue.locked_by IS 'Worker holding the command while it is PROCESSING';
+COMMENT ON COLUMN processing_queue.lease_expires_at IS 'Lease end; an expired lease means the worker died and the command is retried';
@@ -0,0 +1,12 @@
+-- Events stored while the message broker is unavailable, relayed back to it in id order
+CREATE TABLE IF NOT EXISTS fallback_events (
+    id BIGSERIAL PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    event_type VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    correlation_id VARCHAR(100),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE fallback_events IS 'Events buffered in the database while the broker is down; drained back in id order';
+COMMENT ON COLUMN fallback_events.payload IS 'Serialized event JSON, sent to the broker unchanged';
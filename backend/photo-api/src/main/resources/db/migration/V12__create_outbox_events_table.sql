@@ -0,0 +1,14 @@
+-- Transactional outbox: domain events are inserted in the transaction that changes the photo
+-- and published by the outbox relay after commit, oldest first
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    photo_id BIGINT,
+    topic VARCHAR(255) NOT NULL,
+    event_type VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    correlation_id VARCHAR(100),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE outbox_events IS 'Domain events committed with their state change, deleted once published to the broker';
+COMMENT ON COLUMN outbox_events.payload IS 'Serialized event JSON, published unchanged';
@@ -0,0 +1,9 @@
+-- Leases letting one replica at a time relay the outbox or the fallback events, replacing
+-- transaction-scoped advisory locks so no transaction stays open while the broker confirms
+CREATE TABLE IF NOT EXISTS relay_leases (
+    name VARCHAR(100) PRIMARY KEY,
+    holder VARCHAR(200) NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+COMMENT ON TABLE relay_leases IS 'One row per relayed event stream; held by the replica relaying it until expires_at';
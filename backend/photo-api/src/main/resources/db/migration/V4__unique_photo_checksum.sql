@@ -0,0 +1,7 @@
+-- Enforce checksum-keyed deduplication at commit time.
+-- Uploads stream to storage before the checksum is known, so the unique index
+-- is what rejects a concurrent duplicate that slipped past the lookup.
+DROP INDEX IF EXISTS idx_photos_checksum;
+CREATE UNIQUE INDEX idx_photos_checksum ON photos(checksum);
+
+COMMENT ON COLUMN photos.checksum IS 'SHA-256 of the original, computed while streaming to storage';
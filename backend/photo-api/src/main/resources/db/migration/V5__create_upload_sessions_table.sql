@@ -0,0 +1,40 @@
+-- Create upload_sessions table for resumable chunked uploads
+CREATE TABLE IF NOT EXISTS upload_sessions (
+    id VARCHAR(36) PRIMARY KEY,
+    photo_id BIGINT NOT NULL,
+    user_id VARCHAR(255) NOT NULL,
+    original_file_name VARCHAR(500) NOT NULL,
+    content_type VARCHAR(100),
+    file_size BIGINT NOT NULL,
+    part_size BIGINT NOT NULL,
+    storage_key VARCHAR(500) NOT NULL,
+    provider_upload_id VARCHAR(1024) NOT NULL,
+    status VARCHAR(50) NOT NULL DEFAULT 'ACTIVE',
+    correlation_id VARCHAR(100),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_upload_sessions_photo FOREIGN KEY (photo_id) REFERENCES photos(id) ON DELETE CASCADE,
+    CONSTRAINT upload_sessions_status_check CHECK (status IN ('ACTIVE', 'COMPLETING', 'COMPLETED', 'ABORTED', 'EXPIRED'))
+);
+
+-- Create upload_session_parts table
+CREATE TABLE IF NOT EXISTS upload_session_parts (
+    id BIGSERIAL PRIMARY KEY,
+    session_id VARCHAR(36) NOT NULL,
+    part_number INTEGER NOT NULL,
+    etag VARCHAR(1024) NOT NULL,
+    size BIGINT NOT NULL,
+    uploaded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_upload_session_parts_session FOREIGN KEY (session_id) REFERENCES upload_sessions(id) ON DELETE CASCADE,
+    CONSTRAINT uk_upload_session_parts_session_part UNIQUE (session_id, part_number)
+);
+
+-- Create indexes
+CREATE INDEX idx_upload_sessions_status_expires_at ON upload_sessions(status, expires_at);
+CREATE INDEX idx_upload_sessions_photo_id ON upload_sessions(photo_id);
+
+-- Add comments
+COMMENT ON TABLE upload_sessions IS 'Resumable chunked upload sessions backed by provider multipart uploads';
+COMMENT ON COLUMN upload_sessions.provider_upload_id IS 'Upload ID returned by the storage provider multipart API';
+COMMENT ON COLUMN upload_sessions.expires_at IS 'Sessions still ACTIVE after this time are swept and their parts discarded';
@@ -0,0 +1,4 @@
+-- Hibernate allocates photo and event IDs in blocks of 50 from these sequences
+-- (pooled optimizer), so inserts can be sent as JDBC batches
+ALTER SEQUENCE photos_id_seq INCREMENT BY 50;
+ALTER SEQUENCE photo_events_id_seq INCREMENT BY 50;
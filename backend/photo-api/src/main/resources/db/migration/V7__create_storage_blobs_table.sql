@@ -0,0 +1,36 @@
+-- Content-addressed blob store: photos with identical bytes share one stored object.
+-- The blob row carries a reference count; the object is deleted with the last reference.
+CREATE TABLE storage_blobs (
+    checksum VARCHAR(64) PRIMARY KEY,
+    storage_key VARCHAR(500) NOT NULL,
+    storage_url VARCHAR(1000),
+    content_type VARCHAR(100),
+    file_size BIGINT,
+    thumbnail_url VARCHAR(1000),
+    width INTEGER,
+    height INTEGER,
+    metadata TEXT,
+    ref_count INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP,
+    version BIGINT DEFAULT 0,
+    CONSTRAINT chk_storage_blobs_ref_count CHECK (ref_count >= 0)
+);
+
+-- Every existing checksummed photo owns its object (the unique index guaranteed one per checksum)
+INSERT INTO storage_blobs (checksum, storage_key, storage_url, content_type, file_size,
+                           thumbnail_url, width, height, metadata, ref_count, created_at)
+SELECT checksum, storage_key, storage_url, content_type, file_size,
+       thumbnail_url, width, height, metadata, 1, uploaded_at
+FROM photos
+WHERE checksum IS NOT NULL AND storage_key IS NOT NULL;
+
+-- Duplicates are now accepted and point at the shared object
+DROP INDEX IF EXISTS idx_photos_checksum;
+CREATE INDEX idx_photos_checksum ON photos(checksum);
+ALTER TABLE photos DROP CONSTRAINT IF EXISTS photos_storage_key_key;
+CREATE INDEX idx_photos_storage_key ON photos(storage_key);
+
+COMMENT ON TABLE storage_blobs IS 'Stored objects keyed by content hash, shared by duplicate photos';
+COMMENT ON COLUMN storage_blobs.ref_count IS 'Number of photos referencing the object';
+COMMENT ON COLUMN photos.storage_key IS 'Key of the photo in cloud storage; shared by photos with identical content';
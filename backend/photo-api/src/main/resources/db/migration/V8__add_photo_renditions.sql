@@ -0,0 +1,5 @@
+-- Processing output per photo: every generated size/format, as a JSON array
+ALTER TABLE photos ADD COLUMN renditions TEXT;
+ALTER TABLE storage_blobs ADD COLUMN renditions TEXT;
+
+COMMENT ON COLUMN photos.renditions IS 'Generated renditions (width, height, format, url) as JSON; thumbnail_url is one of them';
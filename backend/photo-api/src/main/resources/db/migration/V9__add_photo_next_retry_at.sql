@@ -0,0 +1,9 @@
+-- Pending processing retries are persisted so they survive restarts
+ALTER TABLE photos ADD COLUMN next_retry_at TIMESTAMP;
+
+-- Retries that were waiting when this was deployed run as soon as the service starts
+UPDATE photos SET next_retry_at = NOW() WHERE status = 'RETRYING';
+
+CREATE INDEX idx_photos_next_retry_at ON photos(next_retry_at) WHERE next_retry_at IS NOT NULL;
+
+COMMENT ON COLUMN photos.next_retry_at IS 'When the pending processing retry is due; cleared once a node claims it';
@@ -0,0 +1,143 @@
+package com.photoupload.api.multipart;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MultipartStreamReader.
+ */
+class MultipartStreamReaderTest {
+
+    private static final String BOUNDARY = "----PhotoBoundary7MA4YWxkTrZu0gW";
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 7, 8191, 65536})
+    void next_BoundarySplitAcrossReads_ContentIntact(int chunkSize) throws IOException {
+        // Arrange: larger than the reader's buffer, delivered in small reads so the
+        // delimiter straddles reads and buffer refills
+        byte[] file = new byte[200_000];
+        new Random(42).nextBytes(file);
+        byte[] body = body(file, true);
+
+        // Act
+        MultipartStreamReader reader = new MultipartStreamReader(new ChunkedInputStream(body, chunkSize), BOUNDARY);
+        MultipartStreamReader.Part field = reader.next();
+        String userId = field.readString(64);
+        MultipartStreamReader.Part part = reader.next();
+        byte[] content = part.content().readAllBytes();
+
+        // Assert
+        assertEquals("userId", field.name());
+        assertEquals("user-123", userId);
+        assertEquals("file", part.name());
+        assertEquals("a.jpg", part.filename());
+        assertEquals("image/jpeg", part.contentType());
+        assertArrayEquals(file, content);
+        assertNull(reader.next());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 65536})
+    void next_CrlfAndPartialBoundaryInFileData_KeptAsContent(int chunkSize) throws IOException {
+        // Arrange: everything short of a full delimiter belongs to the file
+        String partial = "\r\n--" + BOUNDARY.substring(0, BOUNDARY.length() - 1);
+        byte[] file = ("head\r\n\r\n--" + partial + "X\r\n-" + partial + "\r\n")
+            .getBytes(StandardCharsets.ISO_8859_1);
+        byte[] body = body(file, true);
+
+        // Act
+        MultipartStreamReader reader = new MultipartStreamReader(new ChunkedInputStream(body, chunkSize), BOUNDARY);
+        reader.next();
+        byte[] content = reader.next().content().readAllBytes();
+
+        // Assert
+        assertArrayEquals(file, content);
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_MissingClosingBoundary_ContentReadFails() throws IOException {
+        // Arrange: the body is cut off inside the file part
+        byte[] file = new byte[100_000];
+        new Random(7).nextBytes(file);
+        byte[] body = body(file, false);
+
+        // Act
+        MultipartStreamReader reader = new MultipartStreamReader(new ByteArrayInputStream(body), BOUNDARY);
+        reader.next();
+        InputStream content = reader.next().content();
+
+        // Assert
+        assertThrows(EOFException.class, content::readAllBytes);
+    }
+
+    @Test
+    void next_BodyEndsAfterLastDelimiter_Fails() throws IOException {
+        // Arrange: delimiter present but neither "--" nor another part follows
+        String body = "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"userId\"\r\n\r\n"
+            + "user-123\r\n--" + BOUNDARY;
+
+        // Act
+        MultipartStreamReader reader = new MultipartStreamReader(
+            new ByteArrayInputStream(body.getBytes(StandardCharsets.ISO_8859_1)), BOUNDARY);
+        reader.next();
+
+        // Assert
+        assertThrows(EOFException.class, reader::next);
+    }
+
+    @Test
+    void boundaryOf_QuotedBoundary_Unquoted() {
+        assertEquals(BOUNDARY, MultipartStreamReader.boundaryOf("multipart/form-data; boundary=\"" + BOUNDARY + "\""));
+        assertThrows(MultipartParseException.class, () -> MultipartStreamReader.boundaryOf("application/json"));
+    }
+
+    /**
+     * A userId field followed by a file part, optionally without the closing boundary
+     */
+    private static byte[] body(byte[] file, boolean closed) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(("--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"userId\"\r\n\r\n"
+            + "user-123\r\n"
+            + "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"file\"; filename=\"a.jpg\"\r\n"
+            + "Content-Type: image/jpeg\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        body.write(file);
+        if (closed) {
+            body.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        }
+        return body.toByteArray();
+    }
+
+    /**
+     * Returns at most chunkSize bytes per read, like a socket delivering a body in segments
+     */
+    private static final class ChunkedInputStream extends FilterInputStream {
+
+        private final int chunkSize;
+
+        ChunkedInputStream(byte[] data, int chunkSize) {
+            super(new ByteArrayInputStream(data));
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, chunkSize));
+        }
+    }
+}
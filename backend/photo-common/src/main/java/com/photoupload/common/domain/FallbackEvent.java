@@ -0,0 +1,40 @@
+package com.photoupload.common.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Event stored while the message broker is unavailable, relayed back to it in id order.
+ * FallbackEventStore reads and writes the table with JDBC; the mapping keeps the schema
+ * of profiles without Flyway in line with the migration.
+ */
+@Entity
+@Table(name = "fallback_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FallbackEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "topic", nullable = false)
+    private String topic;
+
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "correlation_id", length = 100)
+    private String correlationId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
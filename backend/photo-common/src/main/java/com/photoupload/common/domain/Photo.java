@@ -15,7 +15,9 @@ import java.time.Instant;
 @Table(name = "photos", indexes = {
     @Index(name = "idx_user_id", columnList = "user_id"),
     @Index(name = "idx_status", columnList = "status"),
-    @Index(name = "idx_uploaded_at", columnList = "uploaded_at")
+    @Index(name = "idx_uploaded_at", columnList = "uploaded_at"),
+    @Index(name = "idx_photos_checksum", columnList = "checksum"),
+    @Index(name = "idx_photos_storage_key", columnList = "storage_key")
 })
 @Getter
 @Setter
@@ -24,8 +26,12 @@ import java.time.Instant;
 @Builder
 public class Photo {
 
+    /**
+     * Sequence-backed so that inserts can be JDBC-batched; IDENTITY forces one round trip per row
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "photos_id_seq")
+    @SequenceGenerator(name = "photos_id_seq", sequenceName = "photos_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -40,7 +46,10 @@ public class Photo {
     @Column(name = "file_size")
     private Long fileSize;
 
-    @Column(name = "storage_key", unique = true, length = 500)
+    /**
+     * Photos with identical content share the key of their {@link StorageBlob}
+     */
+    @Column(name = "storage_key", length = 500)
     private String storageKey;
 
     @Column(name = "storage_url", length = 1000)
@@ -49,6 +58,12 @@ public class Photo {
     @Column(name = "thumbnail_url", length = 1000)
     private String thumbnailUrl;
 
+    /**
+     * JSON array of the generated renditions; the thumbnail URL points at one of them
+     */
+    @Column(name = "renditions", columnDefinition = "TEXT")
+    private String renditions;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
     private PhotoStatus status;
@@ -87,6 +102,9 @@ public class Photo {
     @Column(name = "last_error", columnDefinition = "TEXT")
     private String lastError;
 
+    @Column(name = "next_retry_at")
+    private Instant nextRetryAt;
+
     /**
      * Builder pattern implementation for complex Photo construction
      */
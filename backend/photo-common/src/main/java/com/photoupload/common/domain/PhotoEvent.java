@@ -23,8 +23,12 @@ import java.time.Instant;
 @Builder
 public class PhotoEvent {
 
+    /**
+     * Sequence-backed so that inserts can be JDBC-batched; IDENTITY forces one round trip per row
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "photo_events_id_seq")
+    @SequenceGenerator(name = "photo_events_id_seq", sequenceName = "photo_events_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "photo_id", nullable = false)
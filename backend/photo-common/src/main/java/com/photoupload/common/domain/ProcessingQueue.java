@@ -8,8 +8,10 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.Instant;
 
 /**
- * Database-backed processing queue for fallback when message queue is unavailable.
+ * Database-backed processing queue shared by all replicas.
  * Implements Command pattern for queue-based command execution.
+ * A worker claims a PENDING command under a lease, which it renews while the command runs;
+ * a command whose lease expires is retried like a failed one.
  */
 @Entity
 @Table(name = "processing_queue", indexes = {
@@ -71,6 +73,16 @@ public class ProcessingQueue {
     @Column(name = "completed_at")
     private Instant completedAt;
 
+    @Column(name = "locked_by", length = 200)
+    private String lockedBy;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     /**
      * Command types for processing queue
      */
@@ -115,6 +127,30 @@ public class ProcessingQueue {
         this.status = QueueStatus.PROCESSING;
     }
 
+    /**
+     * Take the command for a worker until the lease expires
+     */
+    public void claim(String workerId, Instant leaseExpiresAt) {
+        markProcessing();
+        this.lockedBy = workerId;
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    /**
+     * Give up the worker's lease
+     */
+    public void releaseLease() {
+        this.lockedBy = null;
+        this.leaseExpiresAt = null;
+    }
+
+    /**
+     * Check if the worker still holds the command
+     */
+    public boolean isClaimedBy(String workerId) {
+        return this.status == QueueStatus.PROCESSING && workerId.equals(this.lockedBy);
+    }
+
     /**
      * Mark as completed
      */
@@ -0,0 +1,31 @@
+package com.photoupload.common.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Lease letting one replica at a time relay a stream of events, so they reach the broker
+ * in order. Held by RelayLock with plain JDBC; the mapping keeps the schema of profiles
+ * without Flyway in line with the migration.
+ */
+@Entity
+@Table(name = "relay_leases")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RelayLease {
+
+    @Id
+    @Column(name = "name", length = 100)
+    private String name;
+
+    @Column(name = "holder", nullable = false, length = 200)
+    private String holder;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
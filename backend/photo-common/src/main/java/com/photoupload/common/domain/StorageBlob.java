@@ -0,0 +1,82 @@
+package com.photoupload.common.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Content-addressed stored object, keyed by the SHA-256 of its bytes.
+ * Photos with identical content share one blob; the object is deleted from storage
+ * only when the last referencing photo is deleted.
+ */
+@Entity
+@Table(name = "storage_blobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorageBlob {
+
+    @Id
+    @Column(name = "checksum", length = 64)
+    private String checksum;
+
+    @Column(name = "storage_key", nullable = false, length = 500)
+    private String storageKey;
+
+    @Column(name = "storage_url", length = 1000)
+    private String storageUrl;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    /**
+     * Processing output of the first photo that completed; reused by later references
+     */
+    @Column(name = "thumbnail_url", length = 1000)
+    private String thumbnailUrl;
+
+    @Column(name = "renditions", columnDefinition = "TEXT")
+    private String renditions;
+
+    @Column(name = "width")
+    private Integer width;
+
+    @Column(name = "height")
+    private Integer height;
+
+    @Column(name = "metadata", columnDefinition = "TEXT")
+    private String metadata;
+
+    /**
+     * Number of photos pointing at this blob. Only changed through atomic update queries.
+     */
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @CreationTimestamp
+    private Instant createdAt;
+
+    @Column(name = "updated_at")
+    @UpdateTimestamp
+    private Instant updatedAt;
+
+    /**
+     * Also marks new rows: the checksum ID is assigned, so a null version is what makes save() persist
+     */
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    public boolean isProcessed() {
+        return thumbnailUrl != null;
+    }
+}
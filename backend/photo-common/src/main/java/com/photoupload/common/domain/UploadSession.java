@@ -0,0 +1,97 @@
+package com.photoupload.common.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Resumable chunked upload session backed by a provider-native multipart upload.
+ * Persisted so that an upload can continue on any replica after a pod restart.
+ */
+@Entity
+@Table(name = "upload_sessions", indexes = {
+    @Index(name = "idx_upload_sessions_status_expires_at", columnList = "status, expires_at"),
+    @Index(name = "idx_upload_sessions_photo_id", columnList = "photo_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSession {
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Column(name = "photo_id", nullable = false)
+    private Long photoId;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "original_file_name", nullable = false, length = 500)
+    private String originalFileName;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    @Column(name = "part_size", nullable = false)
+    private Long partSize;
+
+    @Column(name = "storage_key", nullable = false, length = 500)
+    private String storageKey;
+
+    @Column(name = "provider_upload_id", nullable = false, length = 1024)
+    private String providerUploadId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    @Builder.Default
+    private SessionStatus status = SessionStatus.ACTIVE;
+
+    @Column(name = "correlation_id", length = 100)
+    private String correlationId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @CreationTimestamp
+    private Instant createdAt;
+
+    @Column(name = "updated_at")
+    @UpdateTimestamp
+    private Instant updatedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * Upload session lifecycle
+     */
+    public enum SessionStatus {
+        ACTIVE,
+        COMPLETING,
+        COMPLETED,
+        ABORTED,
+        EXPIRED
+    }
+
+    /**
+     * Check if session has passed its expiry time
+     */
+    public boolean isExpired() {
+        return Instant.now().isAfter(this.expiresAt);
+    }
+
+    /**
+     * Check if session still accepts parts
+     */
+    public boolean isActive() {
+        return this.status == SessionStatus.ACTIVE && !isExpired();
+    }
+}
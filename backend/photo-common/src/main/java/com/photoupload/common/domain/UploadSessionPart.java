@@ -0,0 +1,42 @@
+package com.photoupload.common.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+
+/**
+ * A part written to storage for an upload session
+ */
+@Entity
+@Table(name = "upload_session_parts", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_upload_session_parts_session_part", columnNames = {"session_id", "part_number"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSessionPart {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false, length = 36)
+    private String sessionId;
+
+    @Column(name = "part_number", nullable = false)
+    private Integer partNumber;
+
+    @Column(name = "etag", nullable = false, length = 1024)
+    private String etag;
+
+    @Column(name = "size", nullable = false)
+    private Long size;
+
+    @Column(name = "uploaded_at")
+    @UpdateTimestamp
+    private Instant uploadedAt;
+}
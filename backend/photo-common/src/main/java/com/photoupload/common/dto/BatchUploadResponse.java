@@ -0,0 +1,40 @@
+package com.photoupload.common.dto;
+
+import com.photoupload.common.domain.PhotoStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Batch upload response DTO with one result per submitted file, in request order
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchUploadResponse {
+
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<FileResult> results;
+
+    /**
+     * Outcome for a single file of the batch
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FileResult {
+
+        private String fileName;
+        private boolean success;
+        private Long photoId;
+        private PhotoStatus status;
+        private String error;
+    }
+}
@@ -0,0 +1,23 @@
+package com.photoupload.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One stored size/format of a processed photo
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PhotoRendition {
+
+    private Integer width;
+    private Integer height;
+    private String format;
+    private String contentType;
+    private String url;
+    private Long size;
+}
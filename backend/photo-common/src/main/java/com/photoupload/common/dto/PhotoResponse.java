@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.util.List;
 
 /**
  * Photo response DTO for API responses
@@ -24,6 +25,7 @@ public class PhotoResponse {
     private Long fileSize;
     private String storageUrl;
     private String thumbnailUrl;
+    private List<PhotoRendition> renditions;
     private PhotoStatus status;
     private Integer width;
     private Integer height;
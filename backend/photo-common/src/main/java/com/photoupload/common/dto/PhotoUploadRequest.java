@@ -17,6 +17,11 @@ import org.springframework.web.multipart.MultipartFile;
 @AllArgsConstructor
 public class PhotoUploadRequest {
 
+    /**
+     * Max file size: 50MB
+     */
+    public static final long MAX_FILE_SIZE = 50 * 1024 * 1024;
+
     @NotNull(message = "File is required")
     private MultipartFile file;
 
@@ -35,14 +40,18 @@ public class PhotoUploadRequest {
             throw new IllegalArgumentException("File cannot be empty");
         }
 
-        String contentType = file.getContentType();
+        validateFileProperties(file.getContentType(), file.getSize());
+    }
+
+    /**
+     * Validate content type and size for uploads that do not arrive as a MultipartFile
+     */
+    public static void validateFileProperties(String contentType, long fileSize) {
         if (contentType == null || !contentType.startsWith("image/")) {
             throw new IllegalArgumentException("Only image files are allowed");
         }
 
-        // Max file size: 50MB
-        long maxSize = 50 * 1024 * 1024;
-        if (file.getSize() > maxSize) {
+        if (fileSize > MAX_FILE_SIZE) {
             throw new IllegalArgumentException("File size exceeds maximum allowed size of 50MB");
         }
     }
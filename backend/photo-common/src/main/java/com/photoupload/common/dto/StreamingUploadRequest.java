@@ -0,0 +1,50 @@
+package com.photoupload.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.InputStream;
+
+/**
+ * Upload request whose file content is read straight from the request body.
+ * The content can only be read once, and its size is the size declared by the client.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamingUploadRequest {
+
+    private String userId;
+
+    private String originalFilename;
+
+    private String contentType;
+
+    /**
+     * Declared size in bytes; the stream is held to it while uploading
+     */
+    private long fileSize;
+
+    private String description;
+
+    private String tags;
+
+    private InputStream content;
+
+    /**
+     * Apply the same rules as {@link PhotoUploadRequest#validate()} before any byte is stored
+     */
+    public void validate() {
+        if (userId == null || userId.isBlank()) {
+            throw new IllegalArgumentException("User ID is required");
+        }
+        if (content == null || fileSize <= 0) {
+            throw new IllegalArgumentException("File cannot be empty");
+        }
+
+        PhotoUploadRequest.validateFileProperties(contentType, fileSize);
+    }
+}
@@ -0,0 +1,21 @@
+package com.photoupload.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for a single uploaded part
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadPartResponse {
+
+    private String sessionId;
+    private Integer partNumber;
+    private String etag;
+    private Long size;
+}
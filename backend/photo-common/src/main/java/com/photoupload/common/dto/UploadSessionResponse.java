@@ -0,0 +1,30 @@
+package com.photoupload.common.dto;
+
+import com.photoupload.common.domain.UploadSession.SessionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Upload session response DTO. Lists the parts already stored so clients can resume.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionResponse {
+
+    private String sessionId;
+    private Long photoId;
+    private SessionStatus status;
+    private Long fileSize;
+    private Long partSize;
+    private Integer totalParts;
+    private List<Integer> uploadedParts;
+    private Long uploadedBytes;
+    private Instant expiresAt;
+}
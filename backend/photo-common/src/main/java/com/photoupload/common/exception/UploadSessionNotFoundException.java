@@ -0,0 +1,18 @@
+package com.photoupload.common.exception;
+
+/**
+ * Exception thrown when a chunked upload session is not found
+ */
+public class UploadSessionNotFoundException extends RuntimeException {
+
+    private final String sessionId;
+
+    public UploadSessionNotFoundException(String sessionId) {
+        super(String.format("Upload session not found with id: %s", sessionId));
+        this.sessionId = sessionId;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+}
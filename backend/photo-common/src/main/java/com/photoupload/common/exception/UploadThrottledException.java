@@ -0,0 +1,18 @@
+package com.photoupload.common.exception;
+
+/**
+ * Exception thrown when an upload is refused because an admission budget is exhausted
+ */
+public class UploadThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public UploadThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
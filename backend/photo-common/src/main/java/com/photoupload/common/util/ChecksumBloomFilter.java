@@ -0,0 +1,92 @@
+package com.photoupload.common.util;
+
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe Bloom filter over hex-encoded SHA-256 checksums.
+ * The checksum is already a uniform hash, so bit positions are derived from its first
+ * 128 bits by double hashing instead of hashing the string again.
+ * Never returns a false negative for a checksum that was put.
+ */
+public class ChecksumBloomFilter {
+
+    private static final int MAX_HASH_FUNCTIONS = 16;
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final LongAdder insertions = new LongAdder();
+
+    private ChecksumBloomFilter(long bitSize, int hashFunctions) {
+        this.bits = new AtomicLongArray((int) ((bitSize + 63) / 64));
+        this.bitSize = bitSize;
+        this.hashFunctions = hashFunctions;
+    }
+
+    /**
+     * Size a filter for the expected number of checksums and target false-positive rate,
+     * shrinking it to the memory budget if needed (which raises the achieved rate)
+     */
+    public static ChecksumBloomFilter create(long expectedInsertions, double targetFpp, long maxBytes) {
+        if (expectedInsertions <= 0 || targetFpp <= 0 || targetFpp >= 1 || maxBytes < 8) {
+            throw new IllegalArgumentException("Invalid Bloom filter sizing: expectedInsertions="
+                + expectedInsertions + ", targetFpp=" + targetFpp + ", maxBytes=" + maxBytes);
+        }
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(targetFpp) / (Math.log(2) * Math.log(2)));
+        long maxBits = Math.min(maxBytes, (long) Integer.MAX_VALUE * 8L) * 8L;
+        long bitSize = Math.max(64, Math.min(optimalBits, maxBits));
+        int hashFunctions = (int) Math.round((double) bitSize / expectedInsertions * Math.log(2));
+        return new ChecksumBloomFilter(bitSize, Math.max(1, Math.min(MAX_HASH_FUNCTIONS, hashFunctions)));
+    }
+
+    public void put(String checksum) {
+        long h1 = HexFormat.fromHexDigitsToLong(checksum, 0, 16);
+        long h2 = HexFormat.fromHexDigitsToLong(checksum, 16, 32);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitSize);
+            long mask = 1L << index;
+            int word = (int) (index >>> 6);
+            if ((bits.get(word) & mask) == 0) {
+                bits.accumulateAndGet(word, mask, (current, bit) -> current | bit);
+            }
+        }
+        insertions.increment();
+    }
+
+    /**
+     * @return false if the checksum was definitely never put; true if it may have been
+     */
+    public boolean mightContain(String checksum) {
+        long h1 = HexFormat.fromHexDigitsToLong(checksum, 0, 16);
+        long h2 = HexFormat.fromHexDigitsToLong(checksum, 16, 32);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitSize);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * False-positive rate expected at the current number of insertions
+     */
+    public double expectedFpp() {
+        double fill = 1 - Math.exp(-(double) hashFunctions * insertions.sum() / bitSize);
+        return Math.pow(fill, hashFunctions);
+    }
+
+    public long insertions() {
+        return insertions.sum();
+    }
+
+    public long sizeInBytes() {
+        return (long) bits.length() * Long.BYTES;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+}
@@ -0,0 +1,84 @@
+package com.photoupload.common.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * InputStream decorator that holds a stream of unknown length to the size the client declared.
+ * Reading past the declared size fails, so an oversized body is cut off as it arrives,
+ * and {@link #verifyComplete()} rejects a body that ended early.
+ */
+public class DeclaredLengthInputStream extends FilterInputStream {
+
+    private final long declaredLength;
+    private long bytesRead;
+
+    public DeclaredLengthInputStream(InputStream in, long declaredLength) {
+        super(in);
+        this.declaredLength = declaredLength;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            count(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        if (skipped > 0) {
+            count(skipped);
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        // Not supported: re-reading would double count
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * Fail unless the stream held exactly the declared number of bytes.
+     * Consumers such as storage SDKs may stop after the declared length, so this reads
+     * one more byte to detect a longer body.
+     */
+    public void verifyComplete() throws IOException {
+        if (bytesRead > declaredLength || (bytesRead == declaredLength && super.read() != -1)) {
+            throw new IOException("Content exceeds declared size of " + declaredLength + " bytes");
+        }
+        if (bytesRead < declaredLength) {
+            throw new IOException("Content ended after " + bytesRead + " of " + declaredLength + " declared bytes");
+        }
+    }
+
+    private void count(long n) throws IOException {
+        bytesRead += n;
+        if (bytesRead > declaredLength) {
+            throw new IOException("Content exceeds declared size of " + declaredLength + " bytes");
+        }
+    }
+}
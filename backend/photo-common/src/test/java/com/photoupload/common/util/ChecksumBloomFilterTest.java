@@ -0,0 +1,73 @@
+package com.photoupload.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChecksumBloomFilter.
+ */
+class ChecksumBloomFilterTest {
+
+    @Test
+    void mightContain_EveryPutChecksum_NoFalseNegatives() {
+        // Arrange
+        ChecksumBloomFilter filter = ChecksumBloomFilter.create(10_000, 0.01, 1 << 20);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(checksum("stored-" + i));
+        }
+
+        // Act & Assert
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(checksum("stored-" + i)), "false negative for stored-" + i);
+        }
+        assertEquals(10_000, filter.insertions());
+    }
+
+    @Test
+    void mightContain_AbsentChecksums_FalsePositiveRateNearTarget() {
+        // Arrange
+        ChecksumBloomFilter filter = ChecksumBloomFilter.create(10_000, 0.01, 1 << 20);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(checksum("stored-" + i));
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(checksum("absent-" + i))) {
+                falsePositives++;
+            }
+        }
+
+        // Assert: 1% target, with room for variance
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void create_MemoryBudgetBelowOptimalSize_CappedToBudget() {
+        ChecksumBloomFilter filter = ChecksumBloomFilter.create(1_000_000, 0.001, 1024);
+
+        assertEquals(1024, filter.sizeInBytes());
+    }
+
+    @Test
+    void create_InvalidSizing_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> ChecksumBloomFilter.create(0, 0.01, 1024));
+        assertThrows(IllegalArgumentException.class, () -> ChecksumBloomFilter.create(100, 1.0, 1024));
+    }
+
+    static String checksum(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
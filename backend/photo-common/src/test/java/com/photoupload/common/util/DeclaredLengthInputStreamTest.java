@@ -0,0 +1,57 @@
+package com.photoupload.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DeclaredLengthInputStream.
+ */
+class DeclaredLengthInputStreamTest {
+
+    @Test
+    void verifyComplete_ExactLength_Passes() throws IOException {
+        DeclaredLengthInputStream in = new DeclaredLengthInputStream(new ByteArrayInputStream(new byte[100]), 100);
+
+        assertEquals(100, in.readAllBytes().length);
+        assertDoesNotThrow(in::verifyComplete);
+    }
+
+    @Test
+    void verifyComplete_ShorterThanDeclared_Fails() throws IOException {
+        DeclaredLengthInputStream in = new DeclaredLengthInputStream(new ByteArrayInputStream(new byte[60]), 100);
+        in.readAllBytes();
+
+        IOException e = assertThrows(IOException.class, in::verifyComplete);
+        assertTrue(e.getMessage().contains("60 of 100"));
+    }
+
+    @Test
+    void read_LongerThanDeclared_FailsWhileStreaming() {
+        DeclaredLengthInputStream in = new DeclaredLengthInputStream(new ByteArrayInputStream(new byte[150]), 100);
+
+        assertThrows(IOException.class, in::readAllBytes);
+    }
+
+    @Test
+    void verifyComplete_ConsumerStoppedAtDeclaredLength_DetectsExtraBytes() throws IOException {
+        // Arrange: a storage SDK reads exactly the declared length and stops
+        DeclaredLengthInputStream in = new DeclaredLengthInputStream(new ByteArrayInputStream(new byte[101]), 100);
+        assertEquals(100, in.readNBytes(100).length);
+
+        // Act & Assert
+        assertThrows(IOException.class, in::verifyComplete);
+    }
+
+    @Test
+    void read_SingleBytesPastDeclaredLength_Fails() throws IOException {
+        DeclaredLengthInputStream in = new DeclaredLengthInputStream(new ByteArrayInputStream(new byte[3]), 2);
+        in.read();
+        in.read();
+
+        assertThrows(IOException.class, in::read);
+    }
+}
@@ -0,0 +1,370 @@
+package com.photoupload.service;
+
+import com.photoupload.common.domain.Photo;
+import com.photoupload.common.domain.PhotoEvent;
+import com.photoupload.common.domain.PhotoStatus;
+import com.photoupload.common.domain.StorageBlob;
+import com.photoupload.common.dto.BatchUploadResponse;
+import com.photoupload.common.dto.PhotoUploadRequest;
+import com.photoupload.common.event.PhotoUploadedEvent;
+import com.photoupload.common.util.ChecksumInputStream;
+import com.photoupload.common.util.CorrelationIdGenerator;
+import com.photoupload.service.repository.PhotoEventRepository;
+import com.photoupload.service.repository.PhotoRepository;
+import com.photoupload.storage.CloudStorageProvider;
+import com.photoupload.storage.factory.CloudStorageProviderFactory;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service for bulk imports. Storage writes run concurrently on a bounded executor, and
+ * database work is done in two batched transactions (reserve, then commit) instead of
+ * several single-row round trips per file. No transaction is held open during storage I/O.
+ */
+@Slf4j
+@Service
+public class BatchUploadService {
+
+    private final PhotoRepository photoRepository;
+    private final PhotoEventRepository photoEventRepository;
+    private final CloudStorageProviderFactory storageProviderFactory;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor batchUploadExecutor;
+    private final BlobStoreService blobStoreService;
+    private final RetryRegistry retryRegistry;
+    private final ProcessingQueueService processingQueue;
+
+    @Value("${storage.provider:s3}")
+    private String defaultStorageProvider;
+
+    @Value("${upload.batch.max-files:100}")
+    private int maxFiles;
+
+    public BatchUploadService(
+        PhotoRepository photoRepository,
+        PhotoEventRepository photoEventRepository,
+        CloudStorageProviderFactory storageProviderFactory,
+        OutboxService outboxService,
+        TransactionTemplate transactionTemplate,
+        @Qualifier("batchUploadExecutor") Executor batchUploadExecutor,
+        BlobStoreService blobStoreService,
+        RetryRegistry retryRegistry,
+        ProcessingQueueService processingQueue
+    ) {
+        this.photoRepository = photoRepository;
+        this.photoEventRepository = photoEventRepository;
+        this.storageProviderFactory = storageProviderFactory;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchUploadExecutor = batchUploadExecutor;
+        this.blobStoreService = blobStoreService;
+        this.retryRegistry = retryRegistry;
+        this.processingQueue = processingQueue;
+    }
+
+    /**
+     * Outcome of a batch: the per-file response and the photos that still need processing
+     */
+    public record BatchResult(BatchUploadResponse response, List<Photo> uploadedPhotos) {
+    }
+
+    /**
+     * Upload all files of a batch. A failing file does not fail the batch; it is reported
+     * in its result entry and, if it had been reserved, its photo is marked FAILED.
+     */
+    public BatchResult uploadBatch(List<PhotoUploadRequest> requests) {
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("Batch contains no files");
+        }
+        if (requests.size() > maxFiles) {
+            throw new IllegalArgumentException("Batch exceeds maximum of " + maxFiles + " files");
+        }
+
+        String correlationId = CorrelationIdGenerator.generate();
+        log.info("Starting batch upload: files={}, correlationId={}", requests.size(), correlationId);
+
+        List<Item> items = new ArrayList<>(requests.size());
+        for (PhotoUploadRequest request : requests) {
+            Item item = new Item(request);
+            try {
+                request.validate();
+            } catch (IllegalArgumentException e) {
+                item.error = e.getMessage();
+            }
+            items.add(item);
+        }
+
+        List<Item> accepted = items.stream().filter(item -> item.error == null).toList();
+        if (!accepted.isEmpty()) {
+            reserve(accepted);
+
+            CloudStorageProvider storageProvider = storageProviderFactory.getResilientProvider(defaultStorageProvider);
+            CompletableFuture.allOf(accepted.stream()
+                .map(item -> CompletableFuture.runAsync(() -> store(item, storageProvider), batchUploadExecutor))
+                .toArray(CompletableFuture[]::new)
+            ).join();
+
+            commit(accepted, correlationId);
+            discardUnreferencedObjects(accepted, storageProvider);
+        }
+
+        int succeeded = 0;
+        List<Photo> uploadedPhotos = new ArrayList<>();
+        List<BatchUploadResponse.FileResult> results = new ArrayList<>(items.size());
+        for (Item item : items) {
+            boolean success = item.error == null;
+            if (success) {
+                succeeded++;
+                // Photos completed from a processed blob need no processing run
+                if (item.photo.getStatus() == PhotoStatus.UPLOADED) {
+                    uploadedPhotos.add(item.photo);
+                }
+            }
+            results.add(BatchUploadResponse.FileResult.builder()
+                .fileName(item.request.getOriginalFilename())
+                .success(success)
+                .photoId(item.photo != null ? item.photo.getId() : null)
+                .status(item.photo != null ? item.photo.getStatus() : null)
+                .error(item.error)
+                .build());
+        }
+
+        log.info("Batch upload finished: files={}, succeeded={}, correlationId={}",
+            items.size(), succeeded, correlationId);
+
+        BatchUploadResponse response = BatchUploadResponse.builder()
+            .total(items.size())
+            .succeeded(succeeded)
+            .failed(items.size() - succeeded)
+            .results(results)
+            .build();
+        return new BatchResult(response, uploadedPhotos);
+    }
+
+    /**
+     * Insert all photo rows in UPLOADING state in one batched transaction
+     */
+    private void reserve(List<Item> items) {
+        List<Photo> photos = items.stream()
+            .map(item -> {
+                Photo photo = Photo.builder()
+                    .userId(item.request.getUserId())
+                    .originalFileName(item.request.getOriginalFilename())
+                    .contentType(item.request.getContentType())
+                    .fileSize(item.request.getFileSize())
+                    .status(PhotoStatus.PENDING)
+                    .build();
+                photo.transitionTo(PhotoStatus.UPLOADING);
+                return photo;
+            })
+            .toList();
+
+        List<Photo> saved = photoRepository.saveAll(photos);
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            item.photo = saved.get(i);
+            item.storageKey = FileUploadService.generateStorageKey(
+                item.request.getUserId(), item.photo.getId(), item.request.getOriginalFilename());
+        }
+    }
+
+    /**
+     * Stream one file to storage, checksumming in the same pass. Runs on the batch executor.
+     * Retried with a freshly opened file, like single uploads.
+     */
+    private void store(Item item, CloudStorageProvider storageProvider) {
+        try {
+            Retry.decorateCheckedRunnable(retryRegistry.retry("fileUpload"), () -> {
+                try (ChecksumInputStream checksumStream = new ChecksumInputStream(item.request.getFile().getInputStream())) {
+                    item.storageUrl = storageProvider.upload(
+                        item.storageKey,
+                        checksumStream,
+                        item.request.getContentType(),
+                        item.request.getFileSize()
+                    );
+                    item.checksum = checksumStream.getChecksum();
+                }
+            }).run();
+        } catch (Throwable e) {
+            log.error("Batch file upload failed: photoId={}, error={}", item.photo.getId(), e.getMessage(), e);
+            item.error = "Failed to upload file: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Apply upload outcomes and record events in one batched transaction.
+     * If that fails, for example because a concurrent upload registered a blob for the same
+     * content first, fall back to committing each photo on its own so one bad row cannot
+     * fail the rest of the batch.
+     */
+    private void commit(List<Item> items, String correlationId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> applyOutcomes(items, correlationId));
+        } catch (RuntimeException e) {
+            log.warn("Batch commit failed, committing individually: files={}, error={}", items.size(), e.getMessage());
+            for (Item item : items) {
+                commitItem(item, correlationId);
+            }
+        }
+    }
+
+    /**
+     * Commit one photo in its own transaction. A concurrent blob registration is retried once,
+     * referencing the committed blob; any other failure marks the photo FAILED, and its stored
+     * object is then discarded with the other unreferenced ones.
+     */
+    private void commitItem(Item item, String correlationId) {
+        try {
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyOutcomes(List.of(item), correlationId));
+            } catch (DataIntegrityViolationException conflict) {
+                log.debug("Blob registered concurrently, retrying: checksum={}", item.checksum);
+                transactionTemplate.executeWithoutResult(status -> applyOutcomes(List.of(item), correlationId));
+            }
+        } catch (RuntimeException e) {
+            log.error("Batch file commit failed: photoId={}, error={}", item.photo.getId(), e.getMessage(), e);
+            item.error = "Failed to save file: " + e.getMessage();
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyOutcomes(List.of(item), correlationId));
+            } catch (RuntimeException markFailed) {
+                log.error("Failed to mark batch file failed: photoId={}", item.photo.getId(), markFailed);
+            }
+        }
+    }
+
+    /**
+     * Link every stored file to its content blob. Checksums already in the blob store are
+     * referenced with one lookup for the batch; new content is registered by its first
+     * occurrence in the batch and referenced by any repeats. Photos left to process are queued
+     * in the same transaction when the durable queue is enabled.
+     */
+    private void applyOutcomes(List<Item> items, String correlationId) {
+        Map<Long, Photo> photos = photoRepository.findAllById(items.stream().map(item -> item.photo.getId()).toList())
+            .stream()
+            .collect(Collectors.toMap(Photo::getId, Function.identity()));
+
+        Map<String, Integer> references = new LinkedHashMap<>();
+        for (Item item : items) {
+            if (item.error == null) {
+                references.merge(item.checksum, 1, Integer::sum);
+            }
+        }
+        Map<String, StorageBlob> blobs = new HashMap<>(blobStoreService.acquire(references));
+
+        List<PhotoEvent> events = new ArrayList<>(items.size() * 2);
+        for (Item item : items) {
+            Photo photo = photos.get(item.photo.getId());
+            events.add(event(photo.getId(), PhotoEvent.EventType.PHOTO_UPLOAD_STARTED,
+                "Batch upload started", correlationId, true));
+
+            if (item.error == null) {
+                StorageBlob blob = blobs.computeIfAbsent(item.checksum, checksum -> blobStoreService.register(
+                    checksum, item.storageKey, item.storageUrl, photo.getContentType(), photo.getFileSize(),
+                    references.get(checksum)));
+                boolean reused = blobStoreService.link(photo, blob);
+                events.add(event(photo.getId(), PhotoEvent.EventType.PHOTO_UPLOADED,
+                    item.storageKey.equals(photo.getStorageKey())
+                        ? "File uploaded to storage" : "File matched stored content, sharing existing object",
+                    correlationId, true));
+                if (reused) {
+                    events.add(event(photo.getId(), PhotoEvent.EventType.PHOTO_PROCESSING_COMPLETED,
+                        "Reused processing result of identical content", correlationId, true));
+                }
+                addUploadedEvent(photo, correlationId);
+                if (photo.getStatus() == PhotoStatus.UPLOADED && processingQueue.isEnabled()) {
+                    processingQueue.enqueue(photo.getId(), correlationId);
+                }
+            } else {
+                photo.transitionTo(PhotoStatus.FAILED);
+                photo.setLastError(item.error);
+                events.add(event(photo.getId(), PhotoEvent.EventType.PHOTO_PROCESSING_FAILED,
+                    "Upload failed: " + item.error, correlationId, false));
+            }
+            item.photo = photo;
+        }
+
+        photoEventRepository.saveAll(events);
+        // Flush inside the callback so a concurrent blob registration surfaces here, not at commit
+        photoRepository.flush();
+    }
+
+    /**
+     * Add the uploaded event to the outbox, in the transaction applying the outcome
+     */
+    private void addUploadedEvent(Photo photo, String correlationId) {
+        PhotoUploadedEvent event = PhotoUploadedEvent.of(
+            photo.getId(),
+            photo.getUserId(),
+            photo.getStorageKey(),
+            photo.getOriginalFileName(),
+            photo.getContentType(),
+            photo.getFileSize(),
+            correlationId
+        );
+        outboxService.add(photo.getId(), "PhotoUploadedEvent", event, correlationId);
+    }
+
+    /**
+     * Best-effort removal of the objects no photo references: those written for files whose
+     * content was already stored, and those of files that failed after reaching storage
+     */
+    private void discardUnreferencedObjects(List<Item> items, CloudStorageProvider storageProvider) {
+        for (Item item : items) {
+            boolean unreferenced = item.error == null
+                ? !item.storageKey.equals(item.photo.getStorageKey())
+                : item.storageUrl != null;
+            if (!unreferenced) {
+                continue;
+            }
+            try {
+                storageProvider.delete(item.storageKey);
+            } catch (Exception e) {
+                log.error("Failed to delete unreferenced object from storage: storageKey={}", item.storageKey, e);
+            }
+        }
+    }
+
+    private PhotoEvent event(Long photoId, PhotoEvent.EventType eventType,
+                             String details, String correlationId, boolean success) {
+        return PhotoEvent.builder()
+            .photoId(photoId)
+            .eventType(eventType)
+            .details(details)
+            .correlationId(correlationId)
+            .success(success)
+            .build();
+    }
+
+    /**
+     * Per-file working state while a batch is in flight
+     */
+    private static final class Item {
+        private final PhotoUploadRequest request;
+        private Photo photo;
+        private String storageKey;
+        private String storageUrl;
+        private String checksum;
+        private String error;
+
+        private Item(PhotoUploadRequest request) {
+            this.request = request;
+        }
+    }
+}
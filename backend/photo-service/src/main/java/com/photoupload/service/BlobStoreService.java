@@ -0,0 +1,144 @@
+package com.photoupload.service;
+
+import com.photoupload.common.domain.Photo;
+import com.photoupload.common.domain.PhotoStatus;
+import com.photoupload.common.domain.StorageBlob;
+import com.photoupload.service.repository.StorageBlobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Content-addressed blob store over the photo storage.
+ * Uploads with a checksum that is already stored take a reference on the existing blob
+ * instead of keeping a second copy, and reuse its processing output when there is one.
+ * Methods join the caller's transaction so the reference and the photo row commit together.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class BlobStoreService {
+
+    private final StorageBlobRepository blobRepository;
+    private final DedupFilterService dedupFilter;
+
+    /**
+     * Take a reference on the blob with this checksum, if one is stored
+     */
+    public Optional<StorageBlob> acquire(String checksum) {
+        return Optional.ofNullable(acquire(Map.of(checksum, 1)).get(checksum));
+    }
+
+    /**
+     * Take references on every stored blob among the given checksums with one lookup.
+     * Checksums the dedup filter rules out are not looked up at all.
+     *
+     * @param referencesByChecksum number of new references per checksum
+     * @return the blobs that were acquired; checksums without a live blob are absent
+     */
+    public Map<String, StorageBlob> acquire(Map<String, Integer> referencesByChecksum) {
+        Map<String, StorageBlob> acquired = new HashMap<>();
+        List<String> candidates = referencesByChecksum.keySet().stream()
+            .filter(dedupFilter::mightExist)
+            .toList();
+        if (candidates.isEmpty()) {
+            return acquired;
+        }
+
+        List<StorageBlob> found = blobRepository.findAllById(candidates);
+        for (int i = found.size(); i < candidates.size(); i++) {
+            dedupFilter.recordFalsePositive();
+        }
+        for (StorageBlob blob : found) {
+            // Conditional increment: loses to a concurrent release of the last reference
+            if (blobRepository.incrementRefCount(blob.getChecksum(), referencesByChecksum.get(blob.getChecksum())) == 1) {
+                acquired.put(blob.getChecksum(), blob);
+            }
+        }
+        return acquired;
+    }
+
+    /**
+     * Store a new blob for an object that was just written.
+     * Not flushed; a concurrent registration of the same checksum fails at the caller's flush.
+     */
+    public StorageBlob register(String checksum, String storageKey, String storageUrl,
+                                String contentType, Long fileSize, int references) {
+        StorageBlob blob = StorageBlob.builder()
+            .checksum(checksum)
+            .storageKey(storageKey)
+            .storageUrl(storageUrl)
+            .contentType(contentType)
+            .fileSize(fileSize)
+            .refCount(references)
+            .build();
+        // Added before the insert commits: a rolled-back insert only costs a false positive,
+        // while a racing registration must find this checksum when its finalize is retried
+        dedupFilter.add(checksum);
+        return blobRepository.save(blob);
+    }
+
+    /**
+     * Point an UPLOADING photo at a blob and mark it uploaded.
+     * If the blob was already processed the photo is completed with the stored output.
+     *
+     * @return true if processing output was reused and the photo needs no processing
+     */
+    public boolean link(Photo photo, StorageBlob blob) {
+        photo.setChecksum(blob.getChecksum());
+        photo.setStorageKey(blob.getStorageKey());
+        photo.setStorageUrl(blob.getStorageUrl());
+        photo.transitionTo(PhotoStatus.UPLOADED);
+
+        if (!blob.isProcessed()) {
+            return false;
+        }
+
+        photo.setThumbnailUrl(blob.getThumbnailUrl());
+        photo.setRenditions(blob.getRenditions());
+        photo.setWidth(blob.getWidth());
+        photo.setHeight(blob.getHeight());
+        photo.setMetadata(blob.getMetadata());
+        photo.transitionTo(PhotoStatus.PROCESSING);
+        photo.transitionTo(PhotoStatus.COMPLETED);
+        return true;
+    }
+
+    /**
+     * Keep the processing output of a completed photo on its blob for later duplicates
+     */
+    public void recordProcessingResult(Photo photo) {
+        if (photo.getChecksum() == null) {
+            return;
+        }
+        blobRepository.recordProcessingResult(photo.getChecksum(), photo.getThumbnailUrl(),
+            photo.getRenditions(), photo.getWidth(), photo.getHeight(), photo.getMetadata());
+    }
+
+    /**
+     * Drop a photo's reference to its object
+     *
+     * @return true if the caller holds the last reference and must delete the object from storage
+     */
+    public boolean release(Photo photo) {
+        if (photo.getChecksum() == null) {
+            // Not content-addressed (e.g. chunked or direct uploads): the photo owns its object
+            return true;
+        }
+        if (blobRepository.decrementRefCount(photo.getChecksum()) == 0) {
+            log.warn("No blob found for checksummed photo, treating object as owned: photoId={}, checksum={}",
+                photo.getId(), photo.getChecksum());
+            return true;
+        }
+        boolean lastReference = blobRepository.deleteIfUnreferenced(photo.getChecksum()) == 1;
+        log.debug("Released blob reference: checksum={}, lastReference={}", photo.getChecksum(), lastReference);
+        return lastReference;
+    }
+}
@@ -0,0 +1,417 @@
+package com.photoupload.service;
+
+import com.photoupload.common.domain.Photo;
+import com.photoupload.common.domain.PhotoEvent;
+import com.photoupload.common.domain.PhotoStatus;
+import com.photoupload.common.domain.UploadSession;
+import com.photoupload.common.domain.UploadSession.SessionStatus;
+import com.photoupload.common.domain.UploadSessionPart;
+import com.photoupload.common.dto.ChunkedUploadRequest;
+import com.photoupload.common.dto.PhotoUploadRequest;
+import com.photoupload.common.dto.UploadPartResponse;
+import com.photoupload.common.dto.UploadSessionResponse;
+import com.photoupload.common.event.PhotoUploadedEvent;
+import com.photoupload.common.exception.PhotoNotFoundException;
+import com.photoupload.common.exception.UploadSessionNotFoundException;
+import com.photoupload.common.util.CorrelationIdGenerator;
+import com.photoupload.service.repository.PhotoEventRepository;
+import com.photoupload.service.repository.PhotoRepository;
+import com.photoupload.service.repository.UploadSessionPartRepository;
+import com.photoupload.service.repository.UploadSessionRepository;
+import com.photoupload.storage.CloudStorageProvider;
+import com.photoupload.storage.UploadedPart;
+import com.photoupload.storage.factory.CloudStorageProviderFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service for resumable chunked uploads on top of provider-native multipart uploads.
+ * Parts are independent requests, so clients may upload them in parallel and re-send failed ones.
+ * Storage I/O runs outside of database transactions; session state changes are conditional
+ * updates so that concurrent requests and sweeps on other replicas cannot both win.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChunkedUploadService {
+
+    /**
+     * Upper bound shared by S3 and GCS compose chains
+     */
+    private static final int MAX_PARTS = 10000;
+
+    /**
+     * S3's minimum for every part but the last
+     */
+    static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private static final int SWEEP_BATCH_SIZE = 100;
+
+    private final UploadSessionRepository sessionRepository;
+    private final UploadSessionPartRepository partRepository;
+    private final PhotoRepository photoRepository;
+    private final PhotoEventRepository photoEventRepository;
+    private final CloudStorageProviderFactory storageProviderFactory;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final ProcessingQueueService processingQueue;
+
+    @Value("${storage.provider:s3}")
+    private String defaultStorageProvider;
+
+    @Value("${upload.chunked.part-size:5242880}")
+    private long partSize;
+
+    @Value("${upload.chunked.session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    /**
+     * Initiate a chunked upload: reserve the photo row and open a multipart upload.
+     * If the multipart upload cannot be opened, the reserved photo is failed.
+     */
+    public UploadSessionResponse initiate(ChunkedUploadRequest request) {
+        PhotoUploadRequest.validateFileProperties(request.getContentType(), request.getFileSize());
+
+        String correlationId = CorrelationIdGenerator.generate();
+        log.info("Initiating chunked upload: filename={}, userId={}, size={}, correlationId={}",
+            request.getFileName(), request.getUserId(), request.getFileSize(), correlationId);
+
+        Photo photo = Photo.builder()
+            .userId(request.getUserId())
+            .originalFileName(request.getFileName())
+            .contentType(request.getContentType())
+            .fileSize(request.getFileSize())
+            .status(PhotoStatus.PENDING)
+            .build();
+        photo.transitionTo(PhotoStatus.UPLOADING);
+        photo = photoRepository.save(photo);
+
+        recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_UPLOAD_STARTED,
+            "Chunked upload started", correlationId, true);
+
+        String storageKey = FileUploadService.generateStorageKey(
+            request.getUserId(), photo.getId(), request.getFileName());
+
+        CloudStorageProvider storageProvider = storageProviderFactory.getResilientProvider(defaultStorageProvider);
+        String providerUploadId = null;
+        UploadSession session;
+        try {
+            providerUploadId = storageProvider.initiateMultipartUpload(storageKey, request.getContentType());
+
+            session = sessionRepository.save(UploadSession.builder()
+                .id(UUID.randomUUID().toString())
+                .photoId(photo.getId())
+                .userId(request.getUserId())
+                .originalFileName(request.getFileName())
+                .contentType(request.getContentType())
+                .fileSize(request.getFileSize())
+                .partSize(Math.max(partSize, MIN_PART_SIZE))
+                .storageKey(storageKey)
+                .providerUploadId(providerUploadId)
+                .correlationId(correlationId)
+                .expiresAt(Instant.now().plus(Duration.ofHours(sessionTtlHours)))
+                .build());
+        } catch (RuntimeException e) {
+            log.error("Failed to open chunked upload: photoId={}, error={}", photo.getId(), e.getMessage(), e);
+            if (providerUploadId != null) {
+                abortQuietly(storageProvider, storageKey, providerUploadId);
+            }
+            failPhoto(photo.getId(), "Failed to start chunked upload: " + e.getMessage(), correlationId);
+            throw e;
+        }
+
+        log.info("Chunked upload session created: sessionId={}, photoId={}", session.getId(), photo.getId());
+
+        return toResponse(session, List.of());
+    }
+
+    /**
+     * Store one part. Re-sending a part number overwrites the previous attempt.
+     */
+    public UploadPartResponse uploadPart(String sessionId, int partNumber, InputStream inputStream, long size) {
+        UploadSession session = getActiveSession(sessionId);
+
+        if (partNumber < 1 || partNumber > MAX_PARTS) {
+            throw new IllegalArgumentException("Part number must be between 1 and " + MAX_PARTS);
+        }
+        long expectedSize = expectedPartSize(session, partNumber);
+        if (size != expectedSize) {
+            // Rejected now rather than by the provider at completion, after every part was sent
+            throw new IllegalArgumentException(String.format(
+                "Part %d must be %d bytes, got %d", partNumber, expectedSize, size));
+        }
+
+        log.debug("Uploading part: sessionId={}, part={}, size={}", sessionId, partNumber, size);
+
+        CloudStorageProvider storageProvider = storageProviderFactory.getResilientProvider(defaultStorageProvider);
+        UploadedPart uploadedPart = storageProvider.uploadPart(
+            session.getStorageKey(),
+            session.getProviderUploadId(),
+            partNumber,
+            inputStream,
+            size
+        );
+
+        UploadSessionPart part = partRepository.findBySessionIdAndPartNumber(sessionId, partNumber)
+            .orElseGet(() -> UploadSessionPart.builder()
+                .sessionId(sessionId)
+                .partNumber(partNumber)
+                .build());
+        part.setEtag(uploadedPart.getEtag());
+        part.setSize(uploadedPart.getSize());
+        partRepository.save(part);
+
+        return UploadPartResponse.builder()
+            .sessionId(sessionId)
+            .partNumber(partNumber)
+            .etag(uploadedPart.getEtag())
+            .size(uploadedPart.getSize())
+            .build();
+    }
+
+    /**
+     * Get session state, including the parts already stored
+     */
+    public UploadSessionResponse getSession(String sessionId) {
+        UploadSession session = sessionRepository.findById(sessionId)
+            .orElseThrow(() -> new UploadSessionNotFoundException(sessionId));
+
+        return toResponse(session, partRepository.findBySessionIdOrderByPartNumberAsc(sessionId));
+    }
+
+    /**
+     * Assemble the parts into the final object and mark the photo as uploaded
+     */
+    public Photo complete(String sessionId) {
+        UploadSession session = getActiveSession(sessionId);
+        List<UploadSessionPart> parts = partRepository.findBySessionIdOrderByPartNumberAsc(sessionId);
+        validateParts(session, parts);
+
+        if (sessionRepository.transitionStatus(sessionId, SessionStatus.ACTIVE, SessionStatus.COMPLETING) == 0) {
+            throw new IllegalStateException("Upload session is no longer active: " + sessionId);
+        }
+
+        String correlationId = session.getCorrelationId();
+        String storageUrl;
+        try {
+            CloudStorageProvider storageProvider = storageProviderFactory.getResilientProvider(defaultStorageProvider);
+            storageUrl = storageProvider.completeMultipartUpload(
+                session.getStorageKey(),
+                session.getProviderUploadId(),
+                session.getContentType(),
+                parts.stream()
+                    .map(part -> UploadedPart.builder()
+                        .partNumber(part.getPartNumber())
+                        .etag(part.getEtag())
+                        .size(part.getSize())
+                        .build())
+                    .toList()
+            );
+        } catch (RuntimeException e) {
+            // Let the client retry completion
+            sessionRepository.transitionStatus(sessionId, SessionStatus.COMPLETING, SessionStatus.ACTIVE);
+            throw e;
+        }
+
+        // The photo, its history, the session, the outbox event and the processing command commit together
+        Photo photo = transactionTemplate.execute(status -> {
+            Photo uploaded = photoRepository.findById(session.getPhotoId())
+                .orElseThrow(() -> new PhotoNotFoundException(session.getPhotoId()));
+            uploaded.setStorageKey(session.getStorageKey());
+            uploaded.setStorageUrl(storageUrl);
+            uploaded.transitionTo(PhotoStatus.UPLOADED);
+            uploaded = photoRepository.save(uploaded);
+
+            sessionRepository.transitionStatus(sessionId, SessionStatus.COMPLETING, SessionStatus.COMPLETED);
+            partRepository.deleteBySessionId(sessionId);
+
+            recordEvent(uploaded.getId(), PhotoEvent.EventType.PHOTO_UPLOADED,
+                "Chunked upload assembled from " + parts.size() + " parts", correlationId, true);
+            outboxService.add(uploaded.getId(), "PhotoUploadedEvent", PhotoUploadedEvent.of(
+                uploaded.getId(),
+                uploaded.getUserId(),
+                uploaded.getStorageKey(),
+                uploaded.getOriginalFileName(),
+                uploaded.getContentType(),
+                uploaded.getFileSize(),
+                correlationId
+            ), correlationId);
+            if (processingQueue.isEnabled()) {
+                processingQueue.enqueue(uploaded.getId(), correlationId);
+            }
+            return uploaded;
+        });
+
+        log.info("Chunked upload completed: sessionId={}, photoId={}, parts={}",
+            sessionId, photo.getId(), parts.size());
+
+        return photo;
+    }
+
+    /**
+     * Abort an upload on client request
+     */
+    public void abort(String sessionId) {
+        UploadSession session = sessionRepository.findById(sessionId)
+            .orElseThrow(() -> new UploadSessionNotFoundException(sessionId));
+
+        if (sessionRepository.transitionStatus(sessionId, SessionStatus.ACTIVE, SessionStatus.ABORTED) == 0) {
+            throw new IllegalStateException("Upload session is no longer active: " + sessionId);
+        }
+
+        discard(session, "Upload aborted by client");
+    }
+
+    /**
+     * Sweep abandoned sessions. Safe to run on every replica: each session is claimed
+     * with a conditional update before its parts are discarded.
+     */
+    @Scheduled(fixedDelayString = "${upload.chunked.sweep-interval-ms:600000}")
+    public void sweepExpiredSessions() {
+        List<UploadSession> expired = sessionRepository.findExpired(
+            SessionStatus.ACTIVE, Instant.now(), PageRequest.of(0, SWEEP_BATCH_SIZE));
+
+        int swept = 0;
+        for (UploadSession session : expired) {
+            if (sessionRepository.transitionStatus(session.getId(), SessionStatus.ACTIVE, SessionStatus.EXPIRED) == 1) {
+                discard(session, "Upload session expired");
+                swept++;
+            }
+        }
+
+        if (swept > 0) {
+            log.info("Swept expired upload sessions: count={}", swept);
+        }
+    }
+
+    /**
+     * Release storage and fail the reserved photo for a session that will not complete
+     */
+    private void discard(UploadSession session, String reason) {
+        abortQuietly(storageProviderFactory.getResilientProvider(defaultStorageProvider),
+            session.getStorageKey(), session.getProviderUploadId());
+
+        partRepository.deleteBySessionId(session.getId());
+
+        failPhoto(session.getPhotoId(), reason, session.getCorrelationId());
+
+        log.info("Upload session discarded: sessionId={}, reason={}", session.getId(), reason);
+    }
+
+    private void abortQuietly(CloudStorageProvider storageProvider, String storageKey, String providerUploadId) {
+        try {
+            storageProvider.abortMultipartUpload(storageKey, providerUploadId);
+        } catch (Exception e) {
+            log.error("Failed to abort multipart upload: storageKey={}", storageKey, e);
+        }
+    }
+
+    private void failPhoto(Long photoId, String reason, String correlationId) {
+        photoRepository.findById(photoId).ifPresent(photo -> {
+            if (photo.getStatus().canTransitionTo(PhotoStatus.FAILED)) {
+                photo.transitionTo(PhotoStatus.FAILED);
+                photo.setLastError(reason);
+                photoRepository.save(photo);
+            }
+        });
+
+        recordEvent(photoId, PhotoEvent.EventType.PHOTO_PROCESSING_FAILED, reason, correlationId, false);
+    }
+
+    private UploadSession getActiveSession(String sessionId) {
+        UploadSession session = sessionRepository.findById(sessionId)
+            .orElseThrow(() -> new UploadSessionNotFoundException(sessionId));
+
+        if (!session.isActive()) {
+            throw new IllegalStateException("Upload session is not active: " + sessionId
+                + " (status=" + session.getStatus() + ")");
+        }
+        return session;
+    }
+
+    /**
+     * Size a part must have: the session's part size, except for the last part, which holds
+     * the remainder
+     */
+    static long expectedPartSize(UploadSession session, int partNumber) {
+        long totalParts = totalParts(session);
+        if (partNumber > totalParts) {
+            throw new IllegalArgumentException("Part number exceeds the " + totalParts + " parts of this upload");
+        }
+        return partNumber < totalParts
+            ? session.getPartSize()
+            : session.getFileSize() - (totalParts - 1) * session.getPartSize();
+    }
+
+    private static long totalParts(UploadSession session) {
+        return (session.getFileSize() + session.getPartSize() - 1) / session.getPartSize();
+    }
+
+    /**
+     * Parts must be contiguous from 1 and add up to the declared file size
+     */
+    private void validateParts(UploadSession session, List<UploadSessionPart> parts) {
+        if (parts.isEmpty()) {
+            throw new IllegalStateException("No parts uploaded for session: " + session.getId());
+        }
+
+        long totalSize = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            UploadSessionPart part = parts.get(i);
+            if (part.getPartNumber() != i + 1) {
+                throw new IllegalStateException("Missing part " + (i + 1) + " for session: " + session.getId());
+            }
+            totalSize += part.getSize();
+        }
+
+        if (totalSize != session.getFileSize()) {
+            throw new IllegalStateException(String.format(
+                "Uploaded %d bytes but session declared %d bytes", totalSize, session.getFileSize()));
+        }
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session, List<UploadSessionPart> parts) {
+        return UploadSessionResponse.builder()
+            .sessionId(session.getId())
+            .photoId(session.getPhotoId())
+            .status(session.getStatus())
+            .fileSize(session.getFileSize())
+            .partSize(session.getPartSize())
+            .totalParts((int) totalParts(session))
+            .uploadedParts(parts.stream().map(UploadSessionPart::getPartNumber).toList())
+            .uploadedBytes(parts.stream().mapToLong(UploadSessionPart::getSize).sum())
+            .expiresAt(session.getExpiresAt())
+            .build();
+    }
+
+    /**
+     * Record event in database
+     */
+    private void recordEvent(Long photoId, PhotoEvent.EventType eventType,
+                             String details, String correlationId, boolean success) {
+        try {
+            PhotoEvent event = PhotoEvent.builder()
+                .photoId(photoId)
+                .eventType(eventType)
+                .details(details)
+                .correlationId(correlationId)
+                .success(success)
+                .build();
+
+            photoEventRepository.save(event);
+        } catch (Exception e) {
+            log.error("Failed to record event: photoId={}, eventType={}", photoId, eventType, e);
+        }
+    }
+}
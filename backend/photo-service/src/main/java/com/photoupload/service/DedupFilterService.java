@@ -0,0 +1,155 @@
+package com.photoupload.service;
+
+import com.photoupload.common.util.ChecksumBloomFilter;
+import com.photoupload.service.repository.StorageBlobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * In-memory pre-check in front of the blob store lookup.
+ * Most uploads are new content, so a Bloom filter of stored checksums lets them skip the
+ * database lookup entirely; only possible hits are looked up.
+ *
+ * The filter is rebuilt from storage_blobs on startup and periodically, so released blobs
+ * drop out of it. Until the first build completes every checksum is treated as a possible hit.
+ * Blobs registered on other replicas are not seen until the next rebuild; such a duplicate is
+ * caught by the blob primary key and the upload's finalize retry then finds it.
+ */
+@Slf4j
+@Service
+public class DedupFilterService {
+
+    private final StorageBlobRepository blobRepository;
+    private final Counter skippedLookups;
+    private final Counter checkedLookups;
+    private final Counter falsePositives;
+    private final AtomicLong negativesSinceRebuild = new AtomicLong();
+    private final AtomicLong falsePositivesSinceRebuild = new AtomicLong();
+
+    @Value("${upload.dedup-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${upload.dedup-filter.max-memory-bytes:16777216}")
+    private long maxMemoryBytes;
+
+    @Value("${upload.dedup-filter.target-fpp:0.01}")
+    private double targetFpp;
+
+    @Value("${upload.dedup-filter.min-expected-insertions:100000}")
+    private long minExpectedInsertions;
+
+    private volatile ChecksumBloomFilter filter;
+    private volatile ChecksumBloomFilter building;
+
+    public DedupFilterService(StorageBlobRepository blobRepository, MeterRegistry meterRegistry) {
+        this.blobRepository = blobRepository;
+        this.skippedLookups = Counter.builder("photo.dedup.filter.lookups")
+            .description("Blob store lookups decided by the dedup filter")
+            .tag("result", "skipped")
+            .register(meterRegistry);
+        this.checkedLookups = Counter.builder("photo.dedup.filter.lookups")
+            .description("Blob store lookups decided by the dedup filter")
+            .tag("result", "checked")
+            .register(meterRegistry);
+        this.falsePositives = Counter.builder("photo.dedup.filter.false.positives")
+            .description("Lookups the filter let through that found no blob")
+            .register(meterRegistry);
+        Gauge.builder("photo.dedup.filter.false.positive.rate", this, DedupFilterService::observedFpp)
+            .description("Observed false-positive rate since the last rebuild")
+            .register(meterRegistry);
+        Gauge.builder("photo.dedup.filter.expected.fpp", this,
+                service -> service.filter == null ? Double.NaN : service.filter.expectedFpp())
+            .description("False-positive rate expected from the filter's size and fill")
+            .register(meterRegistry);
+        Gauge.builder("photo.dedup.filter.size", this,
+                service -> service.filter == null ? 0 : service.filter.sizeInBytes())
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("photo.dedup.filter.entries", this,
+                service -> service.filter == null ? 0 : service.filter.insertions())
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return false if no blob with this checksum can exist, so the lookup can be skipped
+     */
+    public boolean mightExist(String checksum) {
+        ChecksumBloomFilter current = filter;
+        if (!enabled || current == null || current.mightContain(checksum)) {
+            checkedLookups.increment();
+            return true;
+        }
+        skippedLookups.increment();
+        negativesSinceRebuild.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Record a checksum the filter let through that turned out not to be stored
+     */
+    public void recordFalsePositive() {
+        if (filter != null) {
+            falsePositives.increment();
+            falsePositivesSinceRebuild.incrementAndGet();
+        }
+    }
+
+    /**
+     * Add a newly registered checksum, including to a filter that is being rebuilt
+     */
+    public void add(String checksum) {
+        ChecksumBloomFilter current = filter;
+        if (current != null) {
+            current.put(checksum);
+        }
+        ChecksumBloomFilter next = building;
+        if (next != null) {
+            next.put(checksum);
+        }
+    }
+
+    /**
+     * Rebuild the filter by streaming all stored checksums, sized for twice the current count
+     * so it stays accurate while the table grows until the next rebuild
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${upload.dedup-filter.rebuild-interval-ms:3600000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long expected = Math.max(minExpectedInsertions, blobRepository.count() * 2);
+        ChecksumBloomFilter next = ChecksumBloomFilter.create(expected, targetFpp, maxMemoryBytes);
+
+        // Registrations during the scan go to both filters, so none is lost by the swap
+        building = next;
+        try (Stream<String> checksums = blobRepository.streamAllChecksums()) {
+            checksums.forEach(next::put);
+        } finally {
+            building = null;
+        }
+
+        filter = next;
+        negativesSinceRebuild.set(0);
+        falsePositivesSinceRebuild.set(0);
+        log.info("Dedup filter rebuilt: entries={}, sizeBytes={}, hashFunctions={}, expectedFpp={}, durationMs={}",
+            next.insertions(), next.sizeInBytes(), next.hashFunctions(),
+            String.format("%.5f", next.expectedFpp()), System.currentTimeMillis() - start);
+    }
+
+    private double observedFpp() {
+        long fp = falsePositivesSinceRebuild.get();
+        long negatives = fp + negativesSinceRebuild.get();
+        return negatives == 0 ? 0 : (double) fp / negatives;
+    }
+}
@@ -0,0 +1,375 @@
+package com.photoupload.service;
+
+import com.photoupload.common.domain.Photo;
+import com.photoupload.common.domain.PhotoStatus;
+import com.photoupload.common.exception.PhotoNotFoundException;
+import com.photoupload.common.exception.PhotoProcessingException;
+import com.photoupload.service.repository.PhotoRepository;
+import com.photoupload.storage.CloudStorageProvider;
+import com.photoupload.storage.factory.CloudStorageProviderFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.imgscalr.Scalr;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Serves image derivatives (a size, fit and format of a photo) on demand.
+ * A derivative is generated from the original the first time it is requested and stored
+ * under a deterministic key next to the original, so later requests on any node read it
+ * back instead of regenerating it. Hot derivatives are kept in an in-process LRU bounded
+ * by bytes, and concurrent requests for the same derivative share one generation.
+ *
+ * Only sizes and formats on the allow-list are served, which bounds the number of
+ * derivatives a photo can have.
+ *
+ * Decoding, resizing and encoding run on the bounded imageProcessingExecutor; the request
+ * thread, a virtual thread when those are enabled, only does the storage I/O and waits.
+ */
+@Slf4j
+@Service
+public class DerivativeImageService {
+
+    private final PhotoRepository photoRepository;
+    private final CloudStorageProviderFactory storageProviderFactory;
+    private final ThumbnailGenerationService thumbnailService;
+    private final ImageMemoryBudget memoryBudget;
+    private final Executor imageProcessingExecutor;
+    private final Set<Integer> sizes;
+    private final List<String> formats;
+    private final long cacheMaxBytes;
+
+    private final Map<String, CompletableFuture<ImageDerivative>> inFlight = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, ImageDerivative> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+
+    private final Counter cacheHits;
+    private final Counter storageHits;
+    private final Counter generated;
+    private final Counter coalesced;
+
+    @Value("${storage.provider:s3}")
+    private String defaultStorageProvider;
+
+    public DerivativeImageService(
+        PhotoRepository photoRepository,
+        CloudStorageProviderFactory storageProviderFactory,
+        ThumbnailGenerationService thumbnailService,
+        ImageMemoryBudget memoryBudget,
+        @Qualifier("imageProcessingExecutor") Executor imageProcessingExecutor,
+        MeterRegistry meterRegistry,
+        @Value("${processing.derivatives.sizes:150,300,600,800,1200,1600}") Set<Integer> sizes,
+        @Value("${processing.derivatives.formats:jpg}") List<String> formats,
+        @Value("${processing.derivatives.cache-max-bytes:67108864}") long cacheMaxBytes
+    ) {
+        this.photoRepository = photoRepository;
+        this.storageProviderFactory = storageProviderFactory;
+        this.thumbnailService = thumbnailService;
+        this.memoryBudget = memoryBudget;
+        this.imageProcessingExecutor = imageProcessingExecutor;
+        this.sizes = Set.copyOf(sizes);
+        this.formats = ThumbnailGenerationService.writableFormats("processing.derivatives.formats", formats);
+        this.cacheMaxBytes = cacheMaxBytes;
+
+        this.cacheHits = derivativeCounter(meterRegistry, "cache");
+        this.storageHits = derivativeCounter(meterRegistry, "storage");
+        this.generated = derivativeCounter(meterRegistry, "generated");
+        this.coalesced = derivativeCounter(meterRegistry, "coalesced");
+        Gauge.builder("photo.derivatives.cache.size", this, DerivativeImageService::cachedBytes)
+            .description("Bytes of derivatives held in the in-process cache")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Get a derivative of a photo, generating it on first request
+     *
+     * @param width  target width, or null to derive it from the height
+     * @param height target height, or null to derive it from the width
+     * @param fit    how to fit a width and height box: contain (default) or cover
+     * @param format output format, jpg by default
+     * @throws IllegalArgumentException if the size, fit or format is not allowed
+     * @throws PhotoNotFoundException   if the photo does not exist
+     * @throws IllegalStateException    if the photo's original is not stored yet
+     */
+    public ImageDerivative getDerivative(Long photoId, Integer width, Integer height, String fit, String format) {
+        DerivativeSpec spec = DerivativeSpec.of(width, height, fit, format);
+        validate(spec);
+
+        Photo photo = photoRepository.findById(photoId)
+            .orElseThrow(() -> new PhotoNotFoundException(photoId));
+        if (photo.getStorageKey() == null
+            || photo.getStatus() == PhotoStatus.PENDING || photo.getStatus() == PhotoStatus.UPLOADING) {
+            throw new IllegalStateException("Photo is not uploaded yet: " + photoId);
+        }
+
+        String key = derivativeKey(photo.getStorageKey(), spec);
+
+        ImageDerivative cached = cacheGet(key);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+
+        // The first request for a key generates it; concurrent requests wait for that result
+        CompletableFuture<ImageDerivative> created = new CompletableFuture<>();
+        CompletableFuture<ImageDerivative> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            coalesced.increment();
+            return join(existing);
+        }
+
+        try {
+            ImageDerivative derivative = loadOrGenerate(photo, key, spec);
+            cachePut(key, derivative);
+            created.complete(derivative);
+            return derivative;
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    private ImageDerivative loadOrGenerate(Photo photo, String key, DerivativeSpec spec) {
+        CloudStorageProvider storage = storageProviderFactory.getResilientProvider(defaultStorageProvider);
+        String contentType = ThumbnailGenerationService.contentType(spec.format());
+
+        if (storage.exists(key)) {
+            try (InputStream content = storage.download(key)) {
+                storageHits.increment();
+                return new ImageDerivative(key, content.readAllBytes(), contentType);
+            } catch (IOException e) {
+                log.warn("Failed to read stored derivative, regenerating: key={}", key, e);
+            }
+        }
+
+        Encoded encoded;
+        try (InputStream original = storage.download(photo.getStorageKey())) {
+            encoded = join(CompletableFuture.supplyAsync(() -> encode(photo, original, spec), imageProcessingExecutor));
+        } catch (IOException e) {
+            throw new PhotoProcessingException(photo.getId(), "derivative",
+                "Derivative generation failed: " + e.getMessage(), e);
+        }
+
+        storage.upload(key, new ByteArrayInputStream(encoded.content()), contentType, encoded.content().length);
+        generated.increment();
+
+        log.info("Derivative generated: photoId={}, key={}, size={}x{}",
+            photo.getId(), key, encoded.width(), encoded.height());
+
+        return new ImageDerivative(key, encoded.content(), contentType);
+    }
+
+    /**
+     * Decode, render and encode the derivative. Runs on the image executor; the decoded pixels
+     * are released before it returns.
+     */
+    private Encoded encode(Photo photo, InputStream original, DerivativeSpec spec) {
+        try (ThumbnailGenerationService.DecodedImage decoded = ThumbnailGenerationService.decode(
+                 original, spec::outputWidth, memoryBudget)) {
+            if (decoded == null) {
+                throw new PhotoProcessingException(photo.getId(), "derivative", "Failed to read image file");
+            }
+
+            BufferedImage image = render(decoded, spec);
+            return new Encoded(thumbnailService.encode(image, spec.format()), image.getWidth(), image.getHeight());
+        } catch (IOException e) {
+            throw new PhotoProcessingException(photo.getId(), "derivative",
+                "Derivative generation failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Resize the (possibly subsampled) decoded image; cover crops the overflow around the centre
+     */
+    private static BufferedImage render(ThumbnailGenerationService.DecodedImage decoded, DerivativeSpec spec) {
+        BufferedImage resized = ThumbnailGenerationService.resize(decoded.image(),
+            spec.outputWidth(decoded.width(), decoded.height()));
+        if (!spec.cover()) {
+            return resized;
+        }
+
+        int cropWidth = Math.min(resized.getWidth(), spec.width());
+        int cropHeight = Math.min(resized.getHeight(), spec.height());
+        if (cropWidth == resized.getWidth() && cropHeight == resized.getHeight()) {
+            return resized;
+        }
+        return Scalr.crop(resized, (resized.getWidth() - cropWidth) / 2, (resized.getHeight() - cropHeight) / 2,
+            cropWidth, cropHeight);
+    }
+
+    private void validate(DerivativeSpec spec) {
+        if (spec.width() == null && spec.height() == null) {
+            throw new IllegalArgumentException("w or h is required");
+        }
+        if ((spec.width() != null && !sizes.contains(spec.width()))
+            || (spec.height() != null && !sizes.contains(spec.height()))) {
+            throw new IllegalArgumentException("Size not allowed, use one of " + sizes);
+        }
+        if (!formats.contains(spec.format())) {
+            throw new IllegalArgumentException("Format not allowed, use one of " + formats);
+        }
+    }
+
+    /**
+     * Keys of every derivative the allow-list permits for an original, generated or not, for
+     * removal with the original. Also drops any of them cached on this node.
+     */
+    public List<String> derivativeKeys(String originalKey) {
+        List<String> keys = new ArrayList<>();
+        for (String format : formats) {
+            for (Integer width : sizes) {
+                keys.add(derivativeKey(originalKey, DerivativeSpec.of(width, null, null, format)));
+                keys.add(derivativeKey(originalKey, DerivativeSpec.of(null, width, null, format)));
+                for (Integer height : sizes) {
+                    keys.add(derivativeKey(originalKey, DerivativeSpec.of(width, height, "contain", format)));
+                    keys.add(derivativeKey(originalKey, DerivativeSpec.of(width, height, "cover", format)));
+                }
+            }
+        }
+        keys.forEach(this::cacheRemove);
+        return keys;
+    }
+
+    /**
+     * Deterministic key next to the original, e.g. photos/a.jpg -> photos/a_w300_h200_cover.jpg
+     */
+    static String derivativeKey(String originalKey, DerivativeSpec spec) {
+        int lastSlash = originalKey.lastIndexOf('/');
+        int lastDot = originalKey.lastIndexOf('.');
+        String base = lastDot > lastSlash ? originalKey.substring(0, lastDot) : originalKey;
+
+        StringBuilder key = new StringBuilder(base);
+        if (spec.width() != null) {
+            key.append("_w").append(spec.width());
+        }
+        if (spec.height() != null) {
+            key.append("_h").append(spec.height());
+        }
+        if (spec.width() != null && spec.height() != null) {
+            key.append('_').append(spec.fit());
+        }
+        return key.append('.').append(spec.format()).toString();
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private synchronized ImageDerivative cacheGet(String key) {
+        return cache.get(key);
+    }
+
+    private synchronized void cachePut(String key, ImageDerivative derivative) {
+        long size = derivative.content().length;
+        if (size > cacheMaxBytes) {
+            return;
+        }
+        ImageDerivative previous = cache.put(key, derivative);
+        if (previous != null) {
+            cachedBytes -= previous.content().length;
+        }
+        cachedBytes += size;
+
+        Iterator<Map.Entry<String, ImageDerivative>> eldest = cache.entrySet().iterator();
+        while (cachedBytes > cacheMaxBytes && eldest.hasNext()) {
+            cachedBytes -= eldest.next().getValue().content().length;
+            eldest.remove();
+        }
+    }
+
+    private synchronized void cacheRemove(String key) {
+        ImageDerivative removed = cache.remove(key);
+        if (removed != null) {
+            cachedBytes -= removed.content().length;
+        }
+    }
+
+    private synchronized double cachedBytes() {
+        return cachedBytes;
+    }
+
+    private static Counter derivativeCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("photo.derivatives.requests")
+            .description("Derivative requests by where the result came from")
+            .tag("source", source)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Encoded derivative; the key doubles as a strong validator since its content never changes
+     */
+    public record ImageDerivative(String key, byte[] content, String contentType) {
+    }
+
+    private record Encoded(byte[] content, int width, int height) {
+    }
+
+    /**
+     * Requested size, fit and format, normalised
+     */
+    record DerivativeSpec(Integer width, Integer height, String fit, String format) {
+
+        static DerivativeSpec of(Integer width, Integer height, String fit, String format) {
+            String normalizedFit = fit == null || fit.isBlank() ? "contain" : fit.toLowerCase();
+            if (!normalizedFit.equals("contain") && !normalizedFit.equals("cover")) {
+                throw new IllegalArgumentException("fit must be contain or cover");
+            }
+            String normalizedFormat = format == null || format.isBlank() ? "jpg" : format.toLowerCase();
+            if (normalizedFormat.equals("jpeg")) {
+                normalizedFormat = "jpg";
+            }
+            return new DerivativeSpec(width, height, normalizedFit, normalizedFormat);
+        }
+
+        boolean cover() {
+            return width != null && height != null && fit.equals("cover");
+        }
+
+        /**
+         * Width to resize to: fits the box for contain, fills it (before cropping) for cover.
+         * Never wider than the original; derivatives are not upscaled.
+         */
+        int outputWidth(int sourceWidth, int sourceHeight) {
+            int target;
+            if (height == null) {
+                target = width;
+            } else {
+                int widthForHeight = (int) Math.max(1, Math.round((double) sourceWidth * height / sourceHeight));
+                if (width == null) {
+                    target = widthForHeight;
+                } else {
+                    target = cover() ? Math.max(width, widthForHeight) : Math.min(width, widthForHeight);
+                }
+            }
+            return Math.min(target, sourceWidth);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.photoupload.service;
+
+import com.photoupload.common.domain.Photo;
+import com.photoupload.common.domain.PhotoEvent;
+import com.photoupload.common.domain.PhotoStatus;
+import com.photoupload.common.dto.DirectUploadRequest;
+import com.photoupload.common.dto.DirectUploadResponse;
+import com.photoupload.common.dto.PhotoUploadRequest;
+import com.photoupload.common.event.PhotoUploadedEvent;
+import com.photoupload.common.exception.PhotoNotFoundException;
+import com.photoupload.common.util.CorrelationIdGenerator;
+import com.photoupload.service.repository.PhotoEventRepository;
+import com.photoupload.service.repository.PhotoRepository;
+import com.photoupload.storage.CloudStorageProvider;
+import com.photoupload.storage.PresignedUpload;
+import com.photoupload.storage.StorageMetadata;
+import com.photoupload.storage.factory.CloudStorageProviderFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Service for direct-to-storage uploads through presigned PUT URLs.
+ * Photo bytes go from the client straight to the storage provider; the API only
+ * reserves the photo, signs the URL and verifies the stored object on completion.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DirectUploadService {
+
+    private static final int SWEEP_BATCH_SIZE = 100;
+
+    private final PhotoRepository photoRepository;
+    private final PhotoEventRepository photoEventRepository;
+    private final CloudStorageProviderFactory storageProviderFactory;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final ProcessingQueueService processingQueue;
+
+    @Value("${storage.provider:s3}")
+    private String defaultStorageProvider;
+
+    @Value("${upload.direct.url-ttl-minutes:15}")
+    private long urlTtlMinutes;
+
+    /**
+     * Reserve the photo and sign an upload URL constrained to the declared size and content type
+     */
+    public DirectUploadResponse initiate(DirectUploadRequest request) {
+        PhotoUploadRequest.validateFileProperties(request.getContentType(), request.getFileSize());
+
+        String correlationId = CorrelationIdGenerator.generate();
+        log.info("Initiating direct upload: filename={}, userId={}, size={}, correlationId={}",
+            request.getFileName(), request.getUserId(), request.getFileSize(), correlationId);
+
+        Photo photo = Photo.builder()
+            .userId(request.getUserId())
+            .originalFileName(request.getFileName())
+            .contentType(request.getContentType())
+            .fileSize(request.getFileSize())
+            .status(PhotoStatus.PENDING)
+            .build();
+        photo.transitionTo(PhotoStatus.UPLOADING);
+        photo = photoRepository.save(photo);
+
+        String storageKey = FileUploadService.generateStorageKey(
+            request.getUserId(), photo.getId(), request.getFileName());
+        photo.setStorageKey(storageKey);
+        photo = photoRepository.save(photo);
+
+        recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_UPLOAD_STARTED,
+            "Direct upload started", correlationId, true);
+
+        CloudStorageProvider storageProvider = storageProviderFactory.getResilientProvider(defaultStorageProvider);
+        PresignedUpload upload = storageProvider.generatePresignedUpload(
+            storageKey,
+            request.getContentType(),
+            request.getFileSize(),
+            Duration.ofMinutes(urlTtlMinutes)
+        );
+
+        log.info("Direct upload URL issued: photoId={}, expiresAt={}", photo.getId(), upload.getExpiresAt());
+
+        return DirectUploadResponse.builder()
+            .photoId(photo.getId())
+            .uploadUrl(upload.getUrl())
+            .method(upload.getMethod())
+            .headers(upload.getHeaders())
+            .expiresAt(upload.getExpiresAt())
+            .build();
+    }
+
+    /**
+     * Verify the object the client uploaded and mark the photo as uploaded.
+     * An object that does not match the declared size or content type is deleted and the photo failed.
+     */
+    public Photo complete(Long photoId) {
+        Photo photo = photoRepository.findById(photoId)
+            .orElseThrow(() -> new PhotoNotFoundException(photoId));
+
+        if (photo.getStatus() != PhotoStatus.UPLOADING || photo.getStorageKey() == null) {
+            throw new IllegalStateException("Photo is not awaiting a direct upload: " + photoId
+                + " (status=" + photo.getStatus() + ")");
+        }
+
+        String correlationId = CorrelationIdGenerator.generate();
+        CloudStorageProvider storageProvider = storageProviderFactory.getResilientProvider(defaultStorageProvider);
+
+        if (!storageProvider.exists(photo.getStorageKey())) {
+            // Not uploaded yet; the client may retry completion until the URL expires
+            throw new IllegalStateException("Upload not found in storage for photo: " + photoId);
+        }
+
+        StorageMetadata metadata = storageProvider.getMetadata(photo.getStorageKey());
+        String mismatch = verify(photo, metadata);
+        if (mismatch != null) {
+            reject(photo, storageProvider, mismatch, correlationId);
+            throw new IllegalArgumentException("Uploaded object rejected: " + mismatch);
+        }
+
+        photo.setStorageUrl(storageProvider.getObjectUrl(photo.getStorageKey()));
+        photo.transitionTo(PhotoStatus.UPLOADED);
+
+        // The photo, its history, the outbox event and the processing command commit together
+        Photo uploaded = transactionTemplate.execute(status -> {
+            Photo saved = photoRepository.save(photo);
+            recordEvent(saved.getId(), PhotoEvent.EventType.PHOTO_UPLOADED,
+                "Direct upload verified in storage", correlationId, true);
+            outboxService.add(saved.getId(), "PhotoUploadedEvent", PhotoUploadedEvent.of(
+                saved.getId(),
+                saved.getUserId(),
+                saved.getStorageKey(),
+                saved.getOriginalFileName(),
+                saved.getContentType(),
+                saved.getFileSize(),
+                correlationId
+            ), correlationId);
+            if (processingQueue.isEnabled()) {
+                processingQueue.enqueue(saved.getId(), correlationId);
+            }
+            return saved;
+        });
+
+        log.info("Direct upload completed: photoId={}, storageKey={}", uploaded.getId(), uploaded.getStorageKey());
+
+        return uploaded;
+    }
+
+    /**
+     * Fail direct uploads whose URL expired without a completion call, removing any object
+     * the client did upload. Optimistic locking on the photo keeps replicas from double-processing.
+     */
+    @Scheduled(fixedDelayString = "${upload.direct.sweep-interval-ms:600000}")
+    public void sweepStalledUploads() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(urlTtlMinutes * 2));
+        List<Photo> stalled = photoRepository.findStalledUploads(
+            PhotoStatus.UPLOADING, cutoff, PageRequest.of(0, SWEEP_BATCH_SIZE));
+
+        int swept = 0;
+        for (Photo photo : stalled) {
+            try {
+                CloudStorageProvider storageProvider = storageProviderFactory.getResilientProvider(defaultStorageProvider);
+                reject(photo, storageProvider, "Direct upload was not completed", CorrelationIdGenerator.generate());
+                swept++;
+            } catch (Exception e) {
+                log.warn("Failed to sweep stalled direct upload: photoId={}", photo.getId(), e);
+            }
+        }
+
+        if (swept > 0) {
+            log.info("Swept stalled direct uploads: count={}", swept);
+        }
+    }
+
+    /**
+     * Returns a description of the first mismatch, or null if the object is acceptable
+     */
+    private String verify(Photo photo, StorageMetadata metadata) {
+        Long contentLength = metadata.getContentLength();
+        if (contentLength == null || !contentLength.equals(photo.getFileSize())) {
+            return String.format("size %s does not match declared %d", contentLength, photo.getFileSize());
+        }
+
+        // Not every provider reports a content type; where one is reported it must match
+        String contentType = metadata.getContentType();
+        if (contentType != null && !contentType.equalsIgnoreCase(photo.getContentType())) {
+            return String.format("content type %s does not match declared %s", contentType, photo.getContentType());
+        }
+        return null;
+    }
+
+    private void reject(Photo photo, CloudStorageProvider storageProvider, String reason, String correlationId) {
+        try {
+            storageProvider.delete(photo.getStorageKey());
+        } catch (Exception e) {
+            log.error("Failed to delete rejected direct upload: photoId={}", photo.getId(), e);
+        }
+
+        photo.transitionTo(PhotoStatus.FAILED);
+        photo.setLastError(reason);
+        photoRepository.save(photo);
+
+        recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_PROCESSING_FAILED,
+            reason, correlationId, false);
+
+        log.warn("Direct upload rejected: photoId={}, reason={}", photo.getId(), reason);
+    }
+
+    /**
+     * Record event in database
+     */
+    private void recordEvent(Long photoId, PhotoEvent.EventType eventType,
+                             String details, String correlationId, boolean success) {
+        try {
+            PhotoEvent event = PhotoEvent.builder()
+                .photoId(photoId)
+                .eventType(eventType)
+                .details(details)
+                .correlationId(correlationId)
+                .success(success)
+                .build();
+
+            photoEventRepository.save(event);
+        } catch (Exception e) {
+            log.error("Failed to record event: photoId={}, eventType={}", photoId, eventType, e);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.photoupload.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The original image of one processing run, held in a local file.
+ * Every stage of the run opens its own stream over the same bytes; the file is deleted
+ * when the run releases the handle.
+ *
+ * While the original is still being downloaded, streams follow the download: a read past
+ * the bytes written so far waits for more, and fails if the download fails. The spool file
+ * is the only buffer between the download and its readers, so a slow reader never holds
+ * back the download and readers hold no more than their own read buffer in memory.
+ */
+@Slf4j
+public final class FetchedOriginal implements AutoCloseable {
+
+    private final Long photoId;
+    private final Path path;
+    private final boolean local;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition grown = lock.newCondition();
+    private long written;
+    private boolean complete;
+    private Exception failure;
+
+    FetchedOriginal(Long photoId, Path path, long size, boolean local) {
+        this.photoId = photoId;
+        this.path = path;
+        this.local = local;
+        this.written = size;
+        this.complete = true;
+    }
+
+    private FetchedOriginal(Long photoId, Path path) {
+        this.photoId = photoId;
+        this.path = path;
+        this.local = false;
+    }
+
+    /**
+     * An original still being downloaded into path; the writer reports progress with
+     * {@link #grew}, then {@link #completed} or {@link #failed}
+     */
+    static FetchedOriginal downloading(Long photoId, Path path) {
+        return new FetchedOriginal(photoId, path);
+    }
+
+    /**
+     * Open a new stream over the original; callers close it
+     */
+    public InputStream openStream() {
+        try {
+            return new BufferedInputStream(new FollowingInputStream(Files.newInputStream(path)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open fetched original: photoId=" + photoId, e);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Bytes written so far; the full size once the download has completed
+     */
+    public long getSize() {
+        lock.lock();
+        try {
+            return written;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether the bytes were kept from the upload on this node rather than downloaded
+     */
+    public boolean isLocal() {
+        return local;
+    }
+
+    void grew(long bytes) {
+        lock.lock();
+        try {
+            written += bytes;
+            grown.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void completed() {
+        lock.lock();
+        try {
+            complete = true;
+            grown.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void failed(Exception cause) {
+        lock.lock();
+        try {
+            failure = cause;
+            grown.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until bytes past position are written or the download has ended
+     *
+     * @return bytes readable from position, 0 at the end of a completed original
+     */
+    private long awaitBytes(long position) throws IOException {
+        lock.lock();
+        try {
+            while (position >= written && !complete && failure == null) {
+                grown.await();
+            }
+            if (failure != null) {
+                throw new IOException("Fetching original failed: photoId=" + photoId, failure);
+            }
+            return written - position;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for original: photoId=" + photoId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete fetched original: photoId={}, path={}", photoId, path, e);
+        }
+    }
+
+    /**
+     * File stream that never reads past the bytes written so far
+     */
+    private final class FollowingInputStream extends FilterInputStream {
+
+        private long position;
+
+        private FollowingInputStream(InputStream file) {
+            super(file);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            long readable = awaitBytes(position);
+            if (readable == 0) {
+                return -1;
+            }
+            int read = in.read(b, off, (int) Math.min(len, readable));
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long readable = n > 0 ? awaitBytes(position) : 0;
+            long skipped = in.skip(Math.min(n, readable));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            lock.lock();
+            try {
+                return (int) Math.min(Integer.MAX_VALUE, written - position);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
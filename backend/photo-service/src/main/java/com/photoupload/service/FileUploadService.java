@@ -3,24 +3,32 @@ package com.photoupload.service;
 import com.photoupload.common.domain.Photo;
 import com.photoupload.common.domain.PhotoEvent;
 import com.photoupload.common.domain.PhotoStatus;
+import com.photoupload.common.domain.StorageBlob;
 import com.photoupload.common.dto.PhotoUploadRequest;
+import com.photoupload.common.dto.StreamingUploadRequest;
+import com.photoupload.common.event.PhotoProcessingCompletedEvent;
 import com.photoupload.common.event.PhotoUploadedEvent;
+import com.photoupload.common.exception.PhotoNotFoundException;
 import com.photoupload.common.exception.StorageException;
+import com.photoupload.common.util.ChecksumInputStream;
 import com.photoupload.common.util.CorrelationIdGenerator;
-import com.photoupload.eventbus.EventPublisher;
+import com.photoupload.common.util.DeclaredLengthInputStream;
 import com.photoupload.service.repository.PhotoEventRepository;
 import com.photoupload.service.repository.PhotoRepository;
 import com.photoupload.storage.CloudStorageProvider;
 import com.photoupload.storage.factory.CloudStorageProviderFactory;
-import io.github.resilience4j.retry.annotation.Retry;
+import io.github.resilience4j.core.functions.CheckedSupplier;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.security.MessageDigest;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -36,128 +44,146 @@ public class FileUploadService {
     private final PhotoRepository photoRepository;
     private final PhotoEventRepository photoEventRepository;
     private final CloudStorageProviderFactory storageProviderFactory;
-    private final EventPublisher eventPublisher;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final RetryRegistry retryRegistry;
+    private final BlobStoreService blobStoreService;
+    private final ProcessingQueueService processingQueue;
 
     @Value("${storage.provider:s3}")
     private String defaultStorageProvider;
 
     /**
-     * Upload file to cloud storage with retry
-     * Retry annotation provides automatic retry with exponential backoff
+     * Upload file to cloud storage with retry.
+     * Not transactional: the photo row is reserved and finalized in short transactions
+     * on either side of the storage write, so no connection is held during the upload.
+     * Only the storage write is retried, re-reading the file on each attempt.
      */
-    @Retry(name = "fileUpload", fallbackMethod = "uploadFallback")
-    @Transactional
     public Photo uploadFile(PhotoUploadRequest request) {
+        return upload(new UploadSource(request.getUserId(), request.getOriginalFilename(),
+            request.getContentType(), request.getFileSize(), request::validate,
+            () -> request.getFile().getInputStream(), true));
+    }
+
+    /**
+     * Upload a file read straight from the request body, without spooling it first.
+     * The body can only be read once, so the storage write is not retried; it is held to
+     * the declared size while it streams and rejected if it turns out shorter or longer.
+     */
+    public Photo uploadStream(StreamingUploadRequest request) {
+        return upload(new UploadSource(request.getUserId(), request.getOriginalFilename(),
+            request.getContentType(), request.getFileSize(), request::validate,
+            () -> new DeclaredLengthInputStream(request.getContent(), request.getFileSize()), false));
+    }
+
+    private Photo upload(UploadSource request) {
         String correlationId = CorrelationIdGenerator.generate();
         CorrelationIdGenerator.set(correlationId);
 
         try {
             log.info("Starting file upload: filename={}, userId={}, correlationId={}",
-                request.getOriginalFilename(), request.getUserId(), correlationId);
-
-            // Validate request
-            request.validate();
-
-            // Calculate checksum for deduplication
-            String checksum = calculateChecksum(request.getFile().getInputStream());
-
-            // Check for duplicate
-            Optional<Photo> existingPhoto = photoRepository.findByChecksum(checksum);
-            if (existingPhoto.isPresent()) {
-                log.warn("Duplicate photo detected: checksum={}, existingId={}", 
-                    checksum, existingPhoto.get().getId());
-                throw new IllegalStateException("Photo already exists with ID: " + existingPhoto.get().getId());
+                request.originalFilename(), request.userId(), correlationId);
+
+            Photo photo;
+            try {
+                // Validate request
+                request.validator().run();
+
+                // Reserve the photo row (short transaction)
+                photo = transactionTemplate.execute(status -> reserve(request, correlationId));
+                log.debug("Photo entity reserved: id={}", photo.getId());
+            } catch (Exception e) {
+                return transactionTemplate.execute(status -> uploadFallback(request, e));
             }
 
-            // Create photo entity (Builder pattern)
-            Photo photo = Photo.builder()
-                .userId(request.getUserId())
-                .originalFileName(request.getOriginalFilename())
-                .contentType(request.getContentType())
-                .fileSize(request.getFileSize())
-                .status(PhotoStatus.PENDING)
-                .checksum(checksum)
-                .build();
-
-            // Save to database first
-            photo = photoRepository.save(photo);
-            log.debug("Photo entity created: id={}", photo.getId());
-
-            // Record event
-            recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_UPLOAD_STARTED, 
-                "File upload started", correlationId, true);
-
-            // Generate storage key
-            String storageKey = generateStorageKey(request.getUserId(), photo.getId(), 
-                request.getOriginalFilename());
-
-            // Get storage provider with resilience
-            CloudStorageProvider storageProvider = storageProviderFactory
-                .getResilientProvider(defaultStorageProvider);
-
-            // Update status to uploading
-            photo.transitionTo(PhotoStatus.UPLOADING);
-            photoRepository.save(photo);
-
-            // Upload to cloud storage
-            String storageUrl = storageProvider.upload(
-                storageKey,
-                request.getFile().getInputStream(),
-                request.getContentType(),
-                request.getFileSize()
-            );
-
-            // Update photo with storage information
-            photo.setStorageKey(storageKey);
-            photo.setStorageUrl(storageUrl);
-            photo.transitionTo(PhotoStatus.UPLOADED);
-            photo = photoRepository.save(photo);
-
-            log.info("File uploaded successfully: photoId={}, storageKey={}", photo.getId(), storageKey);
-
-            // Record success event
-            recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_UPLOADED,
-                "File uploaded to storage", correlationId, true);
-
-            // Publish event
-            PhotoUploadedEvent event = PhotoUploadedEvent.of(
-                photo.getId(),
-                photo.getUserId(),
-                storageKey,
-                photo.getOriginalFileName(),
-                photo.getContentType(),
-                photo.getFileSize(),
-                correlationId
-            );
-            eventPublisher.publish("PhotoUploadedEvent", event);
-
-            return photo;
-
-        } catch (Exception e) {
-            log.error("File upload failed: filename={}, error={}", 
-                request.getOriginalFilename(), e.getMessage(), e);
-            throw new StorageException("Failed to upload file: " + e.getMessage(), e);
+            try {
+                // Generate storage key
+                String storageKey = generateStorageKey(request.userId(), photo.getId(),
+                    request.originalFilename());
+
+                // Get storage provider with resilience
+                CloudStorageProvider storageProvider = storageProviderFactory
+                    .getResilientProvider(defaultStorageProvider);
+
+                // Upload to cloud storage, computing the checksum in the same pass (no transaction)
+                CheckedSupplier<StoredObject> write = () -> store(request, storageKey, storageProvider);
+                StoredObject stored = request.repeatable()
+                    ? Retry.decorateCheckedSupplier(retryRegistry.retry("fileUpload"), write).get()
+                    : write.get();
+
+                // Finalize the row against the blob store (short transaction)
+                Long photoId = photo.getId();
+                try {
+                    photo = transactionTemplate.execute(status -> finalizeUpload(
+                        photoId, stored.checksum(), storageKey, stored.url(), correlationId));
+                } catch (DataIntegrityViolationException e) {
+                    // A concurrent upload of the same content registered the blob first; reference it instead
+                    log.debug("Blob registered concurrently, retrying finalize: checksum={}", stored.checksum());
+                    photo = transactionTemplate.execute(status -> finalizeUpload(
+                        photoId, stored.checksum(), storageKey, stored.url(), correlationId));
+                }
+
+                if (!storageKey.equals(photo.getStorageKey())) {
+                    // Content was already stored: the photo now shares that object, so drop our copy
+                    log.info("Duplicate content stored once: photoId={}, sharedKey={}",
+                        photo.getId(), photo.getStorageKey());
+                    discardUploadedObject(storageKey, storageProvider);
+                }
+
+                log.info("File uploaded successfully: photoId={}, storageKey={}", photo.getId(), photo.getStorageKey());
+
+                return photo;
+
+            } catch (Throwable e) {
+                log.error("File upload failed: filename={}, error={}",
+                    request.originalFilename(), e.getMessage(), e);
+                return markFailed(photo.getId(), e.getMessage(), correlationId);
+            }
         } finally {
             CorrelationIdGenerator.clear();
         }
     }
 
     /**
-     * Fallback method when upload fails after all retries
+     * Stream the content to storage once. A declared-length source that turns out shorter
+     * or longer than declared is removed from storage again (a partial object may have been
+     * written) before failing.
      */
-    @Transactional
-    public Photo uploadFallback(PhotoUploadRequest request, Exception e) {
+    private StoredObject store(UploadSource request, String storageKey,
+                               CloudStorageProvider storageProvider) throws Throwable {
+        try (InputStream content = request.content().get();
+             ChecksumInputStream checksumStream = new ChecksumInputStream(content)) {
+            if (!(content instanceof DeclaredLengthInputStream declared)) {
+                String url = storageProvider.upload(storageKey, checksumStream, request.contentType(), request.fileSize());
+                return new StoredObject(url, checksumStream.getChecksum());
+            }
+
+            try {
+                String url = storageProvider.upload(storageKey, checksumStream, request.contentType(), request.fileSize());
+                declared.verifyComplete();
+                return new StoredObject(url, checksumStream.getChecksum());
+            } catch (IOException | RuntimeException e) {
+                discardUploadedObject(storageKey, storageProvider);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Fallback when the upload cannot be started; records the attempt as a FAILED photo
+     */
+    private Photo uploadFallback(UploadSource request, Exception e) {
         String correlationId = CorrelationIdGenerator.getOrGenerate();
         
-        log.error("File upload failed after all retries: filename={}, error={}",
-            request.getOriginalFilename(), e.getMessage());
+        log.error("File upload could not be started: filename={}, error={}",
+            request.originalFilename(), e.getMessage());
 
         // Create photo entity in FAILED state
         Photo photo = Photo.builder()
-            .userId(request.getUserId())
-            .originalFileName(request.getOriginalFilename())
-            .contentType(request.getContentType())
-            .fileSize(request.getFileSize())
+            .userId(request.userId())
+            .originalFileName(request.originalFilename())
+            .contentType(request.contentType())
+            .fileSize(request.fileSize())
             .status(PhotoStatus.FAILED)
             .lastError(e.getMessage())
             .retryCount(3)
@@ -172,10 +198,107 @@ public class FileUploadService {
         return photo;
     }
 
+    /**
+     * Insert the photo row in UPLOADING state
+     */
+    private Photo reserve(UploadSource request, String correlationId) {
+        // Create photo entity (Builder pattern). The checksum is only known once the
+        // bytes have been streamed to storage, so it is filled in by the finalize step.
+        Photo photo = Photo.builder()
+            .userId(request.userId())
+            .originalFileName(request.originalFilename())
+            .contentType(request.contentType())
+            .fileSize(request.fileSize())
+            .status(PhotoStatus.PENDING)
+            .build();
+        photo.transitionTo(PhotoStatus.UPLOADING);
+        photo = photoRepository.save(photo);
+
+        // Record event
+        recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_UPLOAD_STARTED,
+            "File upload started", correlationId, true);
+
+        return photo;
+    }
+
+    /**
+     * Record the stored object on the reserved row and mark it uploaded.
+     * Content that is already stored is referenced instead, completing the photo
+     * straight away if that content has been processed before.
+     */
+    private Photo finalizeUpload(Long photoId, String checksum, String storageKey, String storageUrl,
+                                 String correlationId) {
+        Photo photo = photoRepository.findById(photoId)
+            .orElseThrow(() -> new PhotoNotFoundException(photoId));
+
+        Optional<StorageBlob> existing = blobStoreService.acquire(checksum);
+        StorageBlob blob = existing.orElseGet(() -> blobStoreService.register(
+            checksum, storageKey, storageUrl, photo.getContentType(), photo.getFileSize(), 1));
+        boolean reused = blobStoreService.link(photo, blob);
+        // Flush so a concurrent registration of the same checksum fails here, not at commit
+        Photo saved = photoRepository.saveAndFlush(photo);
+
+        // Record success event
+        recordEvent(saved.getId(), PhotoEvent.EventType.PHOTO_UPLOADED,
+            existing.isPresent() ? "File matched stored content, sharing existing object" : "File uploaded to storage",
+            correlationId, true);
+        if (reused) {
+            recordEvent(saved.getId(), PhotoEvent.EventType.PHOTO_PROCESSING_COMPLETED,
+                "Reused processing result of identical content", correlationId, true);
+        }
+
+        // Published by the outbox relay once this transaction commits
+        outboxService.add(saved.getId(), "PhotoUploadedEvent", PhotoUploadedEvent.of(
+            saved.getId(),
+            saved.getUserId(),
+            saved.getStorageKey(),
+            saved.getOriginalFileName(),
+            saved.getContentType(),
+            saved.getFileSize(),
+            correlationId
+        ), correlationId);
+        if (saved.getStatus() == PhotoStatus.COMPLETED) {
+            outboxService.add(saved.getId(), "PhotoProcessingCompletedEvent", PhotoProcessingCompletedEvent.of(
+                saved.getId(),
+                saved.getUserId(),
+                saved.getThumbnailUrl(),
+                saved.getWidth(),
+                saved.getHeight(),
+                saved.getMetadata(),
+                correlationId
+            ), correlationId);
+        }
+        // Queued in the same transaction, so every committed upload has its processing command
+        if (saved.getStatus() == PhotoStatus.UPLOADED && processingQueue.isEnabled()) {
+            processingQueue.enqueue(saved.getId(), correlationId);
+        }
+
+        return saved;
+    }
+
+    /**
+     * Fail the reserved row after the upload or finalize step failed (own short transaction)
+     */
+    private Photo markFailed(Long photoId, String reason, String correlationId) {
+        return transactionTemplate.execute(status -> {
+            Photo photo = photoRepository.findById(photoId)
+                .orElseThrow(() -> new PhotoNotFoundException(photoId));
+            if (photo.getStatus().canTransitionTo(PhotoStatus.FAILED)) {
+                photo.transitionTo(PhotoStatus.FAILED);
+            }
+            photo.setLastError(reason);
+            photo = photoRepository.save(photo);
+
+            recordEvent(photoId, PhotoEvent.EventType.PHOTO_PROCESSING_FAILED,
+                "Upload failed: " + reason, correlationId, false);
+            return photo;
+        });
+    }
+
     /**
      * Generate unique storage key
      */
-    private String generateStorageKey(String userId, Long photoId, String originalFilename) {
+    static String generateStorageKey(String userId, Long photoId, String originalFilename) {
         String extension = "";
         int lastDot = originalFilename.lastIndexOf('.');
         if (lastDot > 0) {
@@ -191,30 +314,13 @@ public class FileUploadService {
     }
 
     /**
-     * Calculate SHA-256 checksum for deduplication
+     * Best-effort removal of an object no photo will reference (duplicate content or a rejected stream)
      */
-    private String calculateChecksum(InputStream inputStream) {
+    private void discardUploadedObject(String storageKey, CloudStorageProvider storageProvider) {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] buffer = new byte[8192];
-            int bytesRead;
-
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                digest.update(buffer, 0, bytesRead);
-            }
-
-            byte[] hashBytes = digest.digest();
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hashBytes) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-
-            return hexString.toString();
+            storageProvider.delete(storageKey);
         } catch (Exception e) {
-            log.error("Failed to calculate checksum", e);
-            return UUID.randomUUID().toString(); // Fallback to UUID
+            log.error("Failed to delete discarded object from storage: storageKey={}", storageKey, e);
         }
     }
 
@@ -233,5 +339,19 @@ public class FileUploadService {
 
         photoEventRepository.save(event);
     }
-}
 
+    /**
+     * What is being uploaded, independent of how the request arrived
+     *
+     * @param repeatable whether the content can be opened again for a retried storage write
+     */
+    private record UploadSource(String userId, String originalFilename, String contentType, long fileSize,
+                                Runnable validator, CheckedSupplier<InputStream> content, boolean repeatable) {
+    }
+
+    /**
+     * Result of the storage write: object URL and the checksum computed while streaming
+     */
+    private record StoredObject(String url, String checksum) {
+    }
+}
@@ -0,0 +1,188 @@
+package com.photoupload.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pod-wide budget for decoded image pixels.
+ * Decoding reserves the estimated size of its pixels here before reading them, so that
+ * several large images decoded at once cannot exhaust the heap. Callers that do not fit
+ * wait until enough is released, and give up after a bounded wait.
+ *
+ * Any waiter that fits proceeds, so small images are not queued behind a large one. A
+ * waiter that has waited longer than the reservation threshold reserves the budget: new
+ * images stop being admitted until it fits. An image larger than the whole budget is
+ * admitted once nothing else holds any of it.
+ *
+ * Waits use a ReentrantLock condition rather than a monitor, so a waiting virtual thread
+ * unmounts instead of pinning its carrier.
+ */
+@Slf4j
+@Service
+public class ImageMemoryBudget {
+
+    private final long maxBytes;
+    private final long maxWaitNanos;
+    private final long reserveAfterNanos;
+    private final Timer waitTimer;
+    private final MeterRegistry meterRegistry;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    private long usedBytes;
+    private int waiting;
+    private Object reservedBy;
+
+    public ImageMemoryBudget(
+        MeterRegistry meterRegistry,
+        @Value("${processing.image-memory.max-bytes:0}") long maxBytes,
+        @Value("${processing.image-memory.max-wait-ms:60000}") long maxWaitMs,
+        @Value("${processing.image-memory.reserve-after-ms:5000}") long reserveAfterMs
+    ) {
+        // 0 means half of the heap
+        this.maxBytes = maxBytes > 0 ? maxBytes : Runtime.getRuntime().maxMemory() / 2;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.reserveAfterNanos = TimeUnit.MILLISECONDS.toNanos(reserveAfterMs);
+        this.meterRegistry = meterRegistry;
+
+        this.waitTimer = Timer.builder("image.memory.budget.wait")
+            .description("Time spent waiting for decode memory")
+            .register(meterRegistry);
+        Gauge.builder("image.memory.budget.used", this, ImageMemoryBudget::usedBytes)
+            .description("Estimated bytes of decoded images currently held")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("image.memory.budget.limit", this, budget -> budget.maxBytes)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("image.memory.budget.utilisation", this, budget -> budget.usedBytes() / budget.maxBytes)
+            .description("Fraction of the decode memory budget in use")
+            .register(meterRegistry);
+        Gauge.builder("image.memory.budget.waiting", this, ImageMemoryBudget::waiting)
+            .description("Images waiting for decode memory")
+            .register(meterRegistry);
+
+        log.info("Initialized image memory budget: maxBytes={}, maxWaitMs={}", this.maxBytes, maxWaitMs);
+    }
+
+    /**
+     * Reserve decode memory, waiting for it if necessary
+     *
+     * @return a permit that returns the bytes to the budget when closed
+     * @throws RejectedExecutionException if the memory did not become available in time
+     */
+    public Permit acquire(long bytes) {
+        long start = System.nanoTime();
+        Object waiter = new Object();
+        lock.lock();
+        try {
+            try {
+                waiting++;
+                while (!fits(bytes, waiter)) {
+                    long waited = System.nanoTime() - start;
+                    if (waited >= maxWaitNanos) {
+                        throw reject("timeout", bytes);
+                    }
+                    if (reservedBy == null && waited >= reserveAfterNanos) {
+                        reservedBy = waiter;
+                    }
+                    // Wake up at the reservation threshold or the deadline, whichever comes next
+                    long next = reservedBy == null && waited < reserveAfterNanos
+                        ? Math.min(reserveAfterNanos, maxWaitNanos) : maxWaitNanos;
+                    changed.awaitNanos(Math.max(next - waited, 1));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw reject("interrupted", bytes);
+            } finally {
+                waiting--;
+                if (reservedBy == waiter) {
+                    reservedBy = null;
+                    changed.signalAll();
+                }
+            }
+            usedBytes += bytes;
+        } finally {
+            lock.unlock();
+        }
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Permit(bytes);
+    }
+
+    private boolean fits(long bytes, Object waiter) {
+        if (reservedBy != null && reservedBy != waiter) {
+            return false;
+        }
+        return usedBytes == 0 || usedBytes + bytes <= maxBytes;
+    }
+
+    private void release(long bytes) {
+        lock.lock();
+        try {
+            usedBytes -= bytes;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private RejectedExecutionException reject(String reason, long bytes) {
+        Counter.builder("image.memory.budget.rejected")
+            .description("Images refused decode memory")
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment();
+        log.warn("Image refused decode memory: reason={}, bytes={}, usedBytes={}, maxBytes={}",
+            reason, bytes, usedBytes, maxBytes);
+        return new RejectedExecutionException("Image decode memory unavailable (" + reason + "), retry later");
+    }
+
+    private double usedBytes() {
+        lock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double waiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserved decode memory; close once the decoded pixels are no longer needed
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final long bytes;
+        private boolean released;
+
+        private Permit(long bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(bytes);
+            }
+        }
+    }
+}
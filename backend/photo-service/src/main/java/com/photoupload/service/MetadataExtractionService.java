@@ -7,8 +7,11 @@ import com.drew.metadata.Tag;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.photoupload.common.domain.Photo;
 import com.photoupload.storage.CloudStorageProvider;
-import lombok.RequiredArgsConstructor;
+import com.photoupload.storage.RangedObjectInputStream;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.InputStream;
@@ -18,64 +21,108 @@ import java.util.Map;
 /**
  * Service for extracting photo metadata (EXIF, etc.).
  * Single Responsibility: Handles only metadata extraction.
+ *
+ * When the original is not on this node, metadata is read from storage in byte ranges as
+ * the parser asks for them; EXIF and XMP sit near the start of the file, so usually only
+ * the first range is transferred rather than the whole original.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class MetadataExtractionService {
 
     private final ObjectMapper objectMapper;
+    private final DistributionSummary bytesTransferred;
+    private final DistributionSummary rangeRequests;
+
+    @Value("${processing.metadata.initial-range-bytes:65536}")
+    private int initialRangeBytes;
+
+    @Value("${processing.metadata.max-range-bytes:1048576}")
+    private int maxRangeBytes;
+
+    public MetadataExtractionService(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.bytesTransferred = DistributionSummary.builder("photo.metadata.bytes.transferred")
+            .description("Bytes read from storage to extract one photo's metadata")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        this.rangeRequests = DistributionSummary.builder("photo.metadata.range.requests")
+            .description("Range requests made to extract one photo's metadata")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Extract metadata from the run's fetched original
+     */
+    public String extractMetadata(Photo photo, FetchedOriginal original) {
+        try (InputStream imageStream = original.openStream()) {
+            return extract(photo, imageStream);
+        } catch (Exception e) {
+            return failed(photo, e);
+        }
+    }
 
     /**
-     * Extract metadata from photo
+     * Extract metadata by reading only the leading byte ranges of the stored original
      */
     public String extractMetadata(Photo photo, CloudStorageProvider storage) {
-        try {
-            log.debug("Extracting metadata for photo: {}", photo.getId());
+        RangedObjectInputStream imageStream = new RangedObjectInputStream(
+            storage, photo.getStorageKey(), initialRangeBytes, maxRangeBytes);
+        try (imageStream) {
+            return extract(photo, imageStream);
+        } catch (Exception e) {
+            return failed(photo, e);
+        } finally {
+            bytesTransferred.record(imageStream.getBytesTransferred());
+            rangeRequests.record(imageStream.getRangeRequests());
+            log.debug("Metadata read from storage: photoId={}, bytes={}, ranges={}",
+                photo.getId(), imageStream.getBytesTransferred(), imageStream.getRangeRequests());
+        }
+    }
 
-            // Download image
-            InputStream imageStream = storage.download(photo.getStorageKey());
+    private String extract(Photo photo, InputStream imageStream) throws Exception {
+        log.debug("Extracting metadata for photo: {}", photo.getId());
 
-            // Extract metadata
-            Metadata metadata = ImageMetadataReader.readMetadata(imageStream);
+        // Extract metadata
+        Metadata metadata = ImageMetadataReader.readMetadata(imageStream);
 
-            // Convert to map
-            Map<String, Map<String, String>> metadataMap = new HashMap<>();
+        // Convert to map
+        Map<String, Map<String, String>> metadataMap = new HashMap<>();
 
-            for (Directory directory : metadata.getDirectories()) {
-                Map<String, String> tags = new HashMap<>();
+        for (Directory directory : metadata.getDirectories()) {
+            Map<String, String> tags = new HashMap<>();
 
-                for (Tag tag : directory.getTags()) {
-                    tags.put(tag.getTagName(), tag.getDescription());
-                }
+            for (Tag tag : directory.getTags()) {
+                tags.put(tag.getTagName(), tag.getDescription());
+            }
 
-                if (!tags.isEmpty()) {
-                    metadataMap.put(directory.getName(), tags);
-                }
+            if (!tags.isEmpty()) {
+                metadataMap.put(directory.getName(), tags);
+            }
 
-                // Log any errors
-                if (directory.hasErrors()) {
-                    for (String error : directory.getErrors()) {
-                        log.warn("Metadata extraction error: {}", error);
-                    }
+            // Log any errors
+            if (directory.hasErrors()) {
+                for (String error : directory.getErrors()) {
+                    log.warn("Metadata extraction error: {}", error);
                 }
             }
+        }
 
-            // Convert to JSON
-            String metadataJson = objectMapper.writeValueAsString(metadataMap);
+        // Convert to JSON
+        String metadataJson = objectMapper.writeValueAsString(metadataMap);
 
-            log.info("Metadata extracted successfully: photoId={}, directories={}",
-                photo.getId(), metadataMap.size());
+        log.info("Metadata extracted successfully: photoId={}, directories={}",
+            photo.getId(), metadataMap.size());
 
-            return metadataJson;
+        return metadataJson;
+    }
 
-        } catch (Exception e) {
-            log.warn("Failed to extract metadata (non-critical): photoId={}, error={}",
-                photo.getId(), e.getMessage());
-            
-            // Return empty JSON on failure (metadata extraction is non-critical)
-            return "{}";
-        }
+    private String failed(Photo photo, Exception e) {
+        log.warn("Failed to extract metadata (non-critical): photoId={}, error={}",
+            photo.getId(), e.getMessage());
+
+        // Return empty JSON on failure (metadata extraction is non-critical)
+        return "{}";
     }
 }
 
@@ -0,0 +1,203 @@
+package com.photoupload.service;
+
+import com.photoupload.common.domain.Photo;
+import com.photoupload.common.exception.PhotoProcessingException;
+import com.photoupload.storage.CloudStorageProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Provides the original image to a processing run exactly once.
+ * When the upload was received on this node its bytes are kept in a local file until the
+ * run picks them up, so processing right after upload does not read the object back from
+ * storage. Otherwise the original is downloaded once into a spool file that all stages share.
+ *
+ * Kept uploads are bounded by total size and age; anything not picked up in time is deleted
+ * and the run falls back to downloading.
+ */
+@Slf4j
+@Service
+public class OriginalFetchService {
+
+    private static final int SPOOL_BUFFER_SIZE = 64 * 1024;
+
+    private final Map<Long, Retained> retained = new ConcurrentHashMap<>();
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final Counter localFetches;
+    private final Counter storageFetches;
+
+    @Value("${processing.local-originals.enabled:true}")
+    private boolean retainEnabled;
+
+    @Value("${processing.local-originals.max-bytes:536870912}")
+    private long maxRetainedBytes;
+
+    @Value("${processing.local-originals.ttl-ms:600000}")
+    private long retainTtlMs;
+
+    @Value("${processing.spool-dir:${java.io.tmpdir}}")
+    private Path spoolDirectory;
+
+    public OriginalFetchService(MeterRegistry meterRegistry) {
+        this.localFetches = Counter.builder("photo.processing.original.fetches")
+            .description("Originals provided to processing runs")
+            .tag("source", "local")
+            .register(meterRegistry);
+        this.storageFetches = Counter.builder("photo.processing.original.fetches")
+            .description("Originals provided to processing runs")
+            .tag("source", "storage")
+            .register(meterRegistry);
+        Gauge.builder("photo.processing.original.retained", retainedBytes, AtomicLong::get)
+            .description("Bytes of uploads kept locally for processing")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Keep the uploaded bytes of a photo for its processing run.
+     * Must be called while the request's multipart file still exists; best effort.
+     */
+    public void retain(Photo photo, MultipartFile file) {
+        if (!retainEnabled || file == null || photo.getStorageKey() == null) {
+            return;
+        }
+
+        long size = file.getSize();
+        if (retainedBytes.addAndGet(size) > maxRetainedBytes) {
+            retainedBytes.addAndGet(-size);
+            log.debug("Local original budget exhausted, processing will download: photoId={}", photo.getId());
+            return;
+        }
+
+        Path path = null;
+        try {
+            path = Files.createTempFile(spoolDirectory, "original-", ".tmp");
+            // Moves the container's spooled part where possible instead of copying it
+            file.transferTo(path);
+            Retained previous = retained.put(photo.getId(),
+                new Retained(photo.getStorageKey(), path, size, Instant.now()));
+            if (previous != null) {
+                discard(previous);
+            }
+        } catch (IOException | RuntimeException e) {
+            retainedBytes.addAndGet(-size);
+            deleteQuietly(path);
+            log.warn("Failed to keep uploaded original: photoId={}", photo.getId(), e);
+        }
+    }
+
+    /**
+     * Whether the upload for this photo is kept on this node, so fetching it is a local read
+     */
+    public boolean isRetained(Long photoId) {
+        return retained.containsKey(photoId);
+    }
+
+    /**
+     * Get the original for a processing run: the kept upload if there is one, otherwise a
+     * single download from storage. The caller closes the handle when the run ends.
+     */
+    public FetchedOriginal fetch(Photo photo, CloudStorageProvider storage) {
+        return fetch(photo, storage, original -> { });
+    }
+
+    /**
+     * Get the original as fetch(photo, storage) does. A download is handed to handOff as soon
+     * as its spool file exists, so readers can follow it before it completes.
+     */
+    public FetchedOriginal fetch(Photo photo, CloudStorageProvider storage, Consumer<FetchedOriginal> handOff) {
+        Retained local = retained.remove(photo.getId());
+        if (local != null) {
+            retainedBytes.addAndGet(-local.size());
+            if (local.storageKey().equals(photo.getStorageKey()) && Files.exists(local.path())) {
+                localFetches.increment();
+                return new FetchedOriginal(photo.getId(), local.path(), local.size(), true);
+            }
+            deleteQuietly(local.path());
+        }
+
+        Path path = null;
+        FetchedOriginal original = null;
+        try (InputStream content = storage.download(photo.getStorageKey())) {
+            path = Files.createTempFile(spoolDirectory, "original-", ".tmp");
+            original = FetchedOriginal.downloading(photo.getId(), path);
+            handOff.accept(original);
+
+            // Unbuffered writes, so readers following the file see every byte reported
+            try (OutputStream out = Files.newOutputStream(path)) {
+                byte[] buffer = new byte[SPOOL_BUFFER_SIZE];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    original.grew(read);
+                }
+            }
+            original.completed();
+            storageFetches.increment();
+            return original;
+        } catch (IOException | RuntimeException e) {
+            if (original != null) {
+                original.failed(e);
+            }
+            deleteQuietly(path);
+            throw new PhotoProcessingException(photo.getId(), "fetch",
+                "Failed to fetch original: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Delete kept uploads whose processing run never picked them up
+     */
+    @Scheduled(fixedDelayString = "${processing.local-originals.ttl-ms:600000}")
+    public void sweepExpired() {
+        Instant cutoff = Instant.now().minus(Duration.ofMillis(retainTtlMs));
+        int swept = 0;
+        for (Map.Entry<Long, Retained> entry : retained.entrySet()) {
+            if (entry.getValue().retainedAt().isBefore(cutoff) && retained.remove(entry.getKey(), entry.getValue())) {
+                discard(entry.getValue());
+                swept++;
+            }
+        }
+
+        if (swept > 0) {
+            log.info("Swept unclaimed local originals: count={}", swept);
+        }
+    }
+
+    private void discard(Retained entry) {
+        retainedBytes.addAndGet(-entry.size());
+        deleteQuietly(entry.path());
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete original spool file: path={}", path, e);
+        }
+    }
+
+    private record Retained(String storageKey, Path path, long size, Instant retainedAt) {
+    }
+}
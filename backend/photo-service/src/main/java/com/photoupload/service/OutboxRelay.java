@@ -0,0 +1,160 @@
+package com.photoupload.service;
+
+import com.photoupload.common.domain.OutboxEvent;
+import com.photoupload.eventbus.EventPublisher;
+import com.photoupload.eventbus.relay.RelayLock;
+import com.photoupload.service.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes outbox events through the configured {@link EventPublisher}.
+ * Each poll publishes the oldest events in batches, in id order, and deletes a batch's
+ * published rows with one statement. A batch is sent without waiting between events and
+ * then awaited, so with publisher confirms it costs about one broker round trip. The wait
+ * is bounded by outbox.confirm-timeout-ms and holds no transaction open. The first event
+ * the broker refuses, or has not confirmed by then, stays in the outbox with everything
+ * after it and is retried on the next poll; events after it that did arrive are sent again
+ * (at least once). Only the replica holding the relay lease relays, so consumers see a
+ * photo's events in the order they were committed.
+ *
+ * outbox.lag reports the age of the oldest unpublished event.
+ */
+@Slf4j
+@Service
+public class OutboxRelay {
+
+    private static final String RELAY_LEASE = "outbox_events";
+
+    private final OutboxEventRepository outboxRepository;
+    private final EventPublisher eventPublisher;
+    private final RelayLock relayLock;
+    private final Counter published;
+
+    private volatile double lagSeconds;
+
+    @Value("${outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.confirm-timeout-ms:10000}")
+    private long confirmTimeoutMs;
+
+    @Value("${outbox.relay-lease-ms:60000}")
+    private long relayLeaseMs;
+
+    public OutboxRelay(
+        OutboxEventRepository outboxRepository,
+        EventPublisher eventPublisher,
+        RelayLock relayLock,
+        MeterRegistry meterRegistry
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.relayLock = relayLock;
+
+        this.published = Counter.builder("outbox.events.published")
+            .description("Outbox events published to the broker")
+            .register(meterRegistry);
+        Gauge.builder("outbox.lag", this, relay -> relay.lagSeconds)
+            .description("Age of the oldest unpublished outbox event")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        Gauge.builder("outbox.depth", outboxRepository, OutboxEventRepository::count)
+            .description("Unpublished outbox events, across all replicas")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:200}")
+    public void relay() {
+        try {
+            int count;
+            do {
+                count = publishBatch();
+            } while (count == batchSize);
+        } catch (Exception e) {
+            log.error("Failed to relay outbox events", e);
+        }
+
+        try {
+            Instant oldest = outboxRepository.findOldestCreatedAt();
+            lagSeconds = oldest == null ? 0 : Math.max(Duration.between(oldest, Instant.now()).toMillis(), 0) / 1000.0;
+        } catch (Exception e) {
+            log.warn("Failed to measure outbox lag: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Publish the oldest batch and delete what was published
+     *
+     * @return number of events published
+     */
+    private int publishBatch() {
+        if (!relayLock.tryAcquire(RELAY_LEASE, Duration.ofMillis(relayLeaseMs))) {
+            return 0;
+        }
+        try {
+            return publishOldest();
+        } finally {
+            relayLock.release(RELAY_LEASE);
+        }
+    }
+
+    private int publishOldest() {
+        List<OutboxEvent> batch = outboxRepository.findOldest(batchSize);
+
+        // Send the whole batch before waiting, so the broker acknowledges it in one pipeline
+        List<CompletableFuture<Void>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            CompletableFuture<Void> send = eventPublisher.publishSerializedAsync(
+                event.getTopic(), event.getEventType(), event.getPayload(), event.getCorrelationId());
+            sends.add(send);
+            if (send.isCompletedExceptionally()) {
+                // Refused outright; the rest would be too
+                break;
+            }
+        }
+
+        // Confirmed prefix only: stop at the first send that failed or is still pending at the deadline
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        List<Long> publishedIds = new ArrayList<>(sends.size());
+        for (int i = 0; i < sends.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            try {
+                sends.get(i).get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                log.warn("Outbox relay paused, {} did not accept event: id={}, eventType={}, error={}",
+                    eventPublisher.getPublisherType(), event.getId(), event.getEventType(), e.getCause().getMessage());
+                break;
+            } catch (TimeoutException e) {
+                log.warn("Outbox relay paused, {} did not confirm event within {}ms: id={}, eventType={}",
+                    eventPublisher.getPublisherType(), confirmTimeoutMs, event.getId(), event.getEventType());
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            publishedIds.add(event.getId());
+        }
+
+        if (!publishedIds.isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(publishedIds);
+            published.increment(publishedIds.size());
+            log.debug("Outbox events published: count={}", publishedIds.size());
+        }
+        return publishedIds.size();
+    }
+}
@@ -0,0 +1,59 @@
+package com.photoupload.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.photoupload.common.domain.OutboxEvent;
+import com.photoupload.common.exception.EventPublishException;
+import com.photoupload.service.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Transactional outbox for domain events.
+ * Services add events here instead of publishing them; the event is inserted in the
+ * caller's transaction, so it exists exactly when the state change it announces was
+ * committed, and no request waits on the broker. {@link OutboxRelay} publishes it.
+ */
+@Slf4j
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Add an event to the outbox; must run inside the transaction of the change it announces
+     *
+     * @param photoId       Photo the event is about
+     * @param topic         Topic or queue name
+     * @param event         Event object
+     * @param correlationId Correlation ID for request tracing, may be null
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(Long photoId, String topic, Object event, String correlationId) {
+        String eventType = event.getClass().getSimpleName();
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new EventPublishException(eventType, "Unexpected error: " + e.getMessage());
+        }
+
+        outboxRepository.save(OutboxEvent.builder()
+            .photoId(photoId)
+            .topic(topic)
+            .eventType(eventType)
+            .payload(payload)
+            .correlationId(correlationId)
+            .build());
+
+        log.debug("Event added to outbox: photoId={}, topic={}, eventType={}", photoId, topic, eventType);
+    }
+}
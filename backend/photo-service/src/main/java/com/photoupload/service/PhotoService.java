@@ -3,9 +3,16 @@ package com.photoupload.service;
 import com.photoupload.common.domain.Photo;
 import com.photoupload.common.domain.PhotoEvent;
 import com.photoupload.common.domain.PhotoStatus;
+import com.photoupload.common.dto.BatchUploadResponse;
+import com.photoupload.common.dto.ChunkedUploadRequest;
+import com.photoupload.common.dto.DirectUploadRequest;
+import com.photoupload.common.dto.DirectUploadResponse;
 import com.photoupload.common.dto.PhotoEventResponse;
 import com.photoupload.common.dto.PhotoResponse;
 import com.photoupload.common.dto.PhotoUploadRequest;
+import com.photoupload.common.dto.StreamingUploadRequest;
+import com.photoupload.common.dto.UploadPartResponse;
+import com.photoupload.common.dto.UploadSessionResponse;
 import com.photoupload.common.exception.PhotoNotFoundException;
 import com.photoupload.service.mapper.PhotoMapper;
 import com.photoupload.service.repository.PhotoEventRepository;
@@ -18,7 +25,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -35,21 +45,146 @@ public class PhotoService {
     private final PhotoRepository photoRepository;
     private final PhotoEventRepository photoEventRepository;
     private final FileUploadService fileUploadService;
+    private final BatchUploadService batchUploadService;
+    private final ChunkedUploadService chunkedUploadService;
+    private final DirectUploadService directUploadService;
     private final ProcessingOrchestrationService orchestrationService;
+    private final ProcessingQueueService processingQueue;
+    private final UploadAdmissionService admissionService;
+    private final OriginalFetchService originalFetchService;
+    private final DerivativeImageService derivativeImageService;
     private final PhotoMapper photoMapper;
 
     /**
-     * Upload a new photo
+     * Upload a new photo.
+     * Not transactional: the upload service uses short transactions around the storage write.
+     * Refused with UploadThrottledException when an admission budget is exhausted.
      */
-    @Transactional
     public PhotoResponse uploadPhoto(PhotoUploadRequest request) {
         log.info("Uploading photo for user: {}", request.getUserId());
 
-        // Delegate to file upload service
-        Photo photo = fileUploadService.uploadFile(request);
+        // Delegate to file upload service, holding byte budget while the file is stored
+        Photo photo;
+        try (UploadAdmissionService.Permit permit = admissionService.admit(request.getUserId(), request.getFileSize())) {
+            photo = fileUploadService.uploadFile(request);
+        }
+
+        // Trigger async processing, unless the upload failed or reused an earlier result.
+        // The processing run reads the received bytes instead of downloading them again.
+        if (photo.getStatus() == PhotoStatus.UPLOADED) {
+            originalFetchService.retain(photo, request.getFile());
+            dispatchProcessing(photo);
+        }
+
+        return photoMapper.toResponse(photo);
+    }
+
+    /**
+     * Upload a photo streamed from the request body; see uploadPhoto
+     */
+    public PhotoResponse uploadPhotoStream(StreamingUploadRequest request) {
+        log.info("Streaming photo upload for user: {}", request.getUserId());
+
+        Photo photo;
+        try (UploadAdmissionService.Permit permit = admissionService.admit(request.getUserId(), request.getFileSize())) {
+            photo = fileUploadService.uploadStream(request);
+        }
+
+        // Trigger async processing, unless the upload failed or reused an earlier result
+        if (photo.getStatus() == PhotoStatus.UPLOADED) {
+            dispatchProcessing(photo);
+        }
+
+        return photoMapper.toResponse(photo);
+    }
+
+    /**
+     * Upload several photos at once and trigger processing for each stored one.
+     * All files must belong to one user, whose quota admits the whole batch.
+     * Not transactional, for the same reason as uploadPhoto.
+     */
+    public BatchUploadResponse uploadPhotoBatch(List<PhotoUploadRequest> requests) {
+        log.info("Uploading photo batch: files={}", requests.size());
+
+        if (requests.stream().map(PhotoUploadRequest::getUserId).distinct().count() > 1) {
+            throw new IllegalArgumentException("Batch files must all belong to one user");
+        }
+
+        BatchUploadService.BatchResult result;
+        try (UploadAdmissionService.Permit permit = admissionService.admit(
+                requests.isEmpty() ? null : requests.get(0).getUserId(),
+                requests.stream().mapToLong(PhotoUploadRequest::getFileSize).sum())) {
+            result = batchUploadService.uploadBatch(requests);
+        }
 
         // Trigger async processing
-        orchestrationService.startProcessing(photo);
+        result.uploadedPhotos().forEach(this::dispatchProcessing);
+
+        return result.response();
+    }
+
+    /**
+     * Start a resumable chunked upload
+     */
+    public UploadSessionResponse initiateChunkedUpload(ChunkedUploadRequest request) {
+        log.info("Initiating chunked upload for user: {}", request.getUserId());
+        return chunkedUploadService.initiate(request);
+    }
+
+    /**
+     * Store one part of a chunked upload
+     */
+    public UploadPartResponse uploadChunk(String sessionId, int partNumber, InputStream inputStream, long size) {
+        return chunkedUploadService.uploadPart(sessionId, partNumber, inputStream, size);
+    }
+
+    /**
+     * Get chunked upload state for resuming
+     */
+    public UploadSessionResponse getUploadSession(String sessionId) {
+        return chunkedUploadService.getSession(sessionId);
+    }
+
+    /**
+     * Complete a chunked upload and trigger processing
+     */
+    public PhotoResponse completeChunkedUpload(String sessionId) {
+        log.info("Completing chunked upload: sessionId={}", sessionId);
+
+        Photo photo = chunkedUploadService.complete(sessionId);
+
+        // Trigger async processing
+        dispatchProcessing(photo);
+
+        return photoMapper.toResponse(photo);
+    }
+
+    /**
+     * Abort a chunked upload
+     */
+    public void abortChunkedUpload(String sessionId) {
+        log.info("Aborting chunked upload: sessionId={}", sessionId);
+        chunkedUploadService.abort(sessionId);
+    }
+
+    /**
+     * Start a direct-to-storage upload through a presigned URL
+     */
+    public DirectUploadResponse initiateDirectUpload(DirectUploadRequest request) {
+        log.info("Initiating direct upload for user: {}", request.getUserId());
+        return directUploadService.initiate(request);
+    }
+
+    /**
+     * Verify a direct upload in storage and trigger processing
+     */
+    public PhotoResponse completeDirectUpload(Long photoId) {
+        log.info("Completing direct upload: photoId={}", photoId);
+
+        Photo photo = directUploadService.complete(photoId);
+
+        // Trigger async processing
+        dispatchProcessing(photo);
 
         return photoMapper.toResponse(photo);
     }
@@ -68,6 +203,16 @@ public class PhotoService {
         return photoMapper.toResponse(photo);
     }
 
+    /**
+     * Get a derivative image of a photo, generated from the original on first request
+     */
+    public DerivativeImageService.ImageDerivative getPhotoImage(Long id, Integer width, Integer height,
+                                                                String fit, String format) {
+        log.debug("Retrieving photo image: id={}, w={}, h={}, fit={}, format={}", id, width, height, fit, format);
+
+        return derivativeImageService.getDerivative(id, width, height, fit, format);
+    }
+
     /**
      * Get all photos for user with pagination
      */
@@ -145,7 +290,8 @@ public class PhotoService {
         Photo photo = photoRepository.findById(id)
             .orElseThrow(() -> new PhotoNotFoundException(id));
 
-        // Trigger deletion orchestration (storage cleanup, event publishing)
+        // Release the blob and add the deletion event in this transaction; the object is
+        // removed from storage after commit
         orchestrationService.deletePhoto(photo);
 
         // Delete from database
@@ -168,6 +314,7 @@ public class PhotoService {
             throw new IllegalStateException("Photo is not in FAILED status");
         }
 
+        admissionService.processingQueued(photo.getUserId());
         orchestrationService.retryProcessing(photo);
     }
 
@@ -186,5 +333,37 @@ public class PhotoService {
     public long countUserPhotos(String userId) {
         return photoRepository.countByUserId(userId);
     }
-}
 
+    /**
+     * Start processing of an uploaded photo. With the durable queue the upload services have
+     * already queued the command in the transaction that stored the photo, and it is only counted
+     * against the pending-job budget here. Without it, start
+     * processing once the caller's transaction, if any, has committed, so the async saga never
+     * reads a photo row that is not visible yet.
+     */
+    private void dispatchProcessing(Photo photo) {
+        if (processingQueue.isEnabled()) {
+            admissionService.processingQueued(photo.getUserId());
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    startProcessing(photo);
+                }
+            });
+        } else {
+            startProcessing(photo);
+        }
+    }
+
+    /**
+     * Start the processing saga, counting it against the pending-job budget until it finishes
+     */
+    private void startProcessing(Photo photo) {
+        admissionService.processingQueued(photo.getUserId());
+        orchestrationService.startProcessing(photo);
+    }
+}
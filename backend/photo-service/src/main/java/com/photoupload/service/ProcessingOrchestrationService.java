@@ -3,39 +3,70 @@ package com.photoupload.service;
 import com.photoupload.common.domain.Photo;
 import com.photoupload.common.domain.PhotoEvent;
 import com.photoupload.common.domain.PhotoStatus;
+import com.photoupload.common.dto.PhotoRendition;
 import com.photoupload.common.event.*;
 import com.photoupload.common.exception.PhotoProcessingException;
 import com.photoupload.common.util.CorrelationIdGenerator;
-import com.photoupload.eventbus.EventPublisher;
+import com.photoupload.service.mapper.PhotoMapper;
+import com.photoupload.service.pipeline.MetadataStage;
+import com.photoupload.service.pipeline.PipelineContext;
+import com.photoupload.service.pipeline.ProcessingPipeline;
+import com.photoupload.service.pipeline.RenditionStage;
 import com.photoupload.service.repository.PhotoEventRepository;
 import com.photoupload.service.repository.PhotoRepository;
 import com.photoupload.storage.CloudStorageProvider;
 import com.photoupload.storage.factory.CloudStorageProviderFactory;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Saga Pattern: Orchestrates distributed photo processing workflow.
  * Command Pattern: Executes processing commands asynchronously.
  * Observer Pattern: Publishes events for each processing stage.
+ *
+ * The stages themselves (fetch, validation, renditions, metadata, ...) are beans run by
+ * {@link ProcessingPipeline}; the saga owns the photo's state transitions around them.
+ * Each transition commits together with its history entry and its domain event, which goes
+ * through the {@link OutboxService} rather than straight to the broker.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ProcessingOrchestrationService {
 
     private final PhotoRepository photoRepository;
     private final PhotoEventRepository photoEventRepository;
-    private final MetadataExtractionService metadataService;
     private final ThumbnailGenerationService thumbnailService;
-    private final EventPublisher eventPublisher;
+    private final DerivativeImageService derivativeService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
     private final CloudStorageProviderFactory storageProviderFactory;
+    private final BlobStoreService blobStoreService;
+    private final UploadAdmissionService admissionService;
+    private final ProcessingPipeline pipeline;
+    private final RetryScheduler retryScheduler;
+    private final ProcessingQueueService processingQueue;
+    private final PhotoMapper photoMapper;
+    private final Executor processingIoExecutor;
 
     @Value("${storage.provider:s3}")
     private String defaultStorageProvider;
@@ -43,12 +74,54 @@ public class ProcessingOrchestrationService {
     @Value("${processing.max-retries:3}")
     private int maxRetries;
 
+    public ProcessingOrchestrationService(
+        PhotoRepository photoRepository,
+        PhotoEventRepository photoEventRepository,
+        ThumbnailGenerationService thumbnailService,
+        DerivativeImageService derivativeService,
+        OutboxService outboxService,
+        TransactionTemplate transactionTemplate,
+        CloudStorageProviderFactory storageProviderFactory,
+        BlobStoreService blobStoreService,
+        UploadAdmissionService admissionService,
+        ProcessingPipeline pipeline,
+        RetryScheduler retryScheduler,
+        ProcessingQueueService processingQueue,
+        PhotoMapper photoMapper,
+        @Qualifier("processingIoExecutor") Executor processingIoExecutor
+    ) {
+        this.photoRepository = photoRepository;
+        this.photoEventRepository = photoEventRepository;
+        this.thumbnailService = thumbnailService;
+        this.derivativeService = derivativeService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.storageProviderFactory = storageProviderFactory;
+        this.blobStoreService = blobStoreService;
+        this.admissionService = admissionService;
+        this.pipeline = pipeline;
+        this.retryScheduler = retryScheduler;
+        this.processingQueue = processingQueue;
+        this.photoMapper = photoMapper;
+        this.processingIoExecutor = processingIoExecutor;
+    }
+
     /**
-     * Start photo processing workflow (Saga orchestration)
+     * Start photo processing workflow (Saga orchestration).
+     * Not transactional: each step of the saga commits in its own short transaction.
      */
     @Async("photoProcessingExecutor")
-    @Transactional
     public CompletableFuture<Void> startProcessing(Photo photo) {
+        runProcessing(photo);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Run the processing saga for the photo
+     *
+     * @return completes once the saga has recorded the outcome: photo completed, retrying or failed
+     */
+    public CompletableFuture<Void> runProcessing(Photo photo) {
         String correlationId = CorrelationIdGenerator.generate();
         CorrelationIdGenerator.set(correlationId);
 
@@ -56,41 +129,40 @@ public class ProcessingOrchestrationService {
             log.info("Starting photo processing saga: photoId={}, correlationId={}",
                 photo.getId(), correlationId);
 
-            // Update status
-            photo.transitionTo(PhotoStatus.PROCESSING);
-            photoRepository.save(photo);
-
-            // Publish processing started event
-            PhotoProcessingStartedEvent startedEvent = PhotoProcessingStartedEvent.of(
-                photo.getId(), photo.getUserId(), correlationId
-            );
-            eventPublisher.publishWithCorrelation("PhotoProcessingStartedEvent", startedEvent, correlationId);
-
-            recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_PROCESSING_STARTED,
-                "Processing started", correlationId, true);
-
-            // Execute processing steps in parallel
-            CompletableFuture<String> thumbnailFuture = generateThumbnail(photo, correlationId);
-            CompletableFuture<String> metadataFuture = extractMetadata(photo, correlationId);
-
-            // Wait for both to complete
-            CompletableFuture.allOf(thumbnailFuture, metadataFuture)
-                .thenAccept(v -> {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Update status; a queued photo is already PROCESSING when its worker died mid-run
+                if (photo.getStatus() != PhotoStatus.PROCESSING) {
+                    photo.transitionTo(PhotoStatus.PROCESSING);
+                }
+                photo.setNextRetryAt(null);
+                photoRepository.save(photo);
+
+                // Processing started event
+                PhotoProcessingStartedEvent startedEvent = PhotoProcessingStartedEvent.of(
+                    photo.getId(), photo.getUserId(), correlationId
+                );
+                outboxService.add(photo.getId(), "PhotoProcessingStartedEvent", startedEvent, correlationId);
+
+                recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_PROCESSING_STARTED,
+                    "Processing started", correlationId, true);
+            });
+
+            // Run the processing stages; independent ones overlap, each on the pool for its resource class
+            return pipeline.run(new PipelineContext(photo, correlationId))
+                .thenAcceptAsync(context -> {
                     try {
-                        String thumbnailUrl = thumbnailFuture.join();
-                        String metadata = metadataFuture.join();
+                        List<PhotoRendition> renditions = context.artefact(RenditionStage.NAME);
+                        String metadata = Objects.requireNonNullElse(context.artefact(MetadataStage.NAME), "{}");
 
-                        completeProcessing(photo, thumbnailUrl, metadata, correlationId);
+                        completeProcessing(photo, renditions, metadata, correlationId);
                     } catch (Exception e) {
                         failProcessing(photo, "Completion failed", e, correlationId);
                     }
-                })
-                .exceptionally(ex -> {
-                    failProcessing(photo, "Processing failed", ex, correlationId);
+                }, processingIoExecutor)
+                .exceptionallyAsync(ex -> {
+                    failProcessing(photo, "Processing failed", unwrap(ex), correlationId);
                     return null;
-                });
-
-            return CompletableFuture.completedFuture(null);
+                }, processingIoExecutor);
 
         } catch (Exception e) {
             log.error("Failed to start processing saga: photoId={}", photo.getId(), e);
@@ -101,89 +173,55 @@ public class ProcessingOrchestrationService {
         }
     }
 
-    /**
-     * Generate thumbnail
-     */
-    private CompletableFuture<String> generateThumbnail(Photo photo, String correlationId) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                log.debug("Generating thumbnail: photoId={}", photo.getId());
-
-                CloudStorageProvider storage = storageProviderFactory.getResilientProvider(defaultStorageProvider);
-                String thumbnailUrl = thumbnailService.generateThumbnail(photo, storage);
-
-                recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_THUMBNAIL_GENERATED,
-                    "Thumbnail generated", correlationId, true);
-
-                return thumbnailUrl;
-            } catch (Exception e) {
-                log.error("Thumbnail generation failed: photoId={}", photo.getId(), e);
-                recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_THUMBNAIL_GENERATED,
-                    "Thumbnail generation failed: " + e.getMessage(), correlationId, false);
-                throw new PhotoProcessingException(photo.getId(), "thumbnail", e.getMessage(), e);
-            }
-        });
-    }
-
-    /**
-     * Extract metadata
-     */
-    private CompletableFuture<String> extractMetadata(Photo photo, String correlationId) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                log.debug("Extracting metadata: photoId={}", photo.getId());
-
-                CloudStorageProvider storage = storageProviderFactory.getResilientProvider(defaultStorageProvider);
-                String metadata = metadataService.extractMetadata(photo, storage);
-
-                recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_METADATA_EXTRACTED,
-                    "Metadata extracted", correlationId, true);
-
-                return metadata;
-            } catch (Exception e) {
-                log.warn("Metadata extraction failed (non-critical): photoId={}", photo.getId(), e);
-                recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_METADATA_EXTRACTED,
-                    "Metadata extraction failed: " + e.getMessage(), correlationId, false);
-                return "{}"; // Return empty JSON on failure
-            }
-        });
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
     }
 
     /**
-     * Complete processing successfully
+     * Complete processing successfully; the outcome commits in its own transaction
      */
-    @Transactional
-    public void completeProcessing(Photo photo, String thumbnailUrl, String metadata, String correlationId) {
+    public void completeProcessing(Photo photo, List<PhotoRendition> renditions, String metadata,
+                                   String correlationId) {
         try {
             log.info("Completing photo processing: photoId={}", photo.getId());
 
-            // Reload photo for update
-            Photo updatedPhoto = photoRepository.findById(photo.getId())
-                .orElseThrow(() -> new PhotoProcessingException(photo.getId(), "complete", "Photo not found"));
-
-            // Update photo
-            updatedPhoto.setThumbnailUrl(thumbnailUrl);
-            updatedPhoto.setMetadata(metadata);
-            updatedPhoto.transitionTo(PhotoStatus.COMPLETED);
-            photoRepository.save(updatedPhoto);
-
-            // Record event
-            recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_PROCESSING_COMPLETED,
-                "Processing completed successfully", correlationId, true);
-
-            // Publish completion event
-            PhotoProcessingCompletedEvent completedEvent = PhotoProcessingCompletedEvent.of(
-                photo.getId(),
-                photo.getUserId(),
-                thumbnailUrl,
-                photo.getWidth(),
-                photo.getHeight(),
-                metadata,
-                correlationId
-            );
-            eventPublisher.publishWithCorrelation("PhotoProcessingCompletedEvent", completedEvent, correlationId);
+            transactionTemplate.executeWithoutResult(status -> {
+                // Reload photo for update
+                Photo updatedPhoto = photoRepository.findById(photo.getId())
+                    .orElseThrow(() -> new PhotoProcessingException(photo.getId(), "complete", "Photo not found"));
+
+                // Update photo
+                String thumbnailUrl = thumbnailService.thumbnailUrl(renditions);
+                updatedPhoto.setThumbnailUrl(thumbnailUrl);
+                updatedPhoto.setRenditions(photoMapper.toRenditionsJson(renditions));
+                updatedPhoto.setWidth(photo.getWidth());
+                updatedPhoto.setHeight(photo.getHeight());
+                updatedPhoto.setMetadata(metadata);
+                updatedPhoto.transitionTo(PhotoStatus.COMPLETED);
+                photoRepository.save(updatedPhoto);
+
+                // Later uploads of identical content reuse this result instead of reprocessing
+                blobStoreService.recordProcessingResult(updatedPhoto);
+
+                // Record event
+                recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_PROCESSING_COMPLETED,
+                    "Processing completed successfully", correlationId, true);
+
+                // Completion event
+                PhotoProcessingCompletedEvent completedEvent = PhotoProcessingCompletedEvent.of(
+                    photo.getId(),
+                    photo.getUserId(),
+                    thumbnailUrl,
+                    photo.getWidth(),
+                    photo.getHeight(),
+                    metadata,
+                    correlationId
+                );
+                outboxService.add(photo.getId(), "PhotoProcessingCompletedEvent", completedEvent, correlationId);
+            });
 
             log.info("Photo processing completed successfully: photoId={}", photo.getId());
+            admissionService.processingFinished(photo.getUserId());
 
         } catch (Exception e) {
             log.error("Failed to complete processing: photoId={}", photo.getId(), e);
@@ -192,54 +230,66 @@ public class ProcessingOrchestrationService {
     }
 
     /**
-     * Handle processing failure
+     * Handle processing failure; the outcome commits in its own transaction
      */
-    @Transactional
     public void failProcessing(Photo photo, String stage, Throwable error, String correlationId) {
         try {
             log.error("Photo processing failed: photoId={}, stage={}, error={}",
                 photo.getId(), stage, error.getMessage());
 
-            // Reload photo for update
-            Photo updatedPhoto = photoRepository.findById(photo.getId())
-                .orElse(photo);
+            Photo failedPhoto = transactionTemplate.execute(status -> {
+                // Reload photo for update
+                Photo updatedPhoto = photoRepository.findById(photo.getId())
+                    .orElse(photo);
 
-            updatedPhoto.incrementRetryCount();
-            updatedPhoto.setLastError(error.getMessage());
+                updatedPhoto.incrementRetryCount();
+                updatedPhoto.setLastError(error.getMessage());
 
-            boolean willRetry = updatedPhoto.shouldRetry(maxRetries);
+                boolean willRetry = updatedPhoto.shouldRetry(maxRetries);
 
-            if (willRetry) {
-                updatedPhoto.transitionTo(PhotoStatus.RETRYING);
-                log.info("Scheduling retry for photo: photoId={}, retryCount={}",
-                    photo.getId(), updatedPhoto.getRetryCount());
+                if (willRetry) {
+                    updatedPhoto.transitionTo(PhotoStatus.RETRYING);
+                    // Queued photos are retried by their queue command instead
+                    if (!processingQueue.isEnabled()) {
+                        updatedPhoto.setNextRetryAt(retryScheduler.nextRetryAt(updatedPhoto.getRetryCount()));
+                    }
+                    log.info("Scheduling retry for photo: photoId={}, retryCount={}, nextRetryAt={}",
+                        photo.getId(), updatedPhoto.getRetryCount(), updatedPhoto.getNextRetryAt());
+                } else {
+                    updatedPhoto.transitionTo(PhotoStatus.FAILED);
+                    log.error("Max retries exceeded for photo: photoId={}", photo.getId());
+                }
+
+                updatedPhoto = photoRepository.save(updatedPhoto);
+
+                // Record event
+                recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_PROCESSING_FAILED,
+                    String.format("Processing failed at %s: %s", stage, error.getMessage()),
+                    correlationId, false);
+
+                // Failure event
+                PhotoProcessingFailedEvent failedEvent = PhotoProcessingFailedEvent.of(
+                    photo.getId(),
+                    photo.getUserId(),
+                    error.getMessage(),
+                    error.getClass().getSimpleName(),
+                    updatedPhoto.getRetryCount(),
+                    willRetry,
+                    correlationId
+                );
+                outboxService.add(photo.getId(), "PhotoProcessingFailedEvent", failedEvent, correlationId);
+                return updatedPhoto;
+            });
+            boolean willRetry = failedPhoto.getStatus() == PhotoStatus.RETRYING;
+
+            // Schedule retry if applicable; a retrying job keeps its pending-job slot
+            if (willRetry && !processingQueue.isEnabled()) {
+                scheduleRetry(failedPhoto, correlationId);
+            } else if (willRetry) {
+                recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_RETRY_SCHEDULED,
+                    "Retry queued", correlationId, true);
             } else {
-                updatedPhoto.transitionTo(PhotoStatus.FAILED);
-                log.error("Max retries exceeded for photo: photoId={}", photo.getId());
-            }
-
-            photoRepository.save(updatedPhoto);
-
-            // Record event
-            recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_PROCESSING_FAILED,
-                String.format("Processing failed at %s: %s", stage, error.getMessage()),
-                correlationId, false);
-
-            // Publish failure event
-            PhotoProcessingFailedEvent failedEvent = PhotoProcessingFailedEvent.of(
-                photo.getId(),
-                photo.getUserId(),
-                error.getMessage(),
-                error.getClass().getSimpleName(),
-                updatedPhoto.getRetryCount(),
-                willRetry,
-                correlationId
-            );
-            eventPublisher.publishWithCorrelation("PhotoProcessingFailedEvent", failedEvent, correlationId);
-
-            // Schedule retry if applicable
-            if (willRetry) {
-                scheduleRetry(updatedPhoto, correlationId);
+                admissionService.processingFinished(photo.getUserId());
             }
 
         } catch (Exception e) {
@@ -248,28 +298,57 @@ public class ProcessingOrchestrationService {
     }
 
     /**
-     * Schedule retry for failed processing
+     * Schedule retry for failed processing at the photo's persisted due time
      */
-    @Async("photoProcessingExecutor")
     public void scheduleRetry(Photo photo, String correlationId) {
+        Long photoId = photo.getId();
+        long delayMs = Math.max(Duration.between(Instant.now(), photo.getNextRetryAt()).toMillis(), 0);
+
+        retryScheduler.schedule(photoId, photo.getNextRetryAt(), () -> runDueRetry(photoId));
+
+        recordEvent(photoId, PhotoEvent.EventType.PHOTO_RETRY_SCHEDULED,
+            "Retry scheduled after " + delayMs + "ms", correlationId, true);
+    }
+
+    /**
+     * Reschedule retries persisted before a restart; overdue ones run right away
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingRetries() {
+        List<Photo> photos = photoRepository.findPendingRetries(PhotoStatus.RETRYING);
+        for (Photo photo : photos) {
+            Long photoId = photo.getId();
+            retryScheduler.schedule(photoId, photo.getNextRetryAt(), () -> runDueRetry(photoId));
+        }
+
+        if (!photos.isEmpty()) {
+            log.info("Resumed pending processing retries: count={}", photos.size());
+        }
+    }
+
+    /**
+     * Claim the due retry and restart the saga; a retry claimed elsewhere or for a deleted
+     * photo is dropped
+     */
+    private void runDueRetry(Long photoId) {
         try {
-            // Exponential backoff: 1s, 2s, 4s
-            long backoffSeconds = (long) Math.pow(2, photo.getRetryCount() - 1);
-            Thread.sleep(backoffSeconds * 1000);
+            if (photoRepository.claimRetry(photoId, PhotoStatus.RETRYING) == 0) {
+                log.debug("Processing retry no longer pending: photoId={}", photoId);
+                return;
+            }
 
-            log.info("Retrying photo processing: photoId={}, attempt={}",
-                photo.getId(), photo.getRetryCount());
+            Photo photo = photoRepository.findById(photoId).orElse(null);
+            if (photo == null) {
+                return;
+            }
 
-            recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_RETRY_SCHEDULED,
-                "Retry scheduled after " + backoffSeconds + "s", correlationId, true);
+            log.info("Retrying photo processing: photoId={}, attempt={}",
+                photoId, photo.getRetryCount());
 
-            startProcessing(photo);
+            dispatch(photo);
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Retry scheduling interrupted: photoId={}", photo.getId());
         } catch (Exception e) {
-            log.error("Failed to schedule retry: photoId={}", photo.getId(), e);
+            log.error("Failed to run processing retry: photoId={}", photoId, e);
         }
     }
 
@@ -287,46 +366,91 @@ public class ProcessingOrchestrationService {
         photo.setLastError(null);
         photoRepository.save(photo);
 
-        startProcessing(photo);
+        dispatch(photo);
     }
 
     /**
-     * Delete photo and cleanup storage
+     * Queue the photo when the durable queue is enabled, otherwise run it on this node
      */
-    @Async("photoProcessingExecutor")
-    @Transactional
+    private void dispatch(Photo photo) {
+        if (processingQueue.isEnabled()) {
+            processingQueue.enqueue(photo.getId(), CorrelationIdGenerator.generate());
+        } else {
+            runProcessing(photo);
+        }
+    }
+
+    /**
+     * Release the photo's blob reference and add its deletion event, in the caller's transaction
+     * that deletes the photo row. The object is removed from storage only once that transaction
+     * has committed, and only if no other photo references it, so a rolled-back delete never
+     * leaves a blob row pointing at a missing object. No history entry is written: the photo's
+     * history is deleted with it.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
     public void deletePhoto(Photo photo) {
         String correlationId = CorrelationIdGenerator.generate();
 
-        try {
-            log.info("Deleting photo storage: photoId={}, storageKey={}",
+        log.info("Deleting photo storage: photoId={}, storageKey={}",
+            photo.getId(), photo.getStorageKey());
+
+        boolean deleteObject = photo.getStorageKey() != null && blobStoreService.release(photo);
+        if (photo.getStorageKey() != null && !deleteObject) {
+            log.info("Storage object still referenced by other photos: photoId={}, storageKey={}",
                 photo.getId(), photo.getStorageKey());
+        }
 
-            // Delete from cloud storage
-            CloudStorageProvider storage = storageProviderFactory.getResilientProvider(defaultStorageProvider);
-            
-            if (photo.getStorageKey() != null) {
-                storage.delete(photo.getStorageKey());
+        // Deletion event, committed with this transaction
+        PhotoDeletedEvent deletedEvent = PhotoDeletedEvent.of(
+            photo.getId(),
+            photo.getUserId(),
+            photo.getStorageKey(),
+            correlationId
+        );
+        outboxService.add(photo.getId(), "PhotoDeletedEvent", deletedEvent, correlationId);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                retryScheduler.cancel(photo.getId());
+                if (deleteObject) {
+                    try {
+                        processingIoExecutor.execute(() -> deleteStorageObject(photo));
+                    } catch (RejectedExecutionException e) {
+                        deleteStorageObject(photo);
+                    }
+                }
             }
+        });
+    }
 
-            // Publish deletion event
-            PhotoDeletedEvent deletedEvent = PhotoDeletedEvent.of(
-                photo.getId(),
-                photo.getUserId(),
-                photo.getStorageKey(),
-                correlationId
-            );
-            eventPublisher.publishWithCorrelation("PhotoDeletedEvent", deletedEvent, correlationId);
-
-            recordEvent(photo.getId(), PhotoEvent.EventType.PHOTO_DELETED,
-                "Photo deleted", correlationId, true);
-
-            log.info("Photo storage deleted successfully: photoId={}", photo.getId());
+    /**
+     * Remove a deleted photo's objects from storage: the original, its renditions and any
+     * derivatives generated from it. A failure leaves an orphaned object, not a dangling row.
+     */
+    private void deleteStorageObject(Photo photo) {
+        List<String> keys = new ArrayList<>();
+        keys.add(photo.getStorageKey());
+        for (PhotoRendition rendition : photoMapper.toRenditions(photo)) {
+            if (rendition.getWidth() == null || rendition.getFormat() == null) {
+                continue;
+            }
+            keys.add(ThumbnailGenerationService.generateRenditionKey(
+                photo.getStorageKey(), rendition.getWidth(), rendition.getFormat()));
+        }
+        keys.addAll(derivativeService.derivativeKeys(photo.getStorageKey()));
 
-        } catch (Exception e) {
-            log.error("Failed to delete photo storage: photoId={}", photo.getId(), e);
-            // Continue with database deletion even if storage deletion fails
+        CloudStorageProvider storage = storageProviderFactory.getResilientProvider(defaultStorageProvider);
+        int failed = 0;
+        for (String key : keys) {
+            try {
+                storage.delete(key);
+            } catch (Exception e) {
+                failed++;
+                log.error("Failed to delete photo storage: photoId={}, storageKey={}", photo.getId(), key, e);
+            }
         }
+        log.info("Photo storage deleted: photoId={}, objects={}, failed={}", photo.getId(), keys.size(), failed);
     }
 
     /**
@@ -0,0 +1,286 @@
+package com.photoupload.service;
+
+import com.photoupload.common.domain.PhotoEvent;
+import com.photoupload.common.domain.PhotoStatus;
+import com.photoupload.common.domain.ProcessingQueue;
+import com.photoupload.common.domain.ProcessingQueue.CommandType;
+import com.photoupload.common.domain.ProcessingQueue.QueueStatus;
+import com.photoupload.common.event.PhotoProcessingFailedEvent;
+import com.photoupload.service.repository.PhotoEventRepository;
+import com.photoupload.service.repository.PhotoRepository;
+import com.photoupload.service.repository.ProcessingQueueRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Durable processing queue on the processing_queue table, shared by all replicas.
+ * Commands are inserted in the caller's transaction, so a queued photo survives restarts.
+ * Workers claim ready commands with SELECT ... FOR UPDATE SKIP LOCKED: concurrent claims
+ * from different replicas lock disjoint rows, so no command is handed out twice. A claim
+ * holds a lease that the worker renews while the command runs; when it expires the worker
+ * is presumed dead and the command is retried.
+ *
+ * Failed commands are retried with the backoff of {@link ProcessingQueue#scheduleRetry()}
+ * until they run out of attempts and move to DEAD_LETTER. A dead-lettered command fails its
+ * photo in the same transaction, since no worker will pick the photo up again.
+ */
+@Slf4j
+@Service
+public class ProcessingQueueService {
+
+    private static final EnumSet<QueueStatus> OPEN = EnumSet.of(QueueStatus.PENDING, QueueStatus.PROCESSING);
+
+    private final ProcessingQueueRepository queueRepository;
+    private final PhotoRepository photoRepository;
+    private final PhotoEventRepository photoEventRepository;
+    private final OutboxService outboxService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${processing.queue.enabled:true}")
+    private boolean enabled;
+
+    @Value("${processing.queue.lease-ms:120000}")
+    private long leaseMs;
+
+    @Value("${processing.queue.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${processing.queue.retention-ms:604800000}")
+    private long retentionMs;
+
+    public ProcessingQueueService(
+        ProcessingQueueRepository queueRepository,
+        PhotoRepository photoRepository,
+        PhotoEventRepository photoEventRepository,
+        OutboxService outboxService,
+        MeterRegistry meterRegistry
+    ) {
+        this.queueRepository = queueRepository;
+        this.photoRepository = photoRepository;
+        this.photoEventRepository = photoEventRepository;
+        this.outboxService = outboxService;
+        this.meterRegistry = meterRegistry;
+
+        for (QueueStatus status : List.of(QueueStatus.PENDING, QueueStatus.PROCESSING, QueueStatus.DEAD_LETTER)) {
+            Gauge.builder("processing.queue.depth", queueRepository, repository -> repository.countByStatus(status))
+                .description("Commands in the processing queue by status, across all replicas")
+                .tag("status", status.name().toLowerCase())
+                .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Whether processing is dispatched through the queue rather than in memory
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a photo for processing, unless it already has an open command
+     *
+     * @return true if a command was inserted
+     */
+    @Transactional
+    public boolean enqueue(Long photoId, String correlationId) {
+        if (queueRepository.existsByPhotoIdAndCommandTypeAndStatusIn(photoId, CommandType.PROCESS_PHOTO, OPEN)) {
+            log.debug("Photo already queued for processing: photoId={}", photoId);
+            return false;
+        }
+
+        queueRepository.save(ProcessingQueue.builder()
+            .photoId(photoId)
+            .commandType(CommandType.PROCESS_PHOTO)
+            .maxRetries(maxAttempts)
+            .correlationId(correlationId)
+            .build());
+
+        log.debug("Photo queued for processing: photoId={}", photoId);
+        return true;
+    }
+
+    /**
+     * Commands waiting or running, across all replicas
+     */
+    @Transactional(readOnly = true)
+    public long countOpen() {
+        return queueRepository.countByStatusIn(OPEN);
+    }
+
+    /**
+     * Commands waiting or running per user, across all replicas
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Long> countOpenByUser() {
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : queueRepository.countByUserAndStatusIn(OPEN)) {
+            counts.put((String) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    /**
+     * Claim up to limit ready commands for the worker
+     */
+    @Transactional
+    public List<ProcessingQueue> claim(String workerId, int limit) {
+        Instant now = Instant.now();
+        List<ProcessingQueue> items = queueRepository.lockReadyForClaim(now, limit);
+        for (ProcessingQueue item : items) {
+            item.claim(workerId, now.plusMillis(leaseMs));
+        }
+        return queueRepository.saveAll(items);
+    }
+
+    /**
+     * Extend the leases of commands the worker is still running
+     */
+    public void renewLeases(String workerId, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        int renewed = queueRepository.renewLeases(ids, workerId, QueueStatus.PROCESSING, Instant.now().plusMillis(leaseMs));
+        if (renewed < ids.size()) {
+            log.warn("Lost processing queue leases: workerId={}, held={}, renewed={}", workerId, ids.size(), renewed);
+        }
+    }
+
+    /**
+     * Record a finished command; ignored if the worker's lease was lost meanwhile
+     */
+    @Transactional
+    public void complete(Long id, String workerId) {
+        queueRepository.findById(id)
+            .filter(item -> item.isClaimedBy(workerId))
+            .ifPresentOrElse(item -> {
+                item.releaseLease();
+                item.markCompleted();
+                count("completed");
+            }, () -> log.warn("Completed command no longer held by this worker: id={}, workerId={}", id, workerId));
+    }
+
+    /**
+     * Record a failed command: retried after a backoff, or dead-lettered once out of attempts
+     */
+    @Transactional
+    public void fail(Long id, String workerId, String error) {
+        queueRepository.findById(id)
+            .filter(item -> item.isClaimedBy(workerId))
+            .ifPresentOrElse(item -> retryOrDeadLetter(item, error),
+                () -> log.warn("Failed command no longer held by this worker: id={}, workerId={}", id, workerId));
+    }
+
+    /**
+     * Dead-letter a command that can never succeed, e.g. an unsupported command type
+     */
+    @Transactional
+    public void deadLetter(Long id, String workerId, String error) {
+        queueRepository.findById(id)
+            .filter(item -> item.isClaimedBy(workerId))
+            .ifPresent(item -> {
+                item.releaseLease();
+                item.setLastError(error);
+                item.setStatus(QueueStatus.DEAD_LETTER);
+                count("dead_letter");
+                log.error("Processing command dead-lettered: id={}, photoId={}, error={}",
+                    item.getId(), item.getPhotoId(), error);
+                failPhoto(item, error);
+            });
+    }
+
+    /**
+     * Retry commands whose worker stopped renewing its lease
+     *
+     * @return number of commands reclaimed
+     */
+    @Transactional
+    public int reapExpiredLeases(int limit) {
+        List<ProcessingQueue> expired = queueRepository.lockExpiredLeases(Instant.now(), limit);
+        for (ProcessingQueue item : expired) {
+            log.warn("Processing command lease expired: id={}, photoId={}, workerId={}",
+                item.getId(), item.getPhotoId(), item.getLockedBy());
+            count("lease_expired");
+            retryOrDeadLetter(item, "Lease expired on worker " + item.getLockedBy());
+        }
+        return expired.size();
+    }
+
+    /**
+     * Delete completed commands past the retention period; dead letters are kept for inspection
+     */
+    @Transactional
+    public void purgeCompleted() {
+        queueRepository.deleteByStatusAndCompletedAtBefore(QueueStatus.COMPLETED, Instant.now().minusMillis(retentionMs));
+    }
+
+    private void retryOrDeadLetter(ProcessingQueue item, String error) {
+        item.releaseLease();
+        item.setLastError(error);
+        item.scheduleRetry();
+
+        if (item.getStatus() == QueueStatus.DEAD_LETTER) {
+            count("dead_letter");
+            log.error("Processing command dead-lettered: id={}, photoId={}, attempts={}, error={}",
+                item.getId(), item.getPhotoId(), item.getRetryCount(), error);
+            failPhoto(item, error);
+        } else {
+            count("retried");
+            log.info("Processing command retry scheduled: id={}, photoId={}, attempt={}, nextRetryAt={}",
+                item.getId(), item.getPhotoId(), item.getRetryCount(), item.getNextRetryAt());
+        }
+    }
+
+    /**
+     * Move the photo of a dead-lettered command to FAILED, unless it already finished or failed,
+     * recording the failure and its event like a final processing failure
+     */
+    private void failPhoto(ProcessingQueue item, String error) {
+        photoRepository.findById(item.getPhotoId())
+            .filter(photo -> photo.getStatus().canTransitionTo(PhotoStatus.FAILED))
+            .ifPresent(photo -> {
+                photo.transitionTo(PhotoStatus.FAILED);
+                photo.setLastError(error);
+                photoRepository.save(photo);
+
+                photoEventRepository.save(PhotoEvent.builder()
+                    .photoId(photo.getId())
+                    .eventType(PhotoEvent.EventType.PHOTO_PROCESSING_FAILED)
+                    .details("Processing command dead-lettered: " + error)
+                    .correlationId(item.getCorrelationId())
+                    .success(false)
+                    .build());
+
+                outboxService.add(photo.getId(), "PhotoProcessingFailedEvent", PhotoProcessingFailedEvent.of(
+                    photo.getId(),
+                    photo.getUserId(),
+                    error,
+                    "DeadLetter",
+                    item.getRetryCount(),
+                    false,
+                    item.getCorrelationId()
+                ), item.getCorrelationId());
+
+                log.warn("Photo failed after its processing command was dead-lettered: photoId={}", photo.getId());
+            });
+    }
+
+    private void count(String outcome) {
+        Counter.builder("processing.queue.commands")
+            .description("Processing queue command outcomes")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+    }
+}
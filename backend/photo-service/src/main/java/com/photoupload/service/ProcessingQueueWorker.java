@@ -0,0 +1,215 @@
+package com.photoupload.service;
+
+import com.photoupload.common.domain.Photo;
+import com.photoupload.common.domain.PhotoStatus;
+import com.photoupload.common.domain.ProcessingQueue;
+import com.photoupload.common.exception.PhotoProcessingException;
+import com.photoupload.service.repository.PhotoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs processing commands claimed from the durable queue.
+ * Every replica runs a worker; each claims at most as many commands as it has free slots,
+ * runs them concurrently on photoProcessingExecutor and renews their leases until the
+ * processing saga has recorded an outcome. A photo left RETRYING by the saga fails the
+ * command, so the retry is the queue's: persisted, backed off and eventually dead-lettered.
+ */
+@Slf4j
+@Service
+public class ProcessingQueueWorker {
+
+    private final ProcessingQueueService queueService;
+    private final ProcessingOrchestrationService orchestrationService;
+    private final PhotoRepository photoRepository;
+    private final Executor photoProcessingExecutor;
+    private final String workerId;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Value("${processing.queue.worker-concurrency:16}")
+    private int concurrency;
+
+    @Value("${processing.queue.batch-size:10}")
+    private int batchSize;
+
+    public ProcessingQueueWorker(
+        ProcessingQueueService queueService,
+        ProcessingOrchestrationService orchestrationService,
+        PhotoRepository photoRepository,
+        MeterRegistry meterRegistry,
+        @Qualifier("photoProcessingExecutor") Executor photoProcessingExecutor
+    ) {
+        this.queueService = queueService;
+        this.orchestrationService = orchestrationService;
+        this.photoRepository = photoRepository;
+        this.photoProcessingExecutor = photoProcessingExecutor;
+        this.workerId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+        Gauge.builder("processing.queue.worker.inflight", inFlight, Set::size)
+            .description("Queue commands running on this replica")
+            .register(meterRegistry);
+
+        log.info("Initialized processing queue worker: workerId={}", workerId);
+    }
+
+    /**
+     * Claim ready commands up to the free slots and start them
+     */
+    @Scheduled(fixedDelayString = "${processing.queue.poll-interval-ms:1000}")
+    public void poll() {
+        if (!queueService.isEnabled()) {
+            return;
+        }
+
+        int free = concurrency - inFlight.size();
+        if (free <= 0) {
+            return;
+        }
+
+        List<ProcessingQueue> claimed;
+        try {
+            claimed = queueService.claim(workerId, Math.min(free, batchSize));
+        } catch (Exception e) {
+            log.error("Failed to claim processing commands: workerId={}", workerId, e);
+            return;
+        }
+
+        for (ProcessingQueue item : claimed) {
+            inFlight.add(item.getId());
+            try {
+                photoProcessingExecutor.execute(() -> execute(item));
+            } catch (RuntimeException e) {
+                finish(item, e);
+            }
+        }
+    }
+
+    /**
+     * Keep the leases of running commands alive
+     */
+    @Scheduled(fixedDelayString = "${processing.queue.renew-interval-ms:30000}")
+    public void renewLeases() {
+        if (!queueService.isEnabled()) {
+            return;
+        }
+        try {
+            queueService.renewLeases(workerId, Set.copyOf(inFlight));
+        } catch (Exception e) {
+            log.error("Failed to renew processing queue leases: workerId={}", workerId, e);
+        }
+    }
+
+    /**
+     * Retry commands of workers that died holding them
+     */
+    @Scheduled(fixedDelayString = "${processing.queue.reap-interval-ms:30000}")
+    public void reapExpiredLeases() {
+        if (!queueService.isEnabled()) {
+            return;
+        }
+        try {
+            int reaped = queueService.reapExpiredLeases(batchSize * 10);
+            if (reaped > 0) {
+                log.warn("Reclaimed processing commands with expired leases: count={}", reaped);
+            }
+        } catch (Exception e) {
+            log.error("Failed to reap expired processing queue leases", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${processing.queue.purge-interval-ms:3600000}")
+    public void purgeCompleted() {
+        if (!queueService.isEnabled()) {
+            return;
+        }
+        try {
+            queueService.purgeCompleted();
+        } catch (Exception e) {
+            log.error("Failed to purge completed processing commands", e);
+        }
+    }
+
+    private void execute(ProcessingQueue item) {
+        if (item.getCommandType() != ProcessingQueue.CommandType.PROCESS_PHOTO) {
+            // Other command types are steps of the processing pipeline, not queued on their own
+            inFlight.remove(item.getId());
+            try {
+                queueService.deadLetter(item.getId(), workerId, "Unsupported command: " + item.getCommandType());
+            } catch (Exception e) {
+                log.error("Failed to dead-letter processing command: id={}", item.getId(), e);
+            }
+            return;
+        }
+
+        CompletableFuture<Void> run;
+        try {
+            run = processPhoto(item);
+        } catch (Exception e) {
+            run = CompletableFuture.failedFuture(e);
+        }
+        run.whenComplete((v, ex) -> finish(item, ex));
+    }
+
+    /**
+     * Run the saga for the photo; completes once it has recorded an outcome, and fails if
+     * that outcome is a retry
+     */
+    private CompletableFuture<Void> processPhoto(ProcessingQueue item) {
+        Photo photo = photoRepository.findById(item.getPhotoId()).orElse(null);
+        if (photo == null || photo.getStatus() == PhotoStatus.COMPLETED || photo.getStatus() == PhotoStatus.FAILED) {
+            // Deleted, or already finished by an earlier attempt whose completion was not recorded
+            return CompletableFuture.completedFuture(null);
+        }
+
+        log.info("Processing queued photo: photoId={}, attempt={}, workerId={}",
+            photo.getId(), item.getRetryCount() + 1, workerId);
+
+        return orchestrationService.runProcessing(photo)
+            .thenRun(() -> {
+                Photo processed = photoRepository.findById(photo.getId()).orElse(null);
+                if (processed != null && processed.getStatus() == PhotoStatus.RETRYING) {
+                    throw new PhotoProcessingException(photo.getId(), "queue", String.valueOf(processed.getLastError()));
+                }
+            });
+    }
+
+    private void finish(ProcessingQueue item, Throwable error) {
+        inFlight.remove(item.getId());
+        try {
+            if (error == null) {
+                queueService.complete(item.getId(), workerId);
+            } else {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+                queueService.fail(item.getId(), workerId, cause.getMessage());
+            }
+        } catch (Exception e) {
+            // The lease expires and the command is retried
+            log.error("Failed to record processing command outcome: id={}, photoId={}",
+                item.getId(), item.getPhotoId(), e);
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
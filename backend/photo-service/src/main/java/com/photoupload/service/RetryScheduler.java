@@ -0,0 +1,121 @@
+package com.photoupload.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delayed processing retries that hold a timer entry, not a thread, while they wait.
+ * A single timer thread tracks every pending retry; when one is due its action is handed
+ * to photoProcessingExecutor, so a burst of failures never parks pool threads in backoff.
+ *
+ * Backoff doubles per attempt from processing.retry-backoff-ms up to
+ * processing.retry-max-backoff-ms, spread by ±processing.retry-jitter so that photos failing
+ * together (e.g. during a storage outage) do not all retry at the same moment. Due times
+ * are persisted by the caller, which reschedules them after a restart.
+ */
+@Slf4j
+@Service
+public class RetryScheduler {
+
+    private final ScheduledThreadPoolExecutor timer;
+    private final Executor photoProcessingExecutor;
+    private final Map<Long, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+    private final long backoffMs;
+    private final long maxBackoffMs;
+    private final double jitter;
+
+    public RetryScheduler(
+        MeterRegistry meterRegistry,
+        @Qualifier("photoProcessingExecutor") Executor photoProcessingExecutor,
+        @Value("${processing.retry-backoff-ms:1000}") long backoffMs,
+        @Value("${processing.retry-max-backoff-ms:300000}") long maxBackoffMs,
+        @Value("${processing.retry-jitter:0.5}") double jitter
+    ) {
+        this.photoProcessingExecutor = photoProcessingExecutor;
+        this.backoffMs = backoffMs;
+        this.maxBackoffMs = Math.max(backoffMs, maxBackoffMs);
+        this.jitter = Math.min(Math.max(jitter, 0), 1);
+
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "processing-retry-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+
+        Gauge.builder("photo.processing.retries.pending", pending, Map::size)
+            .description("Processing retries waiting for their backoff on this node")
+            .register(meterRegistry);
+    }
+
+    /**
+     * When the given attempt should run: exponential backoff with jitter
+     */
+    public Instant nextRetryAt(int retryCount) {
+        int exponent = Math.min(Math.max(retryCount - 1, 0), 30);
+        long backoff = Math.min(backoffMs << exponent, maxBackoffMs);
+        double spread = 1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Instant.now().plusMillis(Math.round(backoff * spread));
+    }
+
+    /**
+     * Run the action on photoProcessingExecutor once due; replaces any retry pending for the photo
+     */
+    public void schedule(Long photoId, Instant dueAt, Runnable action) {
+        long delayMs = Math.max(Duration.between(Instant.now(), dueAt).toMillis(), 0);
+
+        ScheduledFuture<?>[] self = new ScheduledFuture<?>[1];
+        synchronized (pending) {
+            self[0] = timer.schedule(() -> {
+                // Waits for schedule() to finish registering this entry
+                synchronized (pending) {
+                    pending.remove(photoId, self[0]);
+                }
+                try {
+                    photoProcessingExecutor.execute(action);
+                } catch (RuntimeException e) {
+                    log.error("Failed to dispatch processing retry: photoId={}", photoId, e);
+                }
+            }, delayMs, TimeUnit.MILLISECONDS);
+
+            ScheduledFuture<?> previous = pending.put(photoId, self[0]);
+            if (previous != null) {
+                previous.cancel(false);
+            }
+        }
+
+        log.debug("Processing retry scheduled: photoId={}, delayMs={}", photoId, delayMs);
+    }
+
+    /**
+     * Drop the photo's pending retry, if any
+     */
+    public void cancel(Long photoId) {
+        ScheduledFuture<?> future = pending.remove(photoId);
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Pending retries are persisted and rescheduled on the next start
+        timer.shutdownNow();
+        pending.clear();
+    }
+}
@@ -1,100 +1,362 @@
 package com.photoupload.service;
 
 import com.photoupload.common.domain.Photo;
+import com.photoupload.common.dto.PhotoRendition;
 import com.photoupload.common.exception.PhotoProcessingException;
 import com.photoupload.storage.CloudStorageProvider;
 import lombok.extern.slf4j.Slf4j;
 import org.imgscalr.Scalr;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.IntBinaryOperator;
 
 /**
- * Service for generating photo thumbnails.
- * Single Responsibility: Handles only thumbnail generation.
+ * Service for generating photo renditions (thumbnail, gallery, lightbox and full-screen sizes).
+ * Single Responsibility: Handles only rendition generation.
+ *
+ * The original is decoded once, subsampled to just above the largest configured width.
+ * Sizes are then derived from largest to smallest, each resized from the previous one, and
+ * every size is encoded in each configured format. Uploads run in parallel on the I/O pool
+ * while the next size is being encoded; the calling (image) thread does not wait for them.
+ *
+ * Decoding reserves its estimated pixel memory from the {@link ImageMemoryBudget} after
+ * reading the header and holds it until every size has been encoded.
  */
 @Slf4j
 @Service
 public class ThumbnailGenerationService {
 
-    private static final int THUMBNAIL_WIDTH = 300;
-    private static final int THUMBNAIL_HEIGHT = 300;
-    private static final String THUMBNAIL_FORMAT = "jpg";
+    private final List<Integer> widths;
+    private final List<String> formats;
+    private final int thumbnailWidth;
+    private final float quality;
+    private final Executor uploadExecutor;
+    private final ImageMemoryBudget memoryBudget;
+
+    public ThumbnailGenerationService(
+        @Value("${processing.renditions.widths:150,300,800,1600}") List<Integer> widths,
+        @Value("${processing.renditions.formats:jpg}") List<String> formats,
+        @Value("${processing.renditions.thumbnail-width:300}") int thumbnailWidth,
+        @Value("${processing.renditions.quality:0.85}") float quality,
+        @Qualifier("processingIoExecutor") Executor uploadExecutor,
+        ImageMemoryBudget memoryBudget
+    ) {
+        List<Integer> sizes = new ArrayList<>(widths);
+        if (!sizes.contains(thumbnailWidth)) {
+            sizes.add(thumbnailWidth);
+        }
+        this.widths = sizes.stream().distinct().sorted(Comparator.reverseOrder()).toList();
+        this.formats = writableFormats("processing.renditions.formats", formats);
+        this.thumbnailWidth = thumbnailWidth;
+        this.quality = quality;
+        this.uploadExecutor = uploadExecutor;
+        this.memoryBudget = memoryBudget;
+
+        log.info("Rendition set: widths={}, formats={}, thumbnailWidth={}",
+            this.widths, this.formats, thumbnailWidth);
+    }
 
     /**
-     * Generate thumbnail for photo
+     * Check that every configured output format can be encoded, so a format without an ImageIO
+     * writer on the classpath (e.g. webp without a plugin) fails startup instead of going missing
      */
-    public String generateThumbnail(Photo photo, CloudStorageProvider storage) {
-        try {
-            log.debug("Generating thumbnail for photo: {}", photo.getId());
+    static List<String> writableFormats(String property, List<String> formats) {
+        if (formats.isEmpty()) {
+            throw new IllegalStateException("No output format configured in " + property);
+        }
+        List<String> unwritable = formats.stream()
+            .filter(format -> !ImageIO.getImageWritersByFormatName(format).hasNext())
+            .toList();
+        if (!unwritable.isEmpty()) {
+            throw new IllegalStateException("No ImageIO writer for " + property + " " + unwritable
+                + "; add an ImageIO plugin for it or remove it from the list");
+        }
+        return List.copyOf(formats);
+    }
 
-            // Download original image
-            InputStream imageStream = storage.download(photo.getStorageKey());
-            BufferedImage originalImage = ImageIO.read(imageStream);
+    /**
+     * Generate every rendition of the photo from the run's fetched original and start storing them
+     *
+     * @return completes once all renditions are stored; decoding and encoding are done on return
+     */
+    public CompletableFuture<List<PhotoRendition>> generateRenditions(Photo photo, FetchedOriginal original, CloudStorageProvider storage) {
+        log.debug("Generating renditions for photo: {}", photo.getId());
 
-            if (originalImage == null) {
+        try (InputStream imageStream = original.openStream();
+             DecodedImage decoded = decode(imageStream, widths.get(0), memoryBudget)) {
+            if (decoded == null) {
                 throw new PhotoProcessingException(photo.getId(), "thumbnail",
                     "Failed to read image file");
             }
 
-            // Update photo dimensions
-            photo.setWidth(originalImage.getWidth());
-            photo.setHeight(originalImage.getHeight());
-
-            // Generate thumbnail
-            BufferedImage thumbnail = Scalr.resize(
-                originalImage,
-                Scalr.Method.QUALITY,
-                Scalr.Mode.FIT_TO_WIDTH,
-                THUMBNAIL_WIDTH,
-                THUMBNAIL_HEIGHT,
-                Scalr.OP_ANTIALIAS
-            );
-
-            // Convert to byte array
-            ByteArrayOutputStream thumbnailStream = new ByteArrayOutputStream();
-            ImageIO.write(thumbnail, THUMBNAIL_FORMAT, thumbnailStream);
-            byte[] thumbnailBytes = thumbnailStream.toByteArray();
-
-            // Generate thumbnail storage key
-            String thumbnailKey = generateThumbnailKey(photo.getStorageKey());
-
-            // Upload thumbnail to storage
-            String thumbnailUrl = storage.upload(
-                thumbnailKey,
-                new ByteArrayInputStream(thumbnailBytes),
-                "image/jpeg",
-                thumbnailBytes.length
-            );
-
-            log.info("Thumbnail generated successfully: photoId={}, size={}x{}",
-                photo.getId(), thumbnail.getWidth(), thumbnail.getHeight());
-
-            return thumbnailUrl;
+            // Update photo dimensions from the header, not the subsampled pixels
+            photo.setWidth(decoded.width());
+            photo.setHeight(decoded.height());
+
+            // Progressive downscaling: each size comes from the previous, larger one.
+            // Sizes wider than the original are skipped, except the thumbnail which always exists.
+            List<CompletableFuture<PhotoRendition>> uploads = new ArrayList<>();
+            BufferedImage current = decoded.image();
+            for (int width : widths) {
+                if (width > decoded.width() && width != thumbnailWidth) {
+                    continue;
+                }
+                current = resize(current, width);
+                for (String format : formats) {
+                    byte[] encoded = encode(current, format);
+                    uploads.add(upload(photo, storage, current.getWidth(), current.getHeight(), format, encoded));
+                }
+            }
+
+            log.info("Renditions encoded: photoId={}, count={}", photo.getId(), uploads.size());
+
+            return CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new))
+                .thenApply(v -> uploads.stream().map(CompletableFuture::join).toList());
 
         } catch (Exception e) {
-            log.error("Failed to generate thumbnail: photoId={}", photo.getId(), e);
+            log.error("Failed to generate renditions: photoId={}", photo.getId(), e);
             throw new PhotoProcessingException(photo.getId(), "thumbnail",
                 "Thumbnail generation failed: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Generate thumbnail storage key from original key
+     * URL of the rendition used as the photo's thumbnail: thumbnail width in the first format
+     */
+    public String thumbnailUrl(List<PhotoRendition> renditions) {
+        return renditions.stream()
+            .filter(rendition -> rendition.getWidth() == thumbnailWidth
+                && rendition.getFormat().equals(formats.get(0)))
+            .map(PhotoRendition::getUrl)
+            .findFirst()
+            .orElse(null);
+    }
+
+    private CompletableFuture<PhotoRendition> upload(Photo photo, CloudStorageProvider storage,
+                                                     int width, int height, String format, byte[] encoded) {
+        String key = generateRenditionKey(photo.getStorageKey(), width, format);
+        String contentType = contentType(format);
+        return CompletableFuture.supplyAsync(() -> {
+            String url = storage.upload(key, new ByteArrayInputStream(encoded), contentType, encoded.length);
+            return PhotoRendition.builder()
+                .width(width)
+                .height(height)
+                .format(format)
+                .contentType(contentType)
+                .url(url)
+                .size((long) encoded.length)
+                .build();
+        }, uploadExecutor);
+    }
+
+    /**
+     * Encode an image in one of the supported formats at the configured quality
+     */
+    byte[] encode(BufferedImage image, String format) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        try {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null && param.getCompressionTypes() != null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(out)) {
+                writer.setOutput(imageOutput);
+                writer.write(null, new IIOImage(withoutAlphaIfUnsupported(image, format), null, null), param);
+            }
+            return out.toByteArray();
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * JPEG has no alpha channel; flatten transparent sources (e.g. PNG) onto an opaque image
+     */
+    private static BufferedImage withoutAlphaIfUnsupported(BufferedImage image, String format) {
+        boolean jpeg = format.equalsIgnoreCase("jpg") || format.equalsIgnoreCase("jpeg");
+        if (!jpeg || !image.getColorModel().hasAlpha()) {
+            return image;
+        }
+        BufferedImage opaque = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = opaque.createGraphics();
+        graphics.drawImage(image, 0, 0, Color.WHITE, null);
+        graphics.dispose();
+        return opaque;
+    }
+
+    static String contentType(String format) {
+        return switch (format.toLowerCase()) {
+            case "jpg", "jpeg" -> "image/jpeg";
+            default -> "image/" + format.toLowerCase();
+        };
+    }
+
+    /**
+     * Decode an image at the coarsest power-of-two subsampling that still leaves it at least
+     * as wide as the target. Dimensions are read from the header first, so a large photo
+     * never materialises at full resolution. Returns null when no reader supports the format.
+     */
+    public static DecodedImage decode(InputStream inputStream, int targetWidth) throws IOException {
+        return decode(inputStream, targetWidth, null);
+    }
+
+    /**
+     * Decode as above, first reserving the estimated memory of the subsampled pixels from the
+     * budget. The reservation is held until the returned image is closed.
+     */
+    static DecodedImage decode(InputStream inputStream, int targetWidth, ImageMemoryBudget budget)
+            throws IOException {
+        return decode(inputStream, (width, height) -> targetWidth, budget);
+    }
+
+    /**
+     * Decode as above, with the target width chosen from the header's width and height
+     */
+    static DecodedImage decode(InputStream inputStream, IntBinaryOperator targetWidthFor, ImageMemoryBudget budget)
+            throws IOException {
+        try (ImageInputStream imageInput = ImageIO.createImageInputStream(inputStream)) {
+            if (imageInput == null) {
+                return null;
+            }
+
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = subsamplingFactor(width, targetWidthFor.applyAsInt(width, height));
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+
+                if (budget == null) {
+                    return new DecodedImage(reader.read(0, param), width, height, null);
+                }
+
+                ImageMemoryBudget.Permit permit = budget.acquire(estimateDecodedBytes(reader, subsampling));
+                try {
+                    return new DecodedImage(reader.read(0, param), width, height, permit);
+                } catch (IOException | RuntimeException | Error e) {
+                    permit.close();
+                    throw e;
+                }
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * High-quality resize of a decoded image to the given width
      */
-    private String generateThumbnailKey(String originalKey) {
+    public static BufferedImage resize(BufferedImage image, int width) {
+        return Scalr.resize(
+            image,
+            Scalr.Method.QUALITY,
+            Scalr.Mode.FIT_TO_WIDTH,
+            width,
+            width,
+            Scalr.OP_ANTIALIAS
+        );
+    }
+
+    /**
+     * Bytes held while processing a decoded image: the subsampled raster (width x height x
+     * bands at the reader's sample size) plus one 32-bit working copy made by the resize
+     */
+    static long estimateDecodedBytes(ImageReader reader, int subsampling) throws IOException {
+        long width = (reader.getWidth(0) + subsampling - 1) / subsampling;
+        long height = (reader.getHeight(0) + subsampling - 1) / subsampling;
+
+        int bitsPerPixel = 32;
+        Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+        if (types != null && types.hasNext()) {
+            ImageTypeSpecifier type = types.next();
+            bitsPerPixel = 0;
+            for (int band = 0; band < type.getNumBands(); band++) {
+                bitsPerPixel += type.getBitsPerBand(band);
+            }
+        }
+
+        long pixels = width * height;
+        return pixels * ((bitsPerPixel + 7) / 8) + pixels * 4;
+    }
+
+    /**
+     * Largest power of two that keeps the subsampled width at or above the target width
+     */
+    static int subsamplingFactor(int sourceWidth, int targetWidth) {
+        int factor = 1;
+        while (sourceWidth / (factor * 2) >= targetWidth) {
+            factor *= 2;
+        }
+        return factor;
+    }
+
+    /**
+     * Decoded pixels together with the original dimensions from the image header.
+     * Closing it returns the pixels' memory reservation, if any, to the budget.
+     */
+    public record DecodedImage(BufferedImage image, int width, int height, ImageMemoryBudget.Permit permit)
+        implements AutoCloseable {
+
+        @Override
+        public void close() {
+            if (permit != null) {
+                permit.close();
+            }
+        }
+    }
+
+    /**
+     * Generate rendition storage key from original key, e.g. photos/a.jpg -> photos/a_w300.jpg
+     */
+    static String generateRenditionKey(String originalKey, int width, String format) {
         int lastSlash = originalKey.lastIndexOf('/');
         int lastDot = originalKey.lastIndexOf('.');
 
         String path = originalKey.substring(0, lastSlash + 1);
-        String filename = originalKey.substring(lastSlash + 1, lastDot);
-        String extension = originalKey.substring(lastDot);
+        String filename = lastDot > lastSlash
+            ? originalKey.substring(lastSlash + 1, lastDot)
+            : originalKey.substring(lastSlash + 1);
 
-        return path + filename + "_thumb" + extension;
+        return path + filename + "_w" + width + "." + format;
     }
 }
-
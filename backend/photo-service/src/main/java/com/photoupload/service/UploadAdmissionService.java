@@ -0,0 +1,204 @@
+package com.photoupload.service;
+
+import com.photoupload.common.exception.UploadThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Admission control for uploads.
+ * Bounds the bytes being uploaded and the processing jobs waiting to finish, globally and
+ * per user, and refuses work beyond those budgets up front with a retry hint instead of
+ * letting it queue. Without it a full processing executor falls back to running jobs on
+ * the request thread and upload latency degrades for every client.
+ *
+ * A request that exceeds a byte budget on its own is still admitted while nothing else
+ * holds that budget, so large batches are slowed down rather than refused forever.
+ *
+ * Byte budgets are per node, since the bytes are held by this node's requests. Pending jobs
+ * are counted in memory as they are dispatched and finish, so admission costs no queries.
+ * When the durable queue is enabled the job counters are periodically reset from the
+ * processing_queue table, so the job budgets also cover other replicas and follow the queue
+ * through dead letters and restarts.
+ */
+@Slf4j
+@Service
+public class UploadAdmissionService {
+
+    private final Map<String, Long> inFlightBytesByUser = new HashMap<>();
+    private final Map<String, Integer> pendingJobsByUser = new HashMap<>();
+    private long inFlightBytes;
+    private int pendingJobs;
+
+    private final MeterRegistry meterRegistry;
+    private final ProcessingQueueService processingQueue;
+
+    @Value("${upload.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${upload.admission.max-inflight-bytes:1073741824}")
+    private long maxInFlightBytes;
+
+    @Value("${upload.admission.max-inflight-bytes-per-user:209715200}")
+    private long maxInFlightBytesPerUser;
+
+    @Value("${upload.admission.max-pending-jobs:150}")
+    private int maxPendingJobs;
+
+    @Value("${upload.admission.max-pending-jobs-per-user:20}")
+    private int maxPendingJobsPerUser;
+
+    @Value("${upload.admission.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+
+    public UploadAdmissionService(MeterRegistry meterRegistry, ProcessingQueueService processingQueue) {
+        this.meterRegistry = meterRegistry;
+        this.processingQueue = processingQueue;
+        Gauge.builder("upload.admission.inflight", this, UploadAdmissionService::inFlightBytes)
+            .description("Bytes of admitted uploads still being written to storage")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("upload.admission.inflight.limit", this, service -> service.maxInFlightBytes)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("upload.admission.pending.jobs", this, UploadAdmissionService::pendingJobs)
+            .description("Processing jobs dispatched and not yet finished")
+            .register(meterRegistry);
+        Gauge.builder("upload.admission.pending.jobs.limit", this, service -> service.maxPendingJobs)
+            .register(meterRegistry);
+        Gauge.builder("upload.admission.users.active", this, UploadAdmissionService::activeUsers)
+            .description("Users holding upload bytes or pending jobs")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Reserve byte budget for an upload, or refuse it
+     *
+     * @return a permit that releases the bytes when closed, once the upload has been stored
+     * @throws UploadThrottledException if a byte or pending-job budget is exhausted
+     */
+    public Permit admit(String userId, long bytes) {
+        if (!enabled) {
+            return new Permit(userId, 0);
+        }
+
+        synchronized (this) {
+            long userBytes = inFlightBytesByUser.getOrDefault(userId, 0L);
+            int userJobs = pendingJobsByUser.getOrDefault(userId, 0);
+
+            if (pendingJobs >= maxPendingJobs) {
+                throw reject("jobs_global", "Processing backlog is full, retry later");
+            }
+            if (userJobs >= maxPendingJobsPerUser) {
+                throw reject("jobs_user", "Too many of your photos are still processing, retry later");
+            }
+            if (inFlightBytes > 0 && inFlightBytes + bytes > maxInFlightBytes) {
+                throw reject("bytes_global", "Upload capacity is exhausted, retry later");
+            }
+            if (userBytes > 0 && userBytes + bytes > maxInFlightBytesPerUser) {
+                throw reject("bytes_user", "Too many of your uploads are in progress, retry later");
+            }
+
+            inFlightBytes += bytes;
+            inFlightBytesByUser.merge(userId, bytes, Long::sum);
+        }
+        return new Permit(userId, bytes);
+    }
+
+    /**
+     * Count a processing job dispatched on this node as pending until it completes or finally fails
+     */
+    public synchronized void processingQueued(String userId) {
+        pendingJobs++;
+        pendingJobsByUser.merge(userId, 1, Integer::sum);
+    }
+
+    public synchronized void processingFinished(String userId) {
+        // Clamped: jobs dispatched before a restart, or on another replica, finish without having been counted
+        if (pendingJobs > 0) {
+            pendingJobs--;
+        }
+        pendingJobsByUser.computeIfPresent(userId, (user, jobs) -> jobs > 1 ? jobs - 1 : null);
+    }
+
+    /**
+     * Reset the job counters from the durable queue, which also holds the jobs queued or
+     * finished on other replicas, dead-lettered, or already queued when dispatched again
+     */
+    @Scheduled(fixedDelayString = "${upload.admission.reconcile-interval-ms:5000}")
+    public void reconcile() {
+        if (!enabled || !processingQueue.isEnabled()) {
+            return;
+        }
+        // Counted outside the lock
+        Map<String, Long> open = processingQueue.countOpenByUser();
+
+        synchronized (this) {
+            pendingJobsByUser.clear();
+            open.forEach((user, jobs) -> pendingJobsByUser.put(user, jobs.intValue()));
+            pendingJobs = open.values().stream().mapToInt(Long::intValue).sum();
+        }
+    }
+
+    private synchronized void release(String userId, long bytes) {
+        inFlightBytes -= bytes;
+        inFlightBytesByUser.computeIfPresent(userId, (user, held) -> held > bytes ? held - bytes : null);
+    }
+
+    private UploadThrottledException reject(String reason, String message) {
+        Counter.builder("upload.admission.rejected")
+            .description("Uploads refused by admission control")
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment();
+        log.warn("Upload rejected by admission control: reason={}, inFlightBytes={}, pendingJobs={}",
+            reason, inFlightBytes, pendingJobs);
+        return new UploadThrottledException(message, retryAfterSeconds);
+    }
+
+    private synchronized double inFlightBytes() {
+        return inFlightBytes;
+    }
+
+    private synchronized double pendingJobs() {
+        return pendingJobs;
+    }
+
+    private synchronized double activeUsers() {
+        Set<String> users = new HashSet<>(inFlightBytesByUser.keySet());
+        users.addAll(pendingJobsByUser.keySet());
+        return users.size();
+    }
+
+    /**
+     * Admitted byte budget; close once the upload's storage write is done
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final String userId;
+        private final long bytes;
+        private boolean released;
+
+        private Permit(String userId, long bytes) {
+            this.userId = userId;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void close() {
+            if (!released && bytes > 0) {
+                released = true;
+                release(userId, bytes);
+            }
+        }
+    }
+}
@@ -1,32 +1,67 @@
 package com.photoupload.service.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Async configuration for parallel photo processing.
  * Configures ThreadPoolTaskExecutor as per specification: core=10, max=50.
+ *
+ * With spring.threads.virtual.enabled the processing and background executors start a
+ * virtual thread per task instead, matching Tomcat's request threads in that mode. Their
+ * work is mostly waiting on storage, JDBC and retry backoff; the number of processing jobs
+ * is bounded by upload admission rather than by pool size. Image decoding is CPU-bound and
+ * runs on the bounded imageProcessingExecutor, both in the processing saga and for
+ * derivatives requested over HTTP, whose request threads only wait for the result.
+ *
+ * The processing saga hops between two pools on purpose: blocking storage and database
+ * calls run on processingIoExecutor, decode/resize/encode on the cores-sized
+ * imageProcessingExecutor. Every pool publishes the Micrometer executor metrics tagged
+ * with its name: pool size, active threads and queue depth for platform pools, plus the
+ * executor (run time) and executor.idle (time queued) timers for all of them.
  */
 @Slf4j
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final MeterRegistry meterRegistry;
+
+    public AsyncConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * Thread pool for photo processing tasks
      */
     @Bean(name = "photoProcessingExecutor")
     public Executor photoProcessingExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("photoProcessingExecutor", "photo-processing-", 60);
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(10);
         executor.setMaxPoolSize(50);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("photo-processing-");
+        executor.setTaskDecorator(timed("photoProcessingExecutor"));
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
         
@@ -34,6 +69,7 @@ public class AsyncConfig {
         executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
         
         executor.initialize();
+        bindPoolMetrics(executor, "photoProcessingExecutor");
 
         log.info("Initialized photo processing executor: core={}, max={}, queue={}",
             10, 50, 100);
@@ -41,24 +77,159 @@ public class AsyncConfig {
         return executor;
     }
 
+    /**
+     * Thread pool for storage writes of batch uploads.
+     * Its size is the cap on concurrent provider uploads across all batches.
+     */
+    @Bean(name = "batchUploadExecutor")
+    public Executor batchUploadExecutor(@Value("${upload.batch.concurrency:8}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("batch-upload-");
+        executor.setTaskDecorator(timed("batchUploadExecutor"));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+
+        // Rejection policy: Caller runs the task if queue is full
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+
+        executor.initialize();
+        bindPoolMetrics(executor, "batchUploadExecutor");
+
+        log.info("Initialized batch upload executor: concurrency={}", concurrency);
+
+        return executor;
+    }
+
+    /**
+     * Thread pool for CPU-bound image work (decoding, resizing, metadata parsing).
+     * Platform threads sized to the available processors in both execution modes, so that
+     * decoding cannot occupy every carrier thread or oversubscribe the CPU.
+     */
+    @Bean(name = "imageProcessingExecutor")
+    public Executor imageProcessingExecutor() {
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("image-processing-");
+        executor.setTaskDecorator(timed("imageProcessingExecutor"));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+
+        // Rejection policy: Caller runs the task if queue is full
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+
+        executor.initialize();
+        bindPoolMetrics(executor, "imageProcessingExecutor");
+
+        log.info("Initialized image processing executor: threads={}", threads);
+
+        return executor;
+    }
+
+    /**
+     * Thread pool for the blocking steps of the processing saga: fetching originals,
+     * uploading renditions and recording saga state in the database.
+     * Sized for waiting rather than for cores; virtual threads in that mode.
+     */
+    @Bean(name = "processingIoExecutor")
+    public Executor processingIoExecutor(
+        @Value("${processing.io-executor.core-size:16}") int coreSize,
+        @Value("${processing.io-executor.max-size:64}") int maxSize,
+        @Value("${processing.io-executor.queue-capacity:500}") int queueCapacity
+    ) {
+        if (virtualThreads) {
+            return virtualThreadExecutor("processingIoExecutor", "processing-io-", 60);
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("processing-io-");
+        executor.setTaskDecorator(timed("processingIoExecutor"));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+
+        // Rejection policy: Caller runs the task if queue is full
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+
+        executor.initialize();
+        bindPoolMetrics(executor, "processingIoExecutor");
+
+        log.info("Initialized processing I/O executor: core={}, max={}, queue={}",
+            coreSize, maxSize, queueCapacity);
+
+        return executor;
+    }
+
     /**
      * Thread pool for background tasks
      */
     @Bean(name = "backgroundTaskExecutor")
     public Executor backgroundTaskExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("backgroundTaskExecutor", "background-task-", 30);
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(20);
         executor.setQueueCapacity(50);
         executor.setThreadNamePrefix("background-task-");
+        executor.setTaskDecorator(timed("backgroundTaskExecutor"));
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(30);
         executor.initialize();
+        bindPoolMetrics(executor, "backgroundTaskExecutor");
 
         log.info("Initialized background task executor: core={}, max={}, queue={}",
             5, 20, 50);
 
         return executor;
     }
-}
 
+    private Executor virtualThreadExecutor(String name, String threadNamePrefix, int awaitTerminationSeconds) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(timed(name));
+        executor.setTaskTerminationTimeout(awaitTerminationSeconds * 1000L);
+
+        log.info("Initialized virtual thread executor: prefix={}", threadNamePrefix);
+
+        return executor;
+    }
+
+    /**
+     * Pool size, active threads, queue depth and completed tasks of a platform pool
+     */
+    private void bindPoolMetrics(ThreadPoolTaskExecutor executor, String name) {
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), name, Tags.empty()).bindTo(meterRegistry);
+    }
+
+    /**
+     * Time each task spends queued and running, under Micrometer's executor timer names
+     */
+    private TaskDecorator timed(String name) {
+        Timer idle = Timer.builder("executor.idle")
+            .description("Time tasks spent waiting for a thread")
+            .tag("name", name)
+            .register(meterRegistry);
+        Timer execution = Timer.builder("executor")
+            .description("Time tasks spent running")
+            .tag("name", name)
+            .register(meterRegistry);
+        return task -> {
+            long submitted = System.nanoTime();
+            return () -> {
+                idle.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                execution.record(task);
+            };
+        };
+    }
+}
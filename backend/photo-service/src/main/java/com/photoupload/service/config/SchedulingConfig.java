@@ -0,0 +1,12 @@
+package com.photoupload.service.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled maintenance tasks (e.g. sweeping abandoned upload sessions).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
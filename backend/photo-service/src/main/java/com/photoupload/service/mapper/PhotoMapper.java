@@ -1,18 +1,33 @@
 package com.photoupload.service.mapper;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.photoupload.common.domain.Photo;
 import com.photoupload.common.domain.PhotoEvent;
 import com.photoupload.common.dto.PhotoEventResponse;
+import com.photoupload.common.dto.PhotoRendition;
 import com.photoupload.common.dto.PhotoResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Mapper for converting between entities and DTOs.
  * Single Responsibility: Handles only object mapping.
  */
+@Slf4j
 @Component
+@RequiredArgsConstructor
 public class PhotoMapper {
 
+    private static final TypeReference<List<PhotoRendition>> RENDITION_LIST = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
     /**
      * Convert Photo entity to PhotoResponse DTO
      */
@@ -29,6 +44,7 @@ public class PhotoMapper {
             .fileSize(photo.getFileSize())
             .storageUrl(photo.getStorageUrl())
             .thumbnailUrl(photo.getThumbnailUrl())
+            .renditions(toRenditions(photo))
             .status(photo.getStatus())
             .width(photo.getWidth())
             .height(photo.getHeight())
@@ -42,6 +58,32 @@ public class PhotoMapper {
             .build();
     }
 
+    /**
+     * Serialize renditions for the Photo entity's JSON column
+     */
+    public String toRenditionsJson(List<PhotoRendition> renditions) {
+        try {
+            return objectMapper.writeValueAsString(renditions);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize renditions", e);
+        }
+    }
+
+    /**
+     * Parse the Photo entity's renditions JSON column; unreadable JSON yields no renditions
+     */
+    public List<PhotoRendition> toRenditions(Photo photo) {
+        if (photo.getRenditions() == null) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(photo.getRenditions(), RENDITION_LIST);
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable renditions for photo: photoId={}", photo.getId(), e);
+            return List.of();
+        }
+    }
+
     /**
      * Convert PhotoEvent entity to PhotoEventResponse DTO
      */
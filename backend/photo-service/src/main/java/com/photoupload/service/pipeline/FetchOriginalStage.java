@@ -0,0 +1,51 @@
+package com.photoupload.service.pipeline;
+
+import com.photoupload.service.FetchedOriginal;
+import com.photoupload.service.OriginalFetchService;
+import com.photoupload.storage.CloudStorageProvider;
+import com.photoupload.storage.factory.CloudStorageProviderFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fetches the original once per run: kept from the upload on this node, or downloaded.
+ * A download is handed off as soon as it starts, so streaming stages read it as it arrives.
+ * The file is released when the run ends.
+ */
+@Component
+@RequiredArgsConstructor
+public class FetchOriginalStage implements ProcessingStage<FetchedOriginal> {
+
+    public static final String NAME = "fetch-original";
+
+    private final OriginalFetchService originalFetchService;
+    private final CloudStorageProviderFactory storageProviderFactory;
+
+    @Value("${storage.provider:s3}")
+    private String defaultStorageProvider;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public ResourceClass resourceClass() {
+        return ResourceClass.IO;
+    }
+
+    @Override
+    public int maxConcurrency() {
+        return 32;
+    }
+
+    @Override
+    public CompletableFuture<FetchedOriginal> execute(PipelineContext context) {
+        CloudStorageProvider storage = storageProviderFactory.getResilientProvider(defaultStorageProvider);
+        return CompletableFuture.completedFuture(originalFetchService.fetch(context.getPhoto(), storage,
+            original -> context.handOff(NAME, original)));
+    }
+}
@@ -0,0 +1,87 @@
+package com.photoupload.service.pipeline;
+
+import com.photoupload.common.domain.PhotoEvent;
+import com.photoupload.service.FetchedOriginal;
+import com.photoupload.service.MetadataExtractionService;
+import com.photoupload.service.OriginalFetchService;
+import com.photoupload.storage.CloudStorageProvider;
+import com.photoupload.storage.factory.CloudStorageProviderFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Extracts EXIF and other metadata. Parses the kept upload when it is on this node;
+ * otherwise range-reads the header from storage without waiting for the full download.
+ * Non-critical: a photo without metadata still completes.
+ */
+@Component
+@RequiredArgsConstructor
+public class MetadataStage implements ProcessingStage<String> {
+
+    public static final String NAME = "metadata";
+
+    private final MetadataExtractionService metadataService;
+    private final OriginalFetchService originalFetchService;
+    private final CloudStorageProviderFactory storageProviderFactory;
+
+    @Value("${storage.provider:s3}")
+    private String defaultStorageProvider;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Set<String> dependsOn() {
+        return Set.of(FetchOriginalStage.NAME);
+    }
+
+    @Override
+    public Set<String> dependsOn(PipelineContext context) {
+        return originalFetchService.isRetained(context.getPhoto().getId()) ? dependsOn() : Set.of();
+    }
+
+    /**
+     * Header parsing is mostly waiting on storage or disk
+     */
+    @Override
+    public ResourceClass resourceClass() {
+        return ResourceClass.IO;
+    }
+
+    @Override
+    public int maxConcurrency() {
+        return 16;
+    }
+
+    @Override
+    public boolean critical() {
+        return false;
+    }
+
+    @Override
+    public PhotoEvent.EventType eventType() {
+        return PhotoEvent.EventType.PHOTO_METADATA_EXTRACTED;
+    }
+
+    @Override
+    public String describe(String metadata) {
+        return "Metadata extracted";
+    }
+
+    @Override
+    public CompletableFuture<String> execute(PipelineContext context) {
+        FetchedOriginal original = context.artefact(FetchOriginalStage.NAME);
+        if (original != null) {
+            return CompletableFuture.completedFuture(metadataService.extractMetadata(context.getPhoto(), original));
+        }
+
+        CloudStorageProvider storage = storageProviderFactory.getResilientProvider(defaultStorageProvider);
+        return CompletableFuture.completedFuture(metadataService.extractMetadata(context.getPhoto(), storage));
+    }
+}
@@ -0,0 +1,100 @@
+package com.photoupload.service.pipeline;
+
+import com.photoupload.common.domain.Photo;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * State of one processing run: the photo and the artefacts of the stages completed so far.
+ * A stage starts only after its dependencies have stored their artefacts, so it always sees them,
+ * or, for the dependencies it streams from, once they have handed their artefact off.
+ */
+@Slf4j
+public class PipelineContext {
+
+    private final Photo photo;
+    private final String correlationId;
+    private final Map<String, Object> artefacts = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Object>> handOffs = new ConcurrentHashMap<>();
+
+    public PipelineContext(Photo photo, String correlationId) {
+        this.photo = photo;
+        this.correlationId = correlationId;
+    }
+
+    public Photo getPhoto() {
+        return photo;
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    /**
+     * Artefact of a completed stage, or the one a running stage has handed off; null if the
+     * stage did not run, failed without being critical, or produced nothing
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T artefact(String stage) {
+        Object artefact = artefacts.get(stage);
+        if (artefact == null) {
+            CompletableFuture<Object> handOff = handOffs.get(stage);
+            if (handOff != null && handOff.isDone() && !handOff.isCompletedExceptionally()) {
+                artefact = handOff.join();
+            }
+        }
+        return (T) artefact;
+    }
+
+    /**
+     * Make a running stage's artefact available to the stages streaming from it, before the
+     * stage completes, e.g. the original while it is still downloading. The artefact must be
+     * safe to read while the stage is still producing it.
+     */
+    public void handOff(String stage, Object artefact) {
+        CompletableFuture<Object> handOff = handedOff(stage);
+        // Released from a thread of its own: a dependent that a saturated pool runs on the
+        // releasing thread must not wait on the thread producing the artefact
+        Thread.ofVirtual().name("pipeline-hand-off-" + stage).start(() -> handOff.complete(artefact));
+    }
+
+    /**
+     * Completes when the stage hands its artefact off, or else when the stage ends
+     */
+    CompletableFuture<Object> handedOff(String stage) {
+        return handOffs.computeIfAbsent(stage, name -> new CompletableFuture<>());
+    }
+
+    void put(String stage, Object artefact) {
+        if (artefact != null) {
+            artefacts.put(stage, artefact);
+        }
+    }
+
+    /**
+     * Release artefacts holding resources, such as the fetched original's file
+     */
+    void close() {
+        Map<String, Object> held = new HashMap<>();
+        handOffs.forEach((stage, handOff) -> {
+            if (handOff.isDone() && !handOff.isCompletedExceptionally() && handOff.join() != null) {
+                held.put(stage, handOff.join());
+            }
+        });
+        held.putAll(artefacts);
+
+        for (Map.Entry<String, Object> entry : held.entrySet()) {
+            if (entry.getValue() instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to release artefact: photoId={}, stage={}", photo.getId(), entry.getKey(), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.photoupload.service.pipeline;
+
+import com.photoupload.common.domain.PhotoEvent;
+import com.photoupload.common.exception.PhotoProcessingException;
+import com.photoupload.service.repository.PhotoEventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the photo processing stages as a DAG.
+ * Every {@link ProcessingStage} bean is part of the pipeline; adding a stage needs no change
+ * here or in the saga. The graph is checked once at startup (unique names, known
+ * dependencies, no cycles). Within a run each stage starts as soon as the stages it depends
+ * on have completed, so independent stages overlap, and reads their artefacts from the
+ * run's {@link PipelineContext}. A stage that streams from a dependency starts as soon as
+ * that dependency hands its artefact off, and reads it while it is still being produced.
+ *
+ * CPU stages run on imageProcessingExecutor and IO stages on processingIoExecutor, each
+ * behind its own concurrency limit. A critical stage failing fails the run and its
+ * dependents are not started; the run completes once every started stage has finished, and
+ * then releases artefacts that hold resources.
+ *
+ * Per stage, photo.pipeline.stage times execution by outcome, photo.pipeline.stage.wait the
+ * time from ready to running, and gauges report runs in progress and queued.
+ */
+@Slf4j
+@Service
+public class ProcessingPipeline {
+
+    private final Map<String, StageRunner<?>> runners = new LinkedHashMap<>();
+    private final PhotoEventRepository photoEventRepository;
+    private final MeterRegistry meterRegistry;
+    private final Executor processingIoExecutor;
+
+    public ProcessingPipeline(
+        List<ProcessingStage<?>> stages,
+        PhotoEventRepository photoEventRepository,
+        MeterRegistry meterRegistry,
+        Environment environment,
+        @Qualifier("processingIoExecutor") Executor processingIoExecutor,
+        @Qualifier("imageProcessingExecutor") Executor imageProcessingExecutor
+    ) {
+        this.photoEventRepository = photoEventRepository;
+        this.meterRegistry = meterRegistry;
+        this.processingIoExecutor = processingIoExecutor;
+
+        for (ProcessingStage<?> stage : topologicalOrder(stages)) {
+            int maxConcurrency = environment.getProperty(
+                "processing.pipeline.stages." + stage.name() + ".max-concurrency", Integer.class, stage.maxConcurrency());
+            Executor executor = stage.resourceClass() == ProcessingStage.ResourceClass.CPU
+                ? imageProcessingExecutor : processingIoExecutor;
+            runners.put(stage.name(), new StageRunner<>(stage, new StageThrottle(maxConcurrency, executor)));
+
+            log.info("Registered processing stage: name={}, dependsOn={}, resource={}, maxConcurrency={}",
+                stage.name(), stage.dependsOn(), stage.resourceClass(), maxConcurrency);
+        }
+    }
+
+    /**
+     * Run every stage for the photo
+     *
+     * @return completes with the context holding all artefacts, or exceptionally with the
+     * first critical failure as a {@link PhotoProcessingException}
+     */
+    public CompletableFuture<PipelineContext> run(PipelineContext context) {
+        // Resolve this run's dependencies before any stage starts and changes what they depend on
+        Map<String, Set<String>> dependencies = new HashMap<>();
+        for (StageRunner<?> runner : runners.values()) {
+            Set<String> declared = runner.stage.dependsOn();
+            dependencies.put(runner.stage.name(), Set.copyOf(runner.stage.dependsOn(context).stream()
+                .filter(declared::contains)
+                .toList()));
+        }
+
+        Map<String, CompletableFuture<?>> completions = new HashMap<>();
+        for (StageRunner<?> runner : runners.values()) {
+            Set<String> streamed = runner.stage.streamsFrom();
+            CompletableFuture<?>[] upstream = dependencies.get(runner.stage.name()).stream()
+                .map(dependency -> streamed.contains(dependency)
+                    ? context.handedOff(dependency) : completions.get(dependency))
+                .toArray(CompletableFuture[]::new);
+            CompletableFuture<?> completion = CompletableFuture.allOf(upstream)
+                .thenCompose(v -> runner.run(context));
+
+            // A stage that ends, or is skipped, without handing off still releases its streaming dependents
+            CompletableFuture<Object> handOff = context.handedOff(runner.stage.name());
+            completion.whenComplete((artefact, ex) -> {
+                if (ex != null) {
+                    handOff.completeExceptionally(ex);
+                } else {
+                    handOff.complete(artefact);
+                }
+            });
+            completions.put(runner.stage.name(), completion);
+        }
+
+        return CompletableFuture.allOf(completions.values().toArray(CompletableFuture[]::new))
+            .whenComplete((v, ex) -> context.close())
+            .thenApply(v -> context);
+    }
+
+    /**
+     * Order stages so that each comes after its dependencies
+     *
+     * @throws IllegalStateException if names repeat, a dependency is unknown, a stage streams
+     *                               from a stage it does not depend on, or the graph has a cycle
+     */
+    static List<ProcessingStage<?>> topologicalOrder(List<ProcessingStage<?>> stages) {
+        Map<String, ProcessingStage<?>> byName = new LinkedHashMap<>();
+        for (ProcessingStage<?> stage : stages) {
+            if (byName.put(stage.name(), stage) != null) {
+                throw new IllegalStateException("Duplicate processing stage: " + stage.name());
+            }
+        }
+
+        Map<String, Integer> unresolved = new HashMap<>();
+        Map<String, List<String>> dependents = new HashMap<>();
+        Queue<String> ready = new ArrayDeque<>();
+        for (ProcessingStage<?> stage : byName.values()) {
+            for (String dependency : stage.dependsOn()) {
+                if (!byName.containsKey(dependency)) {
+                    throw new IllegalStateException(
+                        "Processing stage " + stage.name() + " depends on unknown stage " + dependency);
+                }
+                dependents.computeIfAbsent(dependency, name -> new ArrayList<>()).add(stage.name());
+            }
+            if (!stage.dependsOn().containsAll(stage.streamsFrom())) {
+                throw new IllegalStateException(
+                    "Processing stage " + stage.name() + " streams from stages it does not depend on");
+            }
+            unresolved.put(stage.name(), stage.dependsOn().size());
+            if (stage.dependsOn().isEmpty()) {
+                ready.add(stage.name());
+            }
+        }
+
+        List<ProcessingStage<?>> ordered = new ArrayList<>();
+        while (!ready.isEmpty()) {
+            String name = ready.poll();
+            ordered.add(byName.get(name));
+            for (String dependent : dependents.getOrDefault(name, List.of())) {
+                if (unresolved.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if (ordered.size() < byName.size()) {
+            List<String> cyclic = byName.keySet().stream()
+                .filter(name -> unresolved.get(name) > 0)
+                .toList();
+            throw new IllegalStateException("Processing stages form a cycle: " + cyclic);
+        }
+        return ordered;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Record event in database
+     */
+    private void recordEvent(PipelineContext context, PhotoEvent.EventType eventType, String details, boolean success) {
+        try {
+            PhotoEvent event = PhotoEvent.builder()
+                .photoId(context.getPhoto().getId())
+                .eventType(eventType)
+                .details(details)
+                .correlationId(context.getCorrelationId())
+                .success(success)
+                .build();
+
+            photoEventRepository.save(event);
+        } catch (Exception e) {
+            log.error("Failed to record event: photoId={}, eventType={}", context.getPhoto().getId(), eventType, e);
+        }
+    }
+
+    /**
+     * One stage with its concurrency limit and meters
+     */
+    private final class StageRunner<T> {
+
+        private final ProcessingStage<T> stage;
+        private final StageThrottle throttle;
+        private final Timer waitTimer;
+
+        private StageRunner(ProcessingStage<T> stage, StageThrottle throttle) {
+            this.stage = stage;
+            this.throttle = throttle;
+            this.waitTimer = Timer.builder("photo.pipeline.stage.wait")
+                .description("Time a ready stage waited for its concurrency limit and pool")
+                .tag("stage", stage.name())
+                .register(meterRegistry);
+            Gauge.builder("photo.pipeline.stage.running", throttle, StageThrottle::running)
+                .description("Runs of the stage in progress")
+                .tag("stage", stage.name())
+                .register(meterRegistry);
+            Gauge.builder("photo.pipeline.stage.queued", throttle, StageThrottle::queued)
+                .description("Runs of the stage waiting for its concurrency limit")
+                .tag("stage", stage.name())
+                .register(meterRegistry);
+        }
+
+        CompletableFuture<T> run(PipelineContext context) {
+            long readyAt = System.nanoTime();
+            return throttle.submit(() -> {
+                    long startedAt = System.nanoTime();
+                    waitTimer.record(startedAt - readyAt, TimeUnit.NANOSECONDS);
+
+                    CompletableFuture<T> result;
+                    try {
+                        result = stage.execute(context);
+                    } catch (Exception e) {
+                        result = CompletableFuture.failedFuture(e);
+                    }
+                    return result.whenComplete((artefact, ex) -> Timer.builder("photo.pipeline.stage")
+                        .description("Stage execution time")
+                        .tag("stage", stage.name())
+                        .tag("resource", stage.resourceClass().name().toLowerCase())
+                        .tag("outcome", ex == null ? "success" : "failure")
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS));
+                })
+                .handleAsync((artefact, ex) -> finish(context, artefact, ex), processingIoExecutor);
+        }
+
+        private T finish(PipelineContext context, T artefact, Throwable ex) {
+            Long photoId = context.getPhoto().getId();
+            if (ex == null) {
+                context.put(stage.name(), artefact);
+                if (stage.eventType() != null) {
+                    recordEvent(context, stage.eventType(), stage.describe(artefact), true);
+                }
+                return artefact;
+            }
+
+            Throwable cause = unwrap(ex);
+            if (stage.eventType() != null) {
+                recordEvent(context, stage.eventType(), stage.name() + " failed: " + cause.getMessage(), false);
+            }
+            if (!stage.critical()) {
+                log.warn("Processing stage failed (non-critical): photoId={}, stage={}", photoId, stage.name(), cause);
+                return null;
+            }
+
+            log.error("Processing stage failed: photoId={}, stage={}", photoId, stage.name(), cause);
+            throw cause instanceof PhotoProcessingException processingException
+                ? processingException
+                : new PhotoProcessingException(photoId, stage.name(), cause.getMessage(), cause);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.photoupload.service.pipeline;
+
+import com.photoupload.common.domain.PhotoEvent;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One step of the photo processing pipeline.
+ * Stages are Spring beans picked up by {@link ProcessingPipeline}: a stage names the stages
+ * whose artefacts it needs, and starts as soon as those have completed, in parallel with any
+ * other stage that is ready. Its result becomes an artefact that later stages read from the
+ * {@link PipelineContext}.
+ *
+ * @param <T> the artefact this stage produces
+ */
+public interface ProcessingStage<T> {
+
+    /**
+     * Unique stage name; also the key of its artefact and the metrics tag
+     */
+    String name();
+
+    /**
+     * Names of the stages whose artefacts this stage reads
+     */
+    default Set<String> dependsOn() {
+        return Set.of();
+    }
+
+    /**
+     * Dependencies this stage reads while they are still producing their artefact, a subset of
+     * {@link #dependsOn()}. The stage starts once they hand the artefact off with
+     * {@link PipelineContext#handOff} rather than when they complete. Suits I/O stages: a CPU
+     * stage would hold an image thread while it waits for its input.
+     */
+    default Set<String> streamsFrom() {
+        return Set.of();
+    }
+
+    /**
+     * Dependencies for one run, a subset of {@link #dependsOn()}. Evaluated before any stage
+     * of the run starts, so a stage can skip waiting on an artefact the run will not need.
+     */
+    default Set<String> dependsOn(PipelineContext context) {
+        return dependsOn();
+    }
+
+    /**
+     * Pool the stage runs on: CPU work on the cores-sized image pool, blocking calls on the I/O pool
+     */
+    ResourceClass resourceClass();
+
+    /**
+     * Runs of this stage in progress at once across the node, until the returned future
+     * completes; further runs wait in order. Overridable per stage with
+     * processing.pipeline.stages.{name}.max-concurrency.
+     */
+    int maxConcurrency();
+
+    /**
+     * Whether a failure fails the photo's processing run. When a non-critical stage fails its
+     * artefact is absent and its dependents still run.
+     */
+    default boolean critical() {
+        return true;
+    }
+
+    /**
+     * Event recorded on the photo when the stage succeeds or fails, or null for none
+     */
+    default PhotoEvent.EventType eventType() {
+        return null;
+    }
+
+    /**
+     * Details of the success event
+     */
+    default String describe(T artefact) {
+        return name() + " completed";
+    }
+
+    /**
+     * Run the stage. Called on the pool of its resource class once its dependencies have
+     * completed; may return a future completing elsewhere, e.g. after asynchronous uploads.
+     */
+    CompletableFuture<T> execute(PipelineContext context) throws Exception;
+
+    enum ResourceClass {
+        CPU,
+        IO
+    }
+}
@@ -0,0 +1,70 @@
+package com.photoupload.service.pipeline;
+
+import com.photoupload.common.domain.PhotoEvent;
+import com.photoupload.common.dto.PhotoRendition;
+import com.photoupload.service.ThumbnailGenerationService;
+import com.photoupload.storage.CloudStorageProvider;
+import com.photoupload.storage.factory.CloudStorageProviderFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Decodes the original once and encodes every rendition on the image pool; the uploads
+ * continue on the I/O pool and the stage completes once all are stored.
+ */
+@Component
+@RequiredArgsConstructor
+public class RenditionStage implements ProcessingStage<List<PhotoRendition>> {
+
+    public static final String NAME = "renditions";
+
+    private final ThumbnailGenerationService thumbnailService;
+    private final CloudStorageProviderFactory storageProviderFactory;
+
+    @Value("${storage.provider:s3}")
+    private String defaultStorageProvider;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Set<String> dependsOn() {
+        return Set.of(FetchOriginalStage.NAME, ValidateImageStage.NAME);
+    }
+
+    @Override
+    public ResourceClass resourceClass() {
+        return ResourceClass.CPU;
+    }
+
+    /**
+     * Twice the cores, so the pool keeps encoding while earlier runs wait on their uploads
+     */
+    @Override
+    public int maxConcurrency() {
+        return Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    @Override
+    public PhotoEvent.EventType eventType() {
+        return PhotoEvent.EventType.PHOTO_THUMBNAIL_GENERATED;
+    }
+
+    @Override
+    public String describe(List<PhotoRendition> renditions) {
+        return "Renditions generated: " + renditions.size();
+    }
+
+    @Override
+    public CompletableFuture<List<PhotoRendition>> execute(PipelineContext context) {
+        CloudStorageProvider storage = storageProviderFactory.getResilientProvider(defaultStorageProvider);
+        return thumbnailService.generateRenditions(context.getPhoto(), context.artefact(FetchOriginalStage.NAME), storage);
+    }
+}
@@ -0,0 +1,95 @@
+package com.photoupload.service.pipeline;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Caps the runs of one stage in progress at once without blocking pool threads: runs over
+ * the limit are queued here in order and handed to the executor as earlier ones complete.
+ * A run holds its slot until the future it returns completes.
+ */
+class StageThrottle {
+
+    private final int maxConcurrency;
+    private final Executor executor;
+    private final Queue<Task<?>> queued = new ArrayDeque<>();
+    private int running;
+
+    StageThrottle(int maxConcurrency, Executor executor) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.executor = executor;
+    }
+
+    <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> work) {
+        Task<T> task = new Task<>(work);
+        synchronized (this) {
+            if (running >= maxConcurrency) {
+                queued.add(task);
+                return task.result;
+            }
+            running++;
+        }
+        dispatch(task);
+        return task.result;
+    }
+
+    synchronized int running() {
+        return running;
+    }
+
+    synchronized int queued() {
+        return queued.size();
+    }
+
+    private void dispatch(Task<?> task) {
+        try {
+            executor.execute(task);
+        } catch (RuntimeException e) {
+            task.result.completeExceptionally(e);
+            release();
+        }
+    }
+
+    private void release() {
+        Task<?> next;
+        synchronized (this) {
+            next = queued.poll();
+            if (next == null) {
+                running--;
+                return;
+            }
+        }
+        dispatch(next);
+    }
+
+    private final class Task<T> implements Runnable {
+
+        private final Supplier<CompletableFuture<T>> work;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Task(Supplier<CompletableFuture<T>> work) {
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            CompletableFuture<T> future;
+            try {
+                future = work.get();
+            } catch (RuntimeException | Error e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.whenComplete((value, error) -> {
+                release();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        }
+    }
+}
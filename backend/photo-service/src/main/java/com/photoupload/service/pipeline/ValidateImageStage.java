@@ -0,0 +1,100 @@
+package com.photoupload.service.pipeline;
+
+import com.photoupload.common.domain.Photo;
+import com.photoupload.common.domain.PhotoEvent;
+import com.photoupload.common.exception.PhotoProcessingException;
+import com.photoupload.service.FetchedOriginal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Checks from the header alone that the original is an image we can decode and that its
+ * pixel count is within bounds, so corrupt or oversized files fail before any decoding.
+ * Streams from the fetch, so the header is read as soon as it has been downloaded.
+ */
+@Component
+public class ValidateImageStage implements ProcessingStage<ValidateImageStage.ImageValidation> {
+
+    public static final String NAME = "validate";
+
+    @Value("${processing.validation.max-pixels:200000000}")
+    private long maxPixels;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Set<String> dependsOn() {
+        return Set.of(FetchOriginalStage.NAME);
+    }
+
+    @Override
+    public Set<String> streamsFrom() {
+        return Set.of(FetchOriginalStage.NAME);
+    }
+
+    @Override
+    public ResourceClass resourceClass() {
+        return ResourceClass.IO;
+    }
+
+    @Override
+    public int maxConcurrency() {
+        return 16;
+    }
+
+    @Override
+    public PhotoEvent.EventType eventType() {
+        return PhotoEvent.EventType.PHOTO_VALIDATION_COMPLETED;
+    }
+
+    @Override
+    public String describe(ImageValidation validation) {
+        return "Validated " + validation.format() + " " + validation.width() + "x" + validation.height();
+    }
+
+    @Override
+    public CompletableFuture<ImageValidation> execute(PipelineContext context) throws Exception {
+        Photo photo = context.getPhoto();
+        FetchedOriginal original = context.artefact(FetchOriginalStage.NAME);
+
+        try (InputStream in = original.openStream();
+             ImageInputStream imageInput = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = imageInput == null ? null : ImageIO.getImageReaders(imageInput);
+            if (readers == null || !readers.hasNext()) {
+                throw new PhotoProcessingException(photo.getId(), NAME, "Unsupported or corrupt image");
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new PhotoProcessingException(photo.getId(), NAME,
+                        "Image too large: " + width + "x" + height);
+                }
+                return CompletableFuture.completedFuture(
+                    new ImageValidation(reader.getFormatName().toLowerCase(), width, height));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Format and dimensions read from the header
+     */
+    public record ImageValidation(String format, int width, int height) {
+    }
+}
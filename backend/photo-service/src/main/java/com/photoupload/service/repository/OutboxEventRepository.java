@@ -0,0 +1,30 @@
+package com.photoupload.service.repository;
+
+import com.photoupload.common.domain.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository for OutboxEvent entity.
+ * Read and emptied by the outbox relay.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Oldest unpublished events
+     */
+    @Query(value = "SELECT * FROM outbox_events ORDER BY id ASC LIMIT :limit", nativeQuery = true)
+    List<OutboxEvent> findOldest(@Param("limit") int limit);
+
+    /**
+     * Creation time of the oldest unpublished event, or null if the outbox is empty
+     */
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e")
+    Instant findOldestCreatedAt();
+}
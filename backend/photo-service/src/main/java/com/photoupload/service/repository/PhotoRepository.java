@@ -6,11 +6,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.LockModeType;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,9 +40,9 @@ public interface PhotoRepository extends JpaRepository<Photo, Long> {
     Page<Photo> findByUserIdAndStatus(String userId, PhotoStatus status, Pageable pageable);
 
     /**
-     * Find photo by checksum (for deduplication)
+     * Find photos by checksum; duplicates share one storage blob, so there may be several
      */
-    Optional<Photo> findByChecksum(String checksum);
+    List<Photo> findByChecksum(String checksum);
 
     /**
      * Find photos that failed and need retry
@@ -47,6 +50,23 @@ public interface PhotoRepository extends JpaRepository<Photo, Long> {
     @Query("SELECT p FROM Photo p WHERE p.status = :status AND p.retryCount < :maxRetries")
     List<Photo> findFailedPhotosForRetry(@Param("status") PhotoStatus status, @Param("maxRetries") int maxRetries);
 
+    /**
+     * Find photos waiting for a processing retry
+     */
+    @Query("SELECT p FROM Photo p WHERE p.status = :status AND p.nextRetryAt IS NOT NULL ORDER BY p.nextRetryAt ASC")
+    List<Photo> findPendingRetries(@Param("status") PhotoStatus status);
+
+    /**
+     * Claim a due retry, so that only one node runs it
+     *
+     * @return number of rows updated; 0 if the retry was already claimed or the photo is gone
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Photo p SET p.nextRetryAt = NULL, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.status = :status AND p.nextRetryAt IS NOT NULL")
+    int claimRetry(@Param("id") Long id, @Param("status") PhotoStatus status);
+
     /**
      * Find photo with pessimistic lock for concurrent updates
      */
@@ -54,6 +74,13 @@ public interface PhotoRepository extends JpaRepository<Photo, Long> {
     @Query("SELECT p FROM Photo p WHERE p.id = :id")
     Optional<Photo> findByIdForUpdate(@Param("id") Long id);
 
+    /**
+     * Find photos reserved for a direct upload that was never completed.
+     * Only direct uploads have a storage key before reaching UPLOADED.
+     */
+    @Query("SELECT p FROM Photo p WHERE p.status = :status AND p.storageKey IS NOT NULL AND p.uploadedAt < :before")
+    List<Photo> findStalledUploads(@Param("status") PhotoStatus status, @Param("before") Instant before, Pageable pageable);
+
     /**
      * Count photos by status for monitoring
      */
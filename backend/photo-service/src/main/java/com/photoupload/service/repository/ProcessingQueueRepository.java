@@ -4,16 +4,19 @@ import com.photoupload.common.domain.ProcessingQueue;
 import com.photoupload.common.domain.ProcessingQueue.CommandType;
 import com.photoupload.common.domain.ProcessingQueue.QueueStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Repository for ProcessingQueue entity.
- * Supports database-backed queue for fallback scenarios.
+ * Backs the durable processing queue consumed by every replica.
  */
 @Repository
 public interface ProcessingQueueRepository extends JpaRepository<ProcessingQueue, Long> {
@@ -29,6 +32,43 @@ public interface ProcessingQueueRepository extends JpaRepository<ProcessingQueue
         @Param("now") Instant now
     );
 
+    /**
+     * Lock ready items for claiming; rows locked by another replica's claim are skipped,
+     * so concurrent claims never return the same item
+     */
+    @Query(value = "SELECT * FROM processing_queue WHERE status = 'PENDING' AND " +
+                   "(next_retry_at IS NULL OR next_retry_at <= :now) " +
+                   "ORDER BY created_at ASC LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<ProcessingQueue> lockReadyForClaim(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * Lock items whose worker stopped renewing its lease
+     */
+    @Query(value = "SELECT * FROM processing_queue WHERE status = 'PROCESSING' AND lease_expires_at < :now " +
+                   "ORDER BY lease_expires_at ASC LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<ProcessingQueue> lockExpiredLeases(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * Extend the leases a worker still holds
+     *
+     * @return number of leases extended
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ProcessingQueue q SET q.leaseExpiresAt = :leaseExpiresAt " +
+           "WHERE q.id IN :ids AND q.lockedBy = :workerId AND q.status = :status")
+    int renewLeases(@Param("ids") Collection<Long> ids,
+                    @Param("workerId") String workerId,
+                    @Param("status") QueueStatus status,
+                    @Param("leaseExpiresAt") Instant leaseExpiresAt);
+
+    /**
+     * Check for an open command, so a photo is not queued twice
+     */
+    boolean existsByPhotoIdAndCommandTypeAndStatusIn(Long photoId, CommandType commandType, Collection<QueueStatus> statuses);
+
     /**
      * Find items by photo ID
      */
@@ -55,6 +95,19 @@ public interface ProcessingQueueRepository extends JpaRepository<ProcessingQueue
      */
     long countByStatus(QueueStatus status);
 
+    /**
+     * Count items in any of the statuses
+     */
+    long countByStatusIn(Collection<QueueStatus> statuses);
+
+    /**
+     * Count items in any of the statuses per user, as (userId, count) rows; queue rows carry
+     * no user, so join the photo
+     */
+    @Query("SELECT p.userId, COUNT(q) FROM ProcessingQueue q, Photo p WHERE p.id = q.photoId " +
+           "AND q.status IN :statuses GROUP BY p.userId")
+    List<Object[]> countByUserAndStatusIn(@Param("statuses") Collection<QueueStatus> statuses);
+
     /**
      * Delete completed items older than specified time
      */
@@ -0,0 +1,72 @@
+package com.photoupload.service.repository;
+
+import com.photoupload.common.domain.StorageBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+import java.util.stream.Stream;
+
+/**
+ * Repository for StorageBlob entity.
+ * Reference counts are changed with conditional updates so concurrent uploads and deletes
+ * of the same content never lose an increment.
+ */
+@Repository
+public interface StorageBlobRepository extends JpaRepository<StorageBlob, String> {
+
+    /**
+     * Stream every stored checksum with a server-side cursor; must be consumed inside a transaction
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT b.checksum FROM StorageBlob b")
+    Stream<String> streamAllChecksums();
+
+    /**
+     * Add references to an existing blob
+     *
+     * @return number of rows updated; 0 if the blob does not exist (or was just released)
+     */
+    @Modifying
+    @Query("UPDATE StorageBlob b SET b.refCount = b.refCount + :references, b.updatedAt = INSTANT " +
+           "WHERE b.checksum = :checksum AND b.refCount > 0")
+    int incrementRefCount(@Param("checksum") String checksum, @Param("references") int references);
+
+    /**
+     * Drop one reference
+     *
+     * @return number of rows updated; 0 if the blob does not exist
+     */
+    @Modifying
+    @Query("UPDATE StorageBlob b SET b.refCount = b.refCount - 1, b.updatedAt = INSTANT " +
+           "WHERE b.checksum = :checksum AND b.refCount > 0")
+    int decrementRefCount(@Param("checksum") String checksum);
+
+    /**
+     * Remove the blob row once nothing references it
+     *
+     * @return 1 if this call removed the row, meaning the caller owns deleting the object
+     */
+    @Modifying
+    @Query("DELETE FROM StorageBlob b WHERE b.checksum = :checksum AND b.refCount = 0")
+    int deleteIfUnreferenced(@Param("checksum") String checksum);
+
+    /**
+     * Record processing output the first time any referencing photo completes
+     */
+    @Modifying
+    @Query("UPDATE StorageBlob b SET b.thumbnailUrl = :thumbnailUrl, b.renditions = :renditions, " +
+           "b.width = :width, b.height = :height, " +
+           "b.metadata = :metadata, b.updatedAt = INSTANT " +
+           "WHERE b.checksum = :checksum AND b.thumbnailUrl IS NULL")
+    int recordProcessingResult(@Param("checksum") String checksum,
+                               @Param("thumbnailUrl") String thumbnailUrl,
+                               @Param("renditions") String renditions,
+                               @Param("width") Integer width,
+                               @Param("height") Integer height,
+                               @Param("metadata") String metadata);
+}
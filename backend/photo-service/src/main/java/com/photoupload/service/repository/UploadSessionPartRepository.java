@@ -0,0 +1,37 @@
+package com.photoupload.service.repository;
+
+import com.photoupload.common.domain.UploadSessionPart;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for UploadSessionPart entity
+ */
+@Repository
+public interface UploadSessionPartRepository extends JpaRepository<UploadSessionPart, Long> {
+
+    /**
+     * Find all parts of a session in assembly order
+     */
+    List<UploadSessionPart> findBySessionIdOrderByPartNumberAsc(String sessionId);
+
+    /**
+     * Find a specific part of a session
+     */
+    Optional<UploadSessionPart> findBySessionIdAndPartNumber(String sessionId, Integer partNumber);
+
+    /**
+     * Delete all parts of a session
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UploadSessionPart p WHERE p.sessionId = :sessionId")
+    int deleteBySessionId(@Param("sessionId") String sessionId);
+}
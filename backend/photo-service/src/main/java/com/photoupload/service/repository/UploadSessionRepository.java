@@ -0,0 +1,48 @@
+package com.photoupload.service.repository;
+
+import com.photoupload.common.domain.UploadSession;
+import com.photoupload.common.domain.UploadSession.SessionStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository for UploadSession entity.
+ * Status transitions are conditional updates so that only one replica wins a session.
+ */
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    /**
+     * Atomically move a session from one status to another
+     *
+     * @return number of rows updated; 0 if the session was not in the expected status
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadSession s SET s.status = :to " +
+           "WHERE s.id = :id AND s.status = :from")
+    int transitionStatus(@Param("id") String id,
+                         @Param("from") SessionStatus from,
+                         @Param("to") SessionStatus to);
+
+    /**
+     * Find sessions that have passed their expiry time
+     */
+    @Query("SELECT s FROM UploadSession s WHERE s.status = :status AND s.expiresAt < :now ORDER BY s.expiresAt ASC")
+    List<UploadSession> findExpired(@Param("status") SessionStatus status,
+                                    @Param("now") Instant now,
+                                    Pageable pageable);
+
+    /**
+     * Count sessions by status for monitoring
+     */
+    long countByStatus(SessionStatus status);
+}
@@ -0,0 +1,142 @@
+package com.photoupload.service;
+
+import com.photoupload.common.domain.Photo;
+import com.photoupload.common.domain.PhotoStatus;
+import com.photoupload.common.domain.StorageBlob;
+import com.photoupload.common.dto.BatchUploadResponse;
+import com.photoupload.common.dto.PhotoUploadRequest;
+import com.photoupload.service.repository.PhotoEventRepository;
+import com.photoupload.service.repository.PhotoRepository;
+import com.photoupload.service.repository.StorageBlobRepository;
+import com.photoupload.storage.CloudStorageProvider;
+import com.photoupload.storage.factory.CloudStorageProviderFactory;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BatchUploadService isolating rows that fail to commit.
+ * Uses the real BlobStoreService over a mocked blob repository.
+ */
+@ExtendWith(MockitoExtension.class)
+class BatchUploadServiceTest {
+
+    @Mock
+    private PhotoRepository photoRepository;
+
+    @Mock
+    private PhotoEventRepository photoEventRepository;
+
+    @Mock
+    private CloudStorageProviderFactory storageProviderFactory;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private StorageBlobRepository blobRepository;
+
+    @Mock
+    private DedupFilterService dedupFilter;
+
+    @Mock
+    private CloudStorageProvider storageProvider;
+
+    @Mock
+    private ProcessingQueueService processingQueue;
+
+    private BatchUploadService batchUploadService;
+
+    @BeforeEach
+    void setUp() {
+        batchUploadService = new BatchUploadService(photoRepository, photoEventRepository, storageProviderFactory,
+            outboxService, transactionTemplate, Runnable::run, new BlobStoreService(blobRepository, dedupFilter),
+            RetryRegistry.ofDefaults(), processingQueue);
+        ReflectionTestUtils.setField(batchUploadService, "defaultStorageProvider", "s3");
+        ReflectionTestUtils.setField(batchUploadService, "maxFiles", 100);
+
+        doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(storageProviderFactory.getResilientProvider("s3")).thenReturn(storageProvider);
+        when(storageProvider.upload(anyString(), any(InputStream.class), anyString(), anyLong()))
+            .thenAnswer(inv -> "https://storage/" + inv.getArgument(0));
+    }
+
+    @Test
+    void uploadBatch_RowFailsToCommit_OtherRowsCommitAndFailedObjectDeleted() {
+        // Arrange: registering the blob of b.jpg always violates a constraint
+        when(photoRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Photo> photos = inv.getArgument(0);
+            for (int i = 0; i < photos.size(); i++) {
+                photos.get(i).setId(i + 1L);
+            }
+            return photos;
+        });
+        // Each transaction reads fresh rows, as a rolled-back transaction leaves them UPLOADING
+        when(photoRepository.findAllById(anyList())).thenAnswer(inv -> inv.<Collection<Long>>getArgument(0)
+            .stream()
+            .map(id -> Photo.builder()
+                .id(id)
+                .userId("user-1")
+                .originalFileName(id == 1L ? "a.jpg" : "b.jpg")
+                .contentType("image/jpeg")
+                .fileSize(1L)
+                .status(PhotoStatus.UPLOADING)
+                .build())
+            .toList());
+        when(blobRepository.save(any(StorageBlob.class))).thenAnswer(inv -> {
+            StorageBlob blob = inv.getArgument(0);
+            if (blob.getStorageKey().contains("/2/")) {
+                throw new DataIntegrityViolationException("duplicate key");
+            }
+            return blob;
+        });
+
+        // Act
+        BatchUploadResponse response = batchUploadService.uploadBatch(List.of(request("a.jpg", "a"), request("b.jpg", "b")))
+            .response();
+
+        // Assert
+        assertEquals(1, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        assertTrue(response.getResults().get(0).isSuccess());
+        assertEquals(PhotoStatus.UPLOADED, response.getResults().get(0).getStatus());
+        assertFalse(response.getResults().get(1).isSuccess());
+        assertEquals(PhotoStatus.FAILED, response.getResults().get(1).getStatus());
+        verify(storageProvider).delete(argThat(key -> key.contains("/2/")));
+        verify(storageProvider, never()).delete(argThat(key -> key.contains("/1/")));
+    }
+
+    private static PhotoUploadRequest request(String fileName, String content) {
+        return PhotoUploadRequest.builder()
+            .file(new MockMultipartFile("files", fileName, "image/jpeg", content.getBytes()))
+            .userId("user-1")
+            .build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.photoupload.service;
+
+import com.photoupload.common.domain.Photo;
+import com.photoupload.service.repository.StorageBlobRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BlobStoreService reference handling.
+ */
+@ExtendWith(MockitoExtension.class)
+class BlobStoreServiceTest {
+
+    @Mock
+    private StorageBlobRepository blobRepository;
+
+    @Mock
+    private DedupFilterService dedupFilter;
+
+    @InjectMocks
+    private BlobStoreService blobStoreService;
+
+    @Test
+    void release_NullChecksum_PhotoOwnsObject() {
+        // Arrange: chunked and direct uploads are not content-addressed
+        Photo photo = Photo.builder().id(1L).storageKey("photos/user-123/1/a.jpg").build();
+
+        // Act & Assert
+        assertTrue(blobStoreService.release(photo));
+        verifyNoInteractions(blobRepository);
+    }
+
+    @Test
+    void release_LastReference_PhotoOwnsObject() {
+        // Arrange
+        Photo photo = Photo.builder().id(1L).checksum("abc").build();
+        when(blobRepository.decrementRefCount("abc")).thenReturn(1);
+        when(blobRepository.deleteIfUnreferenced("abc")).thenReturn(1);
+
+        // Act & Assert
+        assertTrue(blobStoreService.release(photo));
+    }
+
+    @Test
+    void release_StillReferenced_ObjectKept() {
+        // Arrange
+        Photo photo = Photo.builder().id(1L).checksum("abc").build();
+        when(blobRepository.decrementRefCount("abc")).thenReturn(1);
+        when(blobRepository.deleteIfUnreferenced("abc")).thenReturn(0);
+
+        // Act & Assert
+        assertFalse(blobStoreService.release(photo));
+    }
+
+    @Test
+    void acquire_FilterRulesOutChecksum_NoLookup() {
+        // Arrange
+        when(dedupFilter.mightExist("abc")).thenReturn(false);
+
+        // Act
+        Map<String, ?> acquired = blobStoreService.acquire(Map.of("abc", 1));
+
+        // Assert
+        assertTrue(acquired.isEmpty());
+        verify(blobRepository, never()).findAllById(any());
+    }
+}
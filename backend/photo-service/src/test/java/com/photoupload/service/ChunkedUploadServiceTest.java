@@ -0,0 +1,171 @@
+package com.photoupload.service;
+
+import com.photoupload.common.domain.Photo;
+import com.photoupload.common.domain.PhotoStatus;
+import com.photoupload.common.domain.UploadSession;
+import com.photoupload.common.dto.ChunkedUploadRequest;
+import com.photoupload.common.dto.UploadPartResponse;
+import com.photoupload.common.exception.StorageException;
+import com.photoupload.service.repository.PhotoEventRepository;
+import com.photoupload.service.repository.PhotoRepository;
+import com.photoupload.service.repository.UploadSessionPartRepository;
+import com.photoupload.service.repository.UploadSessionRepository;
+import com.photoupload.storage.CloudStorageProvider;
+import com.photoupload.storage.UploadedPart;
+import com.photoupload.storage.factory.CloudStorageProviderFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ChunkedUploadService session start and part validation.
+ */
+@ExtendWith(MockitoExtension.class)
+class ChunkedUploadServiceTest {
+
+    private static final long MIB = 1024 * 1024;
+
+    @Mock
+    private UploadSessionRepository sessionRepository;
+
+    @Mock
+    private UploadSessionPartRepository partRepository;
+
+    @Mock
+    private PhotoRepository photoRepository;
+
+    @Mock
+    private PhotoEventRepository photoEventRepository;
+
+    @Mock
+    private CloudStorageProviderFactory storageProviderFactory;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ProcessingQueueService processingQueue;
+
+    @Mock
+    private CloudStorageProvider storageProvider;
+
+    @InjectMocks
+    private ChunkedUploadService chunkedUploadService;
+
+    private UploadSession session;
+
+    @BeforeEach
+    void setUp() {
+        // 12 MiB in parts of 5 MiB: two full parts and a 2 MiB remainder
+        session = UploadSession.builder()
+            .id("session-1")
+            .photoId(1L)
+            .userId("user-123")
+            .contentType("image/jpeg")
+            .fileSize(12 * MIB)
+            .partSize(5 * MIB)
+            .storageKey("photos/user-123/1/a.jpg")
+            .providerUploadId("upload-1")
+            .expiresAt(Instant.now().plus(Duration.ofHours(1)))
+            .build();
+    }
+
+    @Test
+    void initiate_MultipartUploadFails_FailsReservedPhoto() {
+        // Arrange
+        Photo[] saved = new Photo[1];
+        when(photoRepository.save(any(Photo.class))).thenAnswer(invocation -> {
+            Photo photo = invocation.getArgument(0);
+            if (photo.getId() == null) {
+                photo.setId(1L);
+            }
+            saved[0] = photo;
+            return photo;
+        });
+        when(photoRepository.findById(1L)).thenAnswer(invocation -> Optional.of(saved[0]));
+        when(storageProviderFactory.getResilientProvider(any())).thenReturn(storageProvider);
+        when(storageProvider.initiateMultipartUpload(anyString(), anyString()))
+            .thenThrow(new StorageException("Storage unavailable"));
+
+        ChunkedUploadRequest request = ChunkedUploadRequest.builder()
+            .userId("user-123")
+            .fileName("a.jpg")
+            .contentType("image/jpeg")
+            .fileSize(12 * MIB)
+            .build();
+
+        // Act & Assert
+        assertThrows(StorageException.class, () -> chunkedUploadService.initiate(request));
+        assertEquals(PhotoStatus.FAILED, saved[0].getStatus());
+        verify(sessionRepository, never()).save(any());
+    }
+
+    @Test
+    void uploadPart_ShortNonLastPart_RejectedBeforeStorage() {
+        // Arrange
+        when(sessionRepository.findById("session-1")).thenReturn(Optional.of(session));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+            chunkedUploadService.uploadPart("session-1", 1, new ByteArrayInputStream(new byte[0]), 4 * MIB));
+        verifyNoInteractions(storageProviderFactory);
+    }
+
+    @Test
+    void uploadPart_PartBeyondDeclaredSize_Rejected() {
+        // Arrange
+        when(sessionRepository.findById("session-1")).thenReturn(Optional.of(session));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+            chunkedUploadService.uploadPart("session-1", 4, new ByteArrayInputStream(new byte[0]), MIB));
+        verifyNoInteractions(storageProviderFactory);
+    }
+
+    @Test
+    void uploadPart_LastPartHoldsRemainder_Stored() {
+        // Arrange
+        when(sessionRepository.findById("session-1")).thenReturn(Optional.of(session));
+        when(storageProviderFactory.getResilientProvider(any())).thenReturn(storageProvider);
+        when(storageProvider.uploadPart(anyString(), anyString(), anyInt(), any(InputStream.class), anyLong()))
+            .thenReturn(UploadedPart.builder().partNumber(3).etag("etag-3").size(2 * MIB).build());
+        when(partRepository.findBySessionIdAndPartNumber("session-1", 3)).thenReturn(Optional.empty());
+
+        // Act
+        UploadPartResponse response = chunkedUploadService.uploadPart(
+            "session-1", 3, new ByteArrayInputStream(new byte[0]), 2 * MIB);
+
+        // Assert
+        assertEquals("etag-3", response.getEtag());
+        verify(storageProvider).uploadPart(eq("photos/user-123/1/a.jpg"), eq("upload-1"), eq(3),
+            any(InputStream.class), eq(2 * MIB));
+    }
+
+    @Test
+    void expectedPartSize_FullPartsThenRemainder() {
+        assertEquals(5 * MIB, ChunkedUploadService.expectedPartSize(session, 1));
+        assertEquals(5 * MIB, ChunkedUploadService.expectedPartSize(session, 2));
+        assertEquals(2 * MIB, ChunkedUploadService.expectedPartSize(session, 3));
+    }
+}
@@ -0,0 +1,124 @@
+package com.photoupload.service;
+
+import com.photoupload.service.repository.StorageBlobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DedupFilterService rebuilds.
+ */
+@ExtendWith(MockitoExtension.class)
+class DedupFilterServiceTest {
+
+    @Mock
+    private StorageBlobRepository blobRepository;
+
+    private DedupFilterService dedupFilter;
+
+    private List<String> stored;
+
+    @BeforeEach
+    void setUp() {
+        dedupFilter = new DedupFilterService(blobRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dedupFilter, "enabled", true);
+        ReflectionTestUtils.setField(dedupFilter, "maxMemoryBytes", 1L << 20);
+        ReflectionTestUtils.setField(dedupFilter, "targetFpp", 0.01);
+        ReflectionTestUtils.setField(dedupFilter, "minExpectedInsertions", 1_000L);
+
+        stored = IntStream.range(0, 5_000).mapToObj(i -> checksum("stored-" + i)).toList();
+    }
+
+    @Test
+    void mightExist_BeforeFirstRebuild_AlwaysLooksUp() {
+        assertTrue(dedupFilter.mightExist(checksum("anything")));
+        verifyNoInteractions(blobRepository);
+    }
+
+    @Test
+    void rebuild_StoredChecksums_NoFalseNegatives() {
+        // Arrange
+        when(blobRepository.count()).thenReturn((long) stored.size());
+        when(blobRepository.streamAllChecksums()).thenReturn(stored.stream());
+
+        // Act
+        dedupFilter.rebuild();
+
+        // Assert
+        stored.forEach(checksum -> assertTrue(dedupFilter.mightExist(checksum), "false negative: " + checksum));
+    }
+
+    @Test
+    void rebuild_RegisteredDuringScan_NotLost() {
+        // Arrange: a blob is registered while the rebuild is streaming the table
+        String concurrent = checksum("registered-during-rebuild");
+        when(blobRepository.count()).thenReturn((long) stored.size());
+        when(blobRepository.streamAllChecksums()).thenReturn(stored.stream().peek(checksum -> {
+            if (checksum.equals(stored.get(0))) {
+                dedupFilter.add(concurrent);
+            }
+        }));
+
+        // Act
+        dedupFilter.rebuild();
+
+        // Assert
+        assertTrue(dedupFilter.mightExist(concurrent));
+    }
+
+    @Test
+    void rebuild_RegisteredAfterRebuild_Found() {
+        // Arrange
+        when(blobRepository.count()).thenReturn((long) stored.size());
+        when(blobRepository.streamAllChecksums()).thenReturn(stored.stream());
+        dedupFilter.rebuild();
+
+        // Act
+        String added = checksum("registered-after-rebuild");
+        dedupFilter.add(added);
+
+        // Assert
+        assertTrue(dedupFilter.mightExist(added));
+    }
+
+    @Test
+    void rebuild_ReleasedBlob_DropsOutOfFilter() {
+        // Arrange: a first build sees every blob, the second only the ones still stored
+        String released = checksum("released");
+        when(blobRepository.count()).thenReturn(1L, 0L);
+        when(blobRepository.streamAllChecksums()).thenReturn(Stream.of(released),
+            Stream.empty());
+        dedupFilter.rebuild();
+        assertTrue(dedupFilter.mightExist(released));
+
+        // Act
+        dedupFilter.rebuild();
+
+        // Assert
+        assertFalse(dedupFilter.mightExist(released));
+    }
+
+    private static String checksum(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.photoupload.service;
+
+import com.photoupload.common.domain.Photo;
+import com.photoupload.common.domain.PhotoStatus;
+import com.photoupload.service.repository.PhotoRepository;
+import com.photoupload.storage.CloudStorageProvider;
+import com.photoupload.storage.factory.CloudStorageProviderFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DerivativeImageService request coalescing, its byte-bounded LRU cache and
+ * the size and format allow-list.
+ */
+@ExtendWith(MockitoExtension.class)
+class DerivativeImageServiceTest {
+
+    private static final String ORIGINAL_KEY = "photos/user-1/1/a.jpg";
+
+    @Mock
+    private PhotoRepository photoRepository;
+
+    @Mock
+    private CloudStorageProviderFactory storageProviderFactory;
+
+    @Mock
+    private ThumbnailGenerationService thumbnailService;
+
+    @Mock
+    private CloudStorageProvider storage;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void getDerivative_ConcurrentRequests_ShareOneLoad() throws Exception {
+        // Arrange: the first request blocks while reading the stored derivative
+        DerivativeImageService service = service(1_000);
+        stubPhoto();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(storage.exists(anyString())).thenReturn(true);
+        when(storage.download(anyString())).thenAnswer(inv -> {
+            loading.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return new ByteArrayInputStream(new byte[] {1, 2, 3});
+        });
+
+        // Act
+        CompletableFuture<DerivativeImageService.ImageDerivative> first = CompletableFuture.supplyAsync(
+            () -> service.getDerivative(1L, 300, null, null, null));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<DerivativeImageService.ImageDerivative> second = CompletableFuture.supplyAsync(
+            () -> service.getDerivative(1L, 300, null, null, null));
+        awaitCount("coalesced", 1);
+        release.countDown();
+
+        // Assert
+        assertArrayEquals(new byte[] {1, 2, 3}, first.get(5, TimeUnit.SECONDS).content());
+        assertSame(first.get(), second.get(5, TimeUnit.SECONDS));
+        verify(storage, times(1)).download(anyString());
+    }
+
+    @Test
+    void getDerivative_CacheOverByteBound_EvictsLeastRecentlyUsed() {
+        // Arrange: room for three 4-byte derivatives
+        DerivativeImageService service = service(12);
+        stubPhoto();
+        when(storage.exists(anyString())).thenReturn(true);
+        when(storage.download(anyString())).thenAnswer(inv -> new ByteArrayInputStream(new byte[4]));
+
+        service.getDerivative(1L, 150, null, null, null);
+        service.getDerivative(1L, 300, null, null, null);
+        service.getDerivative(1L, 600, null, null, null);
+        service.getDerivative(1L, 150, null, null, null);
+
+        // Act: a fourth derivative evicts w300, the least recently used
+        service.getDerivative(1L, null, 150, null, null);
+        service.getDerivative(1L, 150, null, null, null);
+        service.getDerivative(1L, 300, null, null, null);
+
+        // Assert
+        verify(storage, times(1)).download(DerivativeImageService.derivativeKey(ORIGINAL_KEY,
+            DerivativeImageService.DerivativeSpec.of(150, null, null, null)));
+        verify(storage, times(2)).download(DerivativeImageService.derivativeKey(ORIGINAL_KEY,
+            DerivativeImageService.DerivativeSpec.of(300, null, null, null)));
+        assertEquals(12.0, meterRegistry.get("photo.derivatives.cache.size").gauge().value());
+    }
+
+    @Test
+    void getDerivative_SizeNotOnAllowList_Rejected() {
+        // Arrange
+        DerivativeImageService service = service(1_000);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> service.getDerivative(1L, 301, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.getDerivative(1L, 300, 123, "cover", null));
+        assertThrows(IllegalArgumentException.class, () -> service.getDerivative(1L, 300, null, null, "gif"));
+        assertThrows(IllegalArgumentException.class, () -> service.getDerivative(1L, null, null, null, null));
+        verifyNoInteractions(photoRepository, storageProviderFactory);
+    }
+
+    private DerivativeImageService service(long cacheMaxBytes) {
+        DerivativeImageService service = new DerivativeImageService(photoRepository, storageProviderFactory,
+            thumbnailService, new ImageMemoryBudget(meterRegistry, 1_000_000, 1_000, 500), Runnable::run,
+            meterRegistry, Set.of(150, 300, 600), List.of("jpg"), cacheMaxBytes);
+        ReflectionTestUtils.setField(service, "defaultStorageProvider", "s3");
+        return service;
+    }
+
+    private void stubPhoto() {
+        Photo photo = Photo.builder()
+            .id(1L)
+            .userId("user-1")
+            .storageKey(ORIGINAL_KEY)
+            .status(PhotoStatus.COMPLETED)
+            .build();
+        when(photoRepository.findById(1L)).thenReturn(Optional.of(photo));
+        when(storageProviderFactory.getResilientProvider("s3")).thenReturn(storage);
+    }
+
+    private void awaitCount(String source, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("photo.derivatives.requests").tag("source", source).counter().count() < expected) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for " + source);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.photoupload.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FetchedOriginal streams following an original while it downloads.
+ */
+class FetchedOriginalTest {
+
+    @TempDir
+    Path spool;
+
+    @Test
+    void openStream_Downloading_ReadsBytesAsTheyArrive() throws Exception {
+        // Arrange
+        Path path = Files.createFile(spool.resolve("original.tmp"));
+        FetchedOriginal original = FetchedOriginal.downloading(1L, path);
+        append(original, path, new byte[] {1, 2});
+
+        // Act: the reader waits past the bytes written so far
+        CompletableFuture<byte[]> read = CompletableFuture.supplyAsync(() -> readAll(original));
+        append(original, path, new byte[] {3});
+        assertFalse(read.isDone());
+        original.completed();
+
+        // Assert
+        assertArrayEquals(new byte[] {1, 2, 3}, read.get(5, TimeUnit.SECONDS));
+        assertEquals(3, original.getSize());
+    }
+
+    @Test
+    void openStream_DownloadFails_ReaderFails() throws Exception {
+        // Arrange
+        Path path = Files.createFile(spool.resolve("original.tmp"));
+        FetchedOriginal original = FetchedOriginal.downloading(1L, path);
+        CompletableFuture<byte[]> read = CompletableFuture.supplyAsync(() -> readAll(original));
+
+        // Act
+        original.failed(new IOException("connection reset"));
+
+        // Assert
+        Exception e = assertThrows(Exception.class, () -> read.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, e.getCause().getCause());
+    }
+
+    private static void append(FetchedOriginal original, Path path, byte[] bytes) throws IOException {
+        Files.write(path, bytes, StandardOpenOption.APPEND);
+        original.grew(bytes.length);
+    }
+
+    private static byte[] readAll(FetchedOriginal original) {
+        try (InputStream in = original.openStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
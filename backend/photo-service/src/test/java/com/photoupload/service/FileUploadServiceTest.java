@@ -0,0 +1,185 @@
+package com.photoupload.service;
+
+import com.photoupload.common.domain.Photo;
+import com.photoupload.common.domain.PhotoStatus;
+import com.photoupload.common.domain.StorageBlob;
+import com.photoupload.common.dto.PhotoUploadRequest;
+import com.photoupload.service.repository.PhotoEventRepository;
+import com.photoupload.service.repository.PhotoRepository;
+import com.photoupload.service.repository.StorageBlobRepository;
+import com.photoupload.storage.CloudStorageProvider;
+import com.photoupload.storage.factory.CloudStorageProviderFactory;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FileUploadService finalizing an upload against the blob store.
+ * Uses the real BlobStoreService over a mocked blob repository.
+ */
+@ExtendWith(MockitoExtension.class)
+class FileUploadServiceTest {
+
+    private static final String SHARED_KEY = "photos/user-9/7/shared.jpg";
+
+    @Mock
+    private PhotoRepository photoRepository;
+
+    @Mock
+    private PhotoEventRepository photoEventRepository;
+
+    @Mock
+    private CloudStorageProviderFactory storageProviderFactory;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private StorageBlobRepository blobRepository;
+
+    @Mock
+    private DedupFilterService dedupFilter;
+
+    @Mock
+    private CloudStorageProvider storageProvider;
+
+    @Mock
+    private ProcessingQueueService processingQueue;
+
+    private FileUploadService fileUploadService;
+
+    private Photo[] saved;
+
+    @BeforeEach
+    void setUp() {
+        fileUploadService = new FileUploadService(photoRepository, photoEventRepository, storageProviderFactory,
+            outboxService, transactionTemplate, RetryRegistry.ofDefaults(),
+            new BlobStoreService(blobRepository, dedupFilter), processingQueue);
+
+        saved = new Photo[1];
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(photoRepository.save(any(Photo.class))).thenAnswer(invocation -> {
+            Photo photo = invocation.getArgument(0);
+            photo.setId(1L);
+            saved[0] = photo;
+            return photo;
+        });
+        when(photoRepository.findById(1L)).thenAnswer(invocation -> Optional.of(saved[0]));
+        when(photoRepository.saveAndFlush(any(Photo.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(storageProviderFactory.getResilientProvider(any())).thenReturn(storageProvider);
+        when(storageProvider.upload(anyString(), any(InputStream.class), anyString(), anyLong()))
+            .thenAnswer(invocation -> {
+                invocation.<InputStream>getArgument(1).readAllBytes();
+                return "https://storage/" + invocation.getArgument(0);
+            });
+    }
+
+    @Test
+    void uploadFile_ContentAlreadyProcessed_LinksBlobAndCompletes() {
+        // Arrange: the uploaded content matches a stored blob that was processed before
+        when(dedupFilter.mightExist(anyString())).thenReturn(true);
+        when(blobRepository.findAllById(any())).thenAnswer(invocation -> {
+            Collection<String> checksums = invocation.getArgument(0);
+            return List.of(processedBlob(checksums.iterator().next()));
+        });
+        when(blobRepository.incrementRefCount(anyString(), eq(1))).thenReturn(1);
+
+        // Act
+        Photo photo = fileUploadService.uploadFile(request());
+
+        // Assert: the photo shares the stored object and its processing output
+        assertEquals(PhotoStatus.COMPLETED, photo.getStatus());
+        assertEquals(SHARED_KEY, photo.getStorageKey());
+        assertEquals("thumbnails/shared_thumb.jpg", photo.getThumbnailUrl());
+        assertEquals(640, photo.getWidth());
+        assertNotNull(photo.getChecksum());
+        verify(blobRepository, never()).save(any());
+        verify(outboxService).add(eq(1L), eq("PhotoProcessingCompletedEvent"), any(), anyString());
+        verify(processingQueue, never()).enqueue(anyLong(), anyString());
+
+        // Our own copy of the bytes is removed from storage
+        ArgumentCaptor<String> uploadedKey = ArgumentCaptor.forClass(String.class);
+        verify(storageProvider).upload(uploadedKey.capture(), any(InputStream.class), anyString(), anyLong());
+        assertNotEquals(SHARED_KEY, uploadedKey.getValue());
+        verify(storageProvider).delete(uploadedKey.getValue());
+    }
+
+    @Test
+    void uploadFile_NewContent_RegistersBlobAndKeepsObject() {
+        // Arrange: the dedup filter rules the checksum out
+        when(dedupFilter.mightExist(anyString())).thenReturn(false);
+        when(blobRepository.save(any(StorageBlob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Photo photo = fileUploadService.uploadFile(request());
+
+        // Assert
+        assertEquals(PhotoStatus.UPLOADED, photo.getStatus());
+        assertTrue(photo.getStorageKey().startsWith("photos/user-123/1/"));
+        verify(blobRepository, never()).findAllById(any());
+        verify(dedupFilter).add(photo.getChecksum());
+        verify(storageProvider, never()).delete(anyString());
+    }
+
+    @Test
+    void uploadFile_QueueEnabled_EnqueuesInUploadTransaction() {
+        // Arrange
+        when(dedupFilter.mightExist(anyString())).thenReturn(false);
+        when(blobRepository.save(any(StorageBlob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(processingQueue.isEnabled()).thenReturn(true);
+
+        // Act
+        fileUploadService.uploadFile(request());
+
+        // Assert: the command is queued with the uploaded event, in the finalize transaction
+        InOrder inOrder = inOrder(outboxService, processingQueue);
+        inOrder.verify(outboxService).add(eq(1L), eq("PhotoUploadedEvent"), any(), anyString());
+        inOrder.verify(processingQueue).enqueue(eq(1L), anyString());
+    }
+
+    private static PhotoUploadRequest request() {
+        return PhotoUploadRequest.builder()
+            .userId("user-123")
+            .file(new MockMultipartFile("file", "a.jpg", "image/jpeg", new byte[] {1, 2, 3, 4}))
+            .build();
+    }
+
+    private static StorageBlob processedBlob(String checksum) {
+        return StorageBlob.builder()
+            .checksum(checksum)
+            .storageKey(SHARED_KEY)
+            .storageUrl("https://storage/" + SHARED_KEY)
+            .contentType("image/jpeg")
+            .fileSize(4L)
+            .thumbnailUrl("thumbnails/shared_thumb.jpg")
+            .width(640)
+            .height(480)
+            .metadata("{}")
+            .refCount(1)
+            .build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.photoupload.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ImageMemoryBudget blocking and release.
+ */
+class ImageMemoryBudgetTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void acquire_WithinBudget_ReleasedOnClose() {
+        // Arrange
+        ImageMemoryBudget budget = new ImageMemoryBudget(meterRegistry, 100, 1_000, 500);
+
+        // Act
+        try (ImageMemoryBudget.Permit permit = budget.acquire(60)) {
+            assertEquals(60, gauge("image.memory.budget.used"));
+        }
+
+        // Assert
+        assertEquals(0, gauge("image.memory.budget.used"));
+    }
+
+    @Test
+    void acquire_OverBudget_BlocksUntilReleased() throws Exception {
+        // Arrange
+        ImageMemoryBudget budget = new ImageMemoryBudget(meterRegistry, 100, 10_000, 5_000);
+        ImageMemoryBudget.Permit held = budget.acquire(80);
+
+        // Act
+        CompletableFuture<ImageMemoryBudget.Permit> waiter = CompletableFuture.supplyAsync(() -> budget.acquire(50), executor);
+        awaitGauge("image.memory.budget.waiting", 1);
+
+        // Assert: still blocked while the first permit is held, admitted once it is closed
+        assertFalse(waiter.isDone());
+        held.close();
+        waiter.get(5, TimeUnit.SECONDS).close();
+        assertEquals(0, gauge("image.memory.budget.used"));
+    }
+
+    @Test
+    void acquire_NotReleasedWithinMaxWait_Rejected() {
+        // Arrange
+        ImageMemoryBudget budget = new ImageMemoryBudget(meterRegistry, 100, 100, 5_000);
+        budget.acquire(80);
+
+        // Act & Assert
+        assertThrows(RejectedExecutionException.class, () -> budget.acquire(50));
+        assertEquals(0, gauge("image.memory.budget.waiting"));
+        assertEquals(80, gauge("image.memory.budget.used"));
+    }
+
+    @Test
+    void acquire_LargerThanBudget_AdmittedWhenIdle() {
+        ImageMemoryBudget budget = new ImageMemoryBudget(meterRegistry, 100, 100, 50);
+
+        try (ImageMemoryBudget.Permit permit = budget.acquire(500)) {
+            assertEquals(500, gauge("image.memory.budget.used"));
+        }
+    }
+
+    @Test
+    void acquire_LongWaiterReserved_SmallerImageQueuedBehindIt() throws Exception {
+        // Arrange: a large image has waited past the reservation threshold
+        ImageMemoryBudget budget = new ImageMemoryBudget(meterRegistry, 100, 10_000, 50);
+        ImageMemoryBudget.Permit held = budget.acquire(80);
+        CompletableFuture<ImageMemoryBudget.Permit> large = CompletableFuture.supplyAsync(() -> budget.acquire(50), executor);
+        Thread.sleep(200);
+
+        // Act: a small image that would fit next to the held permit
+        CompletableFuture<ImageMemoryBudget.Permit> small = CompletableFuture.supplyAsync(() -> budget.acquire(10), executor);
+        awaitGauge("image.memory.budget.waiting", 2);
+
+        // Assert: the small image waits for the reservation; both get in once memory is released
+        assertFalse(small.isDone());
+        held.close();
+        large.get(5, TimeUnit.SECONDS).close();
+        small.get(5, TimeUnit.SECONDS).close();
+        assertEquals(0, gauge("image.memory.budget.used"));
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private void awaitGauge(String name, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (gauge(name) != expected) {
+            assertTrue(System.nanoTime() < deadline, name + " never reached " + expected);
+            Thread.sleep(10);
+        }
+    }
+}
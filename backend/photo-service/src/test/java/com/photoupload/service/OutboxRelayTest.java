@@ -0,0 +1,130 @@
+package com.photoupload.service;
+
+import com.photoupload.common.domain.OutboxEvent;
+import com.photoupload.common.exception.EventPublishException;
+import com.photoupload.eventbus.EventPublisher;
+import com.photoupload.eventbus.relay.RelayLock;
+import com.photoupload.service.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OutboxRelay batching, the relay lease and partial publishes.
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxRepository;
+
+    @Mock
+    private EventPublisher eventPublisher;
+
+    @Mock
+    private RelayLock relayLock;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        outboxRelay = new OutboxRelay(outboxRepository, eventPublisher, relayLock, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 2);
+        ReflectionTestUtils.setField(outboxRelay, "confirmTimeoutMs", 50L);
+        ReflectionTestUtils.setField(outboxRelay, "relayLeaseMs", 60_000L);
+    }
+
+    @Test
+    void relay_LockHeldByAnotherReplica_SkipsWithoutReadingOutbox() {
+        // Arrange
+        when(relayLock.tryAcquire("outbox_events", Duration.ofMinutes(1))).thenReturn(false);
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert: the other replica's rows are neither read, sent nor deleted
+        verify(outboxRepository, never()).findOldest(anyInt());
+        verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void relay_FullBatch_PublishesNextBatchAndDeletesEach() {
+        // Arrange
+        when(relayLock.tryAcquire("outbox_events", Duration.ofMinutes(1))).thenReturn(true);
+        when(outboxRepository.findOldest(2))
+            .thenReturn(List.of(event(1L), event(2L)))
+            .thenReturn(List.of(event(3L)));
+        when(eventPublisher.publishSerializedAsync(anyString(), anyString(), anyString(), anyString()))
+            .thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(relayLock, times(2)).release("outbox_events");
+    }
+
+    @Test
+    void relay_EventRefused_DeletesOnlyEventsBeforeIt() {
+        // Arrange
+        when(relayLock.tryAcquire("outbox_events", Duration.ofMinutes(1))).thenReturn(true);
+        when(outboxRepository.findOldest(2)).thenReturn(List.of(event(1L), event(2L)));
+        when(eventPublisher.publishSerializedAsync(anyString(), anyString(), eq("{\"id\":1}"), anyString()))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        when(eventPublisher.publishSerializedAsync(anyString(), anyString(), eq("{\"id\":2}"), anyString()))
+            .thenReturn(CompletableFuture.failedFuture(new EventPublishException("PhotoUploadedEvent", "Nacked")));
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert: the refused event stays in the outbox for the next poll
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L));
+        verify(relayLock, times(1)).release("outbox_events");
+    }
+
+    @Test
+    void relay_ConfirmPending_DeletesOnlyConfirmedEventsAndReleasesLease() {
+        // Arrange: the broker never confirms the second event
+        when(relayLock.tryAcquire("outbox_events", Duration.ofMinutes(1))).thenReturn(true);
+        when(outboxRepository.findOldest(2)).thenReturn(List.of(event(1L), event(2L)));
+        when(eventPublisher.publishSerializedAsync(anyString(), anyString(), eq("{\"id\":1}"), anyString()))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        when(eventPublisher.publishSerializedAsync(anyString(), anyString(), eq("{\"id\":2}"), anyString()))
+            .thenReturn(new CompletableFuture<>());
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert: the pending event is sent again on the next poll
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L));
+        verify(relayLock).release("outbox_events");
+    }
+
+    private static OutboxEvent event(Long id) {
+        return OutboxEvent.builder()
+            .id(id)
+            .photoId(id)
+            .topic("photo.uploaded")
+            .eventType("PhotoUploadedEvent")
+            .payload("{\"id\":" + id + "}")
+            .correlationId("corr-" + id)
+            .build();
+    }
+}
@@ -2,9 +2,12 @@ package com.photoupload.service;
 
 import com.photoupload.common.domain.Photo;
 import com.photoupload.common.domain.PhotoStatus;
+import com.photoupload.common.dto.BatchUploadResponse;
 import com.photoupload.common.dto.PhotoResponse;
 import com.photoupload.common.dto.PhotoUploadRequest;
+import com.photoupload.common.dto.StreamingUploadRequest;
 import com.photoupload.common.exception.PhotoNotFoundException;
+import com.photoupload.common.exception.UploadThrottledException;
 import com.photoupload.service.mapper.PhotoMapper;
 import com.photoupload.service.repository.PhotoEventRepository;
 import com.photoupload.service.repository.PhotoRepository;
@@ -42,9 +45,30 @@ class PhotoServiceTest {
     @Mock
     private FileUploadService fileUploadService;
 
+    @Mock
+    private BatchUploadService batchUploadService;
+
+    @Mock
+    private ChunkedUploadService chunkedUploadService;
+
+    @Mock
+    private DirectUploadService directUploadService;
+
     @Mock
     private ProcessingOrchestrationService orchestrationService;
 
+    @Mock
+    private ProcessingQueueService processingQueue;
+
+    @Mock
+    private UploadAdmissionService admissionService;
+
+    @Mock
+    private OriginalFetchService originalFetchService;
+
+    @Mock
+    private DerivativeImageService derivativeImageService;
+
     @Mock
     private PhotoMapper photoMapper;
 
@@ -79,6 +103,7 @@ class PhotoServiceTest {
         PhotoUploadRequest request = PhotoUploadRequest.builder()
             .userId("user-123")
             .build();
+        testPhoto.setStatus(PhotoStatus.UPLOADED);
 
         when(fileUploadService.uploadFile(request)).thenReturn(testPhoto);
         when(photoMapper.toResponse(testPhoto)).thenReturn(testPhotoResponse);
@@ -90,10 +115,135 @@ class PhotoServiceTest {
         assertNotNull(result);
         assertEquals(testPhotoResponse.getId(), result.getId());
         verify(fileUploadService).uploadFile(request);
+        verify(originalFetchService).retain(testPhoto, request.getFile());
         verify(orchestrationService).startProcessing(testPhoto);
         verify(photoMapper).toResponse(testPhoto);
     }
 
+    @Test
+    void uploadPhoto_QueueEnabled_LeavesProcessingToTheQueue() {
+        // Arrange
+        PhotoUploadRequest request = PhotoUploadRequest.builder()
+            .userId("user-123")
+            .build();
+        testPhoto.setStatus(PhotoStatus.UPLOADED);
+
+        when(processingQueue.isEnabled()).thenReturn(true);
+        when(fileUploadService.uploadFile(request)).thenReturn(testPhoto);
+        when(photoMapper.toResponse(testPhoto)).thenReturn(testPhotoResponse);
+
+        // Act
+        photoService.uploadPhoto(request);
+
+        // Assert: the upload transaction already queued the command
+        verify(processingQueue, never()).enqueue(any(), any());
+        verify(orchestrationService, never()).startProcessing(any());
+    }
+
+    @Test
+    void uploadPhoto_Throttled_DoesNotUpload() {
+        // Arrange
+        PhotoUploadRequest request = PhotoUploadRequest.builder()
+            .userId("user-123")
+            .build();
+
+        when(admissionService.admit("user-123", 0L))
+            .thenThrow(new UploadThrottledException("Upload capacity is exhausted, retry later", 5));
+
+        // Act & Assert
+        assertThrows(UploadThrottledException.class, () -> photoService.uploadPhoto(request));
+        verify(fileUploadService, never()).uploadFile(any());
+        verify(orchestrationService, never()).startProcessing(any());
+    }
+
+    @Test
+    void uploadPhotoStream_StartsProcessing() {
+        // Arrange
+        StreamingUploadRequest request = StreamingUploadRequest.builder()
+            .userId("user-123")
+            .build();
+        testPhoto.setStatus(PhotoStatus.UPLOADED);
+
+        when(fileUploadService.uploadStream(request)).thenReturn(testPhoto);
+        when(photoMapper.toResponse(testPhoto)).thenReturn(testPhotoResponse);
+
+        // Act
+        PhotoResponse result = photoService.uploadPhotoStream(request);
+
+        // Assert
+        assertEquals(testPhotoResponse.getId(), result.getId());
+        verify(fileUploadService).uploadStream(request);
+        verify(orchestrationService).startProcessing(testPhoto);
+    }
+
+    @Test
+    void uploadPhotoBatch_StartsProcessingForUploadedPhotos() {
+        // Arrange
+        List<PhotoUploadRequest> requests = List.of(
+            PhotoUploadRequest.builder().userId("user-123").build(),
+            PhotoUploadRequest.builder().userId("user-123").build()
+        );
+        BatchUploadResponse response = BatchUploadResponse.builder()
+            .total(2)
+            .succeeded(1)
+            .failed(1)
+            .build();
+
+        when(batchUploadService.uploadBatch(requests))
+            .thenReturn(new BatchUploadService.BatchResult(response, List.of(testPhoto)));
+
+        // Act
+        BatchUploadResponse result = photoService.uploadPhotoBatch(requests);
+
+        // Assert
+        assertEquals(1, result.getSucceeded());
+        verify(orchestrationService, times(1)).startProcessing(any());
+        verify(orchestrationService).startProcessing(testPhoto);
+    }
+
+    @Test
+    void uploadPhotoBatch_MixedUsers_Rejected() {
+        // Arrange
+        List<PhotoUploadRequest> requests = List.of(
+            PhotoUploadRequest.builder().userId("user-123").build(),
+            PhotoUploadRequest.builder().userId("user-456").build()
+        );
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> photoService.uploadPhotoBatch(requests));
+        verifyNoInteractions(admissionService, batchUploadService);
+    }
+
+    @Test
+    void completeChunkedUpload_StartsProcessing() {
+        // Arrange
+        when(chunkedUploadService.complete("session-1")).thenReturn(testPhoto);
+        when(photoMapper.toResponse(testPhoto)).thenReturn(testPhotoResponse);
+
+        // Act
+        PhotoResponse result = photoService.completeChunkedUpload("session-1");
+
+        // Assert
+        assertEquals(testPhotoResponse.getId(), result.getId());
+        verify(chunkedUploadService).complete("session-1");
+        verify(orchestrationService).startProcessing(testPhoto);
+    }
+
+    @Test
+    void completeDirectUpload_StartsProcessing() {
+        // Arrange
+        when(directUploadService.complete(1L)).thenReturn(testPhoto);
+        when(photoMapper.toResponse(testPhoto)).thenReturn(testPhotoResponse);
+
+        // Act
+        PhotoResponse result = photoService.completeDirectUpload(1L);
+
+        // Assert
+        assertEquals(testPhotoResponse.getId(), result.getId());
+        verify(directUploadService).complete(1L);
+        verify(orchestrationService).startProcessing(testPhoto);
+    }
+
     @Test
     void getPhoto_Found() {
         // Arrange
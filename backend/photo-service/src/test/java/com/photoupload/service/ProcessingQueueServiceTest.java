@@ -0,0 +1,135 @@
+package com.photoupload.service;
+
+import com.photoupload.common.domain.Photo;
+import com.photoupload.common.domain.PhotoEvent;
+import com.photoupload.common.domain.PhotoStatus;
+import com.photoupload.common.domain.ProcessingQueue;
+import com.photoupload.common.domain.ProcessingQueue.CommandType;
+import com.photoupload.common.domain.ProcessingQueue.QueueStatus;
+import com.photoupload.common.event.PhotoProcessingFailedEvent;
+import com.photoupload.service.repository.PhotoEventRepository;
+import com.photoupload.service.repository.PhotoRepository;
+import com.photoupload.service.repository.ProcessingQueueRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProcessingQueueService retries and dead letters.
+ */
+@ExtendWith(MockitoExtension.class)
+class ProcessingQueueServiceTest {
+
+    @Mock
+    private ProcessingQueueRepository queueRepository;
+
+    @Mock
+    private PhotoRepository photoRepository;
+
+    @Mock
+    private PhotoEventRepository photoEventRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    private ProcessingQueueService queueService;
+
+    private Photo photo;
+
+    @BeforeEach
+    void setUp() {
+        queueService = new ProcessingQueueService(queueRepository, photoRepository, photoEventRepository,
+            outboxService, new SimpleMeterRegistry());
+
+        photo = Photo.builder()
+            .id(1L)
+            .userId("user-123")
+            .status(PhotoStatus.PROCESSING)
+            .build();
+    }
+
+    @Test
+    void reapExpiredLeases_LastAttempt_DeadLettersAndFailsPhoto() {
+        // Arrange: the worker holding the final attempt stopped renewing its lease
+        ProcessingQueue item = claimedItem(5);
+        when(queueRepository.lockExpiredLeases(any(), anyInt())).thenReturn(List.of(item));
+        when(photoRepository.findById(1L)).thenReturn(Optional.of(photo));
+
+        // Act
+        int reaped = queueService.reapExpiredLeases(10);
+
+        // Assert
+        assertEquals(1, reaped);
+        assertEquals(QueueStatus.DEAD_LETTER, item.getStatus());
+        assertEquals(PhotoStatus.FAILED, photo.getStatus());
+        assertEquals("Lease expired on worker worker-1", photo.getLastError());
+        verify(photoRepository).save(photo);
+
+        ArgumentCaptor<PhotoEvent> history = ArgumentCaptor.forClass(PhotoEvent.class);
+        verify(photoEventRepository).save(history.capture());
+        assertEquals(PhotoEvent.EventType.PHOTO_PROCESSING_FAILED, history.getValue().getEventType());
+
+        ArgumentCaptor<PhotoProcessingFailedEvent> event = ArgumentCaptor.forClass(PhotoProcessingFailedEvent.class);
+        verify(outboxService).add(eq(1L), eq("PhotoProcessingFailedEvent"), event.capture(), eq("corr-1"));
+        assertFalse(event.getValue().getWillRetry());
+    }
+
+    @Test
+    void reapExpiredLeases_AttemptsLeft_RetriesWithoutFailingPhoto() {
+        // Arrange
+        ProcessingQueue item = claimedItem(0);
+        when(queueRepository.lockExpiredLeases(any(), anyInt())).thenReturn(List.of(item));
+
+        // Act
+        queueService.reapExpiredLeases(10);
+
+        // Assert
+        assertEquals(QueueStatus.PENDING, item.getStatus());
+        assertNull(item.getLockedBy());
+        verifyNoInteractions(photoRepository, photoEventRepository, outboxService);
+    }
+
+    @Test
+    void deadLetter_PhotoAlreadyCompleted_LeavesPhotoAlone() {
+        // Arrange
+        ProcessingQueue item = claimedItem(0);
+        photo.setStatus(PhotoStatus.COMPLETED);
+        when(queueRepository.findById(5L)).thenReturn(Optional.of(item));
+        when(photoRepository.findById(1L)).thenReturn(Optional.of(photo));
+
+        // Act
+        queueService.deadLetter(5L, "worker-1", "Unsupported command: GENERATE_THUMBNAIL");
+
+        // Assert
+        assertEquals(QueueStatus.DEAD_LETTER, item.getStatus());
+        assertEquals(PhotoStatus.COMPLETED, photo.getStatus());
+        verify(photoRepository, never()).save(any());
+        verifyNoInteractions(photoEventRepository, outboxService);
+    }
+
+    private static ProcessingQueue claimedItem(int retryCount) {
+        return ProcessingQueue.builder()
+            .id(5L)
+            .photoId(1L)
+            .commandType(CommandType.PROCESS_PHOTO)
+            .status(QueueStatus.PROCESSING)
+            .retryCount(retryCount)
+            .maxRetries(6)
+            .lockedBy("worker-1")
+            .correlationId("corr-1")
+            .build();
+    }
+}
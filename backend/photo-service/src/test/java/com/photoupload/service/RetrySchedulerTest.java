@@ -0,0 +1,99 @@
+package com.photoupload.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RetryScheduler.
+ * Due actions run straight on the timer thread.
+ */
+class RetrySchedulerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RetryScheduler scheduler = new RetryScheduler(meterRegistry, Runnable::run, 1_000, 8_000, 0);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void schedule_Due_RunsOnce() throws InterruptedException {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch ran = new CountDownLatch(1);
+
+        // Act
+        scheduler.schedule(1L, Instant.now(), () -> {
+            runs.incrementAndGet();
+            ran.countDown();
+        });
+
+        // Assert
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(1, runs.get());
+        assertEquals(0, meterRegistry.get("photo.processing.retries.pending").gauge().value());
+    }
+
+    @Test
+    void schedule_SamePhotoAgain_OnlyLatestRuns() throws InterruptedException {
+        // Arrange
+        AtomicInteger first = new AtomicInteger();
+        AtomicInteger second = new AtomicInteger();
+        CountDownLatch ran = new CountDownLatch(1);
+
+        // Act: the second schedule replaces the first, which would have been due later
+        scheduler.schedule(1L, Instant.now().plusMillis(200), first::incrementAndGet);
+        scheduler.schedule(1L, Instant.now().plusMillis(20), () -> {
+            second.incrementAndGet();
+            ran.countDown();
+        });
+
+        // Assert
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        Thread.sleep(400);
+        assertEquals(0, first.get());
+        assertEquals(1, second.get());
+    }
+
+    @Test
+    void cancel_PendingRetry_NeverRuns() throws InterruptedException {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+        scheduler.schedule(1L, Instant.now().plusMillis(100), runs::incrementAndGet);
+
+        // Act
+        scheduler.cancel(1L);
+
+        // Assert
+        Thread.sleep(300);
+        assertEquals(0, runs.get());
+        assertEquals(0, meterRegistry.get("photo.processing.retries.pending").gauge().value());
+    }
+
+    @Test
+    void nextRetryAt_DoublesPerAttemptUpToMax() {
+        // Without jitter the delay is exact
+        assertDelay(1_000, scheduler.nextRetryAt(1));
+        assertDelay(2_000, scheduler.nextRetryAt(2));
+        assertDelay(4_000, scheduler.nextRetryAt(3));
+        assertDelay(8_000, scheduler.nextRetryAt(4));
+        assertDelay(8_000, scheduler.nextRetryAt(10));
+    }
+
+    private static void assertDelay(long expectedMs, Instant dueAt) {
+        long delayMs = Duration.between(Instant.now(), dueAt).toMillis();
+        assertTrue(delayMs <= expectedMs && delayMs > expectedMs - 1_000,
+            "expected ~" + expectedMs + "ms, got " + delayMs + "ms");
+    }
+}
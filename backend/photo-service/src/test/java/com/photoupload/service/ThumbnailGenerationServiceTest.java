@@ -0,0 +1,32 @@
+package com.photoupload.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ThumbnailGenerationService format configuration.
+ */
+class ThumbnailGenerationServiceTest {
+
+    @Test
+    void writableFormats_WritersPresent_Kept() {
+        assertEquals(List.of("jpg", "png"),
+            ThumbnailGenerationService.writableFormats("processing.renditions.formats", List.of("jpg", "png")));
+    }
+
+    @Test
+    void writableFormats_FormatWithoutWriter_FailsStartup() {
+        IllegalStateException e = assertThrows(IllegalStateException.class, () ->
+            ThumbnailGenerationService.writableFormats("processing.renditions.formats", List.of("jpg", "heic")));
+        assertTrue(e.getMessage().contains("heic"));
+    }
+
+    @Test
+    void writableFormats_NoneConfigured_FailsStartup() {
+        assertThrows(IllegalStateException.class, () ->
+            ThumbnailGenerationService.writableFormats("processing.renditions.formats", List.of()));
+    }
+}
@@ -0,0 +1,122 @@
+package com.photoupload.service;
+
+import com.photoupload.common.exception.UploadThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UploadAdmissionService pending-job budgets and their reconciliation with the queue.
+ */
+@ExtendWith(MockitoExtension.class)
+class UploadAdmissionServiceTest {
+
+    @Mock
+    private ProcessingQueueService processingQueue;
+
+    private UploadAdmissionService admissionService;
+
+    @BeforeEach
+    void setUp() {
+        admissionService = new UploadAdmissionService(new SimpleMeterRegistry(), processingQueue);
+        ReflectionTestUtils.setField(admissionService, "enabled", true);
+        ReflectionTestUtils.setField(admissionService, "maxInFlightBytes", 1_000L);
+        ReflectionTestUtils.setField(admissionService, "maxInFlightBytesPerUser", 1_000L);
+        ReflectionTestUtils.setField(admissionService, "maxPendingJobs", 10);
+        ReflectionTestUtils.setField(admissionService, "maxPendingJobsPerUser", 2);
+        ReflectionTestUtils.setField(admissionService, "retryAfterSeconds", 5L);
+    }
+
+    @Test
+    void admit_QueueEnabled_UserBudgetReconciledFromQueue() {
+        // Arrange: the user's jobs were queued on other replicas
+        when(processingQueue.isEnabled()).thenReturn(true);
+        when(processingQueue.countOpenByUser()).thenReturn(Map.of("user-123", 2L, "user-456", 1L));
+
+        // Act
+        admissionService.reconcile();
+
+        // Assert
+        assertThrows(UploadThrottledException.class, () -> admissionService.admit("user-123", 10));
+        assertDoesNotThrow(() -> admissionService.admit("user-456", 10).close());
+    }
+
+    @Test
+    void admit_QueueEnabled_GlobalBudgetReconciledFromQueue() {
+        // Arrange
+        when(processingQueue.isEnabled()).thenReturn(true);
+        when(processingQueue.countOpenByUser()).thenReturn(Map.of("user-1", 5L, "user-2", 5L));
+
+        // Act
+        admissionService.reconcile();
+
+        // Assert
+        assertThrows(UploadThrottledException.class, () -> admissionService.admit("user-123", 10));
+    }
+
+    @Test
+    void admit_QueuesNothing_CountsJobsInMemory() {
+        // Arrange
+        admissionService.processingQueued("user-123");
+        admissionService.processingQueued("user-123");
+
+        // Act & Assert: admission runs no queries
+        assertThrows(UploadThrottledException.class, () -> admissionService.admit("user-123", 10));
+        verifyNoInteractions(processingQueue);
+    }
+
+    @Test
+    void reconcile_QueueEnabled_CorrectsOvercount() {
+        // Arrange: dispatches that inserted no queue row, e.g. an already queued photo
+        when(processingQueue.isEnabled()).thenReturn(true);
+        when(processingQueue.countOpenByUser()).thenReturn(Map.of());
+        for (int i = 0; i < 5; i++) {
+            admissionService.processingQueued("user-123");
+        }
+
+        // Act
+        admissionService.reconcile();
+
+        // Assert
+        assertDoesNotThrow(() -> admissionService.admit("user-123", 10).close());
+    }
+
+    @Test
+    void reconcile_QueueDisabled_KeepsInMemoryCounts() {
+        // Arrange
+        when(processingQueue.isEnabled()).thenReturn(false);
+        admissionService.processingQueued("user-123");
+        admissionService.processingQueued("user-123");
+
+        // Act
+        admissionService.reconcile();
+
+        // Assert
+        assertThrows(UploadThrottledException.class, () -> admissionService.admit("user-123", 10));
+        verify(processingQueue, never()).countOpenByUser();
+    }
+
+    @Test
+    void processingFinished_ReleasesUserBudget() {
+        // Arrange
+        admissionService.processingQueued("user-123");
+        admissionService.processingQueued("user-123");
+        assertThrows(UploadThrottledException.class, () -> admissionService.admit("user-123", 10));
+
+        // Act
+        admissionService.processingFinished("user-123");
+
+        // Assert
+        assertDoesNotThrow(() -> admissionService.admit("user-123", 10).close());
+        verifyNoInteractions(processingQueue);
+    }
+}
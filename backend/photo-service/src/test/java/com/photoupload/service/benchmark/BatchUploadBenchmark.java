@@ -0,0 +1,104 @@
+package com.photoupload.service.benchmark;
+
+import com.photoupload.common.dto.PhotoUploadRequest;
+import com.photoupload.service.BatchUploadService;
+import com.photoupload.service.FileUploadService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk import of a set of photos: one upload call per file (previous flow, as the frontend
+ * issues it) versus a single batch call, on the {@link BenchmarkApplication} context.
+ *
+ * Run with: mvn -pl photo-service test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.photoupload.service.benchmark.BatchUploadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BatchUploadBenchmark {
+
+    private static final int FILE_SIZE = 256 * 1024;
+
+    @Param({"20", "50"})
+    private int files;
+
+    @Param({"0", "20"})
+    private int storageLatencyMs;
+
+    private Path storageDirectory;
+    private ConfigurableApplicationContext context;
+    private FileUploadService fileUploadService;
+    private BatchUploadService batchUploadService;
+    private Random random;
+    private List<PhotoUploadRequest> requests;
+
+    @Setup(Level.Trial)
+    public void startContext() throws IOException {
+        storageDirectory = Files.createTempDirectory("batch-upload-benchmark");
+        context = BenchmarkApplication.run(storageDirectory, storageLatencyMs, List.of(),
+            "upload.batch.concurrency=8");
+        fileUploadService = context.getBean(FileUploadService.class);
+        batchUploadService = context.getBean(BatchUploadService.class);
+        random = new Random(42);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(storageDirectory);
+    }
+
+    /**
+     * Fresh content per invocation, since identical checksums would share one stored blob
+     */
+    @Setup(Level.Invocation)
+    public void createFiles() {
+        requests = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            byte[] content = new byte[FILE_SIZE];
+            random.nextBytes(content);
+            requests.add(PhotoUploadRequest.builder()
+                .file(new MockMultipartFile("files", "photo-" + i + ".jpg", "image/jpeg", content))
+                .userId("benchmark-user")
+                .build());
+        }
+    }
+
+    @Benchmark
+    public int perFileRequests() {
+        int uploaded = 0;
+        for (PhotoUploadRequest request : requests) {
+            fileUploadService.uploadFile(request);
+            uploaded++;
+        }
+        return uploaded;
+    }
+
+    @Benchmark
+    public int batchRequest() {
+        return batchUploadService.uploadBatch(requests).response().getSucceeded();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(BatchUploadBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
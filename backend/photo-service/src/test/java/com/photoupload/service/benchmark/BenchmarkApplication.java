@@ -0,0 +1,99 @@
+package com.photoupload.service.benchmark;
+
+import com.photoupload.service.BatchUploadService;
+import com.photoupload.service.BlobStoreService;
+import com.photoupload.service.DedupFilterService;
+import com.photoupload.service.FileUploadService;
+import com.photoupload.service.OutboxService;
+import com.photoupload.service.ProcessingQueueService;
+import com.photoupload.service.config.AsyncConfig;
+import com.photoupload.storage.factory.CloudStorageProviderFactory;
+import com.photoupload.storage.impl.LocalFileStorageProvider;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal Spring context for upload benchmarks: the real upload services and repositories
+ * on in-memory H2 with JDBC batching, local storage with a fixed per-object write latency
+ * standing in for a cloud provider round trip. Events are written to the outbox with each
+ * upload and not relayed; the durable processing queue is disabled, so nothing is processed.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {RedisAutoConfiguration.class, RedisRepositoriesAutoConfiguration.class})
+@EntityScan("com.photoupload.common.domain")
+@EnableJpaRepositories("com.photoupload.service.repository")
+@Import({FileUploadService.class, BatchUploadService.class, BlobStoreService.class, DedupFilterService.class,
+    OutboxService.class, ProcessingQueueService.class, AsyncConfig.class})
+class BenchmarkApplication {
+
+    static ConfigurableApplicationContext run(Path storageDirectory, long storageLatencyMs,
+                                              List<Class<?>> extraSources, String... properties) {
+        List<String> allProperties = new ArrayList<>(List.of(
+            "spring.main.banner-mode=off",
+            "logging.level.root=ERROR",
+            "spring.datasource.url=jdbc:h2:mem:upload-benchmark;DB_CLOSE_DELAY=-1",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+            "spring.jpa.properties.hibernate.order_inserts=true",
+            "spring.jpa.properties.hibernate.order_updates=true",
+            "spring.flyway.enabled=false",
+            "processing.queue.enabled=false",
+            "storage.provider=local",
+            "storage.local.base-path=" + storageDirectory,
+            "benchmark.storage-latency-ms=" + storageLatencyMs
+        ));
+        allProperties.addAll(List.of(properties));
+
+        List<Class<?>> sources = new ArrayList<>(extraSources);
+        sources.add(0, BenchmarkApplication.class);
+
+        return new SpringApplicationBuilder(sources.toArray(Class<?>[]::new))
+            .web(WebApplicationType.NONE)
+            .properties(allProperties.toArray(String[]::new))
+            .run();
+    }
+
+    @Bean
+    CloudStorageProviderFactory storageProviderFactory(
+        @Value("${storage.local.base-path}") String basePath,
+        @Value("${benchmark.storage-latency-ms}") long latencyMs
+    ) {
+        LocalFileStorageProvider provider = new LocalFileStorageProvider(basePath, "http://localhost", "benchmark") {
+            @Override
+            public String upload(String key, InputStream inputStream, String contentType, long fileSize) {
+                try {
+                    Thread.sleep(latencyMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.upload(key, inputStream, contentType, fileSize);
+            }
+        };
+        return new CloudStorageProviderFactory(
+            List.of(provider), CircuitBreakerRegistry.ofDefaults(), RetryRegistry.ofDefaults());
+    }
+
+    @Bean
+    MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
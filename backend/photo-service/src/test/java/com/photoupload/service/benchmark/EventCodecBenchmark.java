@@ -0,0 +1,117 @@
+package com.photoupload.service.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.photoupload.common.event.PhotoProcessingCompletedEvent;
+import com.photoupload.common.event.PhotoUploadedEvent;
+import com.photoupload.eventbus.codec.EventCodec;
+import com.photoupload.eventbus.codec.JsonEventCodec;
+import com.photoupload.eventbus.codec.SmileEventCodec;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nanoseconds to encode and decode one event with each codec: encoding the event object,
+ * encoding its stored JSON (what the outbox and fallback relays send), and decoding it.
+ * Bytes per event are printed before the run.
+ *
+ * Run with: mvn -pl photo-service test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.photoupload.service.benchmark.EventCodecBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventCodecBenchmark {
+
+    // EXIF metadata as MetadataExtractionService stores it on the photo
+    private static final String METADATA = "{\"Exif IFD0\":{\"Make\":\"Canon\",\"Model\":\"Canon EOS 5D Mark IV\","
+        + "\"Orientation\":\"Top, left side (Horizontal / normal)\",\"X Resolution\":\"72 dots per inch\","
+        + "\"Y Resolution\":\"72 dots per inch\",\"Date/Time\":\"2024:05:18 14:32:07\"},\"Exif SubIFD\":{"
+        + "\"Exposure Time\":\"1/250 sec\",\"F-Number\":\"f/5.6\",\"ISO Speed Ratings\":\"200\","
+        + "\"Focal Length\":\"85 mm\",\"Lens Model\":\"EF85mm f/1.4L IS USM\"},\"GPS\":{"
+        + "\"GPS Latitude\":\"47° 36' 22.42\\\"\",\"GPS Longitude\":\"-122° 19' 55.2\\\"\"}}";
+
+    @Param({"json", "smile"})
+    private String codecName;
+
+    @Param({"uploaded", "completed"})
+    private String eventName;
+
+    private EventCodec codec;
+    private Object event;
+    private String storedJson;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = objectMapper();
+        codec = codec(codecName, objectMapper);
+        event = event(eventName);
+        storedJson = objectMapper.writeValueAsString(event);
+        encoded = codec.encodeJson(storedJson);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return codec.encode(event);
+    }
+
+    @Benchmark
+    public byte[] encodeStored() throws IOException {
+        return codec.encodeJson(storedJson);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return codec.decode(encoded, event.getClass());
+    }
+
+    /**
+     * Configured like the application's ObjectMapper
+     */
+    private static ObjectMapper objectMapper() {
+        return JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    }
+
+    private static EventCodec codec(String name, ObjectMapper objectMapper) {
+        return SmileEventCodec.NAME.equals(name) ? new SmileEventCodec() : new JsonEventCodec(objectMapper);
+    }
+
+    private static Object event(String name) {
+        if ("completed".equals(name)) {
+            return PhotoProcessingCompletedEvent.of(1234567L, "user-8f14e45f", "thumbnails/user-8f14e45f/1234567_thumb.jpg",
+                6720, 4480, METADATA, "7c9e6679-7425-40de-944b-e07fc1f90ae7");
+        }
+        return PhotoUploadedEvent.of(1234567L, "user-8f14e45f", "photos/user-8f14e45f/1234567.jpg",
+            "IMG_20240518_143207.jpg", "image/jpeg", 8421376L, "7c9e6679-7425-40de-944b-e07fc1f90ae7");
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        ObjectMapper objectMapper = objectMapper();
+        for (String eventName : new String[] {"uploaded", "completed"}) {
+            String json = objectMapper.writeValueAsString(event(eventName));
+            for (String codecName : new String[] {"json", "smile"}) {
+                System.out.printf("%-9s %-5s %5d bytes%n", eventName, codecName,
+                    codec(codecName, objectMapper).encodeJson(json).length);
+            }
+        }
+
+        new Runner(new OptionsBuilder()
+            .include(EventCodecBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,126 @@
+package com.photoupload.service.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.photoupload.eventbus.codec.EventCodecs;
+import com.photoupload.eventbus.codec.JsonEventCodec;
+import com.photoupload.eventbus.fallback.FallbackEventStore;
+import com.photoupload.eventbus.impl.RabbitMQEventPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Events per second published to RabbitMQ in batches of the outbox relay's size: without
+ * confirms (fire and forget), waiting for each event's confirm, and with confirms pipelined
+ * (send the batch, then wait). The broker is a stand-in template that acks each correlated
+ * send after a fixed round trip, so the numbers show the cost of waiting, not of a real broker.
+ *
+ * Run with: mvn -pl photo-service test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.photoupload.service.benchmark.EventPublishBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventPublishBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String PAYLOAD = "{\"photoId\":42,\"userId\":\"user-1\",\"storageKey\":\"photos/user-1/42.jpg\"}";
+
+    @Param({"200", "1000"})
+    private long confirmLatencyMicros;
+
+    private ScheduledExecutorService broker;
+    private RabbitMQEventPublisher unconfirmed;
+    private RabbitMQEventPublisher confirmed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        broker = new ScheduledThreadPoolExecutor(1);
+        RabbitTemplate template = new StandInTemplate(broker, confirmLatencyMicros);
+        unconfirmed = publisher(template, false);
+        confirmed = publisher(template, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        unconfirmed.shutdown();
+        confirmed.shutdown();
+        broker.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void withoutConfirms() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            unconfirmed.publishSerialized("PhotoUploadedEvent", "PhotoUploadedEvent", PAYLOAD, null);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void confirmEach() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            confirmed.publishSerialized("PhotoUploadedEvent", "PhotoUploadedEvent", PAYLOAD, null);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void confirmPipelined() {
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            sends[i] = confirmed.publishSerializedAsync("PhotoUploadedEvent", "PhotoUploadedEvent", PAYLOAD, null);
+        }
+        CompletableFuture.allOf(sends).join();
+    }
+
+    private static RabbitMQEventPublisher publisher(RabbitTemplate template, boolean confirms) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        EventCodecs codecs = new EventCodecs(List.of(new JsonEventCodec(objectMapper)), JsonEventCodec.NAME);
+        return new RabbitMQEventPublisher(template, objectMapper, codecs, Mockito.mock(FallbackEventStore.class),
+            new SimpleMeterRegistry(), confirms, 1024, 3, 200, 10000);
+    }
+
+    /**
+     * Accepts every send; a correlated send is acked after the configured round trip
+     */
+    private static final class StandInTemplate extends RabbitTemplate {
+
+        private final ScheduledExecutorService broker;
+        private final long confirmLatencyMicros;
+
+        private StandInTemplate(ScheduledExecutorService broker, long confirmLatencyMicros) {
+            this.broker = broker;
+            this.confirmLatencyMicros = confirmLatencyMicros;
+        }
+
+        @Override
+        public void send(String exchange, String routingKey, Message message, CorrelationData correlationData) {
+            if (correlationData != null) {
+                broker.schedule(() -> correlationData.getFuture().complete(new CorrelationData.Confirm(true, null)),
+                    confirmLatencyMicros, TimeUnit.MICROSECONDS);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(EventPublishBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
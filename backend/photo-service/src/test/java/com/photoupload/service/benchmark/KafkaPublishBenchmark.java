@@ -0,0 +1,106 @@
+package com.photoupload.service.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.photoupload.eventbus.codec.EventCodecs;
+import com.photoupload.eventbus.codec.JsonEventCodec;
+import com.photoupload.eventbus.fallback.FallbackEventStore;
+import com.photoupload.eventbus.impl.KafkaEventPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Events per second published to Kafka in batches of the outbox relay's size: waiting for
+ * each send's acknowledgement versus sending the batch and then waiting for all of it.
+ * The broker is an in-process MockProducer whose pending records are acknowledged together
+ * once per linger interval, the way the real producer sends a batch per linger.ms.
+ *
+ * Run with: mvn -pl photo-service test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.photoupload.service.benchmark.KafkaPublishBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KafkaPublishBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String PAYLOAD = "{\"photoId\":42,\"userId\":\"user-1\",\"storageKey\":\"photos/user-1/42.jpg\"}";
+
+    @Param({"1", "10"})
+    private long lingerMs;
+
+    private ScheduledExecutorService broker;
+    private KafkaEventPublisher publisher;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // KafkaTemplate closes the producer after each send; the real factory's producer ignores that
+        MockProducer<String, byte[]> producer = new MockProducer<>(false, new StringSerializer(), new ByteArraySerializer()) {
+            @Override
+            public void close(Duration timeout) {
+            }
+        };
+        ProducerFactory<String, byte[]> producerFactory = () -> producer;
+
+        broker = new ScheduledThreadPoolExecutor(1);
+        broker.scheduleAtFixedRate(() -> {
+            while (producer.completeNext()) {
+                // Acknowledge everything sent during this linger interval
+            }
+        }, lingerMs, lingerMs, TimeUnit.MILLISECONDS);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        EventCodecs codecs = new EventCodecs(List.of(new JsonEventCodec(objectMapper)), JsonEventCodec.NAME);
+        publisher = new KafkaEventPublisher(new KafkaTemplate<>(producerFactory), objectMapper, codecs,
+            Mockito.mock(FallbackEventStore.class), new SimpleMeterRegistry(), 10000, 3, 1000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        publisher.shutdown();
+        broker.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void awaitEach() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            publisher.publishSerialized("photo-events-PhotoUploadedEvent", "PhotoUploadedEvent", PAYLOAD, null);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void nonBlocking() {
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            sends[i] = publisher.publishSerializedAsync(
+                "photo-events-PhotoUploadedEvent", "PhotoUploadedEvent", PAYLOAD, null);
+        }
+        CompletableFuture.allOf(sends).join();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(KafkaPublishBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,126 @@
+package com.photoupload.service.benchmark;
+
+import com.photoupload.service.ThumbnailGenerationService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and heap per thumbnail at typical camera resolutions: full decode with
+ * {@code ImageIO.read} before resizing (previous flow) versus the subsampled decode in
+ * {@link ThumbnailGenerationService#decode}.
+ *
+ * Peak heap is reported as the {@code peakHeapMb} counter: the sum of heap pool peaks
+ * during the iteration above the post-GC baseline, so an upper bound. The GC profiler adds
+ * {@code gc.alloc.rate.norm}, the bytes allocated per thumbnail.
+ *
+ * Run with: mvn -pl photo-service test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.photoupload.service.benchmark.ThumbnailDecodeBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ThumbnailDecodeBenchmark {
+
+    private static final int THUMBNAIL_WIDTH = 300;
+
+    /**
+     * 12 MP, 24 MP and 48 MP sensors at 4:3 / 3:2
+     */
+    @Param({"4000x3000", "6000x4000", "8000x6000"})
+    private String resolution;
+
+    private byte[] jpeg;
+
+    @Setup(Level.Trial)
+    public void createImage() throws IOException {
+        String[] dimensions = resolution.split("x");
+        int width = Integer.parseInt(dimensions[0]);
+        int height = Integer.parseInt(dimensions[1]);
+
+        // Gradient with noise, so the JPEG compresses roughly like a photo rather than a flat fill
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r = (x * 255 / width + random.nextInt(32)) & 0xFF;
+                int g = (y * 255 / height + random.nextInt(32)) & 0xFF;
+                int b = ((x + y) * 255 / (width + height) + random.nextInt(32)) & 0xFF;
+                image.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        jpeg = out.toByteArray();
+    }
+
+    @Benchmark
+    public BufferedImage fullDecode(PeakHeap peakHeap) throws IOException {
+        BufferedImage original = ImageIO.read(new ByteArrayInputStream(jpeg));
+        BufferedImage thumbnail = ThumbnailGenerationService.resize(original, THUMBNAIL_WIDTH);
+        peakHeap.sample();
+        return thumbnail;
+    }
+
+    @Benchmark
+    public BufferedImage subsampledDecode(PeakHeap peakHeap) throws IOException {
+        ThumbnailGenerationService.DecodedImage decoded =
+            ThumbnailGenerationService.decode(new ByteArrayInputStream(jpeg), THUMBNAIL_WIDTH);
+        BufferedImage thumbnail = ThumbnailGenerationService.resize(decoded.image(), THUMBNAIL_WIDTH);
+        peakHeap.sample();
+        return thumbnail;
+    }
+
+    /**
+     * Peak heap above the post-GC baseline, tracked per iteration
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PeakHeap {
+
+        private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+        private long baselineBytes;
+
+        public long peakHeapMb;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            System.gc();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+            baselineBytes = heapPools.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+            peakHeapMb = 0;
+        }
+
+        void sample() {
+            long peakBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+            peakHeapMb = Math.max(peakHeapMb, (peakBytes - baselineBytes) / (1024 * 1024));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ThumbnailDecodeBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
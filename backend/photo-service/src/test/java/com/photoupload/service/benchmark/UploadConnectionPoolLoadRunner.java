@@ -0,0 +1,160 @@
+package com.photoupload.service.benchmark;
+
+import com.photoupload.common.dto.PhotoUploadRequest;
+import com.photoupload.service.FileUploadService;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test for connection pool pressure during uploads. Many concurrent clients upload
+ * through a small Hikari pool while storage writes are slow; the time spent waiting in
+ * getConnection is recorded for the upload wrapped in one transaction (previous flow,
+ * where PhotoService.uploadPhoto was transactional) and for the short-transaction saga.
+ *
+ * Run with: mvn -pl photo-service test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.photoupload.service.benchmark.UploadConnectionPoolLoadRunner
+ */
+public final class UploadConnectionPoolLoadRunner {
+
+    private static final int CLIENTS = 32;
+    private static final int UPLOADS_PER_CLIENT = 10;
+    private static final int POOL_SIZE = 5;
+    private static final long STORAGE_LATENCY_MS = 100;
+    private static final int FILE_SIZE = 64 * 1024;
+
+    private UploadConnectionPoolLoadRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%d clients x %d uploads, pool size %d, storage latency %d ms%n",
+            CLIENTS, UPLOADS_PER_CLIENT, POOL_SIZE, STORAGE_LATENCY_MS);
+        System.out.printf("%-24s %10s %14s %14s %14s%n",
+            "mode", "uploads/s", "wait mean ms", "wait p99 ms", "wait max ms");
+
+        run("transaction-per-upload", true);
+        run("short-transactions", false);
+    }
+
+    private static void run(String mode, boolean wrapInTransaction) throws Exception {
+        Path storageDirectory = Files.createTempDirectory("pool-load-test");
+        try (ConfigurableApplicationContext context = BenchmarkApplication.run(
+            storageDirectory, STORAGE_LATENCY_MS, List.of(ConnectionWaitRecorder.class),
+            "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+            "spring.datasource.hikari.connection-timeout=120000"
+        )) {
+            FileUploadService uploadService = context.getBean(FileUploadService.class);
+            TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+            ConnectionWaitRecorder recorder = context.getBean(ConnectionWaitRecorder.class);
+
+            Runnable upload = () -> {
+                PhotoUploadRequest request = randomRequest();
+                if (wrapInTransaction) {
+                    transactionTemplate.executeWithoutResult(status -> uploadService.uploadFile(request));
+                } else {
+                    uploadService.uploadFile(request);
+                }
+            };
+
+            // Warm up connections, JIT and Hibernate before measuring
+            for (int i = 0; i < POOL_SIZE; i++) {
+                upload.run();
+            }
+            recorder.reset();
+
+            ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                futures.add(clients.submit(() -> {
+                    for (int j = 0; j < UPLOADS_PER_CLIENT; j++) {
+                        upload.run();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            clients.shutdown();
+
+            double uploadsPerSecond = CLIENTS * UPLOADS_PER_CLIENT / (elapsed / 1e9);
+            long[] waits = recorder.sortedWaits();
+            System.out.printf("%-24s %10.1f %14.2f %14.2f %14.2f%n",
+                mode,
+                uploadsPerSecond,
+                mean(waits) / 1e6,
+                waits[(int) Math.min(waits.length - 1, Math.ceil(waits.length * 0.99) - 1)] / 1e6,
+                waits[waits.length - 1] / 1e6);
+        } finally {
+            FileSystemUtils.deleteRecursively(storageDirectory);
+        }
+    }
+
+    private static PhotoUploadRequest randomRequest() {
+        byte[] content = new byte[FILE_SIZE];
+        ThreadLocalRandom.current().nextBytes(content);
+        return PhotoUploadRequest.builder()
+            .file(new MockMultipartFile("file", "photo.jpg", "image/jpeg", content))
+            .userId("load-test-user")
+            .build();
+    }
+
+    private static double mean(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return values.length == 0 ? 0 : (double) sum / values.length;
+    }
+
+    /**
+     * Wraps the DataSource to time getConnection, i.e. the wait for a free pooled connection
+     */
+    static class ConnectionWaitRecorder implements BeanPostProcessor {
+
+        private final Queue<Long> waits = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    long start = System.nanoTime();
+                    Connection connection = super.getConnection();
+                    waits.add(System.nanoTime() - start);
+                    return connection;
+                }
+            };
+        }
+
+        void reset() {
+            waits.clear();
+        }
+
+        long[] sortedWaits() {
+            return waits.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+    }
+}
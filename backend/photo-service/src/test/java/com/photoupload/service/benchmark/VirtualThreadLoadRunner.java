@@ -0,0 +1,114 @@
+package com.photoupload.service.benchmark;
+
+import com.photoupload.common.dto.PhotoUploadRequest;
+import com.photoupload.service.FileUploadService;
+import com.photoupload.service.config.VirtualThreadConfig;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load test comparing the two execution modes for upload requests. A burst of concurrent
+ * uploads with slow storage writes is served either by a fixed pool of platform threads,
+ * the size of Tomcat's default request pool, or by one virtual thread per request with
+ * JDBC access limited to the connection pool size. Latency is measured from submission,
+ * so it includes the time a request waits for a platform thread.
+ *
+ * Run with: mvn -pl photo-service test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.photoupload.service.benchmark.VirtualThreadLoadRunner
+ */
+public final class VirtualThreadLoadRunner {
+
+    private static final int REQUESTS = 2000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final int POOL_SIZE = 10;
+    private static final long STORAGE_LATENCY_MS = 250;
+    private static final int FILE_SIZE = 16 * 1024;
+
+    private VirtualThreadLoadRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%d concurrent uploads, %d platform threads, pool size %d, storage latency %d ms%n",
+            REQUESTS, PLATFORM_THREADS, POOL_SIZE, STORAGE_LATENCY_MS);
+        System.out.printf("%-16s %10s %12s %12s %12s%n",
+            "mode", "uploads/s", "p50 ms", "p99 ms", "max ms");
+
+        run("platform", false);
+        run("virtual", true);
+    }
+
+    private static void run(String mode, boolean virtualThreads) throws Exception {
+        Path storageDirectory = Files.createTempDirectory("virtual-thread-load-test");
+        try (ConfigurableApplicationContext context = BenchmarkApplication.run(
+            storageDirectory, STORAGE_LATENCY_MS, List.of(VirtualThreadConfig.class),
+            "spring.threads.virtual.enabled=" + virtualThreads,
+            "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+            "spring.datasource.hikari.connection-timeout=120000"
+        )) {
+            FileUploadService uploadService = context.getBean(FileUploadService.class);
+
+            // Warm up connections, JIT and Hibernate before measuring
+            for (int i = 0; i < POOL_SIZE; i++) {
+                uploadService.uploadFile(randomRequest());
+            }
+
+            List<PhotoUploadRequest> requests = new ArrayList<>(REQUESTS);
+            for (int i = 0; i < REQUESTS; i++) {
+                requests.add(randomRequest());
+            }
+
+            ExecutorService requestThreads = virtualThreads
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+            long start = System.nanoTime();
+            List<Future<Long>> futures = new ArrayList<>(REQUESTS);
+            for (PhotoUploadRequest request : requests) {
+                long submitted = System.nanoTime();
+                futures.add(requestThreads.submit(() -> {
+                    uploadService.uploadFile(request);
+                    return System.nanoTime() - submitted;
+                }));
+            }
+            long[] latencies = new long[REQUESTS];
+            for (int i = 0; i < REQUESTS; i++) {
+                latencies[i] = futures.get(i).get();
+            }
+            long elapsed = System.nanoTime() - start;
+            requestThreads.shutdown();
+
+            Arrays.sort(latencies);
+            System.out.printf("%-16s %10.1f %12.2f %12.2f %12.2f%n",
+                mode,
+                REQUESTS / (elapsed / 1e9),
+                percentile(latencies, 0.50) / 1e6,
+                percentile(latencies, 0.99) / 1e6,
+                latencies[latencies.length - 1] / 1e6);
+        } finally {
+            FileSystemUtils.deleteRecursively(storageDirectory);
+        }
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(sorted.length * percentile) - 1)];
+    }
+
+    private static PhotoUploadRequest randomRequest() {
+        byte[] content = new byte[FILE_SIZE];
+        ThreadLocalRandom.current().nextBytes(content);
+        return PhotoUploadRequest.builder()
+            .file(new MockMultipartFile("file", "photo.jpg", "image/jpeg", content))
+            .userId("load-test-user")
+            .build();
+    }
+}
@@ -0,0 +1,251 @@
+package com.photoupload.service.pipeline;
+
+import com.photoupload.common.domain.Photo;
+import com.photoupload.common.exception.PhotoProcessingException;
+import com.photoupload.service.repository.PhotoEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProcessingPipeline ordering and failure handling.
+ * Stages run on the calling thread, or on the hand-off thread once a stage streams.
+ */
+@ExtendWith(MockitoExtension.class)
+class ProcessingPipelineTest {
+
+    @Mock
+    private PhotoEventRepository photoEventRepository;
+
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+
+    @Test
+    void topologicalOrder_DependenciesFirst() {
+        // Arrange
+        List<ProcessingStage<?>> stages = List.of(
+            stage("renditions", Set.of("validate")),
+            stage("validate", Set.of("fetch")),
+            stage("fetch", Set.of()));
+
+        // Act
+        List<String> order = ProcessingPipeline.topologicalOrder(stages).stream()
+            .map(ProcessingStage::name)
+            .toList();
+
+        // Assert
+        assertEquals(List.of("fetch", "validate", "renditions"), order);
+    }
+
+    @Test
+    void topologicalOrder_Cycle_Rejected() {
+        // Arrange
+        List<ProcessingStage<?>> stages = List.of(
+            stage("fetch", Set.of()),
+            stage("a", Set.of("fetch", "b")),
+            stage("b", Set.of("a")));
+
+        // Act & Assert
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> ProcessingPipeline.topologicalOrder(stages));
+        assertTrue(e.getMessage().endsWith("cycle: [a, b]"), e.getMessage());
+    }
+
+    @Test
+    void topologicalOrder_UnknownDependency_Rejected() {
+        List<ProcessingStage<?>> stages = List.of(stage("validate", Set.of("fetch")));
+
+        assertThrows(IllegalStateException.class, () -> ProcessingPipeline.topologicalOrder(stages));
+    }
+
+    @Test
+    void topologicalOrder_DuplicateName_Rejected() {
+        List<ProcessingStage<?>> stages = List.of(stage("fetch", Set.of()), stage("fetch", Set.of()));
+
+        assertThrows(IllegalStateException.class, () -> ProcessingPipeline.topologicalOrder(stages));
+    }
+
+    @Test
+    void topologicalOrder_StreamsFromNonDependency_Rejected() {
+        List<ProcessingStage<?>> stages = List.of(
+            stage("fetch", Set.of()),
+            streaming("validate", Set.of(), null));
+
+        assertThrows(IllegalStateException.class, () -> ProcessingPipeline.topologicalOrder(stages));
+    }
+
+    @Test
+    void run_StreamingStage_StartsOnHandOff() throws Exception {
+        // Arrange: fetch hands its artefact off and keeps running until released
+        CompletableFuture<String> fetched = new CompletableFuture<>();
+        CompletableFuture<Object> seen = new CompletableFuture<>();
+        ProcessingPipeline pipeline = pipeline(List.of(
+            new TestStage("fetch", Set.of(), true, null) {
+                @Override
+                public CompletableFuture<String> execute(PipelineContext context) {
+                    context.handOff("fetch", "fetch-partial");
+                    return fetched;
+                }
+            },
+            streaming("validate", Set.of("fetch"), seen)));
+        PipelineContext context = context();
+
+        // Act
+        CompletableFuture<PipelineContext> run = pipeline.run(context);
+
+        // Assert: validate read the handed-off artefact before fetch completed
+        assertEquals("fetch-partial", seen.get(5, TimeUnit.SECONDS));
+        assertFalse(run.isDone());
+
+        fetched.complete("fetch-artefact");
+        run.get(5, TimeUnit.SECONDS);
+        assertEquals("fetch-artefact", context.artefact("fetch"));
+    }
+
+    @Test
+    void run_StreamedStageSkipped_DependentSkippedWithoutWaiting() {
+        // Arrange: fetch never runs, so never hands off
+        ProcessingPipeline pipeline = pipeline(List.of(
+            failing("download", Set.of(), true),
+            stage("fetch", Set.of("download")),
+            streaming("validate", Set.of("fetch"), null)));
+
+        // Act
+        CompletableFuture<PipelineContext> run = pipeline.run(context());
+
+        // Assert
+        assertTrue(run.isCompletedExceptionally());
+        assertFalse(executed.contains("validate"));
+    }
+
+    @Test
+    void run_CriticalStageFails_DependentsSkipped() {
+        // Arrange
+        ProcessingPipeline pipeline = pipeline(List.of(
+            failing("validate", Set.of(), true),
+            stage("renditions", Set.of("validate")),
+            stage("metadata", Set.of())));
+
+        // Act
+        CompletableFuture<PipelineContext> run = pipeline.run(context());
+
+        // Assert: the run fails with the stage's error; independent stages still ran
+        CompletionException e = assertThrows(CompletionException.class, run::join);
+        assertInstanceOf(PhotoProcessingException.class, e.getCause());
+        assertTrue(executed.contains("metadata"));
+        assertFalse(executed.contains("renditions"));
+    }
+
+    @Test
+    void run_NonCriticalStageFails_DependentsRunWithoutArtefact() {
+        // Arrange
+        ProcessingPipeline pipeline = pipeline(List.of(
+            failing("metadata", Set.of(), false),
+            stage("summary", Set.of("metadata"))));
+
+        // Act
+        PipelineContext context = pipeline.run(context()).join();
+
+        // Assert
+        assertTrue(executed.contains("summary"));
+        assertNull(context.artefact("metadata"));
+        assertEquals("summary-artefact", context.artefact("summary"));
+    }
+
+    private ProcessingPipeline pipeline(List<ProcessingStage<?>> stages) {
+        return new ProcessingPipeline(stages, photoEventRepository, new SimpleMeterRegistry(),
+            new MockEnvironment(), Runnable::run, Runnable::run);
+    }
+
+    private static PipelineContext context() {
+        return new PipelineContext(Photo.builder().id(1L).build(), "correlation-1");
+    }
+
+    private ProcessingStage<?> stage(String name, Set<String> dependsOn) {
+        return new TestStage(name, dependsOn, true, null);
+    }
+
+    private ProcessingStage<?> failing(String name, Set<String> dependsOn, boolean critical) {
+        return new TestStage(name, dependsOn, critical, new IllegalStateException(name + " broke"));
+    }
+
+    /**
+     * Stage streaming from all its dependencies, reporting the artefact of the first one it sees
+     */
+    private ProcessingStage<?> streaming(String name, Set<String> dependsOn, CompletableFuture<Object> seen) {
+        return new TestStage(name, dependsOn, true, null) {
+            @Override
+            public Set<String> streamsFrom() {
+                return dependsOn;
+            }
+
+            @Override
+            public CompletableFuture<String> execute(PipelineContext context) {
+                if (seen != null) {
+                    seen.complete(context.artefact(dependsOn.iterator().next()));
+                }
+                return super.execute(context);
+            }
+        };
+    }
+
+    private class TestStage implements ProcessingStage<String> {
+
+        private final String name;
+        private final Set<String> dependsOn;
+        private final boolean critical;
+        private final RuntimeException failure;
+
+        private TestStage(String name, Set<String> dependsOn, boolean critical, RuntimeException failure) {
+            this.name = name;
+            this.dependsOn = dependsOn;
+            this.critical = critical;
+            this.failure = failure;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public Set<String> dependsOn() {
+            return dependsOn;
+        }
+
+        @Override
+        public ResourceClass resourceClass() {
+            return ResourceClass.CPU;
+        }
+
+        @Override
+        public int maxConcurrency() {
+            return 1;
+        }
+
+        @Override
+        public boolean critical() {
+            return critical;
+        }
+
+        @Override
+        public CompletableFuture<String> execute(PipelineContext context) {
+            executed.add(name);
+            if (failure != null) {
+                throw failure;
+            }
+            return CompletableFuture.completedFuture(name + "-artefact");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.photoupload.service.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StageThrottle.
+ * Work runs on the calling thread, so slots are released as soon as a run's future completes.
+ */
+class StageThrottleTest {
+
+    @Test
+    void submit_OverLimit_QueuedUntilSlotFrees() {
+        // Arrange
+        StageThrottle throttle = new StageThrottle(2, Runnable::run);
+        List<CompletableFuture<Integer>> runs = new ArrayList<>();
+        List<Integer> started = new ArrayList<>();
+
+        // Act
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int id = i;
+            results.add(throttle.submit(() -> {
+                started.add(id);
+                CompletableFuture<Integer> run = new CompletableFuture<>();
+                runs.add(run);
+                return run;
+            }));
+        }
+
+        // Assert: the third waits without a thread until the first completes
+        assertEquals(List.of(0, 1), started);
+        assertEquals(2, throttle.running());
+        assertEquals(1, throttle.queued());
+
+        runs.get(0).complete(0);
+        assertEquals(List.of(0, 1, 2), started);
+        assertEquals(2, throttle.running());
+        assertEquals(0, throttle.queued());
+        assertEquals(0, results.get(0).join());
+
+        runs.get(1).complete(1);
+        runs.get(2).completeExceptionally(new IllegalStateException("failed"));
+        assertEquals(0, throttle.running());
+        assertEquals(1, results.get(1).join());
+        assertTrue(results.get(2).isCompletedExceptionally());
+    }
+
+    @Test
+    void submit_WorkThrows_SlotReleased() {
+        // Arrange
+        StageThrottle throttle = new StageThrottle(1, Runnable::run);
+
+        // Act
+        CompletableFuture<Integer> result = throttle.submit(() -> {
+            throw new IllegalStateException("failed");
+        });
+
+        // Assert
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(0, throttle.running());
+        assertEquals(1, throttle.submit(() -> CompletableFuture.completedFuture(1)).join());
+    }
+
+    @Test
+    void submit_ExecutorRejects_FailsAndReleasesSlot() {
+        // Arrange
+        StageThrottle throttle = new StageThrottle(1, task -> {
+            throw new RejectedExecutionException("pool saturated");
+        });
+
+        // Act
+        CompletableFuture<Integer> result = throttle.submit(() -> CompletableFuture.completedFuture(1));
+
+        // Assert
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(0, throttle.running());
+        assertEquals(0, throttle.queued());
+    }
+}
@@ -0,0 +1,78 @@
+package com.photoupload.service.repository;
+
+import com.photoupload.common.domain.Photo;
+import com.photoupload.common.domain.PhotoStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Retry claim query of PhotoRepository against in-memory H2.
+ */
+@DataJpaTest
+class PhotoRepositoryTest {
+
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = Photo.class)
+    @EnableJpaRepositories(basePackageClasses = PhotoRepository.class)
+    static class Config {
+    }
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void claimRetry_DueRetry_ClaimedOnlyOnce() {
+        // Arrange: two nodes fire the same persisted retry
+        Long photoId = persistPhoto(PhotoStatus.RETRYING, Instant.now());
+
+        // Act
+        int first = photoRepository.claimRetry(photoId, PhotoStatus.RETRYING);
+        int second = photoRepository.claimRetry(photoId, PhotoStatus.RETRYING);
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(0, second);
+        entityManager.clear();
+        assertNull(entityManager.find(Photo.class, photoId).getNextRetryAt());
+    }
+
+    @Test
+    void claimRetry_PhotoNoLongerRetrying_NotClaimed() {
+        // Arrange: a manual retry moved the photo on before the timer fired
+        Long photoId = persistPhoto(PhotoStatus.PENDING, Instant.now());
+
+        // Act & Assert
+        assertEquals(0, photoRepository.claimRetry(photoId, PhotoStatus.RETRYING));
+    }
+
+    @Test
+    void claimRetry_MissingPhoto_NotClaimed() {
+        assertEquals(0, photoRepository.claimRetry(-1L, PhotoStatus.RETRYING));
+    }
+
+    private Long persistPhoto(PhotoStatus status, Instant nextRetryAt) {
+        Photo photo = entityManager.persistAndFlush(Photo.builder()
+            .userId("user-123")
+            .originalFileName("a.jpg")
+            .contentType("image/jpeg")
+            .fileSize(1024L)
+            .status(status)
+            .retryCount(1)
+            .nextRetryAt(nextRetryAt)
+            .build());
+        entityManager.clear();
+        return photo.getId();
+    }
+}
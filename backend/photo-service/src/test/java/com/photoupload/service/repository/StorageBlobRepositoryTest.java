@@ -0,0 +1,107 @@
+package com.photoupload.service.repository;
+
+import com.photoupload.common.domain.StorageBlob;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reference-count queries of StorageBlobRepository against in-memory H2.
+ */
+@DataJpaTest
+class StorageBlobRepositoryTest {
+
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = StorageBlob.class)
+    @EnableJpaRepositories(basePackageClasses = StorageBlobRepository.class)
+    static class Config {
+    }
+
+    @Autowired
+    private StorageBlobRepository blobRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void incrementRefCount_LiveBlob_AddsReferences() {
+        // Arrange
+        persistBlob("abc", 1);
+
+        // Act
+        int updated = blobRepository.incrementRefCount("abc", 2);
+
+        // Assert
+        assertEquals(1, updated);
+        assertEquals(3, refCount("abc"));
+    }
+
+    @Test
+    void incrementRefCount_ReleasedBlob_NotUpdated() {
+        // Arrange: the last reference was dropped but the row is not deleted yet
+        persistBlob("abc", 0);
+
+        // Act & Assert
+        assertEquals(0, blobRepository.incrementRefCount("abc", 1));
+        assertEquals(0, refCount("abc"));
+    }
+
+    @Test
+    void decrementRefCount_MissingBlob_NotUpdated() {
+        assertEquals(0, blobRepository.decrementRefCount("missing"));
+    }
+
+    @Test
+    void decrementRefCount_LastReference_RowDeletedOnce() {
+        // Arrange
+        persistBlob("abc", 1);
+
+        // Act
+        int decremented = blobRepository.decrementRefCount("abc");
+        int firstDelete = blobRepository.deleteIfUnreferenced("abc");
+        int secondDelete = blobRepository.deleteIfUnreferenced("abc");
+
+        // Assert: only one caller is told to delete the object
+        assertEquals(1, decremented);
+        assertEquals(1, firstDelete);
+        assertEquals(0, secondDelete);
+        entityManager.clear();
+        assertNull(entityManager.find(StorageBlob.class, "abc"));
+    }
+
+    @Test
+    void deleteIfUnreferenced_StillReferenced_RowKept() {
+        // Arrange
+        persistBlob("abc", 2);
+
+        // Act
+        blobRepository.decrementRefCount("abc");
+        int deleted = blobRepository.deleteIfUnreferenced("abc");
+
+        // Assert
+        assertEquals(0, deleted);
+        assertEquals(1, refCount("abc"));
+    }
+
+    private void persistBlob(String checksum, int refCount) {
+        entityManager.persistAndFlush(StorageBlob.builder()
+            .checksum(checksum)
+            .storageKey("photos/user-123/1/" + checksum + ".jpg")
+            .contentType("image/jpeg")
+            .fileSize(1024L)
+            .refCount(refCount)
+            .build());
+        entityManager.clear();
+    }
+
+    private int refCount(String checksum) {
+        entityManager.clear();
+        return entityManager.find(StorageBlob.class, checksum).getRefCount();
+    }
+}
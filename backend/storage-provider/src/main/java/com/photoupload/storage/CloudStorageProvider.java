@@ -2,6 +2,7 @@ package com.photoupload.storage;
 
 import java.io.InputStream;
 import java.time.Duration;
+import java.util.List;
 
 /**
  * Interface Segregation Principle: Focused interface for cloud storage operations.
@@ -29,6 +30,17 @@ public interface CloudStorageProvider {
      */
     InputStream download(String key);
 
+    /**
+     * Download part of a file. Reading past the end of the object is not an error; the
+     * returned stream then holds fewer bytes than requested, or none.
+     *
+     * @param key    Storage key
+     * @param offset First byte to read
+     * @param length Maximum number of bytes to read
+     * @return Content of the range as InputStream
+     */
+    InputStream downloadRange(String key, long offset, long length);
+
     /**
      * Delete file from cloud storage
      *
@@ -54,6 +66,27 @@ public interface CloudStorageProvider {
      */
     String generatePresignedUrl(String key, Duration duration);
 
+    /**
+     * Generate a pre-signed PUT request for uploading directly to storage.
+     * Providers that can sign the content length enforce it exactly; the others
+     * rely on the caller verifying the object via {@link #getMetadata(String)} afterwards.
+     *
+     * @param key         Storage key
+     * @param contentType MIME type the client must send
+     * @param fileSize    Declared size in bytes
+     * @param duration    Validity duration
+     * @return Pre-signed upload request
+     */
+    PresignedUpload generatePresignedUpload(String key, String contentType, long fileSize, Duration duration);
+
+    /**
+     * Get the public URL of an object, as returned by {@link #upload}
+     *
+     * @param key Storage key
+     * @return Public URL
+     */
+    String getObjectUrl(String key);
+
     /**
      * Get metadata about stored file
      *
@@ -62,6 +95,46 @@ public interface CloudStorageProvider {
      */
     StorageMetadata getMetadata(String key);
 
+    /**
+     * Start a multipart upload. Parts can then be written independently and in parallel.
+     *
+     * @param key         Storage key of the final object
+     * @param contentType MIME type of the final object
+     * @return Provider upload ID identifying the multipart upload
+     */
+    String initiateMultipartUpload(String key, String contentType);
+
+    /**
+     * Upload a single part of a multipart upload. Re-uploading a part number replaces it.
+     *
+     * @param key         Storage key of the final object
+     * @param uploadId    Provider upload ID
+     * @param partNumber  1-based part number; parts are assembled in this order
+     * @param inputStream Part content stream
+     * @param partSize    Size of the part in bytes
+     * @return The uploaded part
+     */
+    UploadedPart uploadPart(String key, String uploadId, int partNumber, InputStream inputStream, long partSize);
+
+    /**
+     * Assemble uploaded parts into the final object
+     *
+     * @param key         Storage key of the final object
+     * @param uploadId    Provider upload ID
+     * @param contentType MIME type of the final object
+     * @param parts       All parts, ordered by part number
+     * @return Public URL of the assembled file
+     */
+    String completeMultipartUpload(String key, String uploadId, String contentType, List<UploadedPart> parts);
+
+    /**
+     * Abort a multipart upload and discard any parts written so far
+     *
+     * @param key      Storage key of the final object
+     * @param uploadId Provider upload ID
+     */
+    void abortMultipartUpload(String key, String uploadId);
+
     /**
      * Get provider name
      *
@@ -0,0 +1,25 @@
+package com.photoupload.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Pre-signed request a client uses to upload an object directly to storage.
+ * The client must send the listed headers verbatim; they are part of the signature.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresignedUpload {
+
+    private String url;
+    private String method;
+    private Map<String, String> headers;
+    private Instant expiresAt;
+}
@@ -0,0 +1,114 @@
+package com.photoupload.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * InputStream over a stored object that fetches it in byte ranges, only as far as it is read.
+ * The first range is small; each further range doubles up to a maximum, so a reader that
+ * stops early (e.g. a metadata parser done with the file header) costs one small request,
+ * while one that keeps going needs only a few round trips. Skipped bytes are not fetched.
+ */
+public class RangedObjectInputStream extends InputStream {
+
+    private final CloudStorageProvider storage;
+    private final String key;
+    private final int maxRangeBytes;
+
+    private int nextRangeBytes;
+    private byte[] buffer = new byte[0];
+    private int bufferPosition;
+    private long position;
+    private boolean endOfObject;
+    private long bytesTransferred;
+    private int rangeRequests;
+
+    public RangedObjectInputStream(CloudStorageProvider storage, String key, int initialRangeBytes, int maxRangeBytes) {
+        this.storage = storage;
+        this.key = key;
+        this.nextRangeBytes = initialRangeBytes;
+        this.maxRangeBytes = Math.max(initialRangeBytes, maxRangeBytes);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        position++;
+        return buffer[bufferPosition++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(len, buffer.length - bufferPosition);
+        System.arraycopy(buffer, bufferPosition, b, off, n);
+        bufferPosition += n;
+        position += n;
+        return n;
+    }
+
+    /**
+     * Moves past buffered bytes, and beyond them without fetching anything
+     */
+    @Override
+    public long skip(long n) {
+        if (n <= 0) {
+            return 0;
+        }
+        int buffered = buffer.length - bufferPosition;
+        if (n <= buffered) {
+            bufferPosition += (int) n;
+        } else {
+            buffer = new byte[0];
+            bufferPosition = 0;
+        }
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return buffer.length - bufferPosition;
+    }
+
+    /**
+     * Bytes fetched from storage so far, including any fetched but not read
+     */
+    public long getBytesTransferred() {
+        return bytesTransferred;
+    }
+
+    public int getRangeRequests() {
+        return rangeRequests;
+    }
+
+    private boolean fill() throws IOException {
+        if (bufferPosition < buffer.length) {
+            return true;
+        }
+        if (endOfObject) {
+            return false;
+        }
+
+        int requested = nextRangeBytes;
+        try (InputStream range = storage.downloadRange(key, position, requested)) {
+            buffer = range.readNBytes(requested);
+        }
+        bufferPosition = 0;
+        bytesTransferred += buffer.length;
+        rangeRequests++;
+        nextRangeBytes = (int) Math.min((long) nextRangeBytes * 2, maxRangeBytes);
+
+        if (buffer.length < requested) {
+            endOfObject = true;
+        }
+        return buffer.length > 0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.photoupload.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A part written as part of a multipart upload, as reported back by the provider
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadedPart {
+
+    private int partNumber;
+    private String etag;
+    private long size;
+}
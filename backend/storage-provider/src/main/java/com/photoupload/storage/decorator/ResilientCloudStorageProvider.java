@@ -1,13 +1,18 @@
 package com.photoupload.storage.decorator;
 
 import com.photoupload.storage.CloudStorageProvider;
+import com.photoupload.storage.PresignedUpload;
 import com.photoupload.storage.StorageMetadata;
+import com.photoupload.storage.UploadedPart;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.retry.Retry;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.Duration;
+import java.util.List;
 import java.util.function.Supplier;
 
 /**
@@ -34,9 +39,23 @@ public class ResilientCloudStorageProvider implements CloudStorageProvider {
 
     @Override
     public String upload(String key, InputStream inputStream, String contentType, long fileSize) {
+        if (!isReplayable(inputStream, fileSize)) {
+            // No retry: a partly consumed stream would be replayed from where it stopped and store
+            // a truncated object. Callers that can reopen their content retry around this call.
+            return CircuitBreaker.decorateSupplier(
+                circuitBreaker,
+                () -> delegate.upload(key, inputStream, contentType, fileSize)
+            ).get();
+        }
+
+        // Replayable content, such as encoded renditions held in memory: rewind before each attempt
+        inputStream.mark((int) fileSize + 1);
         Supplier<String> supplier = CircuitBreaker.decorateSupplier(
             circuitBreaker,
-            () -> delegate.upload(key, inputStream, contentType, fileSize)
+            () -> {
+                rewind(inputStream);
+                return delegate.upload(key, inputStream, contentType, fileSize);
+            }
         );
         supplier = Retry.decorateSupplier(retry, supplier);
         return supplier.get();
@@ -52,6 +71,16 @@ public class ResilientCloudStorageProvider implements CloudStorageProvider {
         return supplier.get();
     }
 
+    @Override
+    public InputStream downloadRange(String key, long offset, long length) {
+        Supplier<InputStream> supplier = CircuitBreaker.decorateSupplier(
+            circuitBreaker,
+            () -> delegate.downloadRange(key, offset, length)
+        );
+        supplier = Retry.decorateSupplier(retry, supplier);
+        return supplier.get();
+    }
+
     @Override
     public boolean delete(String key) {
         Supplier<Boolean> supplier = CircuitBreaker.decorateSupplier(
@@ -82,6 +111,22 @@ public class ResilientCloudStorageProvider implements CloudStorageProvider {
         return supplier.get();
     }
 
+    @Override
+    public PresignedUpload generatePresignedUpload(String key, String contentType, long fileSize, Duration duration) {
+        Supplier<PresignedUpload> supplier = CircuitBreaker.decorateSupplier(
+            circuitBreaker,
+            () -> delegate.generatePresignedUpload(key, contentType, fileSize, duration)
+        );
+        supplier = Retry.decorateSupplier(retry, supplier);
+        return supplier.get();
+    }
+
+    @Override
+    public String getObjectUrl(String key) {
+        // Pure URL construction, no remote call to protect
+        return delegate.getObjectUrl(key);
+    }
+
     @Override
     public StorageMetadata getMetadata(String key) {
         Supplier<StorageMetadata> supplier = CircuitBreaker.decorateSupplier(
@@ -92,11 +137,68 @@ public class ResilientCloudStorageProvider implements CloudStorageProvider {
         return supplier.get();
     }
 
+    @Override
+    public String initiateMultipartUpload(String key, String contentType) {
+        Supplier<String> supplier = CircuitBreaker.decorateSupplier(
+            circuitBreaker,
+            () -> delegate.initiateMultipartUpload(key, contentType)
+        );
+        supplier = Retry.decorateSupplier(retry, supplier);
+        return supplier.get();
+    }
+
+    @Override
+    public UploadedPart uploadPart(String key, String uploadId, int partNumber,
+                                   InputStream inputStream, long partSize) {
+        Supplier<UploadedPart> supplier = CircuitBreaker.decorateSupplier(
+            circuitBreaker,
+            () -> delegate.uploadPart(key, uploadId, partNumber, inputStream, partSize)
+        );
+        // No retry: the part stream cannot be replayed, the client re-sends the part instead
+        return supplier.get();
+    }
+
+    @Override
+    public String completeMultipartUpload(String key, String uploadId, String contentType,
+                                          List<UploadedPart> parts) {
+        Supplier<String> supplier = CircuitBreaker.decorateSupplier(
+            circuitBreaker,
+            () -> delegate.completeMultipartUpload(key, uploadId, contentType, parts)
+        );
+        supplier = Retry.decorateSupplier(retry, supplier);
+        return supplier.get();
+    }
+
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) {
+        Runnable runnable = CircuitBreaker.decorateRunnable(
+            circuitBreaker,
+            () -> delegate.abortMultipartUpload(key, uploadId)
+        );
+        runnable = Retry.decorateRunnable(retry, runnable);
+        runnable.run();
+    }
+
     @Override
     public String getProviderName() {
         return delegate.getProviderName() + " (Resilient)";
     }
 
+    /**
+     * A stream can be replayed if it supports mark/reset over the whole object
+     */
+    private static boolean isReplayable(InputStream inputStream, long fileSize) {
+        return inputStream.markSupported() && fileSize >= 0 && fileSize < Integer.MAX_VALUE;
+    }
+
+    private static void rewind(InputStream inputStream) {
+        try {
+            inputStream.reset();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rewind upload stream", e);
+        }
+    }
+
     /**
      * Get circuit breaker state
      */
@@ -35,11 +35,11 @@ public class CloudStorageProviderFactory {
         this.circuitBreakerRegistry = circuitBreakerRegistry;
         this.retryRegistry = retryRegistry;
         
-        // Map providers by name (without resilience wrapper)
+        // Map providers by upper-cased name (without resilience wrapper) to match lookups
         this.providers = providerList.stream()
             .filter(p -> !(p instanceof ResilientCloudStorageProvider))
             .collect(Collectors.toMap(
-                CloudStorageProvider::getProviderName,
+                p -> p.getProviderName().toUpperCase(),
                 Function.identity()
             ));
 
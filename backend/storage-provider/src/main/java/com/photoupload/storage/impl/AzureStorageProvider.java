@@ -3,19 +3,28 @@ package com.photoupload.storage.impl;
 import com.azure.storage.blob.*;
 import com.azure.storage.blob.models.*;
 import com.azure.storage.blob.sas.*;
+import com.azure.storage.blob.specialized.BlockBlobClient;
 import com.photoupload.common.exception.StorageException;
 import com.photoupload.storage.CloudStorageProvider;
+import com.photoupload.storage.PresignedUpload;
 import com.photoupload.storage.StorageMetadata;
+import com.photoupload.storage.UploadedPart;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * Azure Blob Storage implementation of CloudStorageProvider.
@@ -58,7 +67,7 @@ public class AzureStorageProvider implements CloudStorageProvider {
             blobClient.upload(inputStream, fileSize, true);
             blobClient.setHttpHeaders(headers);
 
-            String url = blobClient.getBlobUrl();
+            String url = getObjectUrl(key);
             log.info("Successfully uploaded file to Azure: key={}", key);
 
             return url;
@@ -86,6 +95,29 @@ public class AzureStorageProvider implements CloudStorageProvider {
         }
     }
 
+    @Override
+    public InputStream downloadRange(String key, long offset, long length) {
+        try {
+            log.debug("Downloading range from Azure: key={}, offset={}, length={}", key, offset, length);
+
+            BlobClient blobClient = containerClient.getBlobClient(key);
+            ByteArrayOutputStream content = new ByteArrayOutputStream((int) Math.min(length, 1 << 20));
+            blobClient.downloadStreamWithResponse(content, new BlobRange(offset, length),
+                null, null, false, null, null);
+            return new ByteArrayInputStream(content.toByteArray());
+        } catch (BlobStorageException e) {
+            if (e.getStatusCode() == 416) {
+                // Range starts at or past the end of the blob
+                return InputStream.nullInputStream();
+            }
+            log.error("Failed to download range from Azure: key={}", key, e);
+            throw new StorageException("Azure", "downloadRange", e.getMessage(), e);
+        } catch (Exception e) {
+            log.error("Failed to download range from Azure: key={}", key, e);
+            throw new StorageException("Azure", "downloadRange", e.getMessage(), e);
+        }
+    }
+
     @Override
     public boolean delete(String key) {
         try {
@@ -141,6 +173,47 @@ public class AzureStorageProvider implements CloudStorageProvider {
         }
     }
 
+    /**
+     * SAS tokens cannot constrain size or content type; the object is verified on completion instead
+     */
+    @Override
+    public PresignedUpload generatePresignedUpload(String key, String contentType, long fileSize, Duration duration) {
+        try {
+            log.debug("Generating SAS upload URL for Azure blob: key={}, duration={}", key, duration);
+
+            BlobClient blobClient = containerClient.getBlobClient(key);
+
+            OffsetDateTime expiryTime = OffsetDateTime.now().plus(duration);
+
+            BlobSasPermission permission = new BlobSasPermission()
+                .setCreatePermission(true)
+                .setWritePermission(true);
+            BlobServiceSasSignatureValues sasValues = new BlobServiceSasSignatureValues(expiryTime, permission);
+
+            String sasToken = blobClient.generateSas(sasValues);
+
+            Map<String, String> headers = new HashMap<>();
+            headers.put("Content-Type", contentType);
+            headers.put("x-ms-blob-type", "BlockBlob");
+
+            log.debug("Generated SAS upload URL: key={}", key);
+            return PresignedUpload.builder()
+                .url(blobClient.getBlobUrl() + "?" + sasToken)
+                .method("PUT")
+                .headers(headers)
+                .expiresAt(expiryTime.toInstant())
+                .build();
+        } catch (Exception e) {
+            log.error("Failed to generate SAS upload URL: key={}", key, e);
+            throw new StorageException("Azure", "generatePresignedUpload", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String getObjectUrl(String key) {
+        return containerClient.getBlobClient(key).getBlobUrl();
+    }
+
     @Override
     public StorageMetadata getMetadata(String key) {
         try {
@@ -171,6 +244,79 @@ public class AzureStorageProvider implements CloudStorageProvider {
         }
     }
 
+    /**
+     * Azure has no upload handle; staged blocks are tied to the blob itself.
+     * The generated ID only namespaces block IDs for this upload.
+     */
+    @Override
+    public String initiateMultipartUpload(String key, String contentType) {
+        String uploadId = UUID.randomUUID().toString();
+        log.debug("Initiated Azure staged block upload: key={}, uploadId={}", key, uploadId);
+        return uploadId;
+    }
+
+    @Override
+    public UploadedPart uploadPart(String key, String uploadId, int partNumber,
+                                   InputStream inputStream, long partSize) {
+        try {
+            log.debug("Staging Azure block: key={}, uploadId={}, part={}, size={}", key, uploadId, partNumber, partSize);
+
+            BlockBlobClient blockBlobClient = containerClient.getBlobClient(key).getBlockBlobClient();
+            String blockId = blockId(uploadId, partNumber);
+            blockBlobClient.stageBlock(blockId, inputStream, partSize);
+
+            return UploadedPart.builder()
+                .partNumber(partNumber)
+                .etag(blockId)
+                .size(partSize)
+                .build();
+        } catch (Exception e) {
+            log.error("Failed to stage Azure block: key={}, part={}", key, partNumber, e);
+            throw new StorageException("Azure", "uploadPart", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String completeMultipartUpload(String key, String uploadId, String contentType,
+                                          List<UploadedPart> parts) {
+        try {
+            log.debug("Committing Azure block list: key={}, uploadId={}, blocks={}", key, uploadId, parts.size());
+
+            BlockBlobClient blockBlobClient = containerClient.getBlobClient(key).getBlockBlobClient();
+            List<String> blockIds = parts.stream()
+                .map(part -> blockId(uploadId, part.getPartNumber()))
+                .toList();
+
+            blockBlobClient.commitBlockList(blockIds, true);
+            blockBlobClient.setHttpHeaders(new BlobHttpHeaders().setContentType(contentType));
+
+            String url = getObjectUrl(key);
+            log.info("Committed Azure block list: key={}, blocks={}", key, parts.size());
+
+            return url;
+        } catch (Exception e) {
+            log.error("Failed to commit Azure block list: key={}", key, e);
+            throw new StorageException("Azure", "completeMultipartUpload", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Uncommitted blocks cannot be deleted individually; Azure garbage-collects them after 7 days
+     */
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) {
+        log.info("Abandoned Azure staged block upload, uncommitted blocks will expire: key={}, uploadId={}",
+            key, uploadId);
+    }
+
+    /**
+     * Block IDs must be Base64 and of equal length within a blob
+     */
+    private String blockId(String uploadId, int partNumber) {
+        String raw = String.format("%s-%05d", uploadId, partNumber);
+        return Base64.getEncoder().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
     @Override
     public String getProviderName() {
         return "Azure";
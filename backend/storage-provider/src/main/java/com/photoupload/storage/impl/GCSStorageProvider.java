@@ -1,9 +1,13 @@
 package com.photoupload.storage.impl;
 
+import com.google.cloud.ReadChannel;
+import com.google.cloud.WriteChannel;
 import com.google.cloud.storage.*;
 import com.photoupload.common.exception.StorageException;
 import com.photoupload.storage.CloudStorageProvider;
+import com.photoupload.storage.PresignedUpload;
 import com.photoupload.storage.StorageMetadata;
+import com.photoupload.storage.UploadedPart;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -12,10 +16,15 @@ import org.springframework.stereotype.Service;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -28,6 +37,13 @@ import java.util.concurrent.TimeUnit;
 @ConditionalOnProperty(name = "storage.provider", havingValue = "gcs")
 public class GCSStorageProvider implements CloudStorageProvider {
 
+    /**
+     * GCS compose accepts at most 32 source objects per request
+     */
+    private static final int MAX_COMPOSE_SOURCES = 32;
+
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+
     private final Storage storage;
     private final String bucketName;
 
@@ -53,7 +69,7 @@ public class GCSStorageProvider implements CloudStorageProvider {
             byte[] content = inputStream.readAllBytes();
             Blob blob = storage.create(blobInfo, content);
 
-            String url = String.format("https://storage.googleapis.com/%s/%s", bucketName, key);
+            String url = getObjectUrl(key);
             log.info("Successfully uploaded file to GCS: key={}", key);
 
             return url;
@@ -86,6 +102,20 @@ public class GCSStorageProvider implements CloudStorageProvider {
         }
     }
 
+    @Override
+    public InputStream downloadRange(String key, long offset, long length) {
+        log.debug("Downloading range from GCS: key={}, offset={}, length={}", key, offset, length);
+
+        try (ReadChannel reader = storage.reader(BlobId.of(bucketName, key))) {
+            reader.seek(offset);
+            reader.limit(offset + length);
+            return new ByteArrayInputStream(Channels.newInputStream(reader).readAllBytes());
+        } catch (IOException | StorageException e) {
+            log.error("Failed to download range from GCS: key={}", key, e);
+            throw new com.photoupload.common.exception.StorageException("GCS", "downloadRange", e.getMessage(), e);
+        }
+    }
+
     @Override
     public boolean delete(String key) {
         try {
@@ -142,6 +172,48 @@ public class GCSStorageProvider implements CloudStorageProvider {
         }
     }
 
+    @Override
+    public PresignedUpload generatePresignedUpload(String key, String contentType, long fileSize, Duration duration) {
+        try {
+            log.debug("Generating presigned upload URL for GCS object: key={}, size={}, duration={}", key, fileSize, duration);
+
+            BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of(bucketName, key))
+                .setContentType(contentType)
+                .build();
+
+            // GCS enforces the signed length range header on upload
+            Map<String, String> headers = new HashMap<>();
+            headers.put("Content-Type", contentType);
+            headers.put("x-goog-content-length-range", "0," + fileSize);
+
+            java.net.URL url = storage.signUrl(
+                blobInfo,
+                duration.toMinutes(),
+                TimeUnit.MINUTES,
+                Storage.SignUrlOption.httpMethod(HttpMethod.PUT),
+                Storage.SignUrlOption.withContentType(),
+                Storage.SignUrlOption.withExtHeaders(Map.of("x-goog-content-length-range", "0," + fileSize)),
+                Storage.SignUrlOption.withV4Signature()
+            );
+
+            log.debug("Generated presigned upload URL: key={}", key);
+            return PresignedUpload.builder()
+                .url(url.toString())
+                .method("PUT")
+                .headers(headers)
+                .expiresAt(Instant.now().plus(duration))
+                .build();
+        } catch (com.google.cloud.storage.StorageException e) {
+            log.error("Failed to generate presigned upload URL: key={}", key, e);
+            throw new com.photoupload.common.exception.StorageException("GCS", "generatePresignedUpload", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String getObjectUrl(String key) {
+        return String.format("https://storage.googleapis.com/%s/%s", bucketName, key);
+    }
+
     @Override
     public com.photoupload.storage.StorageMetadata getMetadata(String key) {
         try {
@@ -172,6 +244,138 @@ public class GCSStorageProvider implements CloudStorageProvider {
         }
     }
 
+    /**
+     * GCS has no multipart handle; parts are written as temporary objects and composed on completion
+     */
+    @Override
+    public String initiateMultipartUpload(String key, String contentType) {
+        String uploadId = UUID.randomUUID().toString();
+        log.debug("Initiated GCS composite upload: key={}, uploadId={}", key, uploadId);
+        return uploadId;
+    }
+
+    @Override
+    public UploadedPart uploadPart(String key, String uploadId, int partNumber,
+                                   InputStream inputStream, long partSize) {
+        try {
+            log.debug("Uploading GCS part: key={}, uploadId={}, part={}, size={}", key, uploadId, partNumber, partSize);
+
+            BlobInfo partInfo = BlobInfo.newBuilder(BlobId.of(bucketName, partName(key, uploadId, partNumber))).build();
+
+            // Report the bytes actually written, so a short stream fails the caller's size check
+            long written = 0;
+            try (WriteChannel writer = storage.writer(partInfo)) {
+                byte[] buffer = new byte[WRITE_BUFFER_SIZE];
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while (chunk.hasRemaining()) {
+                        written += writer.write(chunk);
+                    }
+                }
+            }
+
+            Blob blob = storage.get(partInfo.getBlobId());
+            if (blob == null) {
+                throw new com.photoupload.common.exception.StorageException("GCS", "uploadPart",
+                    "Part not found after upload: " + partInfo.getName(), null);
+            }
+
+            return UploadedPart.builder()
+                .partNumber(partNumber)
+                .etag(blob.getEtag())
+                .size(written)
+                .build();
+        } catch (IOException e) {
+            log.error("Failed to read input stream for GCS part: key={}, part={}", key, partNumber, e);
+            throw new com.photoupload.common.exception.StorageException("GCS", "uploadPart", "Failed to read input stream", e);
+        } catch (StorageException e) {
+            log.error("Failed to upload GCS part: key={}, part={}", key, partNumber, e);
+            throw new com.photoupload.common.exception.StorageException("GCS", "uploadPart", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String completeMultipartUpload(String key, String uploadId, String contentType,
+                                          List<UploadedPart> parts) {
+        try {
+            log.debug("Composing GCS parts: key={}, uploadId={}, parts={}", key, uploadId, parts.size());
+
+            List<String> sources = new ArrayList<>();
+            for (UploadedPart part : parts) {
+                sources.add(partName(key, uploadId, part.getPartNumber()));
+            }
+
+            // Compose in rounds of at most 32 sources until a single request suffices
+            int round = 0;
+            while (sources.size() > MAX_COMPOSE_SOURCES) {
+                List<String> intermediates = new ArrayList<>();
+                for (int i = 0; i < sources.size(); i += MAX_COMPOSE_SOURCES) {
+                    List<String> group = sources.subList(i, Math.min(i + MAX_COMPOSE_SOURCES, sources.size()));
+                    String intermediate = partPrefix(key, uploadId) + "compose-" + round + "-" + i;
+                    storage.compose(Storage.ComposeRequest.newBuilder()
+                        .addSource(group)
+                        .setTarget(BlobInfo.newBuilder(BlobId.of(bucketName, intermediate)).build())
+                        .build());
+                    intermediates.add(intermediate);
+                }
+                sources = intermediates;
+                round++;
+            }
+
+            BlobInfo target = BlobInfo.newBuilder(BlobId.of(bucketName, key))
+                .setContentType(contentType)
+                .build();
+            storage.compose(Storage.ComposeRequest.newBuilder()
+                .addSource(sources)
+                .setTarget(target)
+                .build());
+
+            deleteParts(key, uploadId);
+
+            String url = getObjectUrl(key);
+            log.info("Composed GCS object from parts: key={}, parts={}", key, parts.size());
+
+            return url;
+        } catch (StorageException e) {
+            log.error("Failed to compose GCS parts: key={}", key, e);
+            throw new com.photoupload.common.exception.StorageException("GCS", "completeMultipartUpload", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) {
+        try {
+            log.debug("Aborting GCS composite upload: key={}, uploadId={}", key, uploadId);
+            deleteParts(key, uploadId);
+            log.info("Aborted GCS composite upload: key={}, uploadId={}", key, uploadId);
+        } catch (StorageException e) {
+            log.error("Failed to abort GCS composite upload: key={}", key, e);
+            throw new com.photoupload.common.exception.StorageException("GCS", "abortMultipartUpload", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Delete all temporary part and intermediate objects of an upload
+     */
+    private void deleteParts(String key, String uploadId) {
+        List<BlobId> partIds = new ArrayList<>();
+        for (Blob blob : storage.list(bucketName, Storage.BlobListOption.prefix(partPrefix(key, uploadId))).iterateAll()) {
+            partIds.add(blob.getBlobId());
+        }
+        if (!partIds.isEmpty()) {
+            storage.delete(partIds);
+        }
+    }
+
+    private String partPrefix(String key, String uploadId) {
+        return key + ".parts/" + uploadId + "/";
+    }
+
+    private String partName(String key, String uploadId, int partNumber) {
+        return partPrefix(key, uploadId) + String.format("%05d", partNumber);
+    }
+
     @Override
     public String getProviderName() {
         return "GCS";
@@ -2,20 +2,38 @@ package com.photoupload.storage.impl;
 
 import com.photoupload.common.exception.StorageException;
 import com.photoupload.storage.CloudStorageProvider;
+import com.photoupload.storage.PresignedUpload;
 import com.photoupload.storage.StorageMetadata;
+import com.photoupload.storage.UploadedPart;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import java.io.*;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Local file system implementation of CloudStorageProvider for development.
@@ -26,12 +44,27 @@ import java.util.HashMap;
 @ConditionalOnProperty(name = "storage.provider", havingValue = "local")
 public class LocalFileStorageProvider implements CloudStorageProvider {
 
+    private static final String SIGNING_ALGORITHM = "HmacSHA256";
+
     private final Path basePath;
+    private final String uploadBaseUrl;
+    private final byte[] signingSecret;
 
     public LocalFileStorageProvider(
-        @Value("${storage.local.base-path:./uploads}") String basePath
+        @Value("${storage.local.base-path:./uploads}") String basePath,
+        @Value("${storage.local.upload-base-url:http://localhost:8080/api/storage/local/upload}") String uploadBaseUrl,
+        @Value("${storage.local.signing-secret:}") String signingSecret
     ) {
         this.basePath = Paths.get(basePath).toAbsolutePath();
+        this.uploadBaseUrl = uploadBaseUrl;
+        if (signingSecret.isBlank()) {
+            // Presigned URLs will not survive a restart or work across instances
+            log.warn("storage.local.signing-secret is not set, using a random secret");
+            this.signingSecret = new byte[32];
+            new SecureRandom().nextBytes(this.signingSecret);
+        } else {
+            this.signingSecret = signingSecret.getBytes(StandardCharsets.UTF_8);
+        }
         try {
             Files.createDirectories(this.basePath);
             log.info("Initialized LocalFileStorageProvider with base path: {}", this.basePath);
@@ -50,7 +83,7 @@ public class LocalFileStorageProvider implements CloudStorageProvider {
             
             Files.copy(inputStream, filePath, StandardCopyOption.REPLACE_EXISTING);
 
-            String url = "file://" + filePath.toString();
+            String url = getObjectUrl(key);
             log.info("Successfully uploaded file to local storage: key={}, path={}", key, filePath);
 
             return url;
@@ -77,6 +110,33 @@ public class LocalFileStorageProvider implements CloudStorageProvider {
         }
     }
 
+    @Override
+    public InputStream downloadRange(String key, long offset, long length) {
+        try {
+            log.debug("Downloading range from local storage: key={}, offset={}, length={}", key, offset, length);
+
+            Path filePath = basePath.resolve(key);
+            if (!Files.exists(filePath)) {
+                throw new StorageException("Local", "downloadRange", "File not found: " + key, null);
+            }
+
+            try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+                long available = Math.max(0, Math.min(length, channel.size() - offset));
+                ByteBuffer buffer = ByteBuffer.allocate((int) available);
+                // Positional reads: the channel's own position is never moved
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, offset + buffer.position()) == -1) {
+                        break;
+                    }
+                }
+                return new ByteArrayInputStream(buffer.array(), 0, buffer.position());
+            }
+        } catch (IOException e) {
+            log.error("Failed to download range from local storage: key={}", key, e);
+            throw new StorageException("Local", "downloadRange", e.getMessage(), e);
+        }
+    }
+
     @Override
     public boolean delete(String key) {
         try {
@@ -111,6 +171,79 @@ public class LocalFileStorageProvider implements CloudStorageProvider {
         return "file://" + filePath.toString();
     }
 
+    /**
+     * Signs a URL for the local upload endpoint, which calls back into
+     * {@link #acceptPresignedUpload} to emulate a cloud presigned PUT
+     */
+    @Override
+    public PresignedUpload generatePresignedUpload(String key, String contentType, long fileSize, Duration duration) {
+        Instant expiresAt = Instant.now().plus(duration);
+        long expires = expiresAt.getEpochSecond();
+        String signature = sign(key, contentType, fileSize, expires);
+
+        String url = uploadBaseUrl
+            + "?key=" + URLEncoder.encode(key, StandardCharsets.UTF_8)
+            + "&contentType=" + URLEncoder.encode(contentType, StandardCharsets.UTF_8)
+            + "&maxSize=" + fileSize
+            + "&expires=" + expires
+            + "&signature=" + signature;
+
+        return PresignedUpload.builder()
+            .url(url)
+            .method("PUT")
+            .headers(Map.of("Content-Type", contentType))
+            .expiresAt(expiresAt)
+            .build();
+    }
+
+    /**
+     * Stores a body PUT to a URL from {@link #generatePresignedUpload}.
+     * Rejects bad signatures, expired URLs, a different content type, or more bytes than signed for.
+     */
+    public void acceptPresignedUpload(String key, String contentType, long maxSize, long expires,
+                                      String signature, String requestContentType, InputStream inputStream) {
+        byte[] expected = sign(key, contentType, maxSize, expires).getBytes(StandardCharsets.UTF_8);
+        if (signature == null || !MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.UTF_8))) {
+            throw new SecurityException("Invalid upload signature");
+        }
+        if (Instant.now().getEpochSecond() > expires) {
+            throw new SecurityException("Upload URL has expired");
+        }
+        if (requestContentType == null || !contentType.equalsIgnoreCase(requestContentType)) {
+            throw new IllegalArgumentException("Content-Type does not match signed upload: " + requestContentType);
+        }
+
+        Path filePath = basePath.resolve(key);
+        try {
+            Files.createDirectories(filePath.getParent());
+            long written = 0;
+            try (OutputStream out = Files.newOutputStream(filePath)) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    written += read;
+                    if (written > maxSize) {
+                        break;
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            if (written > maxSize) {
+                Files.deleteIfExists(filePath);
+                throw new IllegalArgumentException("Upload exceeds signed size of " + maxSize + " bytes");
+            }
+            log.info("Accepted presigned upload to local storage: key={}, size={}", key, written);
+        } catch (IOException e) {
+            log.error("Failed to accept presigned upload: key={}", key, e);
+            throw new StorageException("Local", "acceptPresignedUpload", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String getObjectUrl(String key) {
+        return "file://" + basePath.resolve(key);
+    }
+
     @Override
     public StorageMetadata getMetadata(String key) {
         try {
@@ -131,6 +264,116 @@ public class LocalFileStorageProvider implements CloudStorageProvider {
         }
     }
 
+    @Override
+    public String initiateMultipartUpload(String key, String contentType) {
+        try {
+            String uploadId = UUID.randomUUID().toString();
+            Files.createDirectories(multipartDirectory(uploadId));
+            log.debug("Initiated local multipart upload: key={}, uploadId={}", key, uploadId);
+            return uploadId;
+        } catch (IOException e) {
+            log.error("Failed to initiate local multipart upload: key={}", key, e);
+            throw new StorageException("Local", "initiateMultipartUpload", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public UploadedPart uploadPart(String key, String uploadId, int partNumber,
+                                   InputStream inputStream, long partSize) {
+        try {
+            log.debug("Uploading local part: key={}, uploadId={}, part={}, size={}", key, uploadId, partNumber, partSize);
+
+            Path directory = multipartDirectory(uploadId);
+            if (!Files.isDirectory(directory)) {
+                throw new StorageException("Local", "uploadPart", "Unknown upload: " + uploadId, null);
+            }
+
+            Path partPath = directory.resolve(String.format("%05d", partNumber));
+            long written = Files.copy(inputStream, partPath, StandardCopyOption.REPLACE_EXISTING);
+
+            return UploadedPart.builder()
+                .partNumber(partNumber)
+                .etag(uploadId + "-" + partNumber)
+                .size(written)
+                .build();
+        } catch (IOException e) {
+            log.error("Failed to upload local part: key={}, part={}", key, partNumber, e);
+            throw new StorageException("Local", "uploadPart", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String completeMultipartUpload(String key, String uploadId, String contentType,
+                                          List<UploadedPart> parts) {
+        Path directory = multipartDirectory(uploadId);
+        Path filePath = basePath.resolve(key);
+        try {
+            log.debug("Concatenating local parts: key={}, uploadId={}, parts={}", key, uploadId, parts.size());
+
+            Files.createDirectories(filePath.getParent());
+            try (FileChannel target = FileChannel.open(filePath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (UploadedPart part : parts) {
+                    Path partPath = directory.resolve(String.format("%05d", part.getPartNumber()));
+                    try (FileChannel source = FileChannel.open(partPath, StandardOpenOption.READ)) {
+                        long position = 0;
+                        long size = source.size();
+                        while (position < size) {
+                            position += source.transferTo(position, size - position, target);
+                        }
+                    }
+                }
+            }
+
+            deleteDirectory(directory);
+
+            String url = getObjectUrl(key);
+            log.info("Completed local multipart upload: key={}, path={}", key, filePath);
+
+            return url;
+        } catch (IOException e) {
+            log.error("Failed to complete local multipart upload: key={}", key, e);
+            throw new StorageException("Local", "completeMultipartUpload", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) {
+        try {
+            deleteDirectory(multipartDirectory(uploadId));
+            log.info("Aborted local multipart upload: key={}, uploadId={}", key, uploadId);
+        } catch (IOException e) {
+            log.error("Failed to abort local multipart upload: key={}", key, e);
+            throw new StorageException("Local", "abortMultipartUpload", e.getMessage(), e);
+        }
+    }
+
+    private String sign(String key, String contentType, long maxSize, long expires) {
+        try {
+            Mac mac = Mac.getInstance(SIGNING_ALGORITHM);
+            mac.init(new SecretKeySpec(signingSecret, SIGNING_ALGORITHM));
+            String payload = key + "\n" + contentType + "\n" + maxSize + "\n" + expires;
+            return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(SIGNING_ALGORITHM + " is not available", e);
+        }
+    }
+
+    private Path multipartDirectory(String uploadId) {
+        return basePath.resolve(".multipart").resolve(uploadId);
+    }
+
+    private void deleteDirectory(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
     @Override
     public String getProviderName() {
         return "Local";
@@ -2,7 +2,9 @@ package com.photoupload.storage.impl;
 
 import com.photoupload.common.exception.StorageException;
 import com.photoupload.storage.CloudStorageProvider;
+import com.photoupload.storage.PresignedUpload;
 import com.photoupload.storage.StorageMetadata;
+import com.photoupload.storage.UploadedPart;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -13,10 +15,13 @@ import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
 import java.io.InputStream;
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -64,7 +69,7 @@ public class S3StorageProvider implements CloudStorageProvider {
                 RequestBody.fromInputStream(inputStream, fileSize)
             );
 
-            String url = String.format("https://%s.s3.%s.amazonaws.com/%s", bucketName, region, key);
+            String url = getObjectUrl(key);
             log.info("Successfully uploaded file to S3: key={}, etag={}", key, response.eTag());
 
             return url;
@@ -97,6 +102,31 @@ public class S3StorageProvider implements CloudStorageProvider {
         }
     }
 
+    @Override
+    public InputStream downloadRange(String key, long offset, long length) {
+        try {
+            log.debug("Downloading range from S3: key={}, offset={}, length={}", key, offset, length);
+
+            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .range("bytes=" + offset + "-" + (offset + length - 1))
+                .build();
+
+            return s3Client.getObject(getObjectRequest);
+        } catch (NoSuchKeyException e) {
+            log.error("File not found in S3: key={}", key);
+            throw new StorageException("S3", "downloadRange", "File not found: " + key, e);
+        } catch (S3Exception e) {
+            if (e.statusCode() == 416) {
+                // Range starts at or past the end of the object
+                return InputStream.nullInputStream();
+            }
+            log.error("Failed to download range from S3: key={}", key, e);
+            throw new StorageException("S3", "downloadRange", e.getMessage(), e);
+        }
+    }
+
     @Override
     public boolean delete(String key) {
         try {
@@ -161,6 +191,51 @@ public class S3StorageProvider implements CloudStorageProvider {
         }
     }
 
+    @Override
+    public PresignedUpload generatePresignedUpload(String key, String contentType, long fileSize, Duration duration) {
+        try {
+            log.debug("Generating presigned upload URL for S3 object: key={}, size={}, duration={}", key, fileSize, duration);
+
+            // Content type and length are signed, so S3 rejects any other upload
+            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .contentLength(fileSize)
+                .build();
+
+            PutObjectPresignRequest presignRequest = PutObjectPresignRequest.builder()
+                .signatureDuration(duration)
+                .putObjectRequest(putObjectRequest)
+                .build();
+
+            PresignedPutObjectRequest presignedRequest = s3Presigner.presignPutObject(presignRequest);
+
+            Map<String, String> headers = new HashMap<>();
+            presignedRequest.signedHeaders().forEach((name, values) -> {
+                if (!"host".equalsIgnoreCase(name)) {
+                    headers.put(name, String.join(",", values));
+                }
+            });
+
+            log.debug("Generated presigned upload URL: key={}", key);
+            return PresignedUpload.builder()
+                .url(presignedRequest.url().toString())
+                .method("PUT")
+                .headers(headers)
+                .expiresAt(presignedRequest.expiration())
+                .build();
+        } catch (S3Exception e) {
+            log.error("Failed to generate presigned upload URL: key={}", key, e);
+            throw new StorageException("S3", "generatePresignedUpload", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String getObjectUrl(String key) {
+        return String.format("https://%s.s3.%s.amazonaws.com/%s", bucketName, region, key);
+    }
+
     @Override
     public StorageMetadata getMetadata(String key) {
         try {
@@ -192,6 +267,110 @@ public class S3StorageProvider implements CloudStorageProvider {
         }
     }
 
+    @Override
+    public String initiateMultipartUpload(String key, String contentType) {
+        try {
+            log.debug("Initiating S3 multipart upload: key={}, contentType={}", key, contentType);
+
+            CreateMultipartUploadRequest request = CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .build();
+
+            CreateMultipartUploadResponse response = s3Client.createMultipartUpload(request);
+            log.info("Initiated S3 multipart upload: key={}, uploadId={}", key, response.uploadId());
+
+            return response.uploadId();
+        } catch (S3Exception e) {
+            log.error("Failed to initiate S3 multipart upload: key={}", key, e);
+            throw new StorageException("S3", "initiateMultipartUpload", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public UploadedPart uploadPart(String key, String uploadId, int partNumber,
+                                   InputStream inputStream, long partSize) {
+        try {
+            log.debug("Uploading S3 part: key={}, uploadId={}, part={}, size={}", key, uploadId, partNumber, partSize);
+
+            UploadPartRequest request = UploadPartRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength(partSize)
+                .build();
+
+            UploadPartResponse response = s3Client.uploadPart(
+                request,
+                RequestBody.fromInputStream(inputStream, partSize)
+            );
+
+            return UploadedPart.builder()
+                .partNumber(partNumber)
+                .etag(response.eTag())
+                .size(partSize)
+                .build();
+        } catch (S3Exception e) {
+            log.error("Failed to upload S3 part: key={}, part={}", key, partNumber, e);
+            throw new StorageException("S3", "uploadPart", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String completeMultipartUpload(String key, String uploadId, String contentType,
+                                          List<UploadedPart> parts) {
+        try {
+            log.debug("Completing S3 multipart upload: key={}, uploadId={}, parts={}", key, uploadId, parts.size());
+
+            List<CompletedPart> completedParts = parts.stream()
+                .map(part -> CompletedPart.builder()
+                    .partNumber(part.getPartNumber())
+                    .eTag(part.getEtag())
+                    .build())
+                .toList();
+
+            CompleteMultipartUploadRequest request = CompleteMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                .build();
+
+            s3Client.completeMultipartUpload(request);
+
+            String url = getObjectUrl(key);
+            log.info("Completed S3 multipart upload: key={}, parts={}", key, parts.size());
+
+            return url;
+        } catch (S3Exception e) {
+            log.error("Failed to complete S3 multipart upload: key={}", key, e);
+            throw new StorageException("S3", "completeMultipartUpload", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) {
+        try {
+            log.debug("Aborting S3 multipart upload: key={}, uploadId={}", key, uploadId);
+
+            AbortMultipartUploadRequest request = AbortMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .build();
+
+            s3Client.abortMultipartUpload(request);
+            log.info("Aborted S3 multipart upload: key={}, uploadId={}", key, uploadId);
+        } catch (NoSuchUploadException e) {
+            log.warn("S3 multipart upload already gone: key={}, uploadId={}", key, uploadId);
+        } catch (S3Exception e) {
+            log.error("Failed to abort S3 multipart upload: key={}", key, e);
+            throw new StorageException("S3", "abortMultipartUpload", e.getMessage(), e);
+        }
+    }
+
     @Override
     public String getProviderName() {
         return "S3";
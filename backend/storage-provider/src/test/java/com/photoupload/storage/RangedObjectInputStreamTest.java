@@ -0,0 +1,120 @@
+package com.photoupload.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RangedObjectInputStream reads across range boundaries.
+ */
+@ExtendWith(MockitoExtension.class)
+class RangedObjectInputStreamTest {
+
+    private static final String KEY = "photos/user-123/1/a.jpg";
+
+    @Mock
+    private CloudStorageProvider storage;
+
+    private byte[] object;
+
+    @BeforeEach
+    void setUp() {
+        object = new byte[100];
+        for (int i = 0; i < object.length; i++) {
+            object[i] = (byte) i;
+        }
+        when(storage.downloadRange(eq(KEY), anyLong(), anyLong())).thenAnswer(invocation -> {
+            int offset = (int) Math.min(invocation.<Long>getArgument(1), object.length);
+            int end = (int) Math.min(offset + invocation.<Long>getArgument(2), object.length);
+            return new ByteArrayInputStream(Arrays.copyOfRange(object, offset, end));
+        });
+    }
+
+    @Test
+    void readAllBytes_SpansRanges_ContentIntactWithDoublingRanges() throws IOException {
+        // Arrange
+        RangedObjectInputStream in = new RangedObjectInputStream(storage, KEY, 10, 40);
+
+        // Act
+        byte[] content = in.readAllBytes();
+
+        // Assert: ranges of 10, 20, 40 and a short last one
+        assertArrayEquals(object, content);
+        assertEquals(4, in.getRangeRequests());
+        assertEquals(100, in.getBytesTransferred());
+        verify(storage).downloadRange(KEY, 0, 10);
+        verify(storage).downloadRange(KEY, 10, 20);
+        verify(storage).downloadRange(KEY, 30, 40);
+        verify(storage).downloadRange(KEY, 70, 40);
+    }
+
+    @Test
+    void read_SingleBytesAcrossBoundary_InOrder() throws IOException {
+        // Arrange
+        RangedObjectInputStream in = new RangedObjectInputStream(storage, KEY, 10, 40);
+
+        // Act & Assert
+        for (int i = 0; i < 15; i++) {
+            assertEquals(i, in.read());
+        }
+        assertEquals(2, in.getRangeRequests());
+    }
+
+    @Test
+    void read_BufferLargerThanRange_ReturnsWhatIsBufferedThenContinues() throws IOException {
+        // Arrange
+        RangedObjectInputStream in = new RangedObjectInputStream(storage, KEY, 10, 40);
+        byte[] b = new byte[25];
+
+        // Act
+        int first = in.read(b, 0, b.length);
+        int second = in.read(b, first, b.length - first);
+
+        // Assert
+        assertEquals(10, first);
+        assertEquals(15, second);
+        assertArrayEquals(Arrays.copyOfRange(object, 0, 25), b);
+    }
+
+    @Test
+    void skip_BeyondBuffer_NextRangeStartsAtNewPosition() throws IOException {
+        // Arrange
+        RangedObjectInputStream in = new RangedObjectInputStream(storage, KEY, 10, 40);
+        in.read();
+
+        // Act
+        assertEquals(30, in.skip(30));
+        int next = in.read();
+
+        // Assert: the skipped bytes after the first range were never fetched
+        assertEquals(31, next);
+        verify(storage).downloadRange(KEY, 31, 20);
+        assertEquals(30, in.getBytesTransferred());
+    }
+
+    @Test
+    void read_ObjectEndsOnRangeBoundary_EndOfStream() throws IOException {
+        // Arrange: ranges of 10, 20 and 40 consume the object exactly; the fourth comes back empty
+        object = Arrays.copyOf(object, 70);
+        RangedObjectInputStream in = new RangedObjectInputStream(storage, KEY, 10, 40);
+
+        // Act
+        byte[] content = in.readAllBytes();
+
+        // Assert
+        assertEquals(70, content.length);
+        assertEquals(-1, in.read());
+        assertEquals(4, in.getRangeRequests());
+    }
+}
@@ -0,0 +1,82 @@
+package com.photoupload.storage.decorator;
+
+import com.photoupload.storage.CloudStorageProvider;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ResilientCloudStorageProvider retrying only uploads whose stream can be replayed.
+ */
+@ExtendWith(MockitoExtension.class)
+class ResilientCloudStorageProviderTest {
+
+    @Mock
+    private CloudStorageProvider delegate;
+
+    private ResilientCloudStorageProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        when(delegate.getProviderName()).thenReturn("mock");
+        provider = new ResilientCloudStorageProvider(delegate, CircuitBreaker.ofDefaults("storage"),
+            Retry.of("storage", RetryConfig.custom().maxAttempts(3).waitDuration(Duration.ofMillis(1)).build()));
+    }
+
+    @Test
+    void upload_ByteArrayStream_RetriedFromTheStart() {
+        // Arrange: the first attempt reads part of the stream, then fails
+        List<String> received = new ArrayList<>();
+        when(delegate.upload(anyString(), any(InputStream.class), anyString(), anyLong())).thenAnswer(inv -> {
+            InputStream in = inv.getArgument(1);
+            if (received.isEmpty()) {
+                received.add(new String(in.readNBytes(3)));
+                throw new RuntimeException("connection reset");
+            }
+            received.add(new String(in.readAllBytes()));
+            return "url";
+        });
+
+        // Act
+        String url = provider.upload("key", new ByteArrayInputStream("rendition".getBytes()), "image/jpeg", 9);
+
+        // Assert
+        assertEquals("url", url);
+        assertEquals(List.of("ren", "rendition"), received);
+    }
+
+    @Test
+    void upload_StreamWithoutMark_NotRetried() {
+        // Arrange
+        InputStream stream = new FilterInputStream(new ByteArrayInputStream("original".getBytes())) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+        when(delegate.upload(anyString(), any(InputStream.class), anyString(), anyLong()))
+            .thenThrow(new RuntimeException("connection reset"));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> provider.upload("key", stream, "image/jpeg", 8));
+        verify(delegate, times(1)).upload(anyString(), any(InputStream.class), anyString(), anyLong());
+    }
+}
@@ -0,0 +1,59 @@
+package com.photoupload.storage.impl;
+
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.photoupload.storage.UploadedPart;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for GCSStorageProvider part uploads.
+ */
+@ExtendWith(MockitoExtension.class)
+class GCSStorageProviderTest {
+
+    @Mock
+    private Storage storage;
+
+    @Mock
+    private WriteChannel writer;
+
+    @Mock
+    private Blob blob;
+
+    @Test
+    void uploadPart_ShortStream_ReportsBytesWritten() throws Exception {
+        // Arrange: the caller declares 1024 bytes but the stream ends after 100
+        GCSStorageProvider provider = new GCSStorageProvider(storage, "bucket");
+        when(storage.writer(any(BlobInfo.class))).thenReturn(writer);
+        when(writer.write(any(ByteBuffer.class))).thenAnswer(inv -> {
+            ByteBuffer chunk = inv.getArgument(0);
+            int remaining = chunk.remaining();
+            chunk.position(chunk.limit());
+            return remaining;
+        });
+        when(storage.get(any(BlobId.class))).thenReturn(blob);
+        when(blob.getEtag()).thenReturn("etag-1");
+
+        // Act
+        UploadedPart part = provider.uploadPart("photos/a.jpg", "upload-1", 1,
+            new ByteArrayInputStream(new byte[100]), 1024);
+
+        // Assert
+        assertEquals(100, part.getSize());
+        assertEquals("etag-1", part.getEtag());
+        verify(writer).close();
+    }
+}
@@ -2,6 +2,15 @@ import axios, { AxiosInstance, AxiosProgressEvent } from 'axios';
 
 export type PhotoStatus = 'PENDING' | 'UPLOADING' | 'UPLOADED' | 'PROCESSING' | 'RETRYING' | 'COMPLETED' | 'FAILED';
 
+export interface PhotoRendition {
+  width: number;
+  height: number;
+  format: string;
+  contentType: string;
+  url: string;
+  size: number;
+}
+
 export interface PhotoResponse {
   id: number;
   userId: string;
@@ -10,6 +19,7 @@ export interface PhotoResponse {
   fileSize: number;
   storageUrl?: string;
   thumbnailUrl?: string;
+  renditions?: PhotoRendition[];
   status: PhotoStatus;
   width?: number;
   height?: number;